@@ -0,0 +1,44 @@
+package one.chandan.rubato.database;
+
+import android.database.Cursor;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class MigrationTest {
+    private static final String TEST_DB = "migration-test";
+    private static final int FIRST_MANUAL_VERSION = 15;
+    private static final int LATEST_VERSION = 28;
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(),
+            AppDatabase.class
+    );
+
+    @Test
+    public void migrateFrom15ToLatest() throws IOException {
+        SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, FIRST_MANUAL_VERSION);
+        db.execSQL("INSERT INTO `server` (`id`, `server_name`, `username`, `password`, `address`, `local_address`, `timestamp`, `low_security`) VALUES ('s1', 'Home', 'user', 'pass', 'http://example.com', NULL, 0, 0)");
+        db.close();
+
+        db = helper.runMigrationsAndValidate(TEST_DB, LATEST_VERSION, true, AppDatabase.MIGRATIONS);
+        try (Cursor cursor = db.query("SELECT `server_name` FROM `server` WHERE `id` = 's1'")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals("Home", cursor.getString(0));
+        }
+        db.close();
+    }
+}
@@ -10,6 +10,7 @@ import androidx.preference.PreferenceManager;
 
 import one.chandan.rubato.github.Github;
 import one.chandan.rubato.helper.ThemeHelper;
+import one.chandan.rubato.repository.LibrarySnapshotStore;
 import one.chandan.rubato.subsonic.Subsonic;
 import one.chandan.rubato.subsonic.SubsonicPreferences;
 import one.chandan.rubato.util.PerformanceMarkers;
@@ -50,6 +51,12 @@ public class App extends Application {
         preferences = PreferenceManager.getDefaultSharedPreferences(context);
     }
 
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        LibrarySnapshotStore.onTrimMemory(level);
+    }
+
     public static App getInstance() {
         return instance;
     }
@@ -12,35 +12,56 @@ import androidx.sqlite.db.SupportSQLiteDatabase;
 import one.chandan.rubato.App;
 import one.chandan.rubato.database.converter.DateConverters;
 import one.chandan.rubato.database.dao.CachedResponseDao;
+import one.chandan.rubato.database.dao.CatalogDao;
 import one.chandan.rubato.database.dao.ChronologyDao;
+import one.chandan.rubato.database.dao.CoverArtPrefetchDao;
 import one.chandan.rubato.database.dao.DownloadDao;
 import one.chandan.rubato.database.dao.FavoriteDao;
 import one.chandan.rubato.database.dao.LibrarySearchEntryDao;
+import one.chandan.rubato.database.dao.LocalDocumentDao;
+import one.chandan.rubato.database.dao.LocalMediaDao;
 import one.chandan.rubato.database.dao.LocalSourceDao;
+import one.chandan.rubato.database.dao.LyricsStateDao;
 import one.chandan.rubato.database.dao.PlaylistDao;
 import one.chandan.rubato.database.dao.QueueDao;
 import one.chandan.rubato.database.dao.RecentSearchDao;
 import one.chandan.rubato.database.dao.ServerDao;
 import one.chandan.rubato.database.dao.SessionMediaItemDao;
+import one.chandan.rubato.database.dao.SyncCheckpointDao;
+import one.chandan.rubato.database.dao.SyncJournalDao;
 import one.chandan.rubato.database.dao.TelemetryEventDao;
 import one.chandan.rubato.model.CachedResponse;
+import one.chandan.rubato.model.CatalogAlbum;
+import one.chandan.rubato.model.CatalogArtist;
+import one.chandan.rubato.model.CatalogGenre;
+import one.chandan.rubato.model.CatalogPlaylistEntry;
+import one.chandan.rubato.model.CatalogSong;
 import one.chandan.rubato.model.Chronology;
+import one.chandan.rubato.model.CoverArtPrefetchItem;
 import one.chandan.rubato.model.Download;
 import one.chandan.rubato.model.Favorite;
 import one.chandan.rubato.model.LibrarySearchEntry;
+import one.chandan.rubato.model.LibrarySearchEntryFts;
+import one.chandan.rubato.model.LocalDocument;
+import one.chandan.rubato.model.LocalMedia;
+import one.chandan.rubato.model.LocalMediaVolume;
 import one.chandan.rubato.model.LocalSource;
+import one.chandan.rubato.model.LyricsState;
 import one.chandan.rubato.model.Queue;
 import one.chandan.rubato.model.RecentSearch;
 import one.chandan.rubato.model.Server;
 import one.chandan.rubato.model.SessionMediaItem;
+import one.chandan.rubato.model.SyncCheckpoint;
+import one.chandan.rubato.model.SyncCheckpointItem;
+import one.chandan.rubato.model.SyncJournalEntry;
 import one.chandan.rubato.model.TelemetryEvent;
 import one.chandan.rubato.subsonic.models.Playlist;
 import one.chandan.rubato.BuildConfig;
 
 @UnstableApi
 @Database(
-        version = 15,
-        entities = {Queue.class, Server.class, RecentSearch.class, Download.class, Chronology.class, Favorite.class, SessionMediaItem.class, Playlist.class, CachedResponse.class, TelemetryEvent.class, LocalSource.class, LibrarySearchEntry.class},
+        version = 28,
+        entities = {Queue.class, Server.class, RecentSearch.class, Download.class, Chronology.class, Favorite.class, SessionMediaItem.class, Playlist.class, CachedResponse.class, TelemetryEvent.class, LocalSource.class, LibrarySearchEntry.class, LibrarySearchEntryFts.class, CatalogArtist.class, CatalogAlbum.class, CatalogSong.class, CatalogGenre.class, CatalogPlaylistEntry.class, SyncJournalEntry.class, SyncCheckpoint.class, SyncCheckpointItem.class, CoverArtPrefetchItem.class, LyricsState.class, LocalMedia.class, LocalMediaVolume.class, LocalDocument.class},
         autoMigrations = {@AutoMigration(from = 9, to = 10), @AutoMigration(from = 10, to = 11), @AutoMigration(from = 11, to = 12), @AutoMigration(from = 12, to = 13), @AutoMigration(from = 13, to = 14)}
 )
 @TypeConverters({DateConverters.class})
@@ -54,11 +75,138 @@ public abstract class AppDatabase extends RoomDatabase {
             database.execSQL("CREATE TABLE IF NOT EXISTS `telemetry_event` (`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, `timestamp` INTEGER NOT NULL, `screen` TEXT, `action` TEXT NOT NULL, `detail` TEXT, `duration_ms` INTEGER NOT NULL, `source` TEXT, `error` TEXT)");
         }
     };
+    private static final Migration MIGRATION_15_16_CATALOG = new Migration(15, 16) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `catalog_artist` (`scope` TEXT NOT NULL, `id` TEXT NOT NULL, `name` TEXT, `cover_art` TEXT, `album_count` INTEGER NOT NULL, `starred` INTEGER, `updated_at` INTEGER NOT NULL, PRIMARY KEY(`scope`, `id`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_artist_scope_name` ON `catalog_artist` (`scope`, `name`)");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `catalog_album` (`scope` TEXT NOT NULL, `id` TEXT NOT NULL, `name` TEXT, `artist` TEXT, `artist_id` TEXT, `cover_art` TEXT, `song_count` INTEGER, `duration` INTEGER, `play_count` INTEGER, `created` INTEGER, `starred` INTEGER, `played` INTEGER, `year` INTEGER NOT NULL, `genre` TEXT, `user_rating` INTEGER, `sort_name` TEXT, `display_artist` TEXT, `is_compilation` INTEGER, `music_brainz_id` TEXT, `extras` TEXT, `updated_at` INTEGER NOT NULL, PRIMARY KEY(`scope`, `id`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_album_scope_artist_id` ON `catalog_album` (`scope`, `artist_id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_album_scope_year` ON `catalog_album` (`scope`, `year`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_album_scope_genre` ON `catalog_album` (`scope`, `genre`)");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `catalog_song` (`id` TEXT NOT NULL, `scope` TEXT NOT NULL, `updated_at` INTEGER NOT NULL, `parent_id` TEXT, `is_dir` INTEGER NOT NULL, `title` TEXT, `album` TEXT, `artist` TEXT, `track` INTEGER, `year` INTEGER, `genre` TEXT, `cover_art_id` TEXT, `size` INTEGER, `content_type` TEXT, `suffix` TEXT, `transcoding_content_type` TEXT, `transcoded_suffix` TEXT, `duration` INTEGER, `bitrate` INTEGER, `path` TEXT, `is_video` INTEGER NOT NULL, `user_rating` INTEGER, `average_rating` REAL, `play_count` INTEGER, `disc_number` INTEGER, `created` INTEGER, `starred` INTEGER, `album_id` TEXT, `artist_id` TEXT, `type` TEXT, `bookmark_position` INTEGER, `original_width` INTEGER, `original_height` INTEGER, PRIMARY KEY(`scope`, `id`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_song_scope_album_id` ON `catalog_song` (`scope`, `album_id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_song_scope_artist_id` ON `catalog_song` (`scope`, `artist_id`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_song_scope_year` ON `catalog_song` (`scope`, `year`)");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_song_scope_genre` ON `catalog_song` (`scope`, `genre`)");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `catalog_genre` (`scope` TEXT NOT NULL, `name` TEXT NOT NULL, `song_count` INTEGER NOT NULL, `album_count` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, PRIMARY KEY(`scope`, `name`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `catalog_playlist_entry` (`id` TEXT NOT NULL, `playlist_id` TEXT NOT NULL, `position` INTEGER NOT NULL, `scope` TEXT NOT NULL, `updated_at` INTEGER NOT NULL, `parent_id` TEXT, `is_dir` INTEGER NOT NULL, `title` TEXT, `album` TEXT, `artist` TEXT, `track` INTEGER, `year` INTEGER, `genre` TEXT, `cover_art_id` TEXT, `size` INTEGER, `content_type` TEXT, `suffix` TEXT, `transcoding_content_type` TEXT, `transcoded_suffix` TEXT, `duration` INTEGER, `bitrate` INTEGER, `path` TEXT, `is_video` INTEGER NOT NULL, `user_rating` INTEGER, `average_rating` REAL, `play_count` INTEGER, `disc_number` INTEGER, `created` INTEGER, `starred` INTEGER, `album_id` TEXT, `artist_id` TEXT, `type` TEXT, `bookmark_position` INTEGER, `original_width` INTEGER, `original_height` INTEGER, PRIMARY KEY(`playlist_id`, `position`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_catalog_playlist_entry_scope` ON `catalog_playlist_entry` (`scope`)");
+        }
+    };
+    private static final Migration MIGRATION_16_17_SEARCH_FTS = new Migration(16, 17) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS `library_search_entry_fts` USING FTS4(`title` TEXT, `search_text` TEXT, tokenize=unicode61, content=`library_search_entry`)");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_library_search_entry_fts_BEFORE_UPDATE BEFORE UPDATE ON `library_search_entry` BEGIN DELETE FROM `library_search_entry_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_library_search_entry_fts_BEFORE_DELETE BEFORE DELETE ON `library_search_entry` BEGIN DELETE FROM `library_search_entry_fts` WHERE `docid`=OLD.`rowid`; END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_library_search_entry_fts_AFTER_UPDATE AFTER UPDATE ON `library_search_entry` BEGIN INSERT INTO `library_search_entry_fts`(`docid`, `title`, `search_text`) VALUES (NEW.`rowid`, NEW.`title`, NEW.`search_text`); END");
+            database.execSQL("CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_library_search_entry_fts_AFTER_INSERT AFTER INSERT ON `library_search_entry` BEGIN INSERT INTO `library_search_entry_fts`(`docid`, `title`, `search_text`) VALUES (NEW.`rowid`, NEW.`title`, NEW.`search_text`); END");
+            database.execSQL("INSERT INTO `library_search_entry_fts`(`library_search_entry_fts`) VALUES ('rebuild')");
+        }
+    };
+    private static final Migration MIGRATION_17_18_SEARCH_HASH = new Migration(17, 18) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `library_search_entry` ADD COLUMN `content_hash` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+    private static final Migration MIGRATION_18_19_SYNC_JOURNAL = new Migration(18, 19) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `sync_journal` (`scope` TEXT NOT NULL, `kind` TEXT NOT NULL, `entity_id` TEXT NOT NULL, `fingerprint` TEXT NOT NULL, `synced_at` INTEGER NOT NULL, PRIMARY KEY(`scope`, `kind`, `entity_id`))");
+        }
+    };
+
+    private static final Migration MIGRATION_19_20_SYNC_CHECKPOINT = new Migration(19, 20) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `sync_checkpoint` (`scope` TEXT NOT NULL, `started_at` INTEGER NOT NULL, `incremental` INTEGER NOT NULL, `signature` TEXT, `playlist_index` INTEGER NOT NULL, `album_offset` INTEGER NOT NULL, `albums_complete` INTEGER NOT NULL, `updated_at` INTEGER NOT NULL, PRIMARY KEY(`scope`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `sync_checkpoint_item` (`scope` TEXT NOT NULL, `stage` TEXT NOT NULL, `item_id` TEXT NOT NULL, PRIMARY KEY(`scope`, `stage`, `item_id`))");
+        }
+    };
+
+    private static final Migration MIGRATION_20_21_COVER_ART_QUEUE = new Migration(20, 21) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `cover_art_prefetch` (`item_key` TEXT NOT NULL, `kind` TEXT NOT NULL, `value` TEXT NOT NULL, `resource_type` TEXT, `priority` INTEGER NOT NULL, `attempts` INTEGER NOT NULL, `next_attempt_at` INTEGER NOT NULL, `claimed_at` INTEGER NOT NULL, `enqueued_at` INTEGER NOT NULL, PRIMARY KEY(`item_key`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_cover_art_prefetch_priority_next_attempt_at` ON `cover_art_prefetch` (`priority`, `next_attempt_at`)");
+        }
+    };
+
+    private static final Migration MIGRATION_21_22_CATALOG_BROWSE = new Migration(21, 22) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Keys stay NULL here; CatalogRepository.ensureBrowseIndex() backfills them on first use.
+            for (String table : new String[]{"catalog_album", "catalog_artist"}) {
+                database.execSQL("ALTER TABLE `" + table + "` ADD COLUMN `dedupe_key` TEXT");
+                database.execSQL("ALTER TABLE `" + table + "` ADD COLUMN `browse_key` TEXT");
+                database.execSQL("ALTER TABLE `" + table + "` ADD COLUMN `browse_primary` INTEGER NOT NULL DEFAULT 0");
+                database.execSQL("CREATE INDEX IF NOT EXISTS `index_" + table + "_dedupe_key` ON `" + table + "` (`dedupe_key`)");
+                database.execSQL("CREATE INDEX IF NOT EXISTS `index_" + table + "_browse_primary_browse_key` ON `" + table + "` (`browse_primary`, `browse_key`)");
+            }
+        }
+    };
+
+    private static final Migration MIGRATION_22_23_LYRICS_STATE = new Migration(22, 23) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `lyrics_state` (`song_id` TEXT NOT NULL, `has_lyrics` INTEGER NOT NULL, `checked_at` INTEGER NOT NULL, PRIMARY KEY(`song_id`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_lyrics_state_checked_at` ON `lyrics_state` (`checked_at`)");
+        }
+    };
+
+    private static final Migration MIGRATION_23_24_LOCAL_MEDIA = new Migration(23, 24) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `local_media` (`media_id` INTEGER NOT NULL, `title` TEXT, `album` TEXT, `artist` TEXT, `album_id` INTEGER NOT NULL, `artist_id` INTEGER NOT NULL, `duration_ms` INTEGER NOT NULL, `track` INTEGER NOT NULL, `year` INTEGER NOT NULL, `size` INTEGER NOT NULL, `mime_type` TEXT, `display_name` TEXT, `relative_path` TEXT, `data_path` TEXT, `genre` TEXT, `date_modified` INTEGER NOT NULL, PRIMARY KEY(`media_id`))");
+            database.execSQL("CREATE TABLE IF NOT EXISTS `local_media_volume` (`volume` TEXT NOT NULL, `version` TEXT NOT NULL, `generation` INTEGER NOT NULL, PRIMARY KEY(`volume`))");
+        }
+    };
+
+    private static final Migration MIGRATION_24_25_LOCAL_DOCUMENT = new Migration(24, 25) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("CREATE TABLE IF NOT EXISTS `local_document` (`source_id` TEXT NOT NULL, `document_id` TEXT NOT NULL, `document_uri` TEXT NOT NULL, `display_name` TEXT, `mime_type` TEXT, `size` INTEGER NOT NULL, `last_modified` INTEGER NOT NULL, `title` TEXT, `album` TEXT, `artist` TEXT, `album_artist` TEXT, `track` INTEGER NOT NULL, `disc` INTEGER NOT NULL, `year` INTEGER NOT NULL, `duration_ms` INTEGER NOT NULL, `genre` TEXT, `art_uri` TEXT, PRIMARY KEY(`source_id`, `document_id`))");
+            database.execSQL("CREATE INDEX IF NOT EXISTS `index_local_document_source_id` ON `local_document` (`source_id`)");
+        }
+    };
+
+    private static final Migration MIGRATION_25_26_PLAYLIST_ENTRY_SCOPE = new Migration(25, 26) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            // Playlist ids are only unique within a source, so entries are now keyed by scope as well.
+            database.execSQL("CREATE TABLE IF NOT EXISTS `catalog_playlist_entry_new` (`id` TEXT NOT NULL, `playlist_id` TEXT NOT NULL, `position` INTEGER NOT NULL, `scope` TEXT NOT NULL, `updated_at` INTEGER NOT NULL, `parent_id` TEXT, `is_dir` INTEGER NOT NULL, `title` TEXT, `album` TEXT, `artist` TEXT, `track` INTEGER, `year` INTEGER, `genre` TEXT, `cover_art_id` TEXT, `size` INTEGER, `content_type` TEXT, `suffix` TEXT, `transcoding_content_type` TEXT, `transcoded_suffix` TEXT, `duration` INTEGER, `bitrate` INTEGER, `path` TEXT, `is_video` INTEGER NOT NULL, `user_rating` INTEGER, `average_rating` REAL, `play_count` INTEGER, `disc_number` INTEGER, `created` INTEGER, `starred` INTEGER, `album_id` TEXT, `artist_id` TEXT, `type` TEXT, `bookmark_position` INTEGER, `original_width` INTEGER, `original_height` INTEGER, PRIMARY KEY(`scope`, `playlist_id`, `position`))");
+            database.execSQL("INSERT INTO `catalog_playlist_entry_new` SELECT * FROM `catalog_playlist_entry`");
+            database.execSQL("DROP TABLE `catalog_playlist_entry`");
+            database.execSQL("ALTER TABLE `catalog_playlist_entry_new` RENAME TO `catalog_playlist_entry`");
+        }
+    };
+
+    private static final Migration MIGRATION_26_27_CHECKPOINT_ATTEMPTS = new Migration(26, 27) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `sync_checkpoint` ADD COLUMN `resume_attempts` INTEGER NOT NULL DEFAULT 0");
+        }
+    };
+
+    private static final Migration MIGRATION_27_28_LOCAL_MEDIA_GENRES = new Migration(27, 28) {
+        @Override
+        public void migrate(SupportSQLiteDatabase database) {
+            database.execSQL("ALTER TABLE `local_media` ADD COLUMN `genres` TEXT");
+            // Stored rows predate the column; make the next scan re-read every file and its genres.
+            database.execSQL("UPDATE `local_media` SET `genres` = `genre`, `date_modified` = -1");
+            database.execSQL("DELETE FROM `local_media_volume`");
+        }
+    };
+
+    // Manual migrations in order; MigrationTest runs them against the exported schemas.
+    static final Migration[] MIGRATIONS = {MIGRATION_14_15_TELEMETRY, MIGRATION_15_16_CATALOG, MIGRATION_16_17_SEARCH_FTS, MIGRATION_17_18_SEARCH_HASH, MIGRATION_18_19_SYNC_JOURNAL, MIGRATION_19_20_SYNC_CHECKPOINT, MIGRATION_20_21_COVER_ART_QUEUE, MIGRATION_21_22_CATALOG_BROWSE, MIGRATION_22_23_LYRICS_STATE, MIGRATION_23_24_LOCAL_MEDIA, MIGRATION_24_25_LOCAL_DOCUMENT, MIGRATION_25_26_PLAYLIST_ENTRY_SCOPE, MIGRATION_26_27_CHECKPOINT_ATTEMPTS, MIGRATION_27_28_LOCAL_MEDIA_GENRES};
 
     public static synchronized AppDatabase getInstance() {
         if (instance == null) {
             RoomDatabase.Builder<AppDatabase> builder = Room.databaseBuilder(App.getContext(), AppDatabase.class, DB_NAME)
-                    .addMigrations(MIGRATION_14_15_TELEMETRY);
+                    .addMigrations(MIGRATIONS);
             if (BuildConfig.DEBUG) {
                 builder.fallbackToDestructiveMigration();
             }
@@ -91,4 +239,18 @@ public abstract class AppDatabase extends RoomDatabase {
     public abstract LocalSourceDao localSourceDao();
 
     public abstract LibrarySearchEntryDao librarySearchEntryDao();
+
+    public abstract CatalogDao catalogDao();
+
+    public abstract SyncJournalDao syncJournalDao();
+
+    public abstract SyncCheckpointDao syncCheckpointDao();
+
+    public abstract CoverArtPrefetchDao coverArtPrefetchDao();
+
+    public abstract LyricsStateDao lyricsStateDao();
+
+    public abstract LocalMediaDao localMediaDao();
+
+    public abstract LocalDocumentDao localDocumentDao();
 }
@@ -19,6 +19,9 @@ public interface CachedResponseDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insert(CachedResponse cachedResponse);
 
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<CachedResponse> cachedResponses);
+
     @Query("DELETE FROM cached_response WHERE cache_key = :key")
     void delete(String key);
 
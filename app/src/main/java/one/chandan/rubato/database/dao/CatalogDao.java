@@ -0,0 +1,279 @@
+package one.chandan.rubato.database.dao;
+
+import androidx.lifecycle.LiveData;
+import androidx.paging.PagingSource;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.RawQuery;
+import androidx.room.Transaction;
+import androidx.sqlite.db.SupportSQLiteQuery;
+
+import one.chandan.rubato.model.CatalogAlbum;
+import one.chandan.rubato.model.CatalogArtist;
+import one.chandan.rubato.model.CatalogGenre;
+import one.chandan.rubato.model.CatalogPlaylistEntry;
+import one.chandan.rubato.model.CatalogSection;
+import one.chandan.rubato.model.CatalogSong;
+
+import java.util.List;
+
+@Dao
+public interface CatalogDao {
+    // Mirrors MediaAlbum/MediaArtist.detailScore(): one point per populated field of candidate row b.
+    String ALBUM_DETAIL_SCORE = "((b.name IS NOT NULL AND trim(b.name) != '') + (b.artist IS NOT NULL AND trim(b.artist) != '')"
+            + " + (b.artist_id IS NOT NULL AND b.artist_id != '') + (b.year > 0) + (IFNULL(b.song_count, 0) > 0)"
+            + " + (b.cover_art IS NOT NULL AND b.cover_art != ''))";
+    String ARTIST_DETAIL_SCORE = "((b.name IS NOT NULL AND trim(b.name) != '') + (b.album_count > 0)"
+            + " + (b.cover_art IS NOT NULL AND b.cover_art != ''))";
+    String SCOPE_RANK = "CASE WHEN b.scope = 'local' THEN :localRank WHEN b.scope = 'subsonic' THEN :subsonicRank ELSE :jellyfinRank END";
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertArtists(List<CatalogArtist> artists);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertAlbums(List<CatalogAlbum> albums);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertSongs(List<CatalogSong> songs);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertGenres(List<CatalogGenre> genres);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertPlaylistEntries(List<CatalogPlaylistEntry> entries);
+
+    @Query("SELECT * FROM catalog_artist WHERE scope = :scope ORDER BY name COLLATE NOCASE")
+    List<CatalogArtist> getArtists(String scope);
+
+    @Query("SELECT * FROM catalog_artist WHERE scope = :scope AND id = :id LIMIT 1")
+    CatalogArtist getArtist(String scope, String id);
+
+    @Query("SELECT COUNT(*) FROM catalog_artist WHERE scope = :scope")
+    int countArtists(String scope);
+
+    @Query("DELETE FROM catalog_artist WHERE scope = :scope")
+    void deleteArtists(String scope);
+
+    @Query("DELETE FROM catalog_artist WHERE scope = :scope AND updated_at < :before")
+    int pruneArtists(String scope, long before);
+
+    @Query("SELECT * FROM catalog_album WHERE scope = :scope")
+    List<CatalogAlbum> getAlbums(String scope);
+
+    @Query("SELECT * FROM catalog_album WHERE scope = :scope AND id = :id LIMIT 1")
+    CatalogAlbum getAlbum(String scope, String id);
+
+    @Query("SELECT * FROM catalog_album WHERE scope = :scope AND artist_id = :artistId ORDER BY year DESC")
+    List<CatalogAlbum> getAlbumsByArtist(String scope, String artistId);
+
+    @Query("SELECT * FROM catalog_album WHERE scope = :scope AND year BETWEEN :fromYear AND :toYear")
+    List<CatalogAlbum> getAlbumsByYearRange(String scope, int fromYear, int toYear);
+
+    @Query("SELECT MIN(year) FROM catalog_album WHERE scope = :scope AND year > 0")
+    Integer getMinAlbumYear(String scope);
+
+    @Query("SELECT MAX(year) FROM catalog_album WHERE scope = :scope AND year > 0")
+    Integer getMaxAlbumYear(String scope);
+
+    @Query("SELECT COUNT(*) FROM catalog_album WHERE scope = :scope")
+    int countAlbums(String scope);
+
+    @Query("DELETE FROM catalog_album WHERE scope = :scope")
+    void deleteAlbums(String scope);
+
+    @Query("DELETE FROM catalog_album WHERE scope = :scope AND updated_at < :before")
+    int pruneAlbums(String scope, long before);
+
+    @Query("SELECT * FROM catalog_song WHERE scope = :scope")
+    List<CatalogSong> getSongs(String scope);
+
+    @Query("SELECT * FROM catalog_song WHERE scope = :scope AND id = :id LIMIT 1")
+    CatalogSong getSong(String scope, String id);
+
+    @Query("SELECT * FROM catalog_song WHERE scope = :scope AND album_id = :albumId ORDER BY disc_number, track")
+    List<CatalogSong> getSongsByAlbum(String scope, String albumId);
+
+    @Query("SELECT * FROM catalog_song WHERE scope = :scope AND artist_id = :artistId")
+    List<CatalogSong> getSongsByArtist(String scope, String artistId);
+
+    @Query("SELECT * FROM catalog_song WHERE scope = :scope AND genre = :genre COLLATE NOCASE ORDER BY rowid LIMIT :limit OFFSET :offset")
+    List<CatalogSong> getSongsByGenre(String scope, String genre, int limit, int offset);
+
+    @Query("SELECT * FROM catalog_song WHERE scope = :scope AND LOWER(genre) IN (:genres)")
+    List<CatalogSong> getSongsByGenres(String scope, List<String> genres);
+
+    @Query("SELECT * FROM catalog_song WHERE scope = :scope AND year BETWEEN :fromYear AND :toYear ORDER BY RANDOM() LIMIT :limit")
+    List<CatalogSong> getRandomSongsByYearRange(String scope, int fromYear, int toYear, int limit);
+
+    @Query("SELECT COUNT(*) FROM catalog_song WHERE scope = :scope")
+    int countSongs(String scope);
+
+    @Query("SELECT * FROM catalog_song WHERE scope = :scope AND id > :afterId ORDER BY id LIMIT :limit")
+    List<CatalogSong> getSongPage(String scope, String afterId, int limit);
+
+    @Query("SELECT id FROM catalog_song WHERE scope = :scope AND id > :afterId ORDER BY id LIMIT :limit")
+    List<String> getSongIdPage(String scope, String afterId, int limit);
+
+    @Query("SELECT DISTINCT cover_art_id FROM catalog_song WHERE scope = :scope AND cover_art_id IS NOT NULL AND cover_art_id != ''")
+    List<String> getSongCoverArtIds(String scope);
+
+    @Query("SELECT COUNT(*) FROM catalog_song WHERE scope = :scope AND album_id = :albumId")
+    int countSongsByAlbum(String scope, String albumId);
+
+    @Query("DELETE FROM catalog_song WHERE scope = :scope")
+    void deleteSongs(String scope);
+
+    @Query("DELETE FROM catalog_song WHERE scope = :scope AND album_id = :albumId")
+    void deleteSongsByAlbum(String scope, String albumId);
+
+    @Query("DELETE FROM catalog_song WHERE scope = :scope AND (album_id IS NULL OR album_id NOT IN (SELECT id FROM catalog_album WHERE scope = :scope))")
+    int pruneOrphanSongs(String scope);
+
+    @Query("SELECT * FROM catalog_genre WHERE scope = :scope ORDER BY name COLLATE NOCASE")
+    List<CatalogGenre> getGenres(String scope);
+
+    @Query("SELECT COUNT(*) FROM catalog_genre WHERE scope = :scope")
+    int countGenres(String scope);
+
+    @Query("DELETE FROM catalog_genre WHERE scope = :scope")
+    void deleteGenres(String scope);
+
+    @Query("SELECT DISTINCT dedupe_key FROM catalog_artist WHERE scope = :scope AND id IN (:ids) AND dedupe_key IS NOT NULL")
+    List<String> getArtistDedupeKeys(String scope, List<String> ids);
+
+    @Query("SELECT DISTINCT dedupe_key FROM catalog_album WHERE scope = :scope AND id IN (:ids) AND dedupe_key IS NOT NULL")
+    List<String> getAlbumDedupeKeys(String scope, List<String> ids);
+
+    @Query("UPDATE catalog_artist SET browse_primary = 0 WHERE dedupe_key IN (:keys)")
+    void clearArtistPrimary(List<String> keys);
+
+    @Query("UPDATE catalog_artist SET browse_primary = 1 WHERE rowid IN (SELECT (SELECT b.rowid FROM catalog_artist b WHERE b.dedupe_key = k.dedupe_key"
+            + " ORDER BY " + ARTIST_DETAIL_SCORE + " DESC, " + SCOPE_RANK + ", b.rowid LIMIT 1)"
+            + " FROM (SELECT DISTINCT dedupe_key FROM catalog_artist WHERE dedupe_key IN (:keys)) k)")
+    void markArtistPrimary(List<String> keys, int localRank, int subsonicRank, int jellyfinRank);
+
+    @Query("UPDATE catalog_artist SET browse_primary = 0 WHERE browse_primary = 1")
+    void clearAllArtistPrimary();
+
+    @Query("UPDATE catalog_artist SET browse_primary = 1 WHERE rowid IN (SELECT (SELECT b.rowid FROM catalog_artist b WHERE b.dedupe_key = k.dedupe_key"
+            + " ORDER BY " + ARTIST_DETAIL_SCORE + " DESC, " + SCOPE_RANK + ", b.rowid LIMIT 1)"
+            + " FROM (SELECT DISTINCT dedupe_key FROM catalog_artist WHERE dedupe_key IS NOT NULL) k)")
+    void markAllArtistPrimary(int localRank, int subsonicRank, int jellyfinRank);
+
+    @Query("UPDATE catalog_album SET browse_primary = 0 WHERE dedupe_key IN (:keys)")
+    void clearAlbumPrimary(List<String> keys);
+
+    @Query("UPDATE catalog_album SET browse_primary = 1 WHERE rowid IN (SELECT (SELECT b.rowid FROM catalog_album b WHERE b.dedupe_key = k.dedupe_key"
+            + " ORDER BY " + ALBUM_DETAIL_SCORE + " DESC, " + SCOPE_RANK + ", b.rowid LIMIT 1)"
+            + " FROM (SELECT DISTINCT dedupe_key FROM catalog_album WHERE dedupe_key IN (:keys)) k)")
+    void markAlbumPrimary(List<String> keys, int localRank, int subsonicRank, int jellyfinRank);
+
+    @Query("UPDATE catalog_album SET browse_primary = 0 WHERE browse_primary = 1")
+    void clearAllAlbumPrimary();
+
+    @Query("UPDATE catalog_album SET browse_primary = 1 WHERE rowid IN (SELECT (SELECT b.rowid FROM catalog_album b WHERE b.dedupe_key = k.dedupe_key"
+            + " ORDER BY " + ALBUM_DETAIL_SCORE + " DESC, " + SCOPE_RANK + ", b.rowid LIMIT 1)"
+            + " FROM (SELECT DISTINCT dedupe_key FROM catalog_album WHERE dedupe_key IS NOT NULL) k)")
+    void markAllAlbumPrimary(int localRank, int subsonicRank, int jellyfinRank);
+
+    @Query("SELECT EXISTS(SELECT 1 FROM catalog_album WHERE dedupe_key IS NULL) OR EXISTS(SELECT 1 FROM catalog_artist WHERE dedupe_key IS NULL)")
+    boolean hasMissingBrowseKeys();
+
+    @Query("SELECT * FROM catalog_artist WHERE dedupe_key IS NULL LIMIT :limit")
+    List<CatalogArtist> getArtistsWithoutBrowseKeys(int limit);
+
+    @Query("UPDATE catalog_artist SET dedupe_key = :dedupeKey, browse_key = :browseKey WHERE scope = :scope AND id = :id")
+    void setArtistBrowseKeys(String scope, String id, String dedupeKey, String browseKey);
+
+    @Query("SELECT * FROM catalog_album WHERE dedupe_key IS NULL LIMIT :limit")
+    List<CatalogAlbum> getAlbumsWithoutBrowseKeys(int limit);
+
+    @Query("UPDATE catalog_album SET dedupe_key = :dedupeKey, browse_key = :browseKey WHERE scope = :scope AND id = :id")
+    void setAlbumBrowseKeys(String scope, String id, String dedupeKey, String browseKey);
+
+    @Query("SELECT COUNT(*) FROM catalog_artist WHERE browse_primary = 1")
+    int countBrowseArtists();
+
+    @Query("SELECT COUNT(*) FROM catalog_album WHERE browse_primary = 1")
+    int countBrowseAlbums();
+
+    @Query("SELECT COUNT(*) FROM catalog_genre")
+    int countAllGenres();
+
+    @RawQuery(observedEntities = CatalogArtist.class)
+    PagingSource<Integer, CatalogArtist> pageArtists(SupportSQLiteQuery query);
+
+    @RawQuery(observedEntities = CatalogAlbum.class)
+    PagingSource<Integer, CatalogAlbum> pageAlbums(SupportSQLiteQuery query);
+
+    @RawQuery(observedEntities = CatalogGenre.class)
+    PagingSource<Integer, CatalogGenre> pageGenres(SupportSQLiteQuery query);
+
+    @RawQuery(observedEntities = CatalogArtist.class)
+    LiveData<List<CatalogSection>> observeArtistSections(SupportSQLiteQuery query);
+
+    @RawQuery(observedEntities = CatalogAlbum.class)
+    LiveData<List<CatalogSection>> observeAlbumSections(SupportSQLiteQuery query);
+
+    @Query("SELECT * FROM catalog_playlist_entry WHERE scope = :scope AND playlist_id = :playlistId ORDER BY position")
+    List<CatalogPlaylistEntry> getPlaylistEntries(String scope, String playlistId);
+
+    @Query("SELECT COUNT(*) FROM catalog_playlist_entry WHERE scope = :scope AND playlist_id = :playlistId")
+    int countPlaylistEntries(String scope, String playlistId);
+
+    @Query("DELETE FROM catalog_playlist_entry WHERE scope = :scope AND playlist_id = :playlistId")
+    void deletePlaylistEntries(String scope, String playlistId);
+
+    @Query("DELETE FROM catalog_playlist_entry WHERE scope = :scope")
+    void deleteAllPlaylistEntries(String scope);
+
+    @Transaction
+    default void replaceArtists(String scope, List<CatalogArtist> artists) {
+        deleteArtists(scope);
+        if (artists != null && !artists.isEmpty()) {
+            upsertArtists(artists);
+        }
+    }
+
+    @Transaction
+    default void replaceAlbums(String scope, List<CatalogAlbum> albums) {
+        deleteAlbums(scope);
+        if (albums != null && !albums.isEmpty()) {
+            upsertAlbums(albums);
+        }
+    }
+
+    @Transaction
+    default void replaceSongs(String scope, List<CatalogSong> songs) {
+        deleteSongs(scope);
+        if (songs != null && !songs.isEmpty()) {
+            upsertSongs(songs);
+        }
+    }
+
+    @Transaction
+    default void replaceAlbumSongs(String scope, String albumId, List<CatalogSong> songs) {
+        deleteSongsByAlbum(scope, albumId);
+        if (songs != null && !songs.isEmpty()) {
+            upsertSongs(songs);
+        }
+    }
+
+    @Transaction
+    default void replaceGenres(String scope, List<CatalogGenre> genres) {
+        deleteGenres(scope);
+        if (genres != null && !genres.isEmpty()) {
+            upsertGenres(genres);
+        }
+    }
+
+    @Transaction
+    default void replacePlaylistEntries(String scope, String playlistId, List<CatalogPlaylistEntry> entries) {
+        deletePlaylistEntries(scope, playlistId);
+        if (entries != null && !entries.isEmpty()) {
+            insertPlaylistEntries(entries);
+        }
+    }
+}
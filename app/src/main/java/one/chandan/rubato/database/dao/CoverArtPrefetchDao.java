@@ -0,0 +1,61 @@
+package one.chandan.rubato.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import one.chandan.rubato.model.CoverArtPrefetchItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Dao
+public interface CoverArtPrefetchDao {
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertAll(List<CoverArtPrefetchItem> items);
+
+    @Query("UPDATE cover_art_prefetch SET priority = :priority WHERE item_key IN (:keys) AND priority > :priority")
+    void raisePriority(List<String> keys, int priority);
+
+    @Query("SELECT * FROM cover_art_prefetch WHERE next_attempt_at <= :now AND claimed_at < :claimableBefore ORDER BY priority, enqueued_at LIMIT :limit")
+    List<CoverArtPrefetchItem> getReady(long now, long claimableBefore, int limit);
+
+    @Query("UPDATE cover_art_prefetch SET claimed_at = :claimedAt WHERE item_key IN (:keys)")
+    void setClaimed(List<String> keys, long claimedAt);
+
+    @Query("UPDATE cover_art_prefetch SET attempts = :attempts, next_attempt_at = :nextAttemptAt, claimed_at = 0 WHERE item_key = :key")
+    void reschedule(String key, int attempts, long nextAttemptAt);
+
+    @Query("UPDATE cover_art_prefetch SET claimed_at = 0 WHERE item_key IN (:keys)")
+    void release(List<String> keys);
+
+    @Query("DELETE FROM cover_art_prefetch WHERE item_key IN (:keys)")
+    void delete(List<String> keys);
+
+    @Query("SELECT COUNT(*) FROM cover_art_prefetch")
+    int count();
+
+    @Query("SELECT MIN(next_attempt_at) FROM cover_art_prefetch")
+    Long getNextAttemptAt();
+
+    @Query("DELETE FROM cover_art_prefetch")
+    void clear();
+
+    /**
+     * Hands out up to {@code limit} ready items, highest priority first, and marks them claimed so
+     * a concurrent claim skips them. Claims older than {@code claimableBefore} are treated as abandoned.
+     */
+    @Transaction
+    default List<CoverArtPrefetchItem> claim(long now, long claimableBefore, int limit) {
+        List<CoverArtPrefetchItem> items = getReady(now, claimableBefore, limit);
+        if (items == null || items.isEmpty()) return new ArrayList<>();
+        List<String> keys = new ArrayList<>(items.size());
+        for (CoverArtPrefetchItem item : items) {
+            keys.add(item.getKey());
+        }
+        setClaimed(keys, now);
+        return items;
+    }
+}
@@ -15,6 +15,9 @@ public interface DownloadDao {
     @Query("SELECT * FROM download WHERE download_state = 1 ORDER BY artist, album, disc_number, track ASC")
     LiveData<List<Download>> getAll();
 
+    @Query("SELECT id FROM download WHERE download_state = 1")
+    List<String> getCompletedIds();
+
     @Query("SELECT * FROM download WHERE id = :id")
     Download getOne(String id);
 
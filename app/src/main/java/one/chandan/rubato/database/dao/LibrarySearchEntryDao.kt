@@ -1,15 +1,17 @@
 package one.chandan.rubato.database.dao
 
+import android.database.Cursor
 import androidx.room.Dao
-import androidx.room.Insert
-import androidx.room.OnConflictStrategy
 import androidx.room.Query
+import androidx.room.Upsert
 import one.chandan.rubato.model.LibrarySearchEntry
+import one.chandan.rubato.model.LibrarySearchHash
 import one.chandan.rubato.model.SearchSongLite
 
 @Dao
 interface LibrarySearchEntryDao {
-    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    // REPLACE would skip the delete triggers that keep library_search_entry_fts in sync.
+    @Upsert
     fun upsertAll(entries: List<LibrarySearchEntry>)
 
     @Query("DELETE FROM library_search_entry WHERE source = :source")
@@ -18,6 +20,18 @@ interface LibrarySearchEntryDao {
     @Query("DELETE FROM library_search_entry")
     fun clearAll()
 
+    @Query("DELETE FROM library_search_entry WHERE uid IN (:uids)")
+    fun deleteByUids(uids: List<String>): Int
+
+    @Query("SELECT uid, content_hash FROM library_search_entry WHERE source = :source")
+    fun getHashesBySource(source: String): List<LibrarySearchHash>
+
+    @Query("SELECT uid, content_hash FROM library_search_entry WHERE uid IN (:uids)")
+    fun getHashesByUids(uids: List<String>): List<LibrarySearchHash>
+
+    @Query("SELECT uid FROM library_search_entry WHERE source = :source")
+    fun getUidsBySource(source: String): List<String>
+
     @Query("SELECT COUNT(*) FROM library_search_entry")
     fun count(): Int
 
@@ -33,6 +47,20 @@ interface LibrarySearchEntryDao {
     )
     fun searchByType(query: String, mediaType: String, limit: Int): List<LibrarySearchEntry>
 
+    // Unbounded and unordered; the caller ranks rows while stepping the cursor and keeps the top few.
+    @Query(
+        "SELECT library_search_entry.uid AS uid, " +
+            "matchinfo(library_search_entry_fts, 'pcnalx') AS match_info " +
+            "FROM library_search_entry_fts " +
+            "JOIN library_search_entry ON library_search_entry.rowid = library_search_entry_fts.docid " +
+            "WHERE library_search_entry_fts MATCH :match " +
+            "AND library_search_entry.media_type = :mediaType"
+    )
+    fun matchByType(match: String, mediaType: String): Cursor
+
+    @Query("SELECT * FROM library_search_entry WHERE uid IN (:uids)")
+    fun getByUids(uids: List<String>): List<LibrarySearchEntry>
+
     @Query(
         "SELECT uid, item_id, source, title, artist, album, album_id, artist_id, cover_art " +
             "FROM library_search_entry " +
@@ -0,0 +1,28 @@
+package one.chandan.rubato.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import one.chandan.rubato.model.LocalDocument;
+
+import java.util.List;
+
+@Dao
+public interface LocalDocumentDao {
+    @Query("SELECT * FROM local_document")
+    List<LocalDocument> getAll();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertAll(List<LocalDocument> documents);
+
+    @Query("DELETE FROM local_document WHERE source_id = :sourceId AND document_id IN (:documentIds)")
+    void delete(String sourceId, List<String> documentIds);
+
+    @Query("DELETE FROM local_document WHERE source_id NOT IN (:sourceIds)")
+    int deleteOtherSources(List<String> sourceIds);
+
+    @Query("DELETE FROM local_document")
+    int clear();
+}
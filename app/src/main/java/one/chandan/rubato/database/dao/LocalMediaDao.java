@@ -0,0 +1,32 @@
+package one.chandan.rubato.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import one.chandan.rubato.model.LocalMedia;
+import one.chandan.rubato.model.LocalMediaVolume;
+
+import java.util.List;
+
+@Dao
+public interface LocalMediaDao {
+    @Query("SELECT * FROM local_media")
+    List<LocalMedia> getAll();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertAll(List<LocalMedia> media);
+
+    @Query("DELETE FROM local_media WHERE media_id IN (:mediaIds)")
+    void delete(List<Long> mediaIds);
+
+    @Query("SELECT * FROM local_media_volume")
+    List<LocalMediaVolume> getVolumes();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertVolumes(List<LocalMediaVolume> volumes);
+
+    @Query("DELETE FROM local_media_volume")
+    void clearVolumes();
+}
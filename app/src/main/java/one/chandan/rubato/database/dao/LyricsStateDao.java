@@ -0,0 +1,26 @@
+package one.chandan.rubato.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import one.chandan.rubato.model.LyricsState;
+
+import java.util.List;
+
+@Dao
+public interface LyricsStateDao {
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertAll(List<LyricsState> states);
+
+    @Query("SELECT * FROM lyrics_state WHERE song_id = :songId LIMIT 1")
+    LyricsState get(String songId);
+
+    /**
+     * Ids among {@code songIds} whose last check is still fresh: found lyrics checked since
+     * {@code foundSince}, or no lyrics checked since {@code missingSince}.
+     */
+    @Query("SELECT song_id FROM lyrics_state WHERE song_id IN (:songIds) AND checked_at >= CASE WHEN has_lyrics THEN :foundSince ELSE :missingSince END")
+    List<String> getFreshIds(List<String> songIds, long foundSince, long missingSince);
+}
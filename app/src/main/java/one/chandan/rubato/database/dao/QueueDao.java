@@ -12,10 +12,10 @@ import java.util.List;
 
 @Dao
 public interface QueueDao {
-    @Query("SELECT * FROM queue")
+    @Query("SELECT * FROM queue ORDER BY track_order")
     LiveData<List<Queue>> getAll();
 
-    @Query("SELECT * FROM queue")
+    @Query("SELECT * FROM queue ORDER BY track_order")
     List<Queue> getAllSimple();
 
     @Insert(onConflict = OnConflictStrategy.REPLACE)
@@ -24,8 +24,20 @@ public interface QueueDao {
     @Insert(onConflict = OnConflictStrategy.REPLACE)
     void insertAll(List<Queue> songQueueObjects);
 
-    @Query("DELETE FROM queue WHERE queue.track_order=:position")
-    void delete(int position);
+    @Query("SELECT track_order FROM queue ORDER BY track_order LIMIT :limit OFFSET :offset")
+    List<Integer> getRanks(int offset, int limit);
+
+    @Query("SELECT * FROM queue WHERE track_order = :rank")
+    Queue getByRank(int rank);
+
+    @Query("SELECT COUNT(*) FROM queue WHERE track_order < :rank")
+    int countBefore(int rank);
+
+    @Query("UPDATE queue SET track_order = :newRank WHERE track_order = :rank")
+    void setRank(int rank, int newRank);
+
+    @Query("DELETE FROM queue WHERE track_order BETWEEN :fromRank AND :toRank")
+    void deleteRanks(int fromRank, int toRank);
 
     @Query("DELETE FROM queue")
     void deleteAll();
@@ -41,4 +53,4 @@ public interface QueueDao {
 
     @Query("SELECT * FROM queue ORDER BY last_play DESC LIMIT 1")
     Queue getLastPlayed();
-}
\ No newline at end of file
+}
@@ -0,0 +1,54 @@
+package one.chandan.rubato.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import one.chandan.rubato.model.SyncCheckpoint;
+import one.chandan.rubato.model.SyncCheckpointItem;
+
+import java.util.List;
+
+@Dao
+public interface SyncCheckpointDao {
+    @Query("SELECT * FROM sync_checkpoint WHERE scope = :scope LIMIT 1")
+    SyncCheckpoint get(String scope);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(SyncCheckpoint checkpoint);
+
+    @Query("UPDATE sync_checkpoint SET album_offset = :offset, albums_complete = :complete, updated_at = :updatedAt, resume_attempts = 0 WHERE scope = :scope")
+    void setAlbumOffset(String scope, int offset, boolean complete, long updatedAt);
+
+    @Query("UPDATE sync_checkpoint SET resume_attempts = resume_attempts + 1 WHERE scope = :scope")
+    void incrementResumeAttempts(String scope);
+
+    @Query("UPDATE sync_checkpoint SET resume_attempts = 0 WHERE scope = :scope")
+    void resetResumeAttempts(String scope);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertItems(List<SyncCheckpointItem> items);
+
+    @Query("SELECT item_id FROM sync_checkpoint_item WHERE scope = :scope AND stage = :stage")
+    List<String> getItemIds(String scope, String stage);
+
+    @Query("DELETE FROM sync_checkpoint WHERE scope = :scope")
+    void deleteCheckpoint(String scope);
+
+    @Query("DELETE FROM sync_checkpoint_item WHERE scope = :scope")
+    void deleteItems(String scope);
+
+    @Transaction
+    default void clear(String scope) {
+        deleteItems(scope);
+        deleteCheckpoint(scope);
+    }
+
+    @Transaction
+    default void start(SyncCheckpoint checkpoint) {
+        deleteItems(checkpoint.getScope());
+        insert(checkpoint);
+    }
+}
@@ -0,0 +1,31 @@
+package one.chandan.rubato.database.dao;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import one.chandan.rubato.model.SyncJournalEntry;
+
+import java.util.List;
+
+@Dao
+public interface SyncJournalDao {
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void upsertAll(List<SyncJournalEntry> entries);
+
+    @Query("SELECT * FROM sync_journal WHERE scope = :scope AND kind = :kind")
+    List<SyncJournalEntry> getAll(String scope, String kind);
+
+    @Query("SELECT entity_id FROM sync_journal WHERE scope = :scope AND kind = 'artist' AND entity_id NOT IN (SELECT id FROM catalog_artist WHERE scope = :scope)")
+    List<String> getRemovedArtistIds(String scope);
+
+    @Query("SELECT entity_id FROM sync_journal WHERE scope = :scope AND kind = 'album' AND entity_id NOT IN (SELECT id FROM catalog_album WHERE scope = :scope)")
+    List<String> getRemovedAlbumIds(String scope);
+
+    @Query("DELETE FROM sync_journal WHERE scope = :scope AND kind = :kind AND entity_id IN (:ids)")
+    void delete(String scope, String kind, List<String> ids);
+
+    @Query("DELETE FROM sync_journal WHERE scope = :scope")
+    void clear(String scope);
+}
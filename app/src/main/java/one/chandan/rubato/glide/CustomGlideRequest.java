@@ -69,7 +69,7 @@ public class CustomGlideRequest {
                 .fallback(fallback)
                 .error(fallback)
                 .diskCacheStrategy(DEFAULT_DISK_CACHE_STRATEGY)
-                .signature(new ObjectKey(normalizedItem != null ? normalizedItem : 0));
+                .signature(createSignature(normalizedItem));
 
         if (cornerRatio > 0f) {
             options = options.transform(new CenterCrop(), new RelativeRoundedCorners(cornerRatio));
@@ -84,6 +84,14 @@ public class CustomGlideRequest {
         return options;
     }
 
+    /**
+     * Cache signature used for {@code item}; requests that should share cached covers with the UI must use it too.
+     */
+    public static Key createSignature(String item) {
+        String normalizedItem = normalizeLocalTag(item);
+        return new ObjectKey(normalizedItem != null ? normalizedItem : 0);
+    }
+
     @Nullable
     private static Drawable wrapRounded(@Nullable Drawable drawable, float ratio) {
         if (drawable == null || ratio <= 0f) {
@@ -186,6 +194,7 @@ public class CustomGlideRequest {
         }
 
         public RequestBuilder<Drawable> build() {
+            ForegroundImageLoads.markRequested();
             return requestManager
                     .load(item)
                     .transition(DrawableTransitionOptions.withCrossFade());
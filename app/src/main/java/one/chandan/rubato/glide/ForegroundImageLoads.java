@@ -0,0 +1,28 @@
+package one.chandan.rubato.glide;
+
+import android.os.SystemClock;
+
+/**
+ * Remembers when the UI last asked for an image so background prefetching can stay off the
+ * network and decoder threads while the user is scrolling.
+ */
+public final class ForegroundImageLoads {
+    private static final long QUIET_PERIOD_MS = 1_500L;
+
+    private static volatile long lastRequestAt = -QUIET_PERIOD_MS;
+
+    private ForegroundImageLoads() {
+    }
+
+    public static void markRequested() {
+        lastRequestAt = SystemClock.elapsedRealtime();
+    }
+
+    /**
+     * Milliseconds until the UI has been quiet long enough, or 0 when it already is.
+     */
+    public static long busyForMs() {
+        long quietAt = lastRequestAt + QUIET_PERIOD_MS;
+        return Math.max(0L, quietAt - SystemClock.elapsedRealtime());
+    }
+}
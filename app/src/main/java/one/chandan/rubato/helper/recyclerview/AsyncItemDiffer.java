@@ -0,0 +1,148 @@
+package one.chandan.rubato.helper.recyclerview;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+import one.chandan.rubato.util.AppExecutors;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Holds an adapter's items and applies new lists with {@link DiffUtil} on a background thread,
+ * dispatching only the resulting inserts, removes, moves and (payload) changes.
+ * <p>
+ * Unlike {@code AsyncListDiffer} the current list stays mutable, so drag-to-reorder and
+ * swipe-to-remove can edit it in place and notify the adapter directly. A diff that finishes after
+ * such an edit is recomputed against the edited list. Must be used from the main thread.
+ */
+public final class AsyncItemDiffer<T> {
+    private static final ExecutorService DIFF = AppExecutors.newSingleThreadExecutor("rubato-diff");
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private final RecyclerView.Adapter<?> adapter;
+    private final DiffUtil.ItemCallback<T> callback;
+
+    private List<T> items = new ArrayList<>();
+    // Bumped on every submit; results of older submits are dropped.
+    private int generation;
+
+    public AsyncItemDiffer(@NonNull RecyclerView.Adapter<?> adapter, @NonNull DiffUtil.ItemCallback<T> callback) {
+        this.adapter = adapter;
+        this.callback = callback;
+    }
+
+    /**
+     * The live list. Callers that change it in place must notify the adapter themselves.
+     */
+    @NonNull
+    public List<T> getItems() {
+        return items;
+    }
+
+    public T get(int position) {
+        return items.get(position);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public void submit(@Nullable List<T> next) {
+        submit(next, null);
+    }
+
+    /**
+     * Replaces the list with a copy of {@code next}. {@code onCommitted} runs on the main thread once
+     * the adapter has been notified, unless a later submit superseded this one.
+     */
+    public void submit(@Nullable List<T> next, @Nullable Runnable onCommitted) {
+        int run = ++generation;
+        List<T> target = next != null ? new ArrayList<>(next) : new ArrayList<>();
+
+        if (items.isEmpty() || target.isEmpty()) {
+            int removed = items.size();
+            items = target;
+            if (removed > 0) adapter.notifyItemRangeRemoved(0, removed);
+            if (!target.isEmpty()) adapter.notifyItemRangeInserted(0, target.size());
+            if (onCommitted != null) onCommitted.run();
+            return;
+        }
+
+        List<T> base = new ArrayList<>(items);
+        DIFF.execute(() -> {
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(new ListCallback<>(base, target, callback));
+            MAIN.post(() -> {
+                if (run != generation) return;
+                if (!sameItems(base, items)) {
+                    submit(target, onCommitted);
+                    return;
+                }
+                items = target;
+                result.dispatchUpdatesTo(adapter);
+                if (onCommitted != null) onCommitted.run();
+            });
+        });
+    }
+
+    private static <T> boolean sameItems(List<T> a, List<T> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i) != b.get(i)) return false;
+        }
+        return true;
+    }
+
+    private static final class ListCallback<T> extends DiffUtil.Callback {
+        private final List<T> oldList;
+        private final List<T> newList;
+        private final DiffUtil.ItemCallback<T> callback;
+
+        ListCallback(List<T> oldList, List<T> newList, DiffUtil.ItemCallback<T> callback) {
+            this.oldList = oldList;
+            this.newList = newList;
+            this.callback = callback;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldList.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newList.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            T oldItem = oldList.get(oldItemPosition);
+            T newItem = newList.get(newItemPosition);
+            if (oldItem == null || newItem == null) return oldItem == newItem;
+            return callback.areItemsTheSame(oldItem, newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            T oldItem = oldList.get(oldItemPosition);
+            T newItem = newList.get(newItemPosition);
+            if (oldItem == null || newItem == null) return oldItem == newItem;
+            return callback.areContentsTheSame(oldItem, newItem);
+        }
+
+        @Nullable
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            T oldItem = oldList.get(oldItemPosition);
+            T newItem = newList.get(newItemPosition);
+            if (oldItem == null || newItem == null) return null;
+            return callback.getChangePayload(oldItem, newItem);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package one.chandan.rubato.helper.recyclerview;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import one.chandan.rubato.util.AppExecutors;
+import one.chandan.rubato.util.TokenFilterIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Filters an adapter's full list by a text query on a background thread and submits the matches to
+ * its {@link AsyncItemDiffer}.
+ * <p>
+ * Keys are normalized once per {@link #setItems} into a {@link TokenFilterIndex}, so typing only
+ * rescans the previous query's matches. Every call supersedes the ones before it: a scan still
+ * running for an older query stops early and its result is never published. Must be used from the
+ * main thread.
+ */
+public final class ItemFilter<T> {
+    private static final ExecutorService FILTER = AppExecutors.newSingleThreadExecutor("rubato-filter");
+    private static final Handler MAIN = new Handler(Looper.getMainLooper());
+
+    private final AsyncItemDiffer<T> differ;
+    private final Function<T, String> keyOf;
+    // Bumped on every call; background work for older values is abandoned.
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private String query = "";
+    // Confined to the filter thread.
+    private TokenFilterIndex<T> index;
+
+    public ItemFilter(@NonNull AsyncItemDiffer<T> differ, @NonNull Function<T, String> keyOf) {
+        this.differ = differ;
+        this.keyOf = keyOf;
+    }
+
+    public boolean isActive() {
+        return !query.trim().isEmpty();
+    }
+
+    /**
+     * Replaces the full list and re-applies the current query to it.
+     */
+    public void setItems(@Nullable List<T> items) {
+        int run = generation.incrementAndGet();
+        String current = query;
+        List<T> snapshot = items != null ? new ArrayList<>(items) : new ArrayList<>();
+        if (!isActive()) {
+            // Nothing to filter; show the list now and index it for the first keystroke.
+            differ.submit(snapshot);
+        }
+        FILTER.execute(() -> {
+            index = new TokenFilterIndex<>(snapshot, keyOf);
+            if (!current.trim().isEmpty()) {
+                apply(run, current);
+            }
+        });
+    }
+
+    public void filter(@Nullable CharSequence constraint) {
+        query = constraint != null ? constraint.toString() : "";
+        int run = generation.incrementAndGet();
+        String current = query;
+        FILTER.execute(() -> {
+            if (run != generation.get()) return;
+            apply(run, current);
+        });
+    }
+
+    /**
+     * Mirrors a drag-to-reorder swap in the full list, so later filtering keeps the new order.
+     */
+    public void swap(int fromPosition, int toPosition) {
+        FILTER.execute(() -> {
+            if (index != null) index.swap(fromPosition, toPosition);
+        });
+    }
+
+    private void apply(int run, String current) {
+        if (index == null) return;
+        List<T> matches = index.filter(current, () -> run != generation.get());
+        if (matches == null) return;
+        MAIN.post(() -> {
+            if (run == generation.get()) differ.submit(matches);
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package one.chandan.rubato.helper.recyclerview;
+
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out stable item ids for an adapter: each key gets the next counter value the first time it
+ * is seen and keeps it for the adapter's lifetime. Unlike {@code hashCode()}, two keys can never
+ * share an id. Must be used from the main thread.
+ */
+public final class StableIds {
+    private final Map<Object, Long> ids = new HashMap<>();
+    private long next;
+
+    public long get(@Nullable Object key) {
+        if (key == null) return RecyclerView.NO_ID;
+        Long id = ids.get(key);
+        if (id == null) {
+            id = next++;
+            ids.put(key, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,72 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Index
+import java.util.Date
+
+@Entity(
+    tableName = "catalog_album",
+    primaryKeys = ["scope", "id"],
+    indices = [
+        Index(value = ["scope", "artist_id"]),
+        Index(value = ["scope", "year"]),
+        Index(value = ["scope", "genre"]),
+        Index(value = ["dedupe_key"]),
+        Index(value = ["browse_primary", "browse_key"])
+    ]
+)
+data class CatalogAlbum(
+    @ColumnInfo(name = "scope")
+    val scope: String,
+    @ColumnInfo(name = "id")
+    val id: String,
+    @ColumnInfo(name = "name")
+    val name: String?,
+    @ColumnInfo(name = "artist")
+    val artist: String?,
+    @ColumnInfo(name = "artist_id")
+    val artistId: String?,
+    @ColumnInfo(name = "cover_art")
+    val coverArt: String?,
+    @ColumnInfo(name = "song_count")
+    val songCount: Int?,
+    @ColumnInfo(name = "duration")
+    val duration: Int?,
+    @ColumnInfo(name = "play_count")
+    val playCount: Long?,
+    @ColumnInfo(name = "created")
+    val created: Date?,
+    @ColumnInfo(name = "starred")
+    val starred: Date?,
+    @ColumnInfo(name = "played")
+    val played: Date?,
+    @ColumnInfo(name = "year")
+    val year: Int,
+    @ColumnInfo(name = "genre")
+    val genre: String?,
+    @ColumnInfo(name = "user_rating")
+    val userRating: Int?,
+    @ColumnInfo(name = "sort_name")
+    val sortName: String?,
+    @ColumnInfo(name = "display_artist")
+    val displayArtist: String?,
+    @ColumnInfo(name = "is_compilation")
+    val isCompilation: Boolean?,
+    @ColumnInfo(name = "music_brainz_id")
+    val musicBrainzId: String?,
+    @ColumnInfo(name = "extras")
+    val extras: String?,
+    @ColumnInfo(name = "updated_at")
+    val updatedAt: Long
+) {
+    // Same title|artist key the merged album list dedupes on; one row per key is marked browse_primary.
+    @ColumnInfo(name = "dedupe_key")
+    var dedupeKey: String? = null
+
+    @ColumnInfo(name = "browse_key")
+    var browseKey: String? = null
+
+    @ColumnInfo(name = "browse_primary", defaultValue = "0")
+    var browsePrimary: Boolean = false
+}
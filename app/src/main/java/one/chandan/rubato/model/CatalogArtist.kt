@@ -0,0 +1,41 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Index
+import java.util.Date
+
+@Entity(
+    tableName = "catalog_artist",
+    primaryKeys = ["scope", "id"],
+    indices = [
+        Index(value = ["scope", "name"]),
+        Index(value = ["dedupe_key"]),
+        Index(value = ["browse_primary", "browse_key"])
+    ]
+)
+data class CatalogArtist(
+    @ColumnInfo(name = "scope")
+    val scope: String,
+    @ColumnInfo(name = "id")
+    val id: String,
+    @ColumnInfo(name = "name")
+    val name: String?,
+    @ColumnInfo(name = "cover_art")
+    val coverArt: String?,
+    @ColumnInfo(name = "album_count")
+    val albumCount: Int,
+    @ColumnInfo(name = "starred")
+    val starred: Date?,
+    @ColumnInfo(name = "updated_at")
+    val updatedAt: Long
+) {
+    @ColumnInfo(name = "dedupe_key")
+    var dedupeKey: String? = null
+
+    @ColumnInfo(name = "browse_key")
+    var browseKey: String? = null
+
+    @ColumnInfo(name = "browse_primary", defaultValue = "0")
+    var browsePrimary: Boolean = false
+}
@@ -0,0 +1,21 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+
+@Entity(
+    tableName = "catalog_genre",
+    primaryKeys = ["scope", "name"]
+)
+data class CatalogGenre(
+    @ColumnInfo(name = "scope")
+    val scope: String,
+    @ColumnInfo(name = "name")
+    val name: String,
+    @ColumnInfo(name = "song_count")
+    val songCount: Int,
+    @ColumnInfo(name = "album_count")
+    val albumCount: Int,
+    @ColumnInfo(name = "updated_at")
+    val updatedAt: Long
+)
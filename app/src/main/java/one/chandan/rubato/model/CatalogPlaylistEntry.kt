@@ -0,0 +1,59 @@
+package one.chandan.rubato.model
+
+import androidx.annotation.Keep
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import one.chandan.rubato.subsonic.models.Child
+import kotlinx.parcelize.Parcelize
+
+@Keep
+@Parcelize
+@Entity(
+    tableName = "catalog_playlist_entry",
+    primaryKeys = ["scope", "playlist_id", "position"]
+)
+class CatalogPlaylistEntry(
+    override val id: String,
+    @ColumnInfo(name = "playlist_id")
+    var playlistId: String = "",
+    @ColumnInfo(name = "position")
+    var position: Int = 0,
+    @ColumnInfo(name = "scope")
+    var scope: String = "",
+    @ColumnInfo(name = "updated_at")
+    var updatedAt: Long = 0
+) : Child(id) {
+
+    constructor(scope: String, playlistId: String, position: Int, child: Child, updatedAt: Long) : this(child.id, playlistId, position, scope, updatedAt) {
+        parentId = child.parentId
+        isDir = child.isDir
+        title = child.title
+        album = child.album
+        artist = child.artist
+        track = child.track
+        year = child.year
+        genre = child.genre
+        coverArtId = child.coverArtId
+        size = child.size
+        contentType = child.contentType
+        suffix = child.suffix
+        transcodedContentType = child.transcodedContentType
+        transcodedSuffix = child.transcodedSuffix
+        duration = child.duration
+        bitrate = child.bitrate
+        path = child.path
+        isVideo = child.isVideo
+        userRating = child.userRating
+        averageRating = child.averageRating
+        playCount = child.playCount
+        discNumber = child.discNumber
+        created = child.created
+        starred = child.starred
+        albumId = child.albumId
+        artistId = child.artistId
+        type = child.type
+        bookmarkPosition = child.bookmarkPosition
+        originalWidth = child.originalWidth
+        originalHeight = child.originalHeight
+    }
+}
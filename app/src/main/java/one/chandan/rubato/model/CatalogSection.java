@@ -0,0 +1,17 @@
+package one.chandan.rubato.model;
+
+import androidx.room.Ignore;
+
+public class CatalogSection {
+    public String section;
+    public int count;
+
+    public CatalogSection() {
+    }
+
+    @Ignore
+    public CatalogSection(String section, int count) {
+        this.section = section;
+        this.count = count;
+    }
+}
@@ -0,0 +1,32 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Index
+import androidx.room.PrimaryKey
+
+@Entity(
+    tableName = "cover_art_prefetch",
+    indices = [Index(value = ["priority", "next_attempt_at"])]
+)
+data class CoverArtPrefetchItem(
+    @PrimaryKey
+    @ColumnInfo(name = "item_key")
+    val key: String,
+    @ColumnInfo(name = "kind")
+    val kind: String,
+    @ColumnInfo(name = "value")
+    val value: String,
+    @ColumnInfo(name = "resource_type")
+    val resourceType: String?,
+    @ColumnInfo(name = "priority")
+    val priority: Int,
+    @ColumnInfo(name = "attempts")
+    val attempts: Int = 0,
+    @ColumnInfo(name = "next_attempt_at")
+    val nextAttemptAt: Long = 0,
+    @ColumnInfo(name = "claimed_at")
+    val claimedAt: Long = 0,
+    @ColumnInfo(name = "enqueued_at")
+    val enqueuedAt: Long
+)
@@ -39,4 +39,7 @@ data class LibrarySearchEntry(
     val searchText: String,
     @ColumnInfo(name = "updated_at")
     val updatedAt: Long
-)
+) {
+    @ColumnInfo(name = "content_hash", defaultValue = "0")
+    var contentHash: Long = 0
+}
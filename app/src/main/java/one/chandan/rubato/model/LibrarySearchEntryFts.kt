@@ -0,0 +1,15 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Fts4
+import androidx.room.FtsOptions
+
+@Fts4(contentEntity = LibrarySearchEntry::class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "library_search_entry_fts")
+data class LibrarySearchEntryFts(
+    @ColumnInfo(name = "title")
+    val title: String?,
+    @ColumnInfo(name = "search_text")
+    val searchText: String?
+)
@@ -0,0 +1,9 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+
+data class LibrarySearchHash(
+    val uid: String,
+    @ColumnInfo(name = "content_hash")
+    val contentHash: Long
+)
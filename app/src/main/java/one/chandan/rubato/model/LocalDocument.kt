@@ -0,0 +1,51 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Index
+
+/**
+ * An audio file found by walking a local source's document tree, with the tags read from it.
+ * Rows are re-read only when the provider reports a different [lastModified] or [size].
+ */
+@Entity(
+    tableName = "local_document",
+    primaryKeys = ["source_id", "document_id"],
+    indices = [Index(value = ["source_id"])]
+)
+data class LocalDocument(
+    @ColumnInfo(name = "source_id")
+    val sourceId: String,
+    @ColumnInfo(name = "document_id")
+    val documentId: String,
+    @ColumnInfo(name = "document_uri")
+    val documentUri: String,
+    @ColumnInfo(name = "display_name")
+    val displayName: String?,
+    @ColumnInfo(name = "mime_type")
+    val mimeType: String?,
+    @ColumnInfo(name = "size")
+    val size: Long,
+    @ColumnInfo(name = "last_modified")
+    val lastModified: Long,
+    @ColumnInfo(name = "title")
+    val title: String?,
+    @ColumnInfo(name = "album")
+    val album: String?,
+    @ColumnInfo(name = "artist")
+    val artist: String?,
+    @ColumnInfo(name = "album_artist")
+    val albumArtist: String?,
+    @ColumnInfo(name = "track")
+    val track: Int,
+    @ColumnInfo(name = "disc")
+    val disc: Int,
+    @ColumnInfo(name = "year")
+    val year: Int,
+    @ColumnInfo(name = "duration_ms")
+    val durationMs: Long,
+    @ColumnInfo(name = "genre")
+    val genre: String?,
+    @ColumnInfo(name = "art_uri")
+    val artUri: String?
+)
@@ -0,0 +1,58 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+
+/**
+ * One MediaStore audio row as last seen by the local scanner. Rows are kept for every music file,
+ * whatever the local source filter, so changing sources never needs a rescan.
+ */
+@Entity(tableName = "local_media")
+data class LocalMedia(
+    @PrimaryKey
+    @ColumnInfo(name = "media_id")
+    val mediaId: Long,
+    @ColumnInfo(name = "title")
+    val title: String?,
+    @ColumnInfo(name = "album")
+    val album: String?,
+    @ColumnInfo(name = "artist")
+    val artist: String?,
+    @ColumnInfo(name = "album_id")
+    val albumId: Long,
+    @ColumnInfo(name = "artist_id")
+    val artistId: Long,
+    @ColumnInfo(name = "duration_ms")
+    val durationMs: Long,
+    @ColumnInfo(name = "track")
+    val track: Int,
+    @ColumnInfo(name = "year")
+    val year: Int,
+    @ColumnInfo(name = "size")
+    val size: Long,
+    @ColumnInfo(name = "mime_type")
+    val mimeType: String?,
+    @ColumnInfo(name = "display_name")
+    val displayName: String?,
+    @ColumnInfo(name = "relative_path")
+    val relativePath: String?,
+    @ColumnInfo(name = "data_path")
+    val dataPath: String?,
+    // First genre by name; see [genres] for all of them.
+    @ColumnInfo(name = "genre")
+    val genre: String?,
+    @ColumnInfo(name = "date_modified")
+    val dateModified: Long,
+    // Every genre the file belongs to, in name order, joined by [GENRE_SEPARATOR].
+    @ColumnInfo(name = "genres")
+    val genres: String? = genre
+) {
+    fun genreList(): List<String> {
+        return genres?.split(GENRE_SEPARATOR)?.filter { it.isNotEmpty() } ?: listOfNotNull(genre)
+    }
+
+    companion object {
+        const val GENRE_SEPARATOR = "\u001F"
+    }
+}
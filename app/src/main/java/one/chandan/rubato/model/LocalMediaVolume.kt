@@ -0,0 +1,20 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+
+/**
+ * Last MediaStore generation scanned on an external volume. Generations only compare within the
+ * same [version]; a new version means the volume was reindexed and has to be scanned in full.
+ */
+@Entity(tableName = "local_media_volume")
+data class LocalMediaVolume(
+    @PrimaryKey
+    @ColumnInfo(name = "volume")
+    val volume: String,
+    @ColumnInfo(name = "version")
+    val version: String,
+    @ColumnInfo(name = "generation")
+    val generation: Long
+)
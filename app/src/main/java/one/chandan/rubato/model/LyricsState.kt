@@ -0,0 +1,24 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.Index
+import androidx.room.PrimaryKey
+
+/**
+ * When lyrics were last looked up for a song and whether the server had any, so prefetching and
+ * the player can skip songs that were checked recently.
+ */
+@Entity(
+    tableName = "lyrics_state",
+    indices = [Index(value = ["checked_at"])]
+)
+data class LyricsState(
+    @PrimaryKey
+    @ColumnInfo(name = "song_id")
+    val songId: String,
+    @ColumnInfo(name = "has_lyrics")
+    val hasLyrics: Boolean,
+    @ColumnInfo(name = "checked_at")
+    val checkedAt: Long
+)
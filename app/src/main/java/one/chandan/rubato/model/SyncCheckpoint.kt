@@ -0,0 +1,30 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+
+@Entity(tableName = "sync_checkpoint")
+data class SyncCheckpoint(
+    @PrimaryKey
+    @ColumnInfo(name = "scope")
+    val scope: String,
+    @ColumnInfo(name = "started_at")
+    val startedAt: Long,
+    @ColumnInfo(name = "incremental")
+    val incremental: Boolean,
+    @ColumnInfo(name = "signature")
+    val signature: String?,
+    // No longer advanced; playlists are checkpointed per item. Kept so the schema stays unchanged.
+    @ColumnInfo(name = "playlist_index")
+    val playlistIndex: Int = 0,
+    @ColumnInfo(name = "album_offset")
+    val albumOffset: Int = 0,
+    @ColumnInfo(name = "albums_complete")
+    val albumsComplete: Boolean = false,
+    @ColumnInfo(name = "updated_at")
+    val updatedAt: Long = startedAt,
+    // Resumes since the run last made progress; see SyncCheckpointRepository.MAX_RESUME_ATTEMPTS.
+    @ColumnInfo(name = "resume_attempts", defaultValue = "0")
+    val resumeAttempts: Int = 0
+)
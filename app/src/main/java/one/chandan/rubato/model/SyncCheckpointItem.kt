@@ -0,0 +1,17 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+
+@Entity(
+    tableName = "sync_checkpoint_item",
+    primaryKeys = ["scope", "stage", "item_id"]
+)
+data class SyncCheckpointItem(
+    @ColumnInfo(name = "scope")
+    val scope: String,
+    @ColumnInfo(name = "stage")
+    val stage: String,
+    @ColumnInfo(name = "item_id")
+    val itemId: String
+)
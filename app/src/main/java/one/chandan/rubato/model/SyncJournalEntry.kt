@@ -0,0 +1,21 @@
+package one.chandan.rubato.model
+
+import androidx.room.ColumnInfo
+import androidx.room.Entity
+
+@Entity(
+    tableName = "sync_journal",
+    primaryKeys = ["scope", "kind", "entity_id"]
+)
+data class SyncJournalEntry(
+    @ColumnInfo(name = "scope")
+    val scope: String,
+    @ColumnInfo(name = "kind")
+    val kind: String,
+    @ColumnInfo(name = "entity_id")
+    val entityId: String,
+    @ColumnInfo(name = "fingerprint")
+    val fingerprint: String,
+    @ColumnInfo(name = "synced_at")
+    val syncedAt: Long
+)
@@ -13,6 +13,8 @@ import one.chandan.rubato.subsonic.models.AlbumInfo;
 import one.chandan.rubato.subsonic.models.ArtistID3;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.subsonic.models.SubsonicResponse;
+import one.chandan.rubato.util.AlbumCatalogIndex;
+import one.chandan.rubato.util.AppExecutors;
 import one.chandan.rubato.util.JellyfinTagUtil;
 import one.chandan.rubato.util.LibraryDedupeUtil;
 import one.chandan.rubato.util.OfflinePolicy;
@@ -27,6 +29,7 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
 import java.lang.reflect.Type;
 
 import retrofit2.Call;
@@ -35,6 +38,7 @@ import retrofit2.Response;
 
 public class AlbumRepository {
     private final CacheRepository cacheRepository = new CacheRepository();
+    private final CatalogRepository catalogRepository = new CatalogRepository();
     private final JellyfinCacheRepository jellyfinCacheRepository = new JellyfinCacheRepository();
     private final LibrarySearchIndexRepository searchIndexRepository = new LibrarySearchIndexRepository();
     public MutableLiveData<List<AlbumID3>> getAlbums(String type, int size, Integer fromYear, Integer toYear) {
@@ -737,34 +741,8 @@ public class AlbumRepository {
         if (current != null && !current.isEmpty()) {
             return;
         }
-        Type typeToken = new TypeToken<List<AlbumID3>>() {
-        }.getType();
-        cacheRepository.load("albums_all", typeToken, new CacheRepository.CacheResult<List<AlbumID3>>() {
-            @Override
-            public void onLoaded(List<AlbumID3> albums) {
-                if (albums == null) {
-                    listLiveAlbums.postValue(new ArrayList<>());
-                    return;
-                }
-
-                List<AlbumID3> filtered = new ArrayList<>(albums);
-                filtered.removeIf(album -> album == null);
-                if (fromYear != null && toYear != null) {
-                    filtered.removeIf(album -> album.getYear() < fromYear || album.getYear() > toYear);
-                }
-
-                applyAlbumOrdering(type, filtered);
-
-                LocalMusicRepository.appendLocalAlbums(App.getContext(), filtered, merged -> {
-                    List<AlbumID3> ordered = merged != null ? new ArrayList<>(merged) : new ArrayList<>();
-                    applyAlbumOrdering(type, ordered);
-                    if (size > 0 && ordered.size() > size) {
-                        ordered = new ArrayList<>(ordered.subList(0, size));
-                    }
-                    listLiveAlbums.postValue(ordered);
-                });
-            }
-        });
+        LibrarySnapshotStore.get(snapshot -> listLiveAlbums.postValue(
+                snapshot.getAlbumIndex().slice(type, size, fromYear, toYear, ThreadLocalRandom.current())));
     }
 
     private void loadCachedStarredAlbums(String cacheKey, MutableLiveData<List<AlbumID3>> starredAlbums, boolean random, int size) {
@@ -838,6 +816,20 @@ public class AlbumRepository {
     }
 
     private void loadCachedArtistAlbumsFromAll(String artistId, MutableLiveData<List<AlbumID3>> artistsAlbum) {
+        AppExecutors.io().execute(() -> {
+            if (!catalogRepository.hasAlbums(CatalogRepository.SCOPE_SUBSONIC)) {
+                loadCachedArtistAlbumsFromBlob(artistId, artistsAlbum);
+                return;
+            }
+            if (artistId == null) {
+                artistsAlbum.postValue(new ArrayList<>());
+                return;
+            }
+            artistsAlbum.postValue(catalogRepository.getAlbumsByArtist(CatalogRepository.SCOPE_SUBSONIC, artistId));
+        });
+    }
+
+    private void loadCachedArtistAlbumsFromBlob(String artistId, MutableLiveData<List<AlbumID3>> artistsAlbum) {
         Type type = new TypeToken<List<AlbumID3>>() {
         }.getType();
         cacheRepository.load("albums_all", type, new CacheRepository.CacheResult<List<AlbumID3>>() {
@@ -886,6 +878,20 @@ public class AlbumRepository {
     }
 
     private void loadCachedAlbumFromAll(String albumId, MutableLiveData<AlbumID3> album) {
+        if (albumId == null) return;
+        AppExecutors.io().execute(() -> {
+            if (!catalogRepository.hasAlbums(CatalogRepository.SCOPE_SUBSONIC)) {
+                loadCachedAlbumFromBlob(albumId, album);
+                return;
+            }
+            AlbumID3 entry = catalogRepository.getAlbum(CatalogRepository.SCOPE_SUBSONIC, albumId);
+            if (entry != null) {
+                album.postValue(entry);
+            }
+        });
+    }
+
+    private void loadCachedAlbumFromBlob(String albumId, MutableLiveData<AlbumID3> album) {
         Type type = new TypeToken<List<AlbumID3>>() {
         }.getType();
         cacheRepository.load("albums_all", type, new CacheRepository.CacheResult<List<AlbumID3>>() {
@@ -912,6 +918,26 @@ public class AlbumRepository {
     }
 
     private void loadCachedDecadesFromAll(MutableLiveData<List<Integer>> decades) {
+        AppExecutors.io().execute(() -> {
+            if (!catalogRepository.hasAlbums(CatalogRepository.SCOPE_SUBSONIC)) {
+                loadCachedDecadesFromBlob(decades);
+                return;
+            }
+            int[] bounds = catalogRepository.getAlbumYearBounds(CatalogRepository.SCOPE_SUBSONIC);
+            List<Integer> decadeList = new ArrayList<>();
+            if (bounds != null) {
+                int startDecade = bounds[0] - (bounds[0] % 10);
+                int lastDecade = bounds[1] - (bounds[1] % 10);
+                while (startDecade <= lastDecade) {
+                    decadeList.add(startDecade);
+                    startDecade = startDecade + 10;
+                }
+            }
+            decades.postValue(decadeList);
+        });
+    }
+
+    private void loadCachedDecadesFromBlob(MutableLiveData<List<Integer>> decades) {
         Type type = new TypeToken<List<AlbumID3>>() {
         }.getType();
         cacheRepository.load("albums_all", type, new CacheRepository.CacheResult<List<AlbumID3>>() {
@@ -954,62 +980,14 @@ public class AlbumRepository {
     private void applyAlbumOrdering(String type, List<AlbumID3> albums) {
         if (albums == null || albums.isEmpty()) return;
 
-        if ("random".equals(type)) {
+        if (AlbumCatalogIndex.TYPE_RANDOM.equals(type)) {
             Collections.shuffle(albums);
             return;
         }
 
-        if ("alphabeticalByName".equals(type)) {
-            albums.sort(Comparator.comparing(album -> album == null || album.getName() == null ? "" : album.getName(), String.CASE_INSENSITIVE_ORDER));
-            return;
-        }
-
-        if ("byYear".equals(type)) {
-            albums.sort(Comparator.comparingInt(AlbumID3::getYear).reversed());
-            return;
-        }
-
-        if ("newest".equals(type)) {
-            albums.sort((a, b) -> {
-                if (a == null && b == null) return 0;
-                if (a == null) return 1;
-                if (b == null) return -1;
-                if (a.getCreated() != null || b.getCreated() != null) {
-                    if (a.getCreated() == null) return 1;
-                    if (b.getCreated() == null) return -1;
-                    return b.getCreated().compareTo(a.getCreated());
-                }
-                return Integer.compare(b.getYear(), a.getYear());
-            });
-            return;
-        }
-
-        if ("recent".equals(type)) {
-            albums.sort((a, b) -> {
-                if (a == null && b == null) return 0;
-                if (a == null) return 1;
-                if (b == null) return -1;
-                if (a.getPlayed() != null || b.getPlayed() != null) {
-                    if (a.getPlayed() == null) return 1;
-                    if (b.getPlayed() == null) return -1;
-                    return b.getPlayed().compareTo(a.getPlayed());
-                }
-                if (a.getCreated() != null || b.getCreated() != null) {
-                    if (a.getCreated() == null) return 1;
-                    if (b.getCreated() == null) return -1;
-                    return b.getCreated().compareTo(a.getCreated());
-                }
-                return Integer.compare(b.getYear(), a.getYear());
-            });
-            return;
-        }
-
-        if ("frequent".equals(type)) {
-            albums.sort((a, b) -> {
-                long aCount = a != null && a.getPlayCount() != null ? a.getPlayCount() : 0;
-                long bCount = b != null && b.getPlayCount() != null ? b.getPlayCount() : 0;
-                return Long.compare(bCount, aCount);
-            });
+        Comparator<AlbumID3> comparator = AlbumCatalogIndex.comparator(type);
+        if (comparator != null) {
+            albums.sort(Comparator.nullsLast(comparator));
         }
     }
 }
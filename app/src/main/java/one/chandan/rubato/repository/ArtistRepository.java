@@ -87,7 +87,7 @@ public class ArtistRepository {
         String cacheKey = "artists_all";
 
         if (OfflinePolicy.isOffline()) {
-            loadCachedArtists(cacheKey, listLiveArtists, random, size);
+            loadCachedArtists(listLiveArtists, random, size);
             mergeJellyfinArtists(listLiveArtists);
             return listLiveArtists;
         }
@@ -123,13 +123,13 @@ public class ArtistRepository {
                             return;
                         }
 
-                        loadCachedArtists(cacheKey, listLiveArtists, random, size);
+                        loadCachedArtists(listLiveArtists, random, size);
                         mergeJellyfinArtists(listLiveArtists);
                     }
 
                     @Override
                     public void onFailure(@NonNull Call<ApiResponse> call, @NonNull Throwable t) {
-                        loadCachedArtists(cacheKey, listLiveArtists, random, size);
+                        loadCachedArtists(listLiveArtists, random, size);
                         mergeJellyfinArtists(listLiveArtists);
                     }
                 });
@@ -498,21 +498,17 @@ public class ArtistRepository {
         liveData.setValue(liveArtists);
     }
 
-    private void loadCachedArtists(String cacheKey, MutableLiveData<List<ArtistID3>> listLiveArtists, boolean random, int size) {
-        Type type = new TypeToken<List<ArtistID3>>() {
-        }.getType();
-        cacheRepository.load(cacheKey, type, new CacheRepository.CacheResult<List<ArtistID3>>() {
-            @Override
-            public void onLoaded(List<ArtistID3> artists) {
-                if (artists == null) return;
-                if (random) {
-                    Collections.shuffle(artists);
-                    List<ArtistID3> selection = artists.subList(0, artists.size() / size > 0 ? size : artists.size());
-                    LocalMusicRepository.appendLocalArtists(App.getContext(), selection, listLiveArtists::postValue);
-                } else {
-                    LocalMusicRepository.appendLocalArtists(App.getContext(), artists, listLiveArtists::postValue);
-                }
+    private void loadCachedArtists(MutableLiveData<List<ArtistID3>> listLiveArtists, boolean random, int size) {
+        LibrarySnapshotStore.get(snapshot -> {
+            if (!random) {
+                listLiveArtists.postValue(new ArrayList<>(snapshot.getAllArtists()));
+                return;
             }
+            List<ArtistID3> artists = new ArrayList<>(snapshot.getArtists());
+            Collections.shuffle(artists);
+            List<ArtistID3> selection = new ArrayList<>(artists.subList(0, artists.size() / size > 0 ? size : artists.size()));
+            selection.addAll(snapshot.getLocalArtists());
+            listLiveArtists.postValue(selection);
         });
     }
 
@@ -535,18 +531,10 @@ public class ArtistRepository {
     }
 
     private void loadCachedArtistFromAll(String artistId, MutableLiveData<ArtistID3> artist) {
-        Type type = new TypeToken<List<ArtistID3>>() {
-        }.getType();
-        cacheRepository.load("artists_all", type, new CacheRepository.CacheResult<List<ArtistID3>>() {
-            @Override
-            public void onLoaded(List<ArtistID3> artists) {
-                if (artists == null) return;
-                for (ArtistID3 entry : artists) {
-                    if (entry != null && artistId != null && artistId.equals(entry.getId())) {
-                        artist.postValue(entry);
-                        return;
-                    }
-                }
+        LibrarySnapshotStore.get(snapshot -> {
+            ArtistID3 entry = snapshot.getArtist(artistId);
+            if (entry != null) {
+                artist.postValue(entry);
             }
         });
     }
@@ -590,31 +578,14 @@ public class ArtistRepository {
     }
 
     private void loadCachedArtistsForSelection(List<ArtistID3> selection, MutableLiveData<List<ArtistID3>> list) {
-        Type type = new TypeToken<List<ArtistID3>>() {
-        }.getType();
-        cacheRepository.load("artists_all", type, new CacheRepository.CacheResult<List<ArtistID3>>() {
-            @Override
-            public void onLoaded(List<ArtistID3> artists) {
-                if (artists == null) {
-                    list.postValue(selection);
-                    return;
-                }
-
-                List<ArtistID3> result = new ArrayList<>();
-                for (ArtistID3 input : selection) {
-                    if (input == null) continue;
-                    ArtistID3 match = null;
-                    for (ArtistID3 cached : artists) {
-                        if (cached != null && cached.getId() != null && cached.getId().equals(input.getId())) {
-                            match = cached;
-                            break;
-                        }
-                    }
-                    result.add(match != null ? match : input);
-                }
-
-                list.postValue(result);
+        LibrarySnapshotStore.get(snapshot -> {
+            List<ArtistID3> result = new ArrayList<>();
+            for (ArtistID3 input : selection) {
+                if (input == null) continue;
+                ArtistID3 match = snapshot.getArtist(input.getId());
+                result.add(match != null ? match : input);
             }
+            list.postValue(result);
         });
     }
 
@@ -633,60 +604,52 @@ public class ArtistRepository {
     }
 
     private void loadCachedSongsForArtistCommon(String artistId, String artistName, int count, boolean shuffle, boolean sortByPlayCount, MutableLiveData<List<Child>> songsLiveData) {
-        Type type = new TypeToken<List<Child>>() {
-        }.getType();
-        cacheRepository.load("songs_all", type, new CacheRepository.CacheResult<List<Child>>() {
-            @Override
-            public void onLoaded(List<Child> songs) {
-                if (songs == null) {
-                    songsLiveData.postValue(new ArrayList<>());
-                    return;
-                }
+        LibrarySnapshotStore.get(snapshot -> {
+            List<Child> songs = snapshot.getSongs();
+            if (!snapshot.isSongsIncluded()) {
+                Type type = new TypeToken<List<Child>>() {
+                }.getType();
+                songs = cacheRepository.loadBlocking("songs_all", type);
+            }
 
-                List<Child> filtered = new ArrayList<>();
+            List<Child> filtered = new ArrayList<>();
+            if (songs != null) {
                 for (Child song : songs) {
-                    if (song == null) continue;
-                    if (artistId != null && artistId.equals(song.getArtistId())) {
-                        filtered.add(song);
-                    } else if (artistName != null && song.getArtist() != null && song.getArtist().equalsIgnoreCase(artistName)) {
+                    if (matchesArtist(song, artistId, artistName)) {
                         filtered.add(song);
                     }
                 }
+            }
 
-                if (sortByPlayCount) {
-                    filtered.sort((a, b) -> {
-                        long aCount = a != null && a.getPlayCount() != null ? a.getPlayCount() : 0;
-                        long bCount = b != null && b.getPlayCount() != null ? b.getPlayCount() : 0;
-                        return Long.compare(bCount, aCount);
-                    });
-                } else if (shuffle) {
-                    Collections.shuffle(filtered);
-                }
+            if (sortByPlayCount) {
+                filtered.sort((a, b) -> {
+                    long aCount = a != null && a.getPlayCount() != null ? a.getPlayCount() : 0;
+                    long bCount = b != null && b.getPlayCount() != null ? b.getPlayCount() : 0;
+                    return Long.compare(bCount, aCount);
+                });
+            } else if (shuffle) {
+                Collections.shuffle(filtered);
+            }
 
-                List<Child> finalFiltered = filtered;
-                if (count > 0 && filtered.size() > count) {
-                    finalFiltered = new ArrayList<>(filtered.subList(0, count));
+            List<Child> merged = filtered;
+            if (count > 0 && filtered.size() > count) {
+                merged = new ArrayList<>(filtered.subList(0, count));
+            }
+            for (Child song : snapshot.getLocalSongs()) {
+                if (matchesArtist(song, artistId, artistName)) {
+                    merged.add(song);
                 }
-
-                List<Child> snapshot = finalFiltered;
-                LocalMusicRepository.loadLibrary(App.getContext(), library -> {
-                    List<Child> merged = new ArrayList<>(snapshot);
-                    if (library != null && library.songs != null) {
-                        for (Child song : library.songs) {
-                            if (song == null) continue;
-                            if (artistId != null && artistId.equals(song.getArtistId())) {
-                                merged.add(song);
-                            } else if (artistName != null && song.getArtist() != null && song.getArtist().equalsIgnoreCase(artistName)) {
-                                merged.add(song);
-                            }
-                        }
-                    }
-                    mergeJellyfinSongsForArtist(artistId, artistName, merged, songsLiveData);
-                });
             }
+            mergeJellyfinSongsForArtist(artistId, artistName, merged, songsLiveData);
         });
     }
 
+    private static boolean matchesArtist(Child song, String artistId, String artistName) {
+        if (song == null) return false;
+        if (artistId != null && artistId.equals(song.getArtistId())) return true;
+        return artistName != null && song.getArtist() != null && song.getArtist().equalsIgnoreCase(artistName);
+    }
+
     private void mergeJellyfinArtists(MutableLiveData<List<ArtistID3>> listLiveArtists) {
         jellyfinCacheRepository.loadAllArtists(jellyfinArtists -> {
             List<ArtistID3> base = listLiveArtists.getValue();
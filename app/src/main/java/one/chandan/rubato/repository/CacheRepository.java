@@ -24,11 +24,17 @@ public class CacheRepository {
     private static final long MAX_CHUNK_PAYLOAD_CHARS = 1_000_000L;
     private static final String CHUNK_SUFFIX = "_chunk_";
     private final CachedResponseDao cachedResponseDao = AppDatabase.getInstance().cachedResponseDao();
+    private final CatalogRepository catalogRepository = new CatalogRepository();
     private final Gson gson = new Gson();
 
     public void save(String key, Object data) {
         if (data == null) return;
         AppExecutors.io().execute(() -> {
+            if (catalogRepository.saveForCacheKey(key, data)) {
+                cachedResponseDao.deleteLike(chunkPrefix(key) + "%");
+                cachedResponseDao.delete(key);
+                return;
+            }
             Object payload = data;
             if (data instanceof Collection) {
                 Object[] snapshot = ((Collection<?>) data).toArray();
@@ -50,8 +56,21 @@ public class CacheRepository {
         });
     }
 
+    public void delete(String key) {
+        if (key == null) return;
+        AppExecutors.io().execute(() -> {
+            cachedResponseDao.deleteLike(chunkPrefix(key) + "%");
+            cachedResponseDao.delete(key);
+        });
+    }
+
     public <T> void load(String key, Type type, CacheResult<T> callback) {
         AppExecutors.io().execute(() -> {
+            T catalogValue = loadCatalog(key);
+            if (catalogValue != null) {
+                callback.onLoaded(catalogValue);
+                return;
+            }
             T value = loadChunked(key, type);
             if (value != null) {
                 callback.onLoaded(value);
@@ -83,6 +102,11 @@ public class CacheRepository {
 
     public <T> void loadOrNull(String key, Type type, CacheResult<T> callback) {
         AppExecutors.io().execute(() -> {
+            T catalogValue = loadCatalog(key);
+            if (catalogValue != null) {
+                callback.onLoaded(catalogValue);
+                return;
+            }
             T value = loadChunked(key, type);
             if (value != null) {
                 callback.onLoaded(value);
@@ -118,6 +142,10 @@ public class CacheRepository {
     }
 
     public <T> T loadBlocking(String key, Type type) {
+        T catalogValue = loadCatalog(key);
+        if (catalogValue != null) {
+            return catalogValue;
+        }
         T value = loadChunked(key, type);
         if (value != null) {
             return value;
@@ -154,6 +182,11 @@ public class CacheRepository {
             long total = 0L;
             List<String> standardKeys = new ArrayList<>();
             for (String key : keys) {
+                long catalogSize = catalogRepository.estimatePayloadChars(key);
+                if (catalogSize > 0) {
+                    total += catalogSize;
+                    continue;
+                }
                 Long chunkSize = cachedResponseDao.getPayloadSizeLike(chunkPrefix(key) + "%");
                 if (chunkSize != null && chunkSize > 0) {
                     total += chunkSize;
@@ -178,6 +211,11 @@ public class CacheRepository {
 
     public void loadPayloadSize(String key, CacheResult<Long> callback) {
         AppExecutors.io().execute(() -> {
+            long catalogSize = catalogRepository.estimatePayloadChars(key);
+            if (catalogSize > 0) {
+                callback.onLoaded(catalogSize);
+                return;
+            }
             Long chunkSize = cachedResponseDao.getPayloadSizeLike(chunkPrefix(key) + "%");
             if (chunkSize != null && chunkSize > 0) {
                 callback.onLoaded(chunkSize);
@@ -188,6 +226,17 @@ public class CacheRepository {
         });
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> T loadCatalog(String key) {
+        if (!CatalogRepository.isCatalogKey(key)) return null;
+        try {
+            return (T) catalogRepository.loadForCacheKey(key);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Catalog load failed for " + key, e);
+            return null;
+        }
+    }
+
     private boolean isPayloadTooLarge(String key) {
         Long size = cachedResponseDao.getPayloadSizeLike(chunkPrefix(key) + "%");
         if (size == null || size <= 0) {
@@ -0,0 +1,983 @@
+package one.chandan.rubato.repository;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.paging.PagingConfig;
+import androidx.paging.PagingSource;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+
+import one.chandan.rubato.database.AppDatabase;
+import one.chandan.rubato.database.dao.CatalogDao;
+import one.chandan.rubato.model.CatalogAlbum;
+import one.chandan.rubato.model.CatalogArtist;
+import one.chandan.rubato.model.CatalogGenre;
+import one.chandan.rubato.model.CatalogPlaylistEntry;
+import one.chandan.rubato.model.CatalogSection;
+import one.chandan.rubato.model.CatalogSong;
+import one.chandan.rubato.subsonic.models.AlbumID3;
+import one.chandan.rubato.subsonic.models.ArtistID3;
+import one.chandan.rubato.subsonic.models.Child;
+import one.chandan.rubato.subsonic.models.DiscTitle;
+import one.chandan.rubato.subsonic.models.Genre;
+import one.chandan.rubato.subsonic.models.ItemDate;
+import one.chandan.rubato.subsonic.models.ItemGenre;
+import one.chandan.rubato.subsonic.models.RecordLabel;
+import one.chandan.rubato.util.Constants;
+import one.chandan.rubato.util.JellyfinTagUtil;
+import one.chandan.rubato.util.Preferences;
+import one.chandan.rubato.util.SearchIndexUtil;
+
+import com.google.gson.Gson;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Normalized, row-per-entity storage for the synced library. Replaces the
+ * {@code *_all} JSON blobs that used to live in {@code cached_response}.
+ */
+public class CatalogRepository {
+    private static final String TAG = "CatalogRepository";
+
+    public static final String SCOPE_SUBSONIC = SearchIndexUtil.SOURCE_SUBSONIC;
+    public static final String SCOPE_LOCAL = SearchIndexUtil.SOURCE_LOCAL;
+    private static final String JELLYFIN_SCOPE_PREFIX = "jf_";
+
+    private static final String SUFFIX_ARTISTS = "artists_all";
+    private static final String SUFFIX_ALBUMS = "albums_all";
+    private static final String SUFFIX_SONGS = "songs_all";
+    private static final String SUFFIX_GENRES = "genres_all";
+    private static final String PREFIX_ALBUM_TRACKS = "album_tracks_";
+    private static final String PREFIX_PLAYLIST_SONGS = "playlist_songs_";
+
+    // Rough serialized size per row, used where callers still reason in payload chars.
+    private static final long ESTIMATED_ARTIST_CHARS = 120L;
+    private static final long ESTIMATED_ALBUM_CHARS = 400L;
+    private static final long ESTIMATED_SONG_CHARS = 600L;
+    private static final long ESTIMATED_GENRE_CHARS = 60L;
+
+    // Keeps IN (...) lists under SQLite's bound-variable limit on older devices.
+    private static final int KEY_CHUNK = 500;
+    private static final int BROWSE_PAGE_SIZE = 60;
+    // Multiplicative hash of rowid used for a stable per-seed shuffle that pages consistently.
+    private static final String SHUFFLE_MULTIPLIER = "2654435761";
+    private static final String SHUFFLE_MODULUS = "4294967311";
+
+    private static volatile boolean browseKeysChecked;
+
+    private final AppDatabase database = AppDatabase.getInstance();
+    private final CatalogDao catalogDao = database.catalogDao();
+    private final Gson gson = new Gson();
+
+    public static String jellyfinScope(String serverId) {
+        return JELLYFIN_SCOPE_PREFIX + serverId;
+    }
+
+    public void replaceArtists(String scope, List<ArtistID3> artists) {
+        List<CatalogArtist> rows = toCatalogArtists(scope, artists, System.currentTimeMillis());
+        database.runInTransaction(() -> {
+            catalogDao.replaceArtists(scope, rows);
+            refreshArtistBrowse(null);
+        });
+    }
+
+    public void upsertArtists(String scope, List<ArtistID3> artists, long updatedAt) {
+        List<CatalogArtist> rows = toCatalogArtists(scope, artists, updatedAt);
+        if (rows.isEmpty()) return;
+        List<String> ids = new ArrayList<>(rows.size());
+        Set<String> keys = new HashSet<>();
+        for (CatalogArtist row : rows) {
+            ids.add(row.getId());
+            keys.add(row.getDedupeKey());
+        }
+        database.runInTransaction(() -> {
+            // A renamed artist leaves its old group, which may need a new primary row.
+            for (List<String> chunk : chunks(ids)) {
+                keys.addAll(catalogDao.getArtistDedupeKeys(scope, chunk));
+            }
+            catalogDao.upsertArtists(rows);
+            refreshArtistBrowse(keys);
+        });
+    }
+
+    public int pruneArtists(String scope, long before) {
+        return database.runInTransaction(() -> {
+            int removed = catalogDao.pruneArtists(scope, before);
+            if (removed > 0) refreshArtistBrowse(null);
+            return removed;
+        });
+    }
+
+    public void replaceAlbums(String scope, List<AlbumID3> albums) {
+        List<CatalogAlbum> rows = toCatalogAlbums(scope, albums, System.currentTimeMillis());
+        database.runInTransaction(() -> {
+            catalogDao.replaceAlbums(scope, rows);
+            refreshAlbumBrowse(null);
+        });
+    }
+
+    public void upsertAlbums(String scope, List<AlbumID3> albums, long updatedAt) {
+        List<CatalogAlbum> rows = toCatalogAlbums(scope, albums, updatedAt);
+        if (rows.isEmpty()) return;
+        List<String> ids = new ArrayList<>(rows.size());
+        Set<String> keys = new HashSet<>();
+        for (CatalogAlbum row : rows) {
+            ids.add(row.getId());
+            keys.add(row.getDedupeKey());
+        }
+        database.runInTransaction(() -> {
+            for (List<String> chunk : chunks(ids)) {
+                keys.addAll(catalogDao.getAlbumDedupeKeys(scope, chunk));
+            }
+            catalogDao.upsertAlbums(rows);
+            refreshAlbumBrowse(keys);
+        });
+    }
+
+    public int pruneAlbums(String scope, long before) {
+        return database.runInTransaction(() -> {
+            int removed = catalogDao.pruneAlbums(scope, before);
+            if (removed > 0) refreshAlbumBrowse(null);
+            return removed;
+        });
+    }
+
+    public void replaceSongs(String scope, List<Child> songs) {
+        catalogDao.replaceSongs(scope, toCatalogSongs(scope, songs, System.currentTimeMillis()));
+    }
+
+    public void replaceAlbumSongs(String scope, String albumId, List<Child> songs, long updatedAt) {
+        if (albumId == null || albumId.isEmpty()) return;
+        catalogDao.replaceAlbumSongs(scope, albumId, toCatalogSongs(scope, songs, updatedAt));
+    }
+
+    public int pruneOrphanSongs(String scope) {
+        return catalogDao.pruneOrphanSongs(scope);
+    }
+
+    public void replaceGenres(String scope, List<Genre> genres) {
+        catalogDao.replaceGenres(scope, toCatalogGenres(scope, genres, System.currentTimeMillis()));
+    }
+
+    public void replacePlaylistEntries(String scope, String playlistId, List<Child> songs) {
+        if (playlistId == null || playlistId.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        List<CatalogPlaylistEntry> rows = new ArrayList<>();
+        if (songs != null) {
+            int position = 0;
+            for (Child song : songs) {
+                if (song == null || song.getId() == null) continue;
+                rows.add(new CatalogPlaylistEntry(scope, playlistId, position++, song, now));
+            }
+        }
+        catalogDao.replacePlaylistEntries(scope, playlistId, rows);
+    }
+
+    public void deletePlaylistEntries(String scope, String playlistId) {
+        if (playlistId == null || playlistId.isEmpty()) return;
+        catalogDao.deletePlaylistEntries(scope, playlistId);
+    }
+
+    public void clearScope(String scope) {
+        database.runInTransaction(() -> {
+            catalogDao.deleteArtists(scope);
+            catalogDao.deleteAlbums(scope);
+            catalogDao.deleteSongs(scope);
+            catalogDao.deleteGenres(scope);
+            catalogDao.deleteAllPlaylistEntries(scope);
+            refreshArtistBrowse(null);
+            refreshAlbumBrowse(null);
+        });
+        if (SCOPE_SUBSONIC.equals(scope)) {
+            LibrarySnapshotStore.invalidate();
+        }
+    }
+
+    public List<ArtistID3> getArtists(String scope) {
+        List<CatalogArtist> rows = catalogDao.getArtists(scope);
+        List<ArtistID3> artists = new ArrayList<>(rows != null ? rows.size() : 0);
+        if (rows != null) {
+            for (CatalogArtist row : rows) {
+                artists.add(toArtist(row));
+            }
+        }
+        return artists;
+    }
+
+    public ArtistID3 getArtist(String scope, String id) {
+        if (id == null) return null;
+        CatalogArtist row = catalogDao.getArtist(scope, id);
+        return row != null ? toArtist(row) : null;
+    }
+
+    public List<AlbumID3> getAlbums(String scope) {
+        return toAlbums(catalogDao.getAlbums(scope));
+    }
+
+    public AlbumID3 getAlbum(String scope, String id) {
+        if (id == null) return null;
+        CatalogAlbum row = catalogDao.getAlbum(scope, id);
+        return row != null ? toAlbum(row) : null;
+    }
+
+    public List<AlbumID3> getAlbumsByArtist(String scope, String artistId) {
+        if (artistId == null) return Collections.emptyList();
+        return toAlbums(catalogDao.getAlbumsByArtist(scope, artistId));
+    }
+
+    public List<AlbumID3> getAlbumsByYearRange(String scope, int fromYear, int toYear) {
+        return toAlbums(catalogDao.getAlbumsByYearRange(scope, fromYear, toYear));
+    }
+
+    public int[] getAlbumYearBounds(String scope) {
+        Integer min = catalogDao.getMinAlbumYear(scope);
+        Integer max = catalogDao.getMaxAlbumYear(scope);
+        if (min == null || max == null) return null;
+        return new int[]{min, max};
+    }
+
+    public List<Child> getSongs(String scope) {
+        return new ArrayList<>(catalogDao.getSongs(scope));
+    }
+
+    /**
+     * Walks the songs of {@code scope} in id order, {@code pageSize} rows at a time, so callers can
+     * process the whole library without loading it at once.
+     */
+    public void forEachSongPage(String scope, int pageSize, Consumer<List<Child>> consumer) {
+        String afterId = "";
+        while (true) {
+            List<CatalogSong> page = catalogDao.getSongPage(scope, afterId, pageSize);
+            if (page == null || page.isEmpty()) return;
+            consumer.accept(new ArrayList<>(page));
+            if (page.size() < pageSize) return;
+            afterId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    /**
+     * Id-only variant of {@link #forEachSongPage}.
+     */
+    public void forEachSongIdPage(String scope, int pageSize, Consumer<List<String>> consumer) {
+        String afterId = "";
+        while (true) {
+            List<String> page = catalogDao.getSongIdPage(scope, afterId, pageSize);
+            if (page == null || page.isEmpty()) return;
+            consumer.accept(page);
+            if (page.size() < pageSize) return;
+            afterId = page.get(page.size() - 1);
+        }
+    }
+
+    public int countSongs(String scope) {
+        return catalogDao.countSongs(scope);
+    }
+
+    public List<String> getSongCoverArtIds(String scope) {
+        List<String> ids = catalogDao.getSongCoverArtIds(scope);
+        return ids != null ? ids : Collections.emptyList();
+    }
+
+    public Child getSong(String scope, String id) {
+        if (id == null) return null;
+        return catalogDao.getSong(scope, id);
+    }
+
+    public List<Child> getSongsByAlbum(String scope, String albumId) {
+        if (albumId == null) return Collections.emptyList();
+        return new ArrayList<>(catalogDao.getSongsByAlbum(scope, albumId));
+    }
+
+    public List<Child> getSongsByArtist(String scope, String artistId) {
+        if (artistId == null) return Collections.emptyList();
+        return new ArrayList<>(catalogDao.getSongsByArtist(scope, artistId));
+    }
+
+    public List<Child> getSongsByGenre(String scope, String genre, int limit, int offset) {
+        if (genre == null) return Collections.emptyList();
+        return new ArrayList<>(catalogDao.getSongsByGenre(scope, genre, limit, offset));
+    }
+
+    public List<Child> getSongsByGenres(String scope, Collection<String> genres) {
+        if (genres == null || genres.isEmpty()) return Collections.emptyList();
+        List<String> lowered = new ArrayList<>();
+        for (String genre : genres) {
+            if (genre != null) lowered.add(genre.toLowerCase(Locale.ROOT));
+        }
+        if (lowered.isEmpty()) return Collections.emptyList();
+        return new ArrayList<>(catalogDao.getSongsByGenres(scope, lowered));
+    }
+
+    public List<Child> getRandomSongsByYearRange(String scope, Integer fromYear, Integer toYear, int limit) {
+        int min = fromYear != null ? fromYear : Integer.MIN_VALUE;
+        int max = toYear != null ? toYear : Integer.MAX_VALUE;
+        return new ArrayList<>(catalogDao.getRandomSongsByYearRange(scope, min, max, limit > 0 ? limit : Integer.MAX_VALUE));
+    }
+
+    public List<Genre> getGenres(String scope) {
+        List<CatalogGenre> rows = catalogDao.getGenres(scope);
+        List<Genre> genres = new ArrayList<>(rows != null ? rows.size() : 0);
+        if (rows != null) {
+            for (CatalogGenre row : rows) {
+                genres.add(new Genre(row.getName(), row.getSongCount(), row.getAlbumCount()));
+            }
+        }
+        return genres;
+    }
+
+    public List<Child> getPlaylistEntries(String scope, String playlistId) {
+        if (playlistId == null) return Collections.emptyList();
+        return new ArrayList<>(catalogDao.getPlaylistEntries(scope, playlistId));
+    }
+
+    public boolean hasAlbums(String scope) {
+        return catalogDao.countAlbums(scope) > 0;
+    }
+
+    public boolean hasSongs(String scope) {
+        return catalogDao.countSongs(scope) > 0;
+    }
+
+    /**
+     * Writes {@code data} for a legacy cache key into the catalog.
+     *
+     * @return {@code false} when the key is not backed by the catalog.
+     */
+    public boolean saveForCacheKey(String key, Object data) {
+        CatalogKey catalogKey = CatalogKey.resolve(key);
+        if (catalogKey == null || !(data instanceof Collection)) return false;
+        Collection<?> items = (Collection<?>) data;
+        try {
+            switch (catalogKey.kind) {
+                case ARTISTS:
+                    replaceArtists(catalogKey.scope, filter(items, ArtistID3.class));
+                    return true;
+                case ALBUMS:
+                    replaceAlbums(catalogKey.scope, filter(items, AlbumID3.class));
+                    return true;
+                case SONGS:
+                    replaceSongs(catalogKey.scope, filter(items, Child.class));
+                    return true;
+                case GENRES:
+                    replaceGenres(catalogKey.scope, filter(items, Genre.class));
+                    return true;
+                case ALBUM_SONGS:
+                    replaceAlbumSongs(catalogKey.scope, catalogKey.id, filter(items, Child.class), System.currentTimeMillis());
+                    return true;
+                case PLAYLIST_SONGS:
+                    replacePlaylistEntries(catalogKey.scope, catalogKey.id, filter(items, Child.class));
+                    return true;
+                default:
+                    return false;
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Catalog write failed for " + key, e);
+            return false;
+        }
+    }
+
+    /**
+     * Reads the rows behind a legacy cache key.
+     *
+     * @return {@code null} when the key is not backed by the catalog or no rows exist yet.
+     */
+    public List<?> loadForCacheKey(String key) {
+        CatalogKey catalogKey = CatalogKey.resolve(key);
+        if (catalogKey == null) return null;
+        List<?> rows;
+        switch (catalogKey.kind) {
+            case ARTISTS:
+                rows = getArtists(catalogKey.scope);
+                break;
+            case ALBUMS:
+                rows = getAlbums(catalogKey.scope);
+                break;
+            case SONGS:
+                rows = getSongs(catalogKey.scope);
+                break;
+            case GENRES:
+                rows = getGenres(catalogKey.scope);
+                break;
+            case ALBUM_SONGS:
+                rows = getSongsByAlbum(catalogKey.scope, catalogKey.id);
+                break;
+            case PLAYLIST_SONGS:
+                rows = getPlaylistEntries(catalogKey.scope, catalogKey.id);
+                break;
+            default:
+                return null;
+        }
+        return rows == null || rows.isEmpty() ? null : rows;
+    }
+
+    /**
+     * Approximate serialized size of the rows behind a legacy cache key, or -1 when the key
+     * is not backed by the catalog.
+     */
+    public long estimatePayloadChars(String key) {
+        CatalogKey catalogKey = CatalogKey.resolve(key);
+        if (catalogKey == null) return -1L;
+        switch (catalogKey.kind) {
+            case ARTISTS:
+                return catalogDao.countArtists(catalogKey.scope) * ESTIMATED_ARTIST_CHARS;
+            case ALBUMS:
+                return catalogDao.countAlbums(catalogKey.scope) * ESTIMATED_ALBUM_CHARS;
+            case SONGS:
+                return catalogDao.countSongs(catalogKey.scope) * ESTIMATED_SONG_CHARS;
+            case GENRES:
+                return catalogDao.countGenres(catalogKey.scope) * ESTIMATED_GENRE_CHARS;
+            case ALBUM_SONGS:
+                return catalogDao.countSongsByAlbum(catalogKey.scope, catalogKey.id) * ESTIMATED_SONG_CHARS;
+            case PLAYLIST_SONGS:
+                return catalogDao.countPlaylistEntries(catalogKey.scope, catalogKey.id) * ESTIMATED_SONG_CHARS;
+            default:
+                return -1L;
+        }
+    }
+
+    /**
+     * Paging setup shared by the catalogue screens: placeholders on, and a bounded window so a
+     * long fling drops pages behind it instead of holding the whole catalogue.
+     */
+    public static PagingConfig browsePagingConfig() {
+        return new PagingConfig(BROWSE_PAGE_SIZE, BROWSE_PAGE_SIZE, true, BROWSE_PAGE_SIZE * 2, BROWSE_PAGE_SIZE * 10, BROWSE_PAGE_SIZE * 3);
+    }
+
+    /**
+     * Fills in browse keys for rows written before they existed and marks one row per duplicate
+     * group as primary. Cheap after the first call; run it off the main thread before paging.
+     */
+    public void ensureBrowseIndex() {
+        if (browseKeysChecked) return;
+        synchronized (CatalogRepository.class) {
+            if (browseKeysChecked) return;
+            try {
+                if (catalogDao.hasMissingBrowseKeys()) {
+                    backfillBrowseKeys();
+                }
+                browseKeysChecked = true;
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Browse index backfill failed", e);
+            }
+        }
+    }
+
+    public boolean hasBrowseArtists() {
+        return catalogDao.countBrowseArtists() > 0;
+    }
+
+    public boolean hasBrowseAlbums() {
+        return catalogDao.countBrowseAlbums() > 0;
+    }
+
+    public boolean hasBrowseGenres() {
+        return catalogDao.countAllGenres() > 0;
+    }
+
+    /**
+     * Albums across every source, one row per title and artist, in {@code query}'s order.
+     */
+    public PagingSource<Integer, CatalogAlbum> pageAlbums(BrowseQuery query) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT * FROM catalog_album WHERE browse_primary = 1");
+        appendBrowseFilter(sql, args, "browse_key", query.filter);
+        sql.append(" ORDER BY ").append(albumOrder(query));
+        return catalogDao.pageAlbums(new SimpleSQLiteQuery(sql.toString(), args.toArray()));
+    }
+
+    /**
+     * Artists across every source, one row per name. The play-count orders join the listening
+     * history of {@code serverId}, matching by artist id and then by name.
+     */
+    public PagingSource<Integer, CatalogArtist> pageArtists(BrowseQuery query, @Nullable String serverId) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT a.* FROM catalog_artist a");
+        boolean byPlays = Constants.ARTIST_ORDER_BY_MOST_PLAYED.equals(query.order)
+                || Constants.ARTIST_ORDER_BY_RECENTLY_PLAYED.equals(query.order);
+        if (byPlays) {
+            sql.append(" LEFT JOIN (SELECT artist_id, COUNT(*) AS plays, MAX(timestamp) AS last_played FROM chronology")
+                    .append(" WHERE server = ? AND artist_id IS NOT NULL GROUP BY artist_id) s ON s.artist_id = a.id")
+                    .append(" LEFT JOIN (SELECT lower(artist) AS artist_key, COUNT(*) AS plays, MAX(timestamp) AS last_played FROM chronology")
+                    .append(" WHERE server = ? AND artist IS NOT NULL GROUP BY lower(artist)) n ON n.artist_key = lower(a.name)");
+            args.add(serverId != null ? serverId : "");
+            args.add(serverId != null ? serverId : "");
+        }
+        sql.append(" WHERE a.browse_primary = 1");
+        appendBrowseFilter(sql, args, "a.browse_key", query.filter);
+        sql.append(" ORDER BY ");
+        if (Constants.ARTIST_ORDER_BY_MOST_PLAYED.equals(query.order)) {
+            sql.append("COALESCE(s.plays, n.plays, 0) DESC, a.browse_key, a.rowid");
+        } else if (Constants.ARTIST_ORDER_BY_RECENTLY_PLAYED.equals(query.order)) {
+            sql.append("COALESCE(s.last_played, n.last_played, 0) DESC, a.browse_key, a.rowid");
+        } else if (Constants.ARTIST_ORDER_BY_RANDOM.equals(query.order)) {
+            sql.append(shuffle("a.rowid", query.seed)).append(", a.rowid");
+        } else {
+            sql.append("a.browse_key, a.rowid");
+        }
+        return catalogDao.pageArtists(new SimpleSQLiteQuery(sql.toString(), args.toArray()));
+    }
+
+    /**
+     * Genres across every source, merged case-insensitively with the larger counts kept.
+     */
+    public PagingSource<Integer, CatalogGenre> pageGenres(BrowseQuery query) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT MIN(scope) AS scope, MIN(trim(name)) AS name, MAX(song_count) AS song_count,")
+                .append(" MAX(album_count) AS album_count, MAX(updated_at) AS updated_at, MIN(rowid) AS first_row")
+                .append(" FROM catalog_genre WHERE trim(name) != ''");
+        if (query.filter != null) {
+            sql.append(" AND name LIKE ? ESCAPE '\\'");
+            args.add("%" + escapeLike(query.filter.trim()) + "%");
+        }
+        sql.append(" GROUP BY lower(trim(name)) ORDER BY ");
+        if (Constants.GENRE_ORDER_BY_MOST_SONGS.equals(query.order)) {
+            sql.append("song_count DESC, lower(name)");
+        } else if (Constants.GENRE_ORDER_BY_RANDOM.equals(query.order)) {
+            sql.append(shuffle("first_row", query.seed));
+        } else {
+            sql.append("lower(name)");
+        }
+        return catalogDao.pageGenres(new SimpleSQLiteQuery(sql.toString(), args.toArray()));
+    }
+
+    /**
+     * Per-letter row counts for the name order of {@link #pageAlbums}; re-emits when albums change.
+     */
+    public LiveData<List<CatalogSection>> observeAlbumSections(BrowseQuery query) {
+        return catalogDao.observeAlbumSections(sectionQuery("catalog_album", query.filter));
+    }
+
+    public LiveData<List<CatalogSection>> observeArtistSections(BrowseQuery query) {
+        return catalogDao.observeArtistSections(sectionQuery("catalog_artist", query.filter));
+    }
+
+    /**
+     * Maps a paged row to the model the UI works with; Jellyfin ids come back tagged.
+     */
+    public AlbumID3 toBrowseAlbum(CatalogAlbum row) {
+        AlbumID3 album = toAlbum(row);
+        return isJellyfinScope(row.getScope()) ? JellyfinTagUtil.tagAlbum(album) : album;
+    }
+
+    public ArtistID3 toBrowseArtist(CatalogArtist row) {
+        ArtistID3 artist = toArtist(row);
+        return isJellyfinScope(row.getScope()) ? JellyfinTagUtil.tagArtist(artist) : artist;
+    }
+
+    public Genre toBrowseGenre(CatalogGenre row) {
+        return new Genre(row.getName(), row.getSongCount(), row.getAlbumCount());
+    }
+
+    public static boolean isCatalogKey(String key) {
+        return CatalogKey.resolve(key) != null;
+    }
+
+    private List<CatalogArtist> toCatalogArtists(String scope, List<ArtistID3> artists, long updatedAt) {
+        List<CatalogArtist> rows = new ArrayList<>();
+        if (artists == null) return rows;
+        for (ArtistID3 artist : artists) {
+            if (artist == null || artist.getId() == null) continue;
+            CatalogArtist row = new CatalogArtist(
+                    scope,
+                    artist.getId(),
+                    artist.getName(),
+                    artist.getCoverArtId(),
+                    artist.getAlbumCount(),
+                    artist.getStarred(),
+                    updatedAt
+            );
+            row.setDedupeKey(artistDedupeKey(artist.getName()));
+            row.setBrowseKey(SearchIndexUtil.normalize(artist.getName()));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<CatalogAlbum> toCatalogAlbums(String scope, List<AlbumID3> albums, long updatedAt) {
+        List<CatalogAlbum> rows = new ArrayList<>();
+        if (albums == null) return rows;
+        for (AlbumID3 album : albums) {
+            if (album == null || album.getId() == null) continue;
+            CatalogAlbum row = new CatalogAlbum(
+                    scope,
+                    album.getId(),
+                    album.getName(),
+                    album.getArtist(),
+                    album.getArtistId(),
+                    album.getCoverArtId(),
+                    album.getSongCount(),
+                    album.getDuration(),
+                    album.getPlayCount(),
+                    album.getCreated(),
+                    album.getStarred(),
+                    album.getPlayed(),
+                    album.getYear(),
+                    album.getGenre(),
+                    album.getUserRating(),
+                    album.getSortName(),
+                    album.getDisplayArtist(),
+                    album.isCompilation(),
+                    album.getMusicBrainzId(),
+                    encodeExtras(album),
+                    updatedAt
+            );
+            row.setDedupeKey(albumDedupeKey(album.getName(), album.getArtist()));
+            row.setBrowseKey(SearchIndexUtil.normalize(album.getName()));
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private List<CatalogSong> toCatalogSongs(String scope, List<Child> songs, long updatedAt) {
+        List<CatalogSong> rows = new ArrayList<>();
+        if (songs == null) return rows;
+        for (Child song : songs) {
+            if (song == null || song.getId() == null) continue;
+            rows.add(new CatalogSong(scope, song, updatedAt));
+        }
+        return rows;
+    }
+
+    private List<CatalogGenre> toCatalogGenres(String scope, List<Genre> genres, long updatedAt) {
+        List<CatalogGenre> rows = new ArrayList<>();
+        if (genres == null) return rows;
+        for (Genre genre : genres) {
+            if (genre == null || genre.getGenre() == null) continue;
+            rows.add(new CatalogGenre(scope, genre.getGenre(), genre.getSongCount(), genre.getAlbumCount(), updatedAt));
+        }
+        return rows;
+    }
+
+    private ArtistID3 toArtist(CatalogArtist row) {
+        ArtistID3 artist = new ArtistID3();
+        artist.setId(row.getId());
+        artist.setName(row.getName());
+        artist.setCoverArtId(row.getCoverArt());
+        artist.setAlbumCount(row.getAlbumCount());
+        artist.setStarred(row.getStarred());
+        return artist;
+    }
+
+    private List<AlbumID3> toAlbums(List<CatalogAlbum> rows) {
+        List<AlbumID3> albums = new ArrayList<>(rows != null ? rows.size() : 0);
+        if (rows != null) {
+            for (CatalogAlbum row : rows) {
+                albums.add(toAlbum(row));
+            }
+        }
+        return albums;
+    }
+
+    private AlbumID3 toAlbum(CatalogAlbum row) {
+        AlbumID3 album = new AlbumID3();
+        album.setId(row.getId());
+        album.setName(row.getName());
+        album.setArtist(row.getArtist());
+        album.setArtistId(row.getArtistId());
+        album.setCoverArtId(row.getCoverArt());
+        album.setSongCount(row.getSongCount());
+        album.setDuration(row.getDuration());
+        album.setPlayCount(row.getPlayCount());
+        album.setCreated(row.getCreated());
+        album.setStarred(row.getStarred());
+        album.setPlayed(row.getPlayed());
+        album.setYear(row.getYear());
+        album.setGenre(row.getGenre());
+        album.setUserRating(row.getUserRating());
+        album.setSortName(row.getSortName());
+        album.setDisplayArtist(row.getDisplayArtist());
+        album.setCompilation(row.isCompilation());
+        album.setMusicBrainzId(row.getMusicBrainzId());
+        decodeExtras(row.getExtras(), album);
+        return album;
+    }
+
+    private String encodeExtras(AlbumID3 album) {
+        if (album.getGenres() == null
+                && album.getArtists() == null
+                && album.getReleaseTypes() == null
+                && album.getMoods() == null
+                && album.getRecordLabels() == null
+                && album.getDiscTitles() == null
+                && album.getReleaseDate() == null
+                && album.getOriginalReleaseDate() == null) {
+            return null;
+        }
+        AlbumExtras extras = new AlbumExtras();
+        extras.genres = album.getGenres();
+        extras.artists = album.getArtists();
+        extras.releaseTypes = album.getReleaseTypes();
+        extras.moods = album.getMoods();
+        extras.recordLabels = album.getRecordLabels();
+        extras.discTitles = album.getDiscTitles();
+        extras.releaseDate = album.getReleaseDate();
+        extras.originalReleaseDate = album.getOriginalReleaseDate();
+        return gson.toJson(extras);
+    }
+
+    private void decodeExtras(String json, AlbumID3 album) {
+        if (json == null || json.isEmpty()) return;
+        try {
+            AlbumExtras extras = gson.fromJson(json, AlbumExtras.class);
+            if (extras == null) return;
+            album.setGenres(extras.genres);
+            album.setArtists(extras.artists);
+            album.setReleaseTypes(extras.releaseTypes);
+            album.setMoods(extras.moods);
+            album.setRecordLabels(extras.recordLabels);
+            album.setDiscTitles(extras.discTitles);
+            album.setReleaseDate(extras.releaseDate);
+            album.setOriginalReleaseDate(extras.originalReleaseDate);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Album extras parse failed for " + album.getId(), e);
+        }
+    }
+
+    // Same keys MediaDedupeUtil merges on, so paged lists dedupe like the in-memory ones.
+    private static String artistDedupeKey(String name) {
+        return SearchIndexUtil.normalize(name);
+    }
+
+    private static String albumDedupeKey(String name, String artist) {
+        return SearchIndexUtil.normalize(name + "|" + artist);
+    }
+
+    private void backfillBrowseKeys() {
+        while (true) {
+            List<CatalogArtist> rows = catalogDao.getArtistsWithoutBrowseKeys(KEY_CHUNK);
+            if (rows == null || rows.isEmpty()) break;
+            database.runInTransaction(() -> {
+                for (CatalogArtist row : rows) {
+                    catalogDao.setArtistBrowseKeys(row.getScope(), row.getId(), artistDedupeKey(row.getName()), SearchIndexUtil.normalize(row.getName()));
+                }
+            });
+        }
+        while (true) {
+            List<CatalogAlbum> rows = catalogDao.getAlbumsWithoutBrowseKeys(KEY_CHUNK);
+            if (rows == null || rows.isEmpty()) break;
+            database.runInTransaction(() -> {
+                for (CatalogAlbum row : rows) {
+                    catalogDao.setAlbumBrowseKeys(row.getScope(), row.getId(), albumDedupeKey(row.getName(), row.getArtist()), SearchIndexUtil.normalize(row.getName()));
+                }
+            });
+        }
+        database.runInTransaction(() -> {
+            refreshArtistBrowse(null);
+            refreshAlbumBrowse(null);
+        });
+    }
+
+    // keys == null recomputes every group; otherwise only the given dedupe keys.
+    private void refreshArtistBrowse(@Nullable Collection<String> keys) {
+        int[] ranks = sourceRanks();
+        if (keys == null) {
+            catalogDao.clearAllArtistPrimary();
+            catalogDao.markAllArtistPrimary(ranks[0], ranks[1], ranks[2]);
+            return;
+        }
+        for (List<String> chunk : chunks(keys)) {
+            catalogDao.clearArtistPrimary(chunk);
+            catalogDao.markArtistPrimary(chunk, ranks[0], ranks[1], ranks[2]);
+        }
+    }
+
+    private void refreshAlbumBrowse(@Nullable Collection<String> keys) {
+        int[] ranks = sourceRanks();
+        if (keys == null) {
+            catalogDao.clearAllAlbumPrimary();
+            catalogDao.markAllAlbumPrimary(ranks[0], ranks[1], ranks[2]);
+            return;
+        }
+        for (List<String> chunk : chunks(keys)) {
+            catalogDao.clearAlbumPrimary(chunk);
+            catalogDao.markAlbumPrimary(chunk, ranks[0], ranks[1], ranks[2]);
+        }
+    }
+
+    // Ranks of local, subsonic and jellyfin in the user's source preference; lower wins ties.
+    private static int[] sourceRanks() {
+        List<String> order = Preferences.getSourcePreferenceOrder();
+        String[] sources = {SearchIndexUtil.SOURCE_LOCAL, SearchIndexUtil.SOURCE_SUBSONIC, SearchIndexUtil.SOURCE_JELLYFIN};
+        int[] ranks = new int[sources.length];
+        for (int i = 0; i < sources.length; i++) {
+            int rank = order.indexOf(sources[i]);
+            ranks[i] = rank >= 0 ? rank : order.size();
+        }
+        return ranks;
+    }
+
+    private static String albumOrder(BrowseQuery query) {
+        if (query.order == null) return "browse_key, rowid";
+        switch (query.order) {
+            case Constants.ALBUM_ORDER_BY_ARTIST:
+                return "artist COLLATE NOCASE, browse_key, rowid";
+            case Constants.ALBUM_ORDER_BY_YEAR:
+                return "year, browse_key, rowid";
+            case Constants.ALBUM_ORDER_BY_RANDOM:
+                return shuffle("rowid", query.seed) + ", rowid";
+            case Constants.ALBUM_ORDER_BY_RECENTLY_ADDED:
+                return "created DESC, browse_key, rowid";
+            case Constants.ALBUM_ORDER_BY_RECENTLY_PLAYED:
+                return "played DESC, browse_key, rowid";
+            case Constants.ALBUM_ORDER_BY_MOST_PLAYED:
+                return "play_count DESC, browse_key, rowid";
+            default:
+                return "browse_key, rowid";
+        }
+    }
+
+    private static String shuffle(String column, long seed) {
+        return "((" + column + " * " + SHUFFLE_MULTIPLIER + " + " + seed + ") % " + SHUFFLE_MODULUS + ")";
+    }
+
+    private static void appendBrowseFilter(StringBuilder sql, List<Object> args, String column, @Nullable String filter) {
+        if (filter == null) return;
+        String normalized = SearchIndexUtil.normalize(filter);
+        if (normalized.isEmpty()) return;
+        sql.append(" AND ").append(column).append(" LIKE ? ESCAPE '\\'");
+        args.add("%" + escapeLike(normalized) + "%");
+    }
+
+    private static SimpleSQLiteQuery sectionQuery(String table, @Nullable String filter) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT substr(browse_key, 1, 1) AS section, COUNT(*) AS count FROM ")
+                .append(table)
+                .append(" WHERE browse_primary = 1");
+        appendBrowseFilter(sql, args, "browse_key", filter);
+        sql.append(" GROUP BY section ORDER BY section");
+        return new SimpleSQLiteQuery(sql.toString(), args.toArray());
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static boolean isJellyfinScope(String scope) {
+        return scope != null && scope.startsWith(JELLYFIN_SCOPE_PREFIX);
+    }
+
+    private static List<List<String>> chunks(Collection<String> values) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>(Math.min(values.size(), KEY_CHUNK));
+        for (String value : values) {
+            if (value == null) continue;
+            current.add(value);
+            if (current.size() == KEY_CHUNK) {
+                chunks.add(current);
+                current = new ArrayList<>(KEY_CHUNK);
+            }
+        }
+        if (!current.isEmpty()) chunks.add(current);
+        return chunks;
+    }
+
+    private static <T> List<T> filter(Collection<?> items, Class<T> type) {
+        List<T> filtered = new ArrayList<>(items.size());
+        for (Object item : items) {
+            if (type.isInstance(item)) {
+                filtered.add(type.cast(item));
+            }
+        }
+        return filtered;
+    }
+
+    /**
+     * Order, optional filter text and shuffle seed for a paged catalogue list.
+     */
+    public static final class BrowseQuery {
+        public final String order;
+        @Nullable
+        public final String filter;
+        public final long seed;
+
+        public BrowseQuery(String order, @Nullable String filter, long seed) {
+            this.order = order;
+            this.filter = filter;
+            this.seed = seed;
+        }
+
+        public BrowseQuery withOrder(String order, long seed) {
+            return new BrowseQuery(order, filter, seed);
+        }
+
+        public BrowseQuery withFilter(@Nullable String filter) {
+            String trimmed = filter != null ? filter.trim() : "";
+            return new BrowseQuery(order, trimmed.isEmpty() ? null : trimmed, seed);
+        }
+    }
+
+    private static final class AlbumExtras {
+        List<ItemGenre> genres;
+        List<ArtistID3> artists;
+        List<String> releaseTypes;
+        List<String> moods;
+        List<RecordLabel> recordLabels;
+        List<DiscTitle> discTitles;
+        ItemDate releaseDate;
+        ItemDate originalReleaseDate;
+    }
+
+    private enum Kind {
+        ARTISTS,
+        ALBUMS,
+        SONGS,
+        GENRES,
+        ALBUM_SONGS,
+        PLAYLIST_SONGS
+    }
+
+    private static final class CatalogKey {
+        final Kind kind;
+        final String scope;
+        final String id;
+
+        private CatalogKey(Kind kind, String scope, String id) {
+            this.kind = kind;
+            this.scope = scope;
+            this.id = id;
+        }
+
+        static CatalogKey resolve(String key) {
+            if (key == null || key.isEmpty()) return null;
+            if (key.startsWith(PREFIX_ALBUM_TRACKS)) {
+                String albumId = key.substring(PREFIX_ALBUM_TRACKS.length());
+                // Tagged ids (jellyfin:, local:) never belong to the Subsonic scope.
+                if (albumId.isEmpty() || albumId.contains(":")) return null;
+                return new CatalogKey(Kind.ALBUM_SONGS, SCOPE_SUBSONIC, albumId);
+            }
+            if (key.startsWith(PREFIX_PLAYLIST_SONGS)) {
+                String playlistId = key.substring(PREFIX_PLAYLIST_SONGS.length());
+                if (playlistId.isEmpty()) return null;
+                int separator = playlistId.indexOf(':');
+                String scope = separator > 0 ? jellyfinScope(playlistId.substring(0, separator)) : SCOPE_SUBSONIC;
+                return new CatalogKey(Kind.PLAYLIST_SONGS, scope, playlistId);
+            }
+            if (key.endsWith(SUFFIX_ARTISTS)) return forSuffix(key, SUFFIX_ARTISTS, Kind.ARTISTS);
+            if (key.endsWith(SUFFIX_ALBUMS)) return forSuffix(key, SUFFIX_ALBUMS, Kind.ALBUMS);
+            if (key.endsWith(SUFFIX_SONGS)) return forSuffix(key, SUFFIX_SONGS, Kind.SONGS);
+            if (key.endsWith(SUFFIX_GENRES)) return forSuffix(key, SUFFIX_GENRES, Kind.GENRES);
+            return null;
+        }
+
+        private static CatalogKey forSuffix(String key, String suffix, Kind kind) {
+            String prefix = key.substring(0, key.length() - suffix.length());
+            if (prefix.isEmpty()) {
+                return new CatalogKey(kind, SCOPE_SUBSONIC, null);
+            }
+            if (prefix.startsWith(JELLYFIN_SCOPE_PREFIX)
+                    && prefix.endsWith("_")
+                    && prefix.length() > JELLYFIN_SCOPE_PREFIX.length() + 1) {
+                return new CatalogKey(kind, prefix.substring(0, prefix.length() - 1), null);
+            }
+            return null;
+        }
+    }
+}
@@ -292,11 +292,13 @@ public class DirectoryRepository {
     }
 
     private static boolean isAudioFile(DocumentFile file) {
-        String type = file.getType();
+        return isAudioDocument(file.getName(), file.getType());
+    }
+
+    static boolean isAudioDocument(@Nullable String name, @Nullable String type) {
         if (type != null && type.startsWith("audio/")) {
             return true;
         }
-        String name = file.getName();
         String extension = resolveExtension(name, type);
         return extension != null && AUDIO_EXTENSIONS.contains(extension);
     }
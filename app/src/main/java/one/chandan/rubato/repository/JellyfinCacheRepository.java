@@ -1,5 +1,8 @@
 package one.chandan.rubato.repository;
 
+import android.util.Log;
+import android.util.LruCache;
+
 import androidx.annotation.Nullable;
 
 import one.chandan.rubato.jellyfin.JellyfinMediaUtil;
@@ -8,6 +11,7 @@ import one.chandan.rubato.subsonic.models.AlbumID3;
 import one.chandan.rubato.subsonic.models.ArtistID3;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.subsonic.models.Playlist;
+import one.chandan.rubato.util.AppExecutors;
 import one.chandan.rubato.util.JellyfinTagUtil;
 import one.chandan.rubato.util.LibraryDedupeUtil;
 import one.chandan.rubato.util.SearchIndexUtil;
@@ -19,9 +23,34 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
+/**
+ * Reads synced Jellyfin libraries. Single entities and album/artist children are looked up by id
+ * in the catalog tables and kept in a small process-wide hot index, so opening a page does not
+ * depend on library size; the {@code loadAll*} calls still read whole libraries.
+ */
 public class JellyfinCacheRepository {
+    private static final String TAG = "JellyfinCacheRepository";
+    // Weighted by item count so a few large song lists cannot pin the whole index.
+    private static final int HOT_INDEX_WEIGHT = 4096;
+    private static final String KIND_ARTIST = "artist";
+    private static final String KIND_ALBUM = "album";
+    private static final String KIND_PLAYLIST = "playlist";
+    private static final String KIND_ARTIST_ALBUMS = "artist_albums";
+    private static final String KIND_ALBUM_SONGS = "album_songs";
+    private static final String KIND_ARTIST_SONGS = "artist_songs";
+
+    // Keyed by kind|rawId; shared by every instance.
+    private static final LruCache<String, Object> HOT_INDEX = new LruCache<String, Object>(HOT_INDEX_WEIGHT) {
+        @Override
+        protected int sizeOf(String key, Object value) {
+            return value instanceof List ? Math.max(1, ((List<?>) value).size()) : 1;
+        }
+    };
+
     private final CacheRepository cacheRepository = new CacheRepository();
+    private final CatalogRepository catalogRepository = new CatalogRepository();
     private final JellyfinServerRepository serverRepository = new JellyfinServerRepository();
 
     public void loadAllArtists(CacheRepository.CacheResult<List<ArtistID3>> callback) {
@@ -51,22 +80,9 @@ public class JellyfinCacheRepository {
             return;
         }
         String rawId = parsed.serverId + ":" + parsed.itemId;
-        String key = buildKey(parsed.serverId, "artists_all");
-        Type type = new TypeToken<List<ArtistID3>>() {}.getType();
-        cacheRepository.loadOrNull(key, type, new CacheRepository.CacheResult<List<ArtistID3>>() {
-            @Override
-            public void onLoaded(List<ArtistID3> artists) {
-                if (artists != null) {
-                    for (ArtistID3 artist : artists) {
-                        if (artist != null && rawId.equals(artist.getId())) {
-                            callback.onLoaded(JellyfinTagUtil.tagArtist(artist));
-                            return;
-                        }
-                    }
-                }
-                callback.onLoaded(null);
-            }
-        });
+        loadKeyed(KIND_ARTIST, rawId,
+                () -> JellyfinTagUtil.tagArtist(catalogRepository.getArtist(CatalogRepository.jellyfinScope(parsed.serverId), rawId)),
+                callback);
     }
 
     public void loadAlbum(String taggedId, CacheRepository.CacheResult<AlbumID3> callback) {
@@ -76,22 +92,9 @@ public class JellyfinCacheRepository {
             return;
         }
         String rawId = parsed.serverId + ":" + parsed.itemId;
-        String key = buildKey(parsed.serverId, "albums_all");
-        Type type = new TypeToken<List<AlbumID3>>() {}.getType();
-        cacheRepository.loadOrNull(key, type, new CacheRepository.CacheResult<List<AlbumID3>>() {
-            @Override
-            public void onLoaded(List<AlbumID3> albums) {
-                if (albums != null) {
-                    for (AlbumID3 album : albums) {
-                        if (album != null && rawId.equals(album.getId())) {
-                            callback.onLoaded(JellyfinTagUtil.tagAlbum(album));
-                            return;
-                        }
-                    }
-                }
-                callback.onLoaded(null);
-            }
-        });
+        loadKeyed(KIND_ALBUM, rawId,
+                () -> JellyfinTagUtil.tagAlbum(catalogRepository.getAlbum(CatalogRepository.jellyfinScope(parsed.serverId), rawId)),
+                callback);
     }
 
     public void loadPlaylist(String taggedId, CacheRepository.CacheResult<Playlist> callback) {
@@ -101,20 +104,30 @@ public class JellyfinCacheRepository {
             return;
         }
         String rawId = parsed.serverId + ":" + parsed.itemId;
+        Object hot = HOT_INDEX.get(hotKey(KIND_PLAYLIST, rawId));
+        if (hot instanceof Playlist) {
+            AppExecutors.io().execute(() -> callback.onLoaded((Playlist) hot));
+            return;
+        }
+        // Playlists are one small blob per server; parse it once and index every entry.
         String key = buildKey(parsed.serverId, "playlists");
         Type type = new TypeToken<List<Playlist>>() {}.getType();
         cacheRepository.loadOrNull(key, type, new CacheRepository.CacheResult<List<Playlist>>() {
             @Override
             public void onLoaded(List<Playlist> playlists) {
+                Playlist match = null;
                 if (playlists != null) {
                     for (Playlist playlist : playlists) {
-                        if (playlist != null && rawId.equals(playlist.getId())) {
-                            callback.onLoaded(JellyfinTagUtil.tagPlaylist(playlist));
-                            return;
+                        if (playlist == null || playlist.getId() == null) continue;
+                        String playlistRawId = playlist.getId();
+                        Playlist tagged = JellyfinTagUtil.tagPlaylist(playlist);
+                        HOT_INDEX.put(hotKey(KIND_PLAYLIST, playlistRawId), tagged);
+                        if (rawId.equals(playlistRawId)) {
+                            match = tagged;
                         }
                     }
                 }
-                callback.onLoaded(null);
+                callback.onLoaded(match);
             }
         });
     }
@@ -126,23 +139,9 @@ public class JellyfinCacheRepository {
             return;
         }
         String rawArtistId = parsed.serverId + ":" + parsed.itemId;
-        String key = buildKey(parsed.serverId, "albums_all");
-        Type type = new TypeToken<List<AlbumID3>>() {}.getType();
-        cacheRepository.loadOrNull(key, type, new CacheRepository.CacheResult<List<AlbumID3>>() {
-            @Override
-            public void onLoaded(List<AlbumID3> albums) {
-                List<AlbumID3> filtered = new ArrayList<>();
-                if (albums != null) {
-                    for (AlbumID3 album : albums) {
-                        if (album == null) continue;
-                        if (rawArtistId.equals(album.getArtistId())) {
-                            filtered.add(JellyfinTagUtil.tagAlbum(album));
-                        }
-                    }
-                }
-                callback.onLoaded(filtered);
-            }
-        });
+        loadKeyedList(KIND_ARTIST_ALBUMS, rawArtistId,
+                () -> JellyfinTagUtil.tagAlbums(catalogRepository.getAlbumsByArtist(CatalogRepository.jellyfinScope(parsed.serverId), rawArtistId)),
+                callback);
     }
 
     public void loadAlbumsForArtistName(String artistName, CacheRepository.CacheResult<List<AlbumID3>> callback) {
@@ -173,23 +172,9 @@ public class JellyfinCacheRepository {
             return;
         }
         String rawAlbumId = parsed.serverId + ":" + parsed.itemId;
-        String key = buildKey(parsed.serverId, "songs_all");
-        Type type = new TypeToken<List<Child>>() {}.getType();
-        cacheRepository.loadOrNull(key, type, new CacheRepository.CacheResult<List<Child>>() {
-            @Override
-            public void onLoaded(List<Child> songs) {
-                List<Child> filtered = new ArrayList<>();
-                if (songs != null) {
-                    for (Child song : songs) {
-                        if (song == null) continue;
-                        if (rawAlbumId.equals(song.getAlbumId())) {
-                            filtered.add(JellyfinTagUtil.tagSong(song));
-                        }
-                    }
-                }
-                callback.onLoaded(filtered);
-            }
-        });
+        loadKeyedList(KIND_ALBUM_SONGS, rawAlbumId,
+                () -> JellyfinTagUtil.tagSongs(catalogRepository.getSongsByAlbum(CatalogRepository.jellyfinScope(parsed.serverId), rawAlbumId)),
+                callback);
     }
 
     public void loadSongsForArtist(String taggedArtistId, CacheRepository.CacheResult<List<Child>> callback) {
@@ -199,23 +184,9 @@ public class JellyfinCacheRepository {
             return;
         }
         String rawArtistId = parsed.serverId + ":" + parsed.itemId;
-        String key = buildKey(parsed.serverId, "songs_all");
-        Type type = new TypeToken<List<Child>>() {}.getType();
-        cacheRepository.loadOrNull(key, type, new CacheRepository.CacheResult<List<Child>>() {
-            @Override
-            public void onLoaded(List<Child> songs) {
-                List<Child> filtered = new ArrayList<>();
-                if (songs != null) {
-                    for (Child song : songs) {
-                        if (song == null) continue;
-                        if (rawArtistId.equals(song.getArtistId())) {
-                            filtered.add(JellyfinTagUtil.tagSong(song));
-                        }
-                    }
-                }
-                callback.onLoaded(filtered);
-            }
-        });
+        loadKeyedList(KIND_ARTIST_SONGS, rawArtistId,
+                () -> JellyfinTagUtil.tagSongs(catalogRepository.getSongsByArtist(CatalogRepository.jellyfinScope(parsed.serverId), rawArtistId)),
+                callback);
     }
 
     public void loadSongsForArtistName(String artistName, CacheRepository.CacheResult<List<Child>> callback) {
@@ -291,6 +262,54 @@ public class JellyfinCacheRepository {
         }
     }
 
+    /**
+     * Drops hot entries for {@code serverId}; call after its catalog rows or playlists change.
+     */
+    public static void invalidate(String serverId) {
+        if (serverId == null) {
+            HOT_INDEX.evictAll();
+            return;
+        }
+        String prefix = serverId + ":";
+        for (String key : HOT_INDEX.snapshot().keySet()) {
+            if (key.substring(key.indexOf('|') + 1).startsWith(prefix)) {
+                HOT_INDEX.remove(key);
+            }
+        }
+    }
+
+    private <T> void loadKeyed(String kind, String rawId, Supplier<T> loader, CacheRepository.CacheResult<T> callback) {
+        String hotKey = hotKey(kind, rawId);
+        @SuppressWarnings("unchecked")
+        T hot = (T) HOT_INDEX.get(hotKey);
+        AppExecutors.io().execute(() -> {
+            // Callbacks always arrive on an io thread, as they do for CacheRepository loads.
+            if (hot != null) {
+                callback.onLoaded(hot);
+                return;
+            }
+            T value = null;
+            try {
+                value = loader.get();
+            } catch (Exception e) {
+                Log.w(TAG, "Jellyfin lookup failed for " + hotKey, e);
+            }
+            if (value != null) HOT_INDEX.put(hotKey, value);
+            callback.onLoaded(value);
+        });
+    }
+
+    private <T> void loadKeyedList(String kind, String rawId, Supplier<List<T>> loader, CacheRepository.CacheResult<List<T>> callback) {
+        loadKeyed(kind, rawId, () -> {
+            List<T> items = loader.get();
+            return items != null ? Collections.unmodifiableList(items) : null;
+        }, items -> callback.onLoaded(items != null ? new ArrayList<>(items) : new ArrayList<>()));
+    }
+
+    private static String hotKey(String kind, String rawId) {
+        return kind + "|" + rawId;
+    }
+
     private String buildKey(String serverId, String suffix) {
         return "jf_" + serverId + "_" + suffix;
     }
@@ -11,6 +11,7 @@ import one.chandan.rubato.model.LibrarySearchEntry;
 import one.chandan.rubato.subsonic.models.AlbumID3;
 import one.chandan.rubato.subsonic.models.ArtistID3;
 import one.chandan.rubato.subsonic.models.Child;
+import one.chandan.rubato.subsonic.models.Genre;
 import one.chandan.rubato.subsonic.models.Playlist;
 import one.chandan.rubato.util.SearchIndexBuilder;
 import one.chandan.rubato.util.SearchIndexUtil;
@@ -20,7 +21,11 @@ import com.google.gson.GsonBuilder;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.OkHttpClient;
@@ -46,9 +51,12 @@ public class JellyfinLibraryRepository {
         List<Child> songs = mapSongs(server, songItems);
         List<Playlist> playlists = mapPlaylists(server, playlistItems);
 
-        cacheRepository.save(buildKey(server, "artists_all"), artists);
-        cacheRepository.save(buildKey(server, "albums_all"), albums);
-        cacheRepository.save(buildKey(server, "songs_all"), songs);
+        CatalogRepository catalogRepository = new CatalogRepository();
+        String scope = CatalogRepository.jellyfinScope(server.getId());
+        catalogRepository.replaceArtists(scope, artists);
+        catalogRepository.replaceAlbums(scope, albums);
+        catalogRepository.replaceSongs(scope, songs);
+        catalogRepository.replaceGenres(scope, buildGenres(songs));
         cacheRepository.save(buildKey(server, "playlists"), playlists);
 
         for (JellyfinItem playlistItem : playlistItems) {
@@ -57,8 +65,9 @@ public class JellyfinLibraryRepository {
             List<JellyfinItem> playlistSongs = fetchPlaylistItems(api, server, playlistItem.getId());
             if (playlistSongs.isEmpty()) continue;
             List<Child> playlistEntries = mapSongs(server, playlistSongs);
-            cacheRepository.save("playlist_songs_" + rawId, playlistEntries);
+            catalogRepository.replacePlaylistEntries(scope, rawId, playlistEntries);
         }
+        JellyfinCacheRepository.invalidate(server.getId());
 
         return SearchIndexBuilder.buildFromSource(
                 SearchIndexUtil.SOURCE_JELLYFIN,
@@ -69,6 +78,29 @@ public class JellyfinLibraryRepository {
         );
     }
 
+    // Jellyfin has no genre counts endpoint we use; derive them from the songs like the library view does.
+    private List<Genre> buildGenres(List<Child> songs) {
+        Map<String, String> names = new LinkedHashMap<>();
+        Map<String, Integer> songCounts = new LinkedHashMap<>();
+        Map<String, Set<String>> albumIds = new LinkedHashMap<>();
+        for (Child song : songs) {
+            String name = song != null && song.getGenre() != null ? song.getGenre().trim() : "";
+            if (name.isEmpty()) continue;
+            String key = SearchIndexUtil.normalize(name);
+            names.putIfAbsent(key, name);
+            songCounts.merge(key, 1, Integer::sum);
+            if (song.getAlbumId() != null && !song.getAlbumId().trim().isEmpty()) {
+                albumIds.computeIfAbsent(key, ignored -> new HashSet<>()).add(song.getAlbumId());
+            }
+        }
+        List<Genre> genres = new ArrayList<>(names.size());
+        for (Map.Entry<String, String> entry : names.entrySet()) {
+            Set<String> albums = albumIds.get(entry.getKey());
+            genres.add(new Genre(entry.getValue(), songCounts.get(entry.getKey()), albums != null ? albums.size() : 0));
+        }
+        return genres;
+    }
+
     @Nullable
     public LibrarySignature fetchSignature(JellyfinServer server) {
         if (server == null) return null;
@@ -49,6 +49,7 @@ public class JellyfinServerRepository {
         List<JellyfinServer> current = new ArrayList<>(getCurrent());
         current.removeIf(item -> item.getId().equals(server.getId()));
         saveServers(current);
+        JellyfinCacheRepository.invalidate(server.getId());
     }
 
     public JellyfinServer findById(String id) {
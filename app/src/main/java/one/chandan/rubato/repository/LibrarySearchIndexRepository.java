@@ -1,27 +1,180 @@
 package one.chandan.rubato.repository;
 
+import android.database.Cursor;
+import android.database.SQLException;
+import android.util.Log;
+
 import one.chandan.rubato.database.AppDatabase;
 import one.chandan.rubato.database.dao.LibrarySearchEntryDao;
 import one.chandan.rubato.model.LibrarySearchEntry;
+import one.chandan.rubato.model.LibrarySearchHash;
 import one.chandan.rubato.model.SearchSongLite;
 import one.chandan.rubato.util.AppExecutors;
 import one.chandan.rubato.util.SearchIndexUtil;
+import one.chandan.rubato.util.SearchRankUtil;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 public class LibrarySearchIndexRepository {
+    private static final String TAG = "LibrarySearchIndex";
+    // FTS column order is (title, search_text); title hits count double.
+    private static final double[] COLUMN_WEIGHTS = {2.0, 1.0};
+    // Stays under SQLite's 999 bound-parameter limit on older platform builds; also used for IN (...) lookups.
+    private static final int DELETE_CHUNK_SIZE = 500;
+
     private final LibrarySearchEntryDao librarySearchEntryDao = AppDatabase.getInstance().librarySearchEntryDao();
 
     public void replaceSource(String source, List<LibrarySearchEntry> entries) {
+        replaceSource(source, entries, null);
+    }
+
+    /**
+     * Brings the rows for {@code source} in line with {@code entries}, writing only new or changed
+     * rows and deleting the ones that disappeared, all in one transaction.
+     */
+    public void replaceSource(String source, List<LibrarySearchEntry> entries, ResultCallback<IndexDiff> callback) {
         AppExecutors.io().execute(() -> {
-            librarySearchEntryDao.deleteBySource(source);
-            if (entries != null && !entries.isEmpty()) {
-                librarySearchEntryDao.upsertAll(entries);
+            IndexDiff diff = new IndexDiff();
+            try {
+                AppDatabase.getInstance().runInTransaction(() -> applyDiff(source, entries, diff));
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Search index update failed for " + source, e);
+                return;
+            }
+            if (callback != null) {
+                callback.onLoaded(diff);
             }
         });
     }
 
+    private void applyDiff(String source, List<LibrarySearchEntry> entries, IndexDiff diff) {
+        Map<String, Long> stored = new HashMap<>();
+        for (LibrarySearchHash hash : librarySearchEntryDao.getHashesBySource(source)) {
+            stored.put(hash.getUid(), hash.getContentHash());
+        }
+
+        Set<String> seen = new HashSet<>();
+        applyBatch(entries, stored, seen, diff);
+
+        List<String> removed = new ArrayList<>();
+        for (String uid : stored.keySet()) {
+            if (!seen.contains(uid)) removed.add(uid);
+        }
+        deleteUids(removed, diff);
+    }
+
+    private void applyBatch(List<LibrarySearchEntry> entries, Map<String, Long> stored, Set<String> seen, IndexDiff diff) {
+        if (entries == null) return;
+        List<LibrarySearchEntry> changed = new ArrayList<>();
+        for (LibrarySearchEntry entry : entries) {
+            if (entry == null || !seen.add(entry.getUid())) continue;
+            long contentHash = SearchIndexUtil.contentHash(entry);
+            entry.setContentHash(contentHash);
+            Long previous = stored.get(entry.getUid());
+            if (previous == null) {
+                diff.inserted++;
+                changed.add(entry);
+            } else if (previous != contentHash) {
+                diff.updated++;
+                changed.add(entry);
+            } else {
+                diff.unchanged++;
+            }
+        }
+        if (!changed.isEmpty()) {
+            librarySearchEntryDao.upsertAll(changed);
+        }
+    }
+
+    private void deleteUids(List<String> uids, IndexDiff diff) {
+        for (int start = 0; start < uids.size(); start += DELETE_CHUNK_SIZE) {
+            int end = Math.min(uids.size(), start + DELETE_CHUNK_SIZE);
+            diff.deleted += librarySearchEntryDao.deleteByUids(uids.subList(start, end));
+        }
+    }
+
+    /**
+     * Opens an incremental update of {@code source} for callers that produce entries in batches
+     * (e.g. while a sync response is still being parsed). Each {@link SourceWriter#write} commits on
+     * its own; {@link SourceWriter#finish} removes rows that were not written during the session.
+     * Must be used off the main thread.
+     */
+    public SourceWriter openSource(String source) {
+        return new SourceWriter(source);
+    }
+
+    public final class SourceWriter {
+        private final String source;
+        private final Set<String> seen = new HashSet<>();
+        private final IndexDiff diff = new IndexDiff();
+        private boolean failed;
+
+        private SourceWriter(String source) {
+            this.source = source;
+        }
+
+        public synchronized void write(List<LibrarySearchEntry> entries) {
+            if (entries == null || entries.isEmpty()) return;
+            try {
+                AppDatabase.getInstance().runInTransaction(() -> applyBatch(entries, loadStoredHashes(entries), seen, diff));
+            } catch (RuntimeException e) {
+                // Without a complete seen-set, finish() would delete rows that are still valid.
+                failed = true;
+                Log.w(TAG, "Search index batch failed for " + source, e);
+            }
+        }
+
+        /**
+         * Deletes rows of this source that were not written since {@link #openSource}, unless a
+         * batch failed, and returns the accumulated diff.
+         */
+        public synchronized IndexDiff finish() {
+            if (failed) return diff;
+            try {
+                AppDatabase.getInstance().runInTransaction(() -> {
+                    List<String> removed = new ArrayList<>();
+                    for (String uid : librarySearchEntryDao.getUidsBySource(source)) {
+                        if (!seen.contains(uid)) removed.add(uid);
+                    }
+                    deleteUids(removed, diff);
+                });
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Search index cleanup failed for " + source, e);
+            }
+            return diff;
+        }
+
+        /**
+         * Returns what has been written so far without deleting anything, for partial runs.
+         */
+        public synchronized IndexDiff getDiff() {
+            return diff;
+        }
+
+        private Map<String, Long> loadStoredHashes(List<LibrarySearchEntry> entries) {
+            List<String> uids = new ArrayList<>(entries.size());
+            for (LibrarySearchEntry entry : entries) {
+                if (entry != null) uids.add(entry.getUid());
+            }
+            Map<String, Long> stored = new HashMap<>();
+            for (int start = 0; start < uids.size(); start += DELETE_CHUNK_SIZE) {
+                int end = Math.min(uids.size(), start + DELETE_CHUNK_SIZE);
+                for (LibrarySearchHash hash : librarySearchEntryDao.getHashesByUids(uids.subList(start, end))) {
+                    stored.put(hash.getUid(), hash.getContentHash());
+                }
+            }
+            return stored;
+        }
+    }
+
     public void upsertAll(List<LibrarySearchEntry> entries) {
         if (entries == null || entries.isEmpty()) return;
         AppExecutors.io().execute(() -> librarySearchEntryDao.upsertAll(entries));
@@ -39,9 +192,9 @@ public class LibrarySearchIndexRepository {
                 return;
             }
 
-            List<LibrarySearchEntry> artists = librarySearchEntryDao.searchByType(normalized, SearchIndexUtil.TYPE_ARTIST, artistLimit);
-            List<LibrarySearchEntry> albums = librarySearchEntryDao.searchByType(normalized, SearchIndexUtil.TYPE_ALBUM, albumLimit);
-            List<LibrarySearchEntry> songs = librarySearchEntryDao.searchByType(normalized, SearchIndexUtil.TYPE_SONG, songLimit);
+            List<LibrarySearchEntry> artists = searchByType(normalized, SearchIndexUtil.TYPE_ARTIST, artistLimit);
+            List<LibrarySearchEntry> albums = searchByType(normalized, SearchIndexUtil.TYPE_ALBUM, albumLimit);
+            List<LibrarySearchEntry> songs = searchByType(normalized, SearchIndexUtil.TYPE_SONG, songLimit);
             callback.onLoaded(artists, albums, songs);
         });
     }
@@ -53,7 +206,7 @@ public class LibrarySearchIndexRepository {
                 callback.onLoaded(Collections.emptyList());
                 return;
             }
-            List<LibrarySearchEntry> playlists = librarySearchEntryDao.searchByType(normalized, SearchIndexUtil.TYPE_PLAYLIST, limit);
+            List<LibrarySearchEntry> playlists = searchByType(normalized, SearchIndexUtil.TYPE_PLAYLIST, limit);
             callback.onLoaded(playlists);
         });
     }
@@ -82,6 +235,73 @@ public class LibrarySearchIndexRepository {
         });
     }
 
+    private List<LibrarySearchEntry> searchByType(String normalized, String mediaType, int limit) {
+        if (limit <= 0) return Collections.emptyList();
+        String match = SearchRankUtil.buildMatchQuery(normalized);
+        if (match.isEmpty()) {
+            return librarySearchEntryDao.searchByType(normalized, mediaType, limit);
+        }
+
+        // Every hit is scored while the cursor is stepped, and only the best `limit` are held, so a
+        // short prefix on a large library never drops top-ranked rows before they are scored.
+        PriorityQueue<ScoredUid> best = new PriorityQueue<>(limit, (left, right) -> Double.compare(left.score, right.score));
+        try (Cursor cursor = librarySearchEntryDao.matchByType(match, mediaType)) {
+            int uidColumn = cursor.getColumnIndexOrThrow("uid");
+            int matchInfoColumn = cursor.getColumnIndexOrThrow("match_info");
+            while (cursor.moveToNext()) {
+                double score = SearchRankUtil.bm25(cursor.getBlob(matchInfoColumn), COLUMN_WEIGHTS);
+                if (best.size() < limit) {
+                    best.add(new ScoredUid(cursor.getString(uidColumn), score));
+                } else if (score > best.peek().score) {
+                    best.poll();
+                    best.add(new ScoredUid(cursor.getString(uidColumn), score));
+                }
+            }
+        } catch (SQLException e) {
+            Log.w(TAG, "FTS search failed, falling back to LIKE", e);
+            return librarySearchEntryDao.searchByType(normalized, mediaType, limit);
+        }
+        if (best.isEmpty()) return Collections.emptyList();
+
+        String[] ordered = new String[best.size()];
+        for (int i = ordered.length - 1; i >= 0; i--) {
+            ordered[i] = best.poll().uid;
+        }
+        List<String> uids = Arrays.asList(ordered);
+
+        Map<String, LibrarySearchEntry> byUid = new HashMap<>();
+        for (LibrarySearchEntry entry : librarySearchEntryDao.getByUids(uids)) {
+            byUid.put(entry.getUid(), entry);
+        }
+        List<LibrarySearchEntry> ranked = new ArrayList<>(uids.size());
+        for (String uid : uids) {
+            LibrarySearchEntry entry = byUid.get(uid);
+            if (entry != null) ranked.add(entry);
+        }
+        return ranked;
+    }
+
+    private static final class ScoredUid {
+        final String uid;
+        final double score;
+
+        ScoredUid(String uid, double score) {
+            this.uid = uid;
+            this.score = score;
+        }
+    }
+
+    public static final class IndexDiff {
+        public int inserted;
+        public int updated;
+        public int deleted;
+        public int unchanged;
+
+        public int touched() {
+            return inserted + updated + deleted;
+        }
+    }
+
     public interface ResultCallback<T> {
         void onLoaded(T value);
     }
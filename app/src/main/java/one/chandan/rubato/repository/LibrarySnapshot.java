@@ -0,0 +1,251 @@
+package one.chandan.rubato.repository;
+
+import androidx.annotation.Nullable;
+
+import one.chandan.rubato.subsonic.models.AlbumID3;
+import one.chandan.rubato.subsonic.models.ArtistID3;
+import one.chandan.rubato.subsonic.models.Child;
+import one.chandan.rubato.subsonic.models.Playlist;
+import one.chandan.rubato.util.AlbumCatalogIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the synced Subsonic library plus the on-device library, with id maps and
+ * album sort orders built once up front. Instances are shared across threads and must not be
+ * modified; use {@link #withLocal} to swap in a new local library while reusing the synced half.
+ */
+public final class LibrarySnapshot {
+    static final long ESTIMATED_ARTIST_BYTES = 240L;
+    static final long ESTIMATED_ALBUM_BYTES = 800L;
+    static final long ESTIMATED_SONG_BYTES = 1200L;
+
+    static final LibrarySnapshot EMPTY = new LibrarySnapshot(-1L, -1L, Collections.emptyList(), Collections.emptyList(),
+            Collections.emptyList(), true, Collections.emptyList(), null);
+
+    private final long generation;
+    private final long localGeneration;
+    private final List<ArtistID3> artists;
+    private final List<AlbumID3> albums;
+    private final List<Child> songs;
+    private final boolean songsIncluded;
+    private final List<Playlist> playlists;
+    private final Map<String, ArtistID3> artistsById;
+    private final Map<String, AlbumID3> albumsById;
+    private final Map<String, Child> songsById;
+
+    private final List<ArtistID3> localArtists;
+    private final List<AlbumID3> localAlbums;
+    private final List<Child> localSongs;
+    private final Map<String, ArtistID3> localArtistsById;
+    private final Map<String, AlbumID3> localAlbumsById;
+    private final Map<String, Child> localSongsById;
+
+    private final List<ArtistID3> allArtists;
+    private final List<AlbumID3> allAlbums;
+    private final List<Child> allSongs;
+    private final AlbumCatalogIndex albumIndex;
+
+    LibrarySnapshot(long generation,
+                    long localGeneration,
+                    List<ArtistID3> artists,
+                    List<AlbumID3> albums,
+                    List<Child> songs,
+                    boolean songsIncluded,
+                    List<Playlist> playlists,
+                    @Nullable LocalMusicRepository.LocalLibrary local) {
+        this.generation = generation;
+        this.localGeneration = localGeneration;
+        this.artists = freeze(artists);
+        this.albums = freeze(albums);
+        this.songs = freeze(songs);
+        this.songsIncluded = songsIncluded;
+        this.playlists = freeze(playlists);
+        this.artistsById = indexArtists(this.artists);
+        this.albumsById = indexAlbums(this.albums);
+        this.songsById = indexSongs(this.songs);
+
+        this.localArtists = freeze(local != null ? local.artists : null);
+        this.localAlbums = freeze(local != null ? local.albums : null);
+        this.localSongs = freeze(local != null ? local.songs : null);
+        this.localArtistsById = indexArtists(localArtists);
+        this.localAlbumsById = indexAlbums(localAlbums);
+        this.localSongsById = indexSongs(localSongs);
+
+        this.allArtists = concat(this.artists, localArtists);
+        this.allAlbums = concat(this.albums, localAlbums);
+        this.allSongs = concat(this.songs, localSongs);
+        this.albumIndex = new AlbumCatalogIndex(allAlbums);
+    }
+
+    private LibrarySnapshot(LibrarySnapshot synced, long localGeneration, @Nullable LocalMusicRepository.LocalLibrary local) {
+        this.generation = synced.generation;
+        this.localGeneration = localGeneration;
+        this.artists = synced.artists;
+        this.albums = synced.albums;
+        this.songs = synced.songs;
+        this.songsIncluded = synced.songsIncluded;
+        this.playlists = synced.playlists;
+        this.artistsById = synced.artistsById;
+        this.albumsById = synced.albumsById;
+        this.songsById = synced.songsById;
+
+        this.localArtists = freeze(local != null ? local.artists : null);
+        this.localAlbums = freeze(local != null ? local.albums : null);
+        this.localSongs = freeze(local != null ? local.songs : null);
+        this.localArtistsById = indexArtists(localArtists);
+        this.localAlbumsById = indexAlbums(localAlbums);
+        this.localSongsById = indexSongs(localSongs);
+
+        this.allArtists = concat(artists, localArtists);
+        this.allAlbums = concat(albums, localAlbums);
+        this.allSongs = concat(songs, localSongs);
+        this.albumIndex = new AlbumCatalogIndex(allAlbums);
+    }
+
+    /**
+     * Returns a copy that shares every synced list and map with this snapshot and carries {@code local}
+     * as its on-device library.
+     */
+    LibrarySnapshot withLocal(@Nullable LocalMusicRepository.LocalLibrary local, long localGeneration) {
+        return new LibrarySnapshot(this, localGeneration, local);
+    }
+
+    long getGeneration() {
+        return generation;
+    }
+
+    long getLocalGeneration() {
+        return localGeneration;
+    }
+
+    /** Synced artists only, in catalog order. */
+    public List<ArtistID3> getArtists() {
+        return artists;
+    }
+
+    /** Synced albums only, in catalog order. */
+    public List<AlbumID3> getAlbums() {
+        return albums;
+    }
+
+    /**
+     * Synced songs only. Empty when the library was too large to hold its songs in memory; check
+     * {@link #isSongsIncluded()} before treating an empty list as "no songs".
+     */
+    public List<Child> getSongs() {
+        return songs;
+    }
+
+    public boolean isSongsIncluded() {
+        return songsIncluded;
+    }
+
+    public List<Playlist> getPlaylists() {
+        return playlists;
+    }
+
+    public List<ArtistID3> getLocalArtists() {
+        return localArtists;
+    }
+
+    public List<AlbumID3> getLocalAlbums() {
+        return localAlbums;
+    }
+
+    public List<Child> getLocalSongs() {
+        return localSongs;
+    }
+
+    /** Synced artists followed by local ones, the same order {@link LocalMusicRepository#appendLocalArtists} produces. */
+    public List<ArtistID3> getAllArtists() {
+        return allArtists;
+    }
+
+    public List<AlbumID3> getAllAlbums() {
+        return allAlbums;
+    }
+
+    public List<Child> getAllSongs() {
+        return allSongs;
+    }
+
+    /** Sort orders and year/genre indexes over {@link #getAllAlbums()}. */
+    public AlbumCatalogIndex getAlbumIndex() {
+        return albumIndex;
+    }
+
+    @Nullable
+    public ArtistID3 getArtist(@Nullable String id) {
+        if (id == null) return null;
+        return LocalMusicRepository.isLocalArtistId(id) ? localArtistsById.get(id) : artistsById.get(id);
+    }
+
+    @Nullable
+    public AlbumID3 getAlbum(@Nullable String id) {
+        if (id == null) return null;
+        return LocalMusicRepository.isLocalAlbumId(id) ? localAlbumsById.get(id) : albumsById.get(id);
+    }
+
+    @Nullable
+    public Child getSong(@Nullable String id) {
+        if (id == null) return null;
+        return LocalMusicRepository.isLocalSongId(id) ? localSongsById.get(id) : songsById.get(id);
+    }
+
+    public long getEstimatedBytes() {
+        return estimateBytes(allArtists.size(), allAlbums.size(), allSongs.size());
+    }
+
+    static long estimateBytes(long artistCount, long albumCount, long songCount) {
+        return artistCount * ESTIMATED_ARTIST_BYTES
+                + albumCount * ESTIMATED_ALBUM_BYTES
+                + songCount * ESTIMATED_SONG_BYTES;
+    }
+
+    private static <T> List<T> freeze(@Nullable List<T> source) {
+        if (source == null || source.isEmpty()) return Collections.emptyList();
+        List<T> copy = new ArrayList<>(source.size());
+        for (T item : source) {
+            if (item != null) copy.add(item);
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    private static <T> List<T> concat(List<T> synced, List<T> local) {
+        if (local.isEmpty()) return synced;
+        if (synced.isEmpty()) return local;
+        List<T> merged = new ArrayList<>(synced.size() + local.size());
+        merged.addAll(synced);
+        merged.addAll(local);
+        return Collections.unmodifiableList(merged);
+    }
+
+    private static Map<String, ArtistID3> indexArtists(List<ArtistID3> artists) {
+        Map<String, ArtistID3> index = new HashMap<>(Math.max(16, artists.size() * 4 / 3 + 1));
+        for (ArtistID3 artist : artists) {
+            if (artist.getId() != null) index.putIfAbsent(artist.getId(), artist);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Map<String, AlbumID3> indexAlbums(List<AlbumID3> albums) {
+        Map<String, AlbumID3> index = new HashMap<>(Math.max(16, albums.size() * 4 / 3 + 1));
+        for (AlbumID3 album : albums) {
+            if (album.getId() != null) index.putIfAbsent(album.getId(), album);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    private static Map<String, Child> indexSongs(List<Child> songs) {
+        Map<String, Child> index = new HashMap<>(Math.max(16, songs.size() * 4 / 3 + 1));
+        for (Child song : songs) {
+            if (song.getId() != null) index.putIfAbsent(song.getId(), song);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+}
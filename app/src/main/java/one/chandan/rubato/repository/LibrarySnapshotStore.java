@@ -0,0 +1,234 @@
+package one.chandan.rubato.repository;
+
+import android.content.ComponentCallbacks2;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import one.chandan.rubato.App;
+import one.chandan.rubato.subsonic.models.AlbumID3;
+import one.chandan.rubato.subsonic.models.ArtistID3;
+import one.chandan.rubato.subsonic.models.Child;
+import one.chandan.rubato.subsonic.models.Playlist;
+import one.chandan.rubato.util.AppExecutors;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide holder of the current {@link LibrarySnapshot}. Reads are lock-free; building and
+ * swapping happen on a single background thread, so concurrent first reads share one build.
+ * <p>
+ * The snapshot is rebuilt when a metadata sync finishes and swapped in atomically; readers keep
+ * the previous snapshot until then. Under memory pressure it is demoted to a soft reference and
+ * rebuilt on demand if the collector took it.
+ */
+public final class LibrarySnapshotStore {
+    private static final String TAG = "LibrarySnapshotStore";
+    private static final long MAX_SNAPSHOT_BYTES = 64L * 1024 * 1024;
+
+    private static final ExecutorService BUILDER = AppExecutors.newSingleThreadExecutor("rubato-library-snapshot");
+    private static final Object LOCK = new Object();
+    private static final List<Callback> WAITING = new ArrayList<>();
+    // Bumped when the synced catalog is discarded; snapshots from an older generation are never served.
+    private static final AtomicLong GENERATION = new AtomicLong();
+    private static final AtomicLong LOCAL_GENERATION = new AtomicLong();
+
+    private static volatile LibrarySnapshot current;
+    private static volatile SoftReference<LibrarySnapshot> evicted;
+    private static boolean building;
+
+    private LibrarySnapshotStore() {
+    }
+
+    public interface Callback {
+        void onSnapshot(LibrarySnapshot snapshot);
+    }
+
+    /**
+     * Returns the current snapshot without blocking, or null when it has to be (re)built first.
+     */
+    @Nullable
+    public static LibrarySnapshot peek() {
+        LibrarySnapshot snapshot = current;
+        if (snapshot == null) {
+            SoftReference<LibrarySnapshot> ref = evicted;
+            snapshot = ref != null ? ref.get() : null;
+        }
+        if (snapshot == null
+                || snapshot.getGeneration() != GENERATION.get()
+                || snapshot.getLocalGeneration() != LOCAL_GENERATION.get()) {
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Delivers the current snapshot on a background thread, building it first if needed.
+     */
+    public static void get(Callback callback) {
+        LibrarySnapshot snapshot = peek();
+        if (snapshot != null) {
+            AppExecutors.io().execute(() -> callback.onSnapshot(snapshot));
+            return;
+        }
+        synchronized (LOCK) {
+            WAITING.add(callback);
+            if (building) return;
+            building = true;
+        }
+        BUILDER.execute(LibrarySnapshotStore::buildForWaiting);
+    }
+
+    /**
+     * Builds a fresh snapshot from the catalog in the background and swaps it in. Readers keep
+     * the current snapshot until the new one is ready.
+     */
+    public static void rebuild() {
+        BUILDER.execute(() -> {
+            try {
+                build(GENERATION.get(), null);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Snapshot rebuild failed", e);
+            }
+        });
+    }
+
+    /**
+     * Drops the snapshot after the synced catalog was cleared or replaced outside a sync.
+     */
+    public static void invalidate() {
+        synchronized (LOCK) {
+            GENERATION.incrementAndGet();
+            current = null;
+            evicted = null;
+        }
+    }
+
+    /**
+     * Marks the on-device half stale; the next read swaps in a copy with a fresh local library and
+     * the same synced lists.
+     */
+    public static void invalidateLocal() {
+        LOCAL_GENERATION.incrementAndGet();
+    }
+
+    public static void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+            synchronized (LOCK) {
+                current = null;
+                evicted = null;
+            }
+            return;
+        }
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW && level != ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            synchronized (LOCK) {
+                LibrarySnapshot snapshot = current;
+                if (snapshot != null) {
+                    evicted = new SoftReference<>(snapshot);
+                    current = null;
+                }
+            }
+        }
+    }
+
+    private static void buildForWaiting() {
+        LibrarySnapshot snapshot = null;
+        try {
+            snapshot = peek();
+            if (snapshot == null) {
+                snapshot = build(GENERATION.get(), reusable());
+            }
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Snapshot build failed", e);
+        }
+        List<Callback> callbacks;
+        synchronized (LOCK) {
+            callbacks = new ArrayList<>(WAITING);
+            WAITING.clear();
+            building = false;
+        }
+        LibrarySnapshot delivered = snapshot != null ? snapshot : LibrarySnapshot.EMPTY;
+        for (Callback callback : callbacks) {
+            callback.onSnapshot(delivered);
+        }
+    }
+
+    // A snapshot whose synced half is still valid, even if its local half is stale or it was demoted.
+    @Nullable
+    private static LibrarySnapshot reusable() {
+        LibrarySnapshot snapshot = current;
+        if (snapshot == null) {
+            SoftReference<LibrarySnapshot> ref = evicted;
+            snapshot = ref != null ? ref.get() : null;
+        }
+        return snapshot != null && snapshot.getGeneration() == GENERATION.get() ? snapshot : null;
+    }
+
+    private static LibrarySnapshot build(long generation, @Nullable LibrarySnapshot synced) {
+        long localGeneration = LOCAL_GENERATION.get();
+        LocalMusicRepository.LocalLibrary local = loadLocal();
+        LibrarySnapshot snapshot = synced != null
+                ? synced.withLocal(local, localGeneration)
+                : buildSynced(generation, localGeneration, local);
+        synchronized (LOCK) {
+            if (generation == GENERATION.get()) {
+                current = snapshot;
+                evicted = null;
+            }
+        }
+        return snapshot;
+    }
+
+    private static LibrarySnapshot buildSynced(long generation, long localGeneration, @Nullable LocalMusicRepository.LocalLibrary local) {
+        long start = System.currentTimeMillis();
+        CatalogRepository catalogRepository = new CatalogRepository();
+        List<ArtistID3> artists = catalogRepository.getArtists(CatalogRepository.SCOPE_SUBSONIC);
+        List<AlbumID3> albums = catalogRepository.getAlbums(CatalogRepository.SCOPE_SUBSONIC);
+        Type playlistType = new TypeToken<List<Playlist>>() {
+        }.getType();
+        List<Playlist> playlists = new CacheRepository().loadBlocking("playlists", playlistType);
+
+        // Artists and albums are always kept; songs only when the whole library fits the ceiling.
+        int songCount = catalogRepository.countSongs(CatalogRepository.SCOPE_SUBSONIC);
+        long estimate = LibrarySnapshot.estimateBytes(
+                size(artists) + (local != null ? local.artists.size() : 0),
+                size(albums) + (local != null ? local.albums.size() : 0),
+                songCount + (local != null ? local.songs.size() : 0));
+        boolean songsIncluded = estimate <= maxSnapshotBytes();
+        List<Child> songs = songsIncluded && songCount > 0
+                ? catalogRepository.getSongs(CatalogRepository.SCOPE_SUBSONIC)
+                : Collections.emptyList();
+
+        LibrarySnapshot snapshot = new LibrarySnapshot(generation, localGeneration, artists, albums, songs, songsIncluded, playlists, local);
+        Log.d(TAG, "Snapshot built in " + (System.currentTimeMillis() - start) + "ms, ~"
+                + (snapshot.getEstimatedBytes() / 1024) + " KiB" + (songsIncluded ? "" : " (songs omitted)"));
+        return snapshot;
+    }
+
+    @Nullable
+    private static LocalMusicRepository.LocalLibrary loadLocal() {
+        try {
+            return LocalMusicRepository.loadLibraryBlocking(App.getContext());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.w(TAG, "Local library unavailable for snapshot", e);
+        }
+        return null;
+    }
+
+    private static long maxSnapshotBytes() {
+        return Math.min(Runtime.getRuntime().maxMemory() / 8, MAX_SNAPSHOT_BYTES);
+    }
+
+    private static int size(@Nullable List<?> list) {
+        return list != null ? list.size() : 0;
+    }
+}
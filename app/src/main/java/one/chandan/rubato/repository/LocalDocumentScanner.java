@@ -0,0 +1,385 @@
+package one.chandan.rubato.repository;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.media.MediaMetadataRetriever;
+import android.net.Uri;
+import android.provider.DocumentsContract;
+import android.text.TextUtils;
+
+import androidx.annotation.Nullable;
+
+import one.chandan.rubato.database.AppDatabase;
+import one.chandan.rubato.database.dao.LocalDocumentDao;
+import one.chandan.rubato.model.LocalDocument;
+import one.chandan.rubato.model.LocalSource;
+import one.chandan.rubato.subsonic.utils.StringUtil;
+import one.chandan.rubato.util.AppExecutors;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Finds audio files under each local source's document tree, including ones MediaStore never
+ * indexed, and keeps their tags in {@code local_document}.
+ * <p>
+ * Directories are listed concurrently with {@link DocumentsContract} child queries, which return
+ * name, type, size and modification time in one cursor rather than a provider call per file. Only
+ * files whose size or modification time changed are opened with {@link MediaMetadataRetriever}, on
+ * a small bounded pool. {@link #refresh} must run on one thread at a time; {@link #getRows} may be
+ * called from anywhere.
+ */
+final class LocalDocumentScanner {
+    private static final int WALK_THREADS = 4;
+    private static final int TAG_THREADS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+    private static final ExecutorService WALKER = AppExecutors.newFixedThreadPool("rubato-local-walk", WALK_THREADS);
+    private static final ExecutorService TAGGER = AppExecutors.newFixedThreadPool("rubato-local-tags", TAG_THREADS);
+    // Tag results are written in batches so an interrupted first scan keeps what it read.
+    private static final int WRITE_BATCH = 200;
+    private static final int ID_CHUNK = 500;
+    private static final String ART_DIR = "local_art";
+    private static final String[] CHILD_PROJECTION = {
+            DocumentsContract.Document.COLUMN_DOCUMENT_ID,
+            DocumentsContract.Document.COLUMN_DISPLAY_NAME,
+            DocumentsContract.Document.COLUMN_MIME_TYPE,
+            DocumentsContract.Document.COLUMN_SIZE,
+            DocumentsContract.Document.COLUMN_LAST_MODIFIED
+    };
+
+    private final Object lock = new Object();
+    private LocalDocumentDao dao;
+    // Immutable; replaced after every refresh that changed something.
+    private List<LocalDocument> snapshot;
+
+    private static final class Listing {
+        final String documentId;
+        final String name;
+        final String mimeType;
+        final long size;
+        final long lastModified;
+        final boolean directory;
+
+        Listing(String documentId, String name, String mimeType, long size, long lastModified) {
+            this.documentId = documentId;
+            this.name = name;
+            this.mimeType = mimeType;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.directory = DocumentsContract.Document.MIME_TYPE_DIR.equals(mimeType);
+        }
+    }
+
+    List<LocalDocument> getRows() {
+        synchronized (lock) {
+            if (snapshot == null) {
+                dao = AppDatabase.getInstance().localDocumentDao();
+                snapshot = Collections.unmodifiableList(dao.getAll());
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Brings the stored files of every source in line with its tree and drops the files of sources
+     * that are gone. Returns whether anything was added, changed or removed. A tree that cannot be
+     * read (revoked permission, unmounted card) keeps its stored files.
+     */
+    boolean refresh(Context context, @Nullable List<LocalSource> sources) {
+        if (sources == null) return false;
+        Map<String, Map<String, LocalDocument>> bySource = new HashMap<>();
+        for (LocalDocument row : getRows()) {
+            bySource.computeIfAbsent(row.getSourceId(), id -> new HashMap<>()).put(row.getDocumentId(), row);
+        }
+
+        boolean changed = false;
+        List<String> sourceIds = new ArrayList<>();
+        for (LocalSource source : sources) {
+            if (source == null) continue;
+            sourceIds.add(source.getId());
+            Map<String, LocalDocument> known = bySource.computeIfAbsent(source.getId(), id -> new HashMap<>());
+            changed |= refreshSource(context, source, known);
+        }
+        if (bySource.keySet().retainAll(sourceIds)) {
+            if (sourceIds.isEmpty()) {
+                dao.clear();
+            } else {
+                dao.deleteOtherSources(sourceIds);
+            }
+            changed = true;
+        }
+
+        if (changed) {
+            List<LocalDocument> rows = new ArrayList<>();
+            for (Map<String, LocalDocument> known : bySource.values()) {
+                rows.addAll(known.values());
+            }
+            synchronized (lock) {
+                snapshot = Collections.unmodifiableList(rows);
+            }
+            pruneArt(context, rows);
+        }
+        return changed;
+    }
+
+    private boolean refreshSource(Context context, LocalSource source, Map<String, LocalDocument> known) {
+        Uri treeUri = Uri.parse(source.getTreeUri());
+        String rootId;
+        try {
+            rootId = DocumentsContract.getTreeDocumentId(treeUri);
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        List<Listing> files = walk(context.getContentResolver(), treeUri, rootId);
+        if (files == null) return false;
+
+        Set<String> present = new HashSet<>();
+        List<Listing> stale = new ArrayList<>();
+        for (Listing file : files) {
+            present.add(file.documentId);
+            LocalDocument row = known.get(file.documentId);
+            if (row == null || row.getLastModified() != file.lastModified || row.getSize() != file.size) {
+                stale.add(file);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String documentId : known.keySet()) {
+            if (!present.contains(documentId)) {
+                removed.add(documentId);
+            }
+        }
+        if (stale.isEmpty() && removed.isEmpty()) return false;
+
+        for (int i = 0; i < removed.size(); i += ID_CHUNK) {
+            dao.delete(source.getId(), removed.subList(i, Math.min(removed.size(), i + ID_CHUNK)));
+        }
+        known.keySet().removeAll(removed);
+        readTags(context, source.getId(), treeUri, stale, known);
+        return true;
+    }
+
+    // Lists the tree breadth-first across the walker pool; null if any directory could not be listed.
+    @Nullable
+    private static List<Listing> walk(ContentResolver resolver, Uri treeUri, String rootId) {
+        CompletionService<List<Listing>> completion = new ExecutorCompletionService<>(WALKER);
+        completion.submit(() -> listChildren(resolver, treeUri, rootId));
+        int pending = 1;
+        List<Listing> files = new ArrayList<>();
+        while (pending > 0) {
+            List<Listing> children;
+            try {
+                children = completion.take().get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException ex) {
+                return null;
+            }
+            pending--;
+            for (Listing child : children) {
+                if (child.directory) {
+                    completion.submit(() -> listChildren(resolver, treeUri, child.documentId));
+                    pending++;
+                } else {
+                    files.add(child);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static List<Listing> listChildren(ContentResolver resolver, Uri treeUri, String parentId) throws IOException {
+        Uri childrenUri = DocumentsContract.buildChildDocumentsUriUsingTree(treeUri, parentId);
+        Cursor cursor = resolver.query(childrenUri, CHILD_PROJECTION, null, null, null);
+        if (cursor == null) {
+            throw new IOException("Cannot list " + parentId);
+        }
+        List<Listing> children = new ArrayList<>();
+        try {
+            while (cursor.moveToNext()) {
+                String documentId = cursor.getString(0);
+                String name = cursor.getString(1);
+                String mimeType = cursor.getString(2);
+                if (documentId == null || (name != null && name.startsWith("."))) continue;
+                Listing listing = new Listing(
+                        documentId,
+                        name,
+                        mimeType,
+                        cursor.isNull(3) ? 0L : cursor.getLong(3),
+                        cursor.isNull(4) ? 0L : cursor.getLong(4)
+                );
+                if (listing.directory || DirectoryRepository.isAudioDocument(name, mimeType)) {
+                    children.add(listing);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return children;
+    }
+
+    private void readTags(Context context, String sourceId, Uri treeUri, List<Listing> files, Map<String, LocalDocument> known) {
+        if (files.isEmpty()) return;
+        CompletionService<LocalDocument> completion = new ExecutorCompletionService<>(TAGGER);
+        for (Listing file : files) {
+            completion.submit(() -> readDocument(context, sourceId, treeUri, file));
+        }
+        List<LocalDocument> batch = new ArrayList<>(WRITE_BATCH);
+        for (int i = 0; i < files.size(); i++) {
+            try {
+                batch.add(completion.take().get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException ignored) {
+                // Left out; the next scan tries the file again.
+            }
+            if (batch.size() >= WRITE_BATCH) {
+                flush(batch, known);
+            }
+        }
+        flush(batch, known);
+    }
+
+    private void flush(List<LocalDocument> batch, Map<String, LocalDocument> known) {
+        if (batch.isEmpty()) return;
+        dao.upsertAll(batch);
+        for (LocalDocument row : batch) {
+            known.put(row.getDocumentId(), row);
+        }
+        batch.clear();
+    }
+
+    private static LocalDocument readDocument(Context context, String sourceId, Uri treeUri, Listing file) {
+        Uri documentUri = DocumentsContract.buildDocumentUriUsingTree(treeUri, file.documentId);
+        String title = null;
+        String album = null;
+        String artist = null;
+        String albumArtist = null;
+        String track = null;
+        String disc = null;
+        String year = null;
+        String duration = null;
+        String genre = null;
+        byte[] art = null;
+
+        MediaMetadataRetriever retriever = new MediaMetadataRetriever();
+        try {
+            retriever.setDataSource(context, documentUri);
+            title = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_TITLE);
+            album = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_ALBUM);
+            artist = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_ARTIST);
+            albumArtist = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_ALBUMARTIST);
+            track = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_CD_TRACK_NUMBER);
+            disc = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DISC_NUMBER);
+            year = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_YEAR);
+            duration = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+            genre = retriever.extractMetadata(MediaMetadataRetriever.METADATA_KEY_GENRE);
+            art = retriever.getEmbeddedPicture();
+        } catch (RuntimeException ignored) {
+            // Unsupported or unreadable file; it is still listed under its file name.
+        } finally {
+            try {
+                retriever.release();
+            } catch (Exception ignored) {
+            }
+        }
+
+        if (TextUtils.isEmpty(title)) {
+            title = stripExtension(file.name);
+        }
+        String artKey = !TextUtils.isEmpty(album)
+                ? sourceId + "|" + album + "|" + (albumArtist != null ? albumArtist : artist)
+                : sourceId + "|" + file.documentId;
+        return new LocalDocument(
+                sourceId,
+                file.documentId,
+                documentUri.toString(),
+                file.name,
+                file.mimeType,
+                file.size,
+                file.lastModified,
+                title,
+                album,
+                artist,
+                albumArtist,
+                parseLeadingInt(track),
+                parseLeadingInt(disc),
+                parseLeadingInt(year),
+                parseLeadingInt(duration),
+                genre,
+                art != null ? saveArt(context, artKey, art) : null
+        );
+    }
+
+    // Embedded art is stored once per album, so every track of an album shares one file. The name
+    // carries a hash of the picture, so replaced art gets a new file instead of reusing the old one.
+    @Nullable
+    private static String saveArt(Context context, String key, byte[] art) {
+        File dir = new File(context.getFilesDir(), ART_DIR);
+        File file = new File(dir, StringUtil.tokenize(key) + "-" + Integer.toHexString(Arrays.hashCode(art)));
+        if (!file.exists()) {
+            try {
+                if (!dir.exists()) dir.mkdirs();
+                File temp = File.createTempFile(file.getName(), ".tmp", dir);
+                try (FileOutputStream out = new FileOutputStream(temp)) {
+                    out.write(art);
+                }
+                if (!temp.renameTo(file)) {
+                    temp.delete();
+                }
+            } catch (IOException ex) {
+                return null;
+            }
+        }
+        return file.exists() ? Uri.fromFile(file).toString() : null;
+    }
+
+    // Deletes stored art that no row points at any more: replaced pictures, removed files and sources.
+    private static void pruneArt(Context context, List<LocalDocument> rows) {
+        File[] files = new File(context.getFilesDir(), ART_DIR).listFiles();
+        if (files == null) return;
+        Set<String> referenced = new HashSet<>();
+        for (LocalDocument row : rows) {
+            if (row.getArtUri() != null) referenced.add(row.getArtUri());
+        }
+        for (File file : files) {
+            if (!referenced.contains(Uri.fromFile(file).toString())) {
+                file.delete();
+            }
+        }
+    }
+
+    // Tags such as "3/12" or "2019-05-01" only need their leading number.
+    private static int parseLeadingInt(@Nullable String value) {
+        if (value == null) return 0;
+        int result = 0;
+        int i = 0;
+        String trimmed = value.trim();
+        while (i < trimmed.length() && Character.isDigit(trimmed.charAt(i)) && i < 9) {
+            result = result * 10 + (trimmed.charAt(i) - '0');
+            i++;
+        }
+        return result;
+    }
+
+    @Nullable
+    private static String stripExtension(@Nullable String name) {
+        if (name == null) return null;
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
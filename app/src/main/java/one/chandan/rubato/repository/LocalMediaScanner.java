@@ -0,0 +1,403 @@
+package one.chandan.rubato.repository;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.Build;
+import android.provider.MediaStore;
+import android.text.TextUtils;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+import one.chandan.rubato.database.AppDatabase;
+import one.chandan.rubato.database.dao.LocalMediaDao;
+import one.chandan.rubato.model.LocalMedia;
+import one.chandan.rubato.model.LocalMediaVolume;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the {@code local_media} table in line with MediaStore without re-reading every file.
+ * <p>
+ * On Android 11+ each external volume is asked only for rows whose generation moved past the one
+ * recorded by the previous scan; older releases compare every file's {@code DATE_MODIFIED} with the
+ * stored row and re-read only the ones that differ. Removals are found by diffing the current ids.
+ * Not thread-safe; confined to the local music executor.
+ */
+final class LocalMediaScanner {
+    private static final String MUSIC_SELECTION = MediaStore.Audio.Media.IS_MUSIC + "!=0";
+    private static final int ID_CHUNK = 500;
+    // Served by MediaProvider alongside the per-genre members URI, though not part of the public API.
+    private static final Uri ALL_GENRE_MEMBERS_URI = Uri.parse("content://media/external/audio/genres/all/members");
+
+    private LocalMediaDao dao;
+    private Map<Long, LocalMedia> rows;
+
+    Collection<LocalMedia> getRows() {
+        return rows != null ? Collections.unmodifiableCollection(rows.values()) : Collections.emptyList();
+    }
+
+    /**
+     * Applies the MediaStore changes since the last scan and returns whether any row was added,
+     * changed or removed.
+     */
+    boolean refresh(Context context) {
+        if (rows == null) {
+            dao = AppDatabase.getInstance().localMediaDao();
+            rows = new HashMap<>();
+            for (LocalMedia row : dao.getAll()) {
+                rows.put(row.getMediaId(), row);
+            }
+        }
+
+        ContentResolver resolver = context.getContentResolver();
+        Map<Long, LocalMedia> changed = new HashMap<>();
+        List<LocalMediaVolume> volumes = null;
+        Set<Long> present;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            volumes = scanGenerations(context, resolver, changed);
+            present = queryIds(resolver);
+        } else {
+            present = scanModified(resolver, changed);
+        }
+        if (present == null) {
+            // MediaStore is unavailable; keep serving what was stored.
+            return false;
+        }
+        assignGenres(resolver, changed);
+
+        List<Long> removed = new ArrayList<>();
+        for (Long mediaId : rows.keySet()) {
+            if (!present.contains(mediaId)) {
+                removed.add(mediaId);
+            }
+        }
+        changed.values().removeIf(row -> row.equals(rows.get(row.getMediaId())));
+
+        List<LocalMedia> updates = new ArrayList<>(changed.values());
+        List<LocalMediaVolume> scannedVolumes = volumes;
+        AppDatabase.getInstance().runInTransaction(() -> {
+            for (int i = 0; i < removed.size(); i += ID_CHUNK) {
+                dao.delete(removed.subList(i, Math.min(removed.size(), i + ID_CHUNK)));
+            }
+            if (!updates.isEmpty()) {
+                dao.upsertAll(updates);
+            }
+            if (scannedVolumes != null) {
+                dao.clearVolumes();
+                dao.upsertVolumes(scannedVolumes);
+            }
+        });
+
+        if (updates.isEmpty() && removed.isEmpty()) {
+            return false;
+        }
+        for (Long mediaId : removed) {
+            rows.remove(mediaId);
+        }
+        for (LocalMedia row : updates) {
+            rows.put(row.getMediaId(), row);
+        }
+        return true;
+    }
+
+    @RequiresApi(Build.VERSION_CODES.R)
+    private List<LocalMediaVolume> scanGenerations(Context context, ContentResolver resolver, Map<Long, LocalMedia> changed) {
+        Map<String, LocalMediaVolume> known = new HashMap<>();
+        for (LocalMediaVolume volume : dao.getVolumes()) {
+            known.put(volume.getVolume(), volume);
+        }
+
+        List<LocalMediaVolume> scanned = new ArrayList<>();
+        for (String volume : MediaStore.getExternalVolumeNames(context)) {
+            try {
+                String version = MediaStore.getVersion(context, volume);
+                // Read before querying so anything changed meanwhile is picked up again next time.
+                long generation = MediaStore.getGeneration(context, volume);
+                LocalMediaVolume last = known.get(volume);
+                long since = last != null && last.getVersion().equals(version) ? last.getGeneration() : -1L;
+                if (since < generation) {
+                    String selection = MUSIC_SELECTION + " AND " + MediaStore.MediaColumns.GENERATION_MODIFIED + ">?";
+                    if (!queryRows(resolver, MediaStore.Audio.Media.getContentUri(volume), selection, new String[]{String.valueOf(since)}, changed)) {
+                        continue;
+                    }
+                }
+                scanned.add(new LocalMediaVolume(volume, version, generation));
+            } catch (RuntimeException ignored) {
+                // Volume went away mid-scan; it is scanned in full once it is back.
+            }
+        }
+        return scanned;
+    }
+
+    @Nullable
+    private Set<Long> scanModified(ContentResolver resolver, Map<Long, LocalMedia> changed) {
+        Cursor cursor = resolver.query(MediaStore.Audio.Media.EXTERNAL_CONTENT_URI,
+                new String[]{MediaStore.Audio.Media._ID, MediaStore.Audio.Media.DATE_MODIFIED},
+                MUSIC_SELECTION,
+                null,
+                null);
+        if (cursor == null) return null;
+
+        Set<Long> present = new HashSet<>();
+        List<Long> stale = new ArrayList<>();
+        try {
+            int idCol = cursor.getColumnIndex(MediaStore.Audio.Media._ID);
+            int modifiedCol = cursor.getColumnIndex(MediaStore.Audio.Media.DATE_MODIFIED);
+            if (idCol == -1) return null;
+            while (cursor.moveToNext()) {
+                long mediaId = cursor.getLong(idCol);
+                long modified = modifiedCol != -1 ? cursor.getLong(modifiedCol) : 0L;
+                present.add(mediaId);
+                LocalMedia row = rows.get(mediaId);
+                if (row == null || row.getDateModified() != modified) {
+                    stale.add(mediaId);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+
+        for (int i = 0; i < stale.size(); i += ID_CHUNK) {
+            List<Long> chunk = stale.subList(i, Math.min(stale.size(), i + ID_CHUNK));
+            String selection = MediaStore.Audio.Media._ID + " IN (" + TextUtils.join(",", chunk) + ")";
+            queryRows(resolver, MediaStore.Audio.Media.EXTERNAL_CONTENT_URI, selection, null, changed);
+        }
+        return present;
+    }
+
+    @Nullable
+    private static Set<Long> queryIds(ContentResolver resolver) {
+        Cursor cursor = resolver.query(MediaStore.Audio.Media.EXTERNAL_CONTENT_URI,
+                new String[]{MediaStore.Audio.Media._ID},
+                MUSIC_SELECTION,
+                null,
+                null);
+        if (cursor == null) return null;
+        Set<Long> ids = new HashSet<>();
+        try {
+            int idCol = cursor.getColumnIndex(MediaStore.Audio.Media._ID);
+            if (idCol == -1) return null;
+            while (cursor.moveToNext()) {
+                ids.add(cursor.getLong(idCol));
+            }
+        } finally {
+            cursor.close();
+        }
+        return ids;
+    }
+
+    private static boolean queryRows(ContentResolver resolver, Uri uri, String selection, @Nullable String[] args, Map<Long, LocalMedia> into) {
+        List<String> projectionList = new ArrayList<>();
+        projectionList.add(MediaStore.Audio.Media._ID);
+        projectionList.add(MediaStore.Audio.Media.TITLE);
+        projectionList.add(MediaStore.Audio.Media.ALBUM);
+        projectionList.add(MediaStore.Audio.Media.ARTIST);
+        projectionList.add(MediaStore.Audio.Media.ALBUM_ID);
+        projectionList.add(MediaStore.Audio.Media.ARTIST_ID);
+        projectionList.add(MediaStore.Audio.Media.DURATION);
+        projectionList.add(MediaStore.Audio.Media.TRACK);
+        projectionList.add(MediaStore.Audio.Media.YEAR);
+        projectionList.add(MediaStore.Audio.Media.SIZE);
+        projectionList.add(MediaStore.Audio.Media.MIME_TYPE);
+        projectionList.add(MediaStore.Audio.Media.DISPLAY_NAME);
+        projectionList.add(MediaStore.Audio.Media.DATE_MODIFIED);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            projectionList.add(MediaStore.Audio.Media.RELATIVE_PATH);
+        } else {
+            projectionList.add(MediaStore.Audio.Media.DATA);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            projectionList.add(MediaStore.Audio.Media.GENRE);
+        }
+
+        Cursor cursor = resolver.query(uri, projectionList.toArray(new String[0]), selection, args, null);
+        if (cursor == null) return false;
+        try {
+            int idCol = cursor.getColumnIndex(MediaStore.Audio.Media._ID);
+            int titleCol = cursor.getColumnIndex(MediaStore.Audio.Media.TITLE);
+            int albumCol = cursor.getColumnIndex(MediaStore.Audio.Media.ALBUM);
+            int artistCol = cursor.getColumnIndex(MediaStore.Audio.Media.ARTIST);
+            int albumIdCol = cursor.getColumnIndex(MediaStore.Audio.Media.ALBUM_ID);
+            int artistIdCol = cursor.getColumnIndex(MediaStore.Audio.Media.ARTIST_ID);
+            int durationCol = cursor.getColumnIndex(MediaStore.Audio.Media.DURATION);
+            int trackCol = cursor.getColumnIndex(MediaStore.Audio.Media.TRACK);
+            int yearCol = cursor.getColumnIndex(MediaStore.Audio.Media.YEAR);
+            int sizeCol = cursor.getColumnIndex(MediaStore.Audio.Media.SIZE);
+            int mimeCol = cursor.getColumnIndex(MediaStore.Audio.Media.MIME_TYPE);
+            int displayCol = cursor.getColumnIndex(MediaStore.Audio.Media.DISPLAY_NAME);
+            int modifiedCol = cursor.getColumnIndex(MediaStore.Audio.Media.DATE_MODIFIED);
+            int relativeCol = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                    ? cursor.getColumnIndex(MediaStore.Audio.Media.RELATIVE_PATH)
+                    : -1;
+            int dataCol = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                    ? -1
+                    : cursor.getColumnIndex(MediaStore.Audio.Media.DATA);
+            int genreCol = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                    ? cursor.getColumnIndex(MediaStore.Audio.Media.GENRE)
+                    : -1;
+
+            if (idCol == -1) return false;
+
+            while (cursor.moveToNext()) {
+                long mediaId = cursor.getLong(idCol);
+                String genre = genreCol != -1 ? cursor.getString(genreCol) : null;
+                into.put(mediaId, new LocalMedia(
+                        mediaId,
+                        titleCol != -1 ? cursor.getString(titleCol) : null,
+                        albumCol != -1 ? cursor.getString(albumCol) : null,
+                        artistCol != -1 ? cursor.getString(artistCol) : null,
+                        albumIdCol != -1 ? cursor.getLong(albumIdCol) : 0L,
+                        artistIdCol != -1 ? cursor.getLong(artistIdCol) : 0L,
+                        durationCol != -1 ? cursor.getLong(durationCol) : 0L,
+                        trackCol != -1 ? cursor.getInt(trackCol) : 0,
+                        yearCol != -1 ? cursor.getInt(yearCol) : 0,
+                        sizeCol != -1 ? cursor.getLong(sizeCol) : 0L,
+                        mimeCol != -1 ? cursor.getString(mimeCol) : null,
+                        displayCol != -1 ? cursor.getString(displayCol) : null,
+                        relativeCol != -1 ? cursor.getString(relativeCol) : null,
+                        dataCol != -1 ? cursor.getString(dataCol) : null,
+                        genre,
+                        modifiedCol != -1 ? cursor.getLong(modifiedCol) : 0L,
+                        genre
+                ));
+            }
+        } finally {
+            cursor.close();
+        }
+        return true;
+    }
+
+    /**
+     * Fills in every genre of each changed row from the genre tables, in name order. Memberships are
+     * read in one pass over every genre; a provider that does not serve that falls back to one query
+     * per genre. A row the tables list under no genre keeps the {@code GENRE} column it was read with.
+     */
+    private static void assignGenres(ContentResolver resolver, Map<Long, LocalMedia> changed) {
+        if (changed.isEmpty()) return;
+        Map<Long, String> names = queryGenreNames(resolver);
+        if (names.isEmpty()) return;
+
+        Map<Long, Integer> rankById = new HashMap<>();
+        for (Long genreId : names.keySet()) {
+            rankById.put(genreId, rankById.size());
+        }
+        Map<Long, List<Long>> genresBySong = queryAllMemberships(resolver, rankById.keySet(), changed.keySet());
+        if (genresBySong == null) {
+            genresBySong = queryMembershipsPerGenre(resolver, names.keySet(), changed.keySet());
+        }
+        for (Map.Entry<Long, List<Long>> entry : genresBySong.entrySet()) {
+            LocalMedia row = changed.get(entry.getKey());
+            if (row == null) continue;
+            List<Long> genreIds = entry.getValue();
+            genreIds.sort(Comparator.comparing(rankById::get));
+            Set<String> songGenres = new LinkedHashSet<>();
+            for (Long genreId : genreIds) {
+                songGenres.add(names.get(genreId));
+            }
+            changed.put(entry.getKey(), withGenres(row, new ArrayList<>(songGenres)));
+        }
+    }
+
+    // Genre names by id, in name order.
+    private static Map<Long, String> queryGenreNames(ContentResolver resolver) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        Cursor cursor = resolver.query(MediaStore.Audio.Genres.EXTERNAL_CONTENT_URI,
+                new String[]{MediaStore.Audio.Genres._ID, MediaStore.Audio.Genres.NAME},
+                null,
+                null,
+                MediaStore.Audio.Genres.NAME + " ASC");
+        if (cursor == null) return names;
+        try {
+            int idCol = cursor.getColumnIndex(MediaStore.Audio.Genres._ID);
+            int nameCol = cursor.getColumnIndex(MediaStore.Audio.Genres.NAME);
+            if (idCol == -1 || nameCol == -1) return names;
+            while (cursor.moveToNext()) {
+                String name = cursor.getString(nameCol);
+                if (!TextUtils.isEmpty(name)) {
+                    names.put(cursor.getLong(idCol), name);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return names;
+    }
+
+    // Every (song, genre) pair in one query; null when the provider does not serve the members of all genres.
+    @Nullable
+    private static Map<Long, List<Long>> queryAllMemberships(ContentResolver resolver, Set<Long> genreIds, Set<Long> songIds) {
+        Cursor cursor;
+        try {
+            cursor = resolver.query(ALL_GENRE_MEMBERS_URI,
+                    new String[]{MediaStore.Audio.Genres.Members.AUDIO_ID, MediaStore.Audio.Genres.Members.GENRE_ID},
+                    null,
+                    null,
+                    null);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+        if (cursor == null) return null;
+
+        Map<Long, List<Long>> genresBySong = new HashMap<>();
+        try {
+            int audioIdCol = cursor.getColumnIndex(MediaStore.Audio.Genres.Members.AUDIO_ID);
+            int genreIdCol = cursor.getColumnIndex(MediaStore.Audio.Genres.Members.GENRE_ID);
+            if (audioIdCol == -1 || genreIdCol == -1) return null;
+            while (cursor.moveToNext()) {
+                long audioId = cursor.getLong(audioIdCol);
+                if (!songIds.contains(audioId)) continue;
+                long genreId = cursor.getLong(genreIdCol);
+                if (!genreIds.contains(genreId)) continue;
+                genresBySong.computeIfAbsent(audioId, id -> new ArrayList<>()).add(genreId);
+            }
+        } finally {
+            cursor.close();
+        }
+        return genresBySong;
+    }
+
+    private static Map<Long, List<Long>> queryMembershipsPerGenre(ContentResolver resolver, Collection<Long> genreIds, Set<Long> songIds) {
+        Map<Long, List<Long>> genresBySong = new HashMap<>();
+        for (Long genreId : genreIds) {
+            Cursor cursor = resolver.query(MediaStore.Audio.Genres.Members.getContentUri("external", genreId),
+                    new String[]{MediaStore.Audio.Genres.Members.AUDIO_ID},
+                    null,
+                    null,
+                    null);
+            if (cursor == null) continue;
+            try {
+                int audioIdCol = cursor.getColumnIndex(MediaStore.Audio.Genres.Members.AUDIO_ID);
+                if (audioIdCol == -1) continue;
+                while (cursor.moveToNext()) {
+                    long audioId = cursor.getLong(audioIdCol);
+                    if (songIds.contains(audioId)) {
+                        genresBySong.computeIfAbsent(audioId, id -> new ArrayList<>()).add(genreId);
+                    }
+                }
+            } finally {
+                cursor.close();
+            }
+        }
+        return genresBySong;
+    }
+
+    private static LocalMedia withGenres(LocalMedia row, List<String> genres) {
+        return new LocalMedia(row.getMediaId(), row.getTitle(), row.getAlbum(), row.getArtist(), row.getAlbumId(),
+                row.getArtistId(), row.getDurationMs(), row.getTrack(), row.getYear(), row.getSize(),
+                row.getMimeType(), row.getDisplayName(), row.getRelativePath(), row.getDataPath(), genres.get(0),
+                row.getDateModified(), TextUtils.join(LocalMedia.GENRE_SEPARATOR, genres));
+    }
+}
@@ -1,22 +1,23 @@
 package one.chandan.rubato.repository;
 
-import android.content.ContentResolver;
 import android.content.ContentUris;
 import android.content.Context;
-import android.database.Cursor;
+import android.database.ContentObserver;
 import android.net.Uri;
-import android.os.Build;
 import android.provider.MediaStore;
 import android.text.TextUtils;
 
 import androidx.annotation.Nullable;
 
+import one.chandan.rubato.model.LocalDocument;
+import one.chandan.rubato.model.LocalMedia;
 import one.chandan.rubato.model.LocalSource;
 import one.chandan.rubato.repository.LocalSourceRepository;
 import one.chandan.rubato.subsonic.models.AlbumID3;
 import one.chandan.rubato.subsonic.models.ArtistID3;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.subsonic.models.Genre;
+import one.chandan.rubato.subsonic.utils.StringUtil;
 import one.chandan.rubato.util.AppExecutors;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.LocalMusicPermissions;
@@ -24,13 +25,19 @@ import one.chandan.rubato.util.Preferences;
 import one.chandan.rubato.util.SearchIndexUtil;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.regex.Pattern;
 
 public final class LocalMusicRepository {
     public static final String LOCAL_SONG_PREFIX = "local:";
@@ -38,9 +45,23 @@ public final class LocalMusicRepository {
     public static final String LOCAL_ARTIST_PREFIX = "local-artist:";
 
     private static final ExecutorService EXECUTOR = AppExecutors.localMusic();
+    // Tree walks and tag reads can take minutes on a first scan, so they never hold up EXECUTOR.
+    private static final ExecutorService DOCUMENT_EXECUTOR = AppExecutors.newSingleThreadExecutor("rubato-local-documents");
     private static final Object LOCK = new Object();
+    // Confined to EXECUTOR.
+    private static final LocalMediaScanner SCANNER = new LocalMediaScanner();
+    private static final LocalDocumentScanner DOCUMENT_SCANNER = new LocalDocumentScanner();
+    // Album and artist ids of files only found by walking a source's folders.
+    private static final String DOCUMENT_KEY_PREFIX = "doc-";
+    private static final Pattern STORAGE_ROOT = Pattern.compile("^/(?:storage/emulated/\\d+|storage/[^/]+|sdcard)/");
 
     private static LocalLibrary cachedLibrary;
+    // Set by the MediaStore observer and by document scans; the next load applies the changes before answering.
+    private static boolean stale;
+    private static boolean observing;
+    private static boolean documentsStale = true;
+    // Confined to EXECUTOR: the document rows cachedLibrary was built from.
+    private static List<LocalDocument> builtDocuments;
 
     private LocalMusicRepository() {
     }
@@ -76,7 +97,20 @@ public final class LocalMusicRepository {
     public static void invalidateCache() {
         synchronized (LOCK) {
             cachedLibrary = null;
+            documentsStale = true;
         }
+        LibrarySnapshotStore.invalidateLocal();
+    }
+
+    /**
+     * Walks the local sources' folders again in the background; the library picks up any change
+     * once the walk finishes.
+     */
+    public static void rescanDocuments(Context context) {
+        synchronized (LOCK) {
+            documentsStale = true;
+        }
+        scanDocumentsIfNeeded(context);
     }
 
     public static void loadLibrary(Context context, ResultCallback<LocalLibrary> callback) {
@@ -87,7 +121,7 @@ public final class LocalMusicRepository {
 
         LocalLibrary snapshot;
         synchronized (LOCK) {
-            snapshot = cachedLibrary;
+            snapshot = stale ? null : cachedLibrary;
         }
 
         if (snapshot != null) {
@@ -95,15 +129,95 @@ public final class LocalMusicRepository {
             return;
         }
 
-        EXECUTOR.execute(() -> {
-            LocalLibrary library = buildLibrary(context);
-            synchronized (LOCK) {
-                cachedLibrary = library;
+        EXECUTOR.execute(() -> callback.onResult(buildAndCache(context)));
+    }
+
+    /**
+     * Blocking variant of {@link #loadLibrary}; the scan itself still runs on the local music executor.
+     */
+    static LocalLibrary loadLibraryBlocking(Context context) throws InterruptedException, ExecutionException {
+        if (!isEnabled(context)) {
+            return new LocalLibrary(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+        }
+        synchronized (LOCK) {
+            if (cachedLibrary != null && !stale) {
+                return cachedLibrary;
+            }
+        }
+        return EXECUTOR.submit(() -> buildAndCache(context)).get();
+    }
+
+    private static LocalLibrary buildAndCache(Context context) {
+        LocalLibrary cached;
+        synchronized (LOCK) {
+            cached = cachedLibrary;
+            if (cached != null && !stale) {
+                return cached;
+            }
+            stale = false;
+        }
+        observeMediaStore(context);
+        scanDocumentsIfNeeded(context);
+        boolean changed = SCANNER.refresh(context);
+        if (changed) {
+            bumpRevision();
+        }
+        List<LocalDocument> documents = DOCUMENT_SCANNER.getRows();
+        if (cached != null && !changed && documents == builtDocuments) {
+            return cached;
+        }
+        LocalLibrary library = buildLibrary(SCANNER.getRows(), documents);
+        builtDocuments = documents;
+        synchronized (LOCK) {
+            cachedLibrary = library;
+        }
+        return library;
+    }
+
+    private static void scanDocumentsIfNeeded(Context context) {
+        synchronized (LOCK) {
+            if (!documentsStale) return;
+            documentsStale = false;
+        }
+        Context appContext = context.getApplicationContext();
+        DOCUMENT_EXECUTOR.execute(() -> {
+            if (!isEnabled(appContext)) return;
+            if (DOCUMENT_SCANNER.refresh(appContext, new LocalSourceRepository().getSourcesSync())) {
+                bumpRevision();
+                markStale();
             }
-            callback.onResult(library);
         });
     }
 
+    private static void markStale() {
+        synchronized (LOCK) {
+            stale = true;
+        }
+        LibrarySnapshotStore.invalidateLocal();
+    }
+
+    private static void bumpRevision() {
+        synchronized (LOCK) {
+            Preferences.setLocalMediaRevision(Preferences.getLocalMediaRevision() + 1);
+        }
+    }
+
+    private static void observeMediaStore(Context context) {
+        synchronized (LOCK) {
+            if (observing) return;
+            observing = true;
+        }
+        context.getApplicationContext().getContentResolver().registerContentObserver(
+                MediaStore.Audio.Media.EXTERNAL_CONTENT_URI,
+                true,
+                new ContentObserver(null) {
+                    @Override
+                    public void onChange(boolean selfChange) {
+                        markStale();
+                    }
+                });
+    }
+
     public static void appendLocalSongs(Context context, List<Child> base, ResultCallback<List<Child>> callback) {
         loadLibrary(context, library -> {
             if (library.songs.isEmpty()) {
@@ -284,8 +398,12 @@ public final class LocalMusicRepository {
             }
             List<Child> filtered = new ArrayList<>();
             for (Child song : library.songs) {
-                if (song != null && song.getGenre() != null && song.getGenre().equalsIgnoreCase(genreId)) {
-                    filtered.add(song);
+                if (song == null) continue;
+                for (String songGenre : library.genresOf(song)) {
+                    if (songGenre.equalsIgnoreCase(genreId)) {
+                        filtered.add(song);
+                        break;
+                    }
                 }
             }
             callback.onResult(filtered);
@@ -300,18 +418,24 @@ public final class LocalMusicRepository {
             }
             List<Child> filtered = new ArrayList<>();
             for (Child song : library.songs) {
-                if (song == null || song.getGenre() == null) continue;
-                for (String genre : genres) {
-                    if (genre != null && song.getGenre().equalsIgnoreCase(genre)) {
-                        filtered.add(song);
-                        break;
-                    }
+                if (song == null) continue;
+                if (matchesAnyGenre(library.genresOf(song), genres)) {
+                    filtered.add(song);
                 }
             }
             callback.onResult(filtered);
         });
     }
 
+    private static boolean matchesAnyGenre(List<String> songGenres, List<String> genres) {
+        for (String songGenre : songGenres) {
+            for (String genre : genres) {
+                if (genre != null && songGenre.equalsIgnoreCase(genre)) return true;
+            }
+        }
+        return false;
+    }
+
     public static void getLocalSongsByYearRange(Context context, Integer fromYear, Integer toYear, ResultCallback<List<Child>> callback) {
         loadLibrary(context, library -> {
             if (fromYear == null && toYear == null) {
@@ -371,126 +495,70 @@ public final class LocalMusicRepository {
         return value != null && value.toLowerCase().contains(needle);
     }
 
-    private static LocalLibrary buildLibrary(Context context) {
-        ContentResolver resolver = context.getContentResolver();
-        List<Child> songs = new ArrayList<>();
-        Map<Long, Child> songById = new HashMap<>();
-        Map<Long, AlbumAccumulator> albumMap = new HashMap<>();
-        Map<Long, ArtistAccumulator> artistMap = new HashMap<>();
-
+    private static LocalLibrary buildLibrary(Collection<LocalMedia> rows, List<LocalDocument> documents) {
         List<LocalSource> sources = new LocalSourceRepository().getSourcesSync();
         List<String> allowedPaths = normalizeAllowedPaths(sources);
         boolean filterEnabled = allowedPaths != null && !allowedPaths.isEmpty();
+        Set<String> sourceIds = new HashSet<>();
+        if (sources != null) {
+            for (LocalSource source : sources) {
+                if (source != null) sourceIds.add(source.getId());
+            }
+        }
 
-        List<String> projectionList = new ArrayList<>();
-        projectionList.add(MediaStore.Audio.Media._ID);
-        projectionList.add(MediaStore.Audio.Media.TITLE);
-        projectionList.add(MediaStore.Audio.Media.ALBUM);
-        projectionList.add(MediaStore.Audio.Media.ARTIST);
-        projectionList.add(MediaStore.Audio.Media.ALBUM_ID);
-        projectionList.add(MediaStore.Audio.Media.ARTIST_ID);
-        projectionList.add(MediaStore.Audio.Media.DURATION);
-        projectionList.add(MediaStore.Audio.Media.TRACK);
-        projectionList.add(MediaStore.Audio.Media.YEAR);
-        projectionList.add(MediaStore.Audio.Media.SIZE);
-        projectionList.add(MediaStore.Audio.Media.MIME_TYPE);
-        projectionList.add(MediaStore.Audio.Media.DISPLAY_NAME);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
-            projectionList.add(MediaStore.Audio.Media.RELATIVE_PATH);
-        } else {
-            projectionList.add(MediaStore.Audio.Media.DATA);
-        }
-
-        String[] projection = projectionList.toArray(new String[0]);
-
-        String selection = MediaStore.Audio.Media.IS_MUSIC + "!=0";
-        Cursor cursor = resolver.query(MediaStore.Audio.Media.EXTERNAL_CONTENT_URI, projection, selection, null, MediaStore.Audio.Media.TITLE + " ASC");
-        if (cursor != null) {
-            try {
-                int idCol = cursor.getColumnIndex(MediaStore.Audio.Media._ID);
-                int titleCol = cursor.getColumnIndex(MediaStore.Audio.Media.TITLE);
-                int albumCol = cursor.getColumnIndex(MediaStore.Audio.Media.ALBUM);
-                int artistCol = cursor.getColumnIndex(MediaStore.Audio.Media.ARTIST);
-                int albumIdCol = cursor.getColumnIndex(MediaStore.Audio.Media.ALBUM_ID);
-                int artistIdCol = cursor.getColumnIndex(MediaStore.Audio.Media.ARTIST_ID);
-                int durationCol = cursor.getColumnIndex(MediaStore.Audio.Media.DURATION);
-                int trackCol = cursor.getColumnIndex(MediaStore.Audio.Media.TRACK);
-                int yearCol = cursor.getColumnIndex(MediaStore.Audio.Media.YEAR);
-                int sizeCol = cursor.getColumnIndex(MediaStore.Audio.Media.SIZE);
-                int mimeCol = cursor.getColumnIndex(MediaStore.Audio.Media.MIME_TYPE);
-                int displayCol = cursor.getColumnIndex(MediaStore.Audio.Media.DISPLAY_NAME);
-                int relativeCol = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
-                        ? cursor.getColumnIndex(MediaStore.Audio.Media.RELATIVE_PATH)
-                        : -1;
-                int dataCol = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
-                        ? -1
-                        : cursor.getColumnIndex(MediaStore.Audio.Media.DATA);
-
-                if (idCol == -1) {
-                    return new LocalLibrary(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
-                }
+        List<Child> songs = new ArrayList<>(rows.size());
+        Map<String, List<String>> genresBySong = new HashMap<>();
+        Set<String> indexedPaths = new HashSet<>();
+        for (LocalMedia row : rows) {
+            if (filterEnabled && !matchesLocalSource(row.getRelativePath(), row.getDataPath(), allowedPaths)) {
+                continue;
+            }
+            Child song = toChild(row);
+            songs.add(song);
+            List<String> rowGenres = row.genreList();
+            if (rowGenres.size() > 1) genresBySong.put(song.getId(), rowGenres);
+            String path = pathKey(row);
+            if (path != null) indexedPaths.add(path);
+        }
+        for (LocalDocument document : documents) {
+            if (!sourceIds.contains(document.getSourceId())) continue;
+            // MediaStore's entry wins, keeping the ids that queues and favourites already refer to.
+            String path = pathKey(document);
+            if (path != null && indexedPaths.contains(path)) continue;
+            songs.add(toChild(document));
+        }
+        songs.sort(Comparator.comparing(Child::getTitle, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER)));
 
-                while (cursor.moveToNext()) {
-                    long mediaId = cursor.getLong(idCol);
-                    String title = titleCol != -1 ? cursor.getString(titleCol) : null;
-                    String album = albumCol != -1 ? cursor.getString(albumCol) : null;
-                    String artist = artistCol != -1 ? cursor.getString(artistCol) : null;
-                    long albumId = albumIdCol != -1 ? cursor.getLong(albumIdCol) : 0L;
-                    long artistId = artistIdCol != -1 ? cursor.getLong(artistIdCol) : 0L;
-                    long durationMs = durationCol != -1 ? cursor.getLong(durationCol) : 0L;
-                    int track = trackCol != -1 ? cursor.getInt(trackCol) : 0;
-                    int year = yearCol != -1 ? cursor.getInt(yearCol) : 0;
-                    long size = sizeCol != -1 ? cursor.getLong(sizeCol) : 0L;
-                    String mime = mimeCol != -1 ? cursor.getString(mimeCol) : null;
-                    String displayName = displayCol != -1 ? cursor.getString(displayCol) : null;
-                    String relativePath = relativeCol != -1 ? cursor.getString(relativeCol) : null;
-                    String dataPath = dataCol != -1 ? cursor.getString(dataCol) : null;
-
-                    if (filterEnabled && !matchesLocalSource(relativePath, dataPath, allowedPaths)) {
-                        continue;
-                    }
+        Map<String, AlbumAccumulator> albumMap = new HashMap<>();
+        Map<String, ArtistAccumulator> artistMap = new HashMap<>();
+        Map<String, GenreAccumulator> genreMap = new TreeMap<>();
 
-                    Child song = createLocalChild(LOCAL_SONG_PREFIX + mediaId);
-                    song.setTitle(title);
-                    song.setAlbum(album);
-                    song.setArtist(artist);
-                    song.setAlbumId(LOCAL_ALBUM_PREFIX + albumId);
-                    song.setArtistId(LOCAL_ARTIST_PREFIX + artistId);
-                    song.setDuration(durationMs > 0 ? (int) (durationMs / 1000) : null);
-                    song.setTrack(track);
-                    song.setYear(year);
-                    song.setSize(size);
-                    song.setContentType(mime);
-                    song.setSuffix(resolveSuffix(displayName, mime));
-                    song.setType(Constants.MEDIA_TYPE_LOCAL);
-
-                    Uri songUri = ContentUris.withAppendedId(MediaStore.Audio.Media.EXTERNAL_CONTENT_URI, mediaId);
-                    song.setPath(songUri.toString());
-
-                    if (albumId > 0) {
-                        Uri artUri = Uri.parse("content://media/external/audio/albumart/" + albumId);
-                        song.setCoverArtId(artUri.toString());
-                    }
+        for (Child song : songs) {
+            String albumId = song.getAlbumId();
+            String artistId = song.getArtistId();
 
-                    songs.add(song);
-                    songById.put(mediaId, song);
+            AlbumAccumulator albumAcc = albumMap.get(albumId);
+            if (albumAcc == null) {
+                albumAcc = new AlbumAccumulator(albumId, song.getAlbum(), song.getArtist(), song.getYear() != null ? song.getYear() : 0, artistId);
+                albumMap.put(albumId, albumAcc);
+            }
+            albumAcc.addSong(song);
 
-                    AlbumAccumulator albumAcc = albumMap.get(albumId);
-                    if (albumAcc == null) {
-                        albumAcc = new AlbumAccumulator(albumId, album, artist, year, artistId);
-                        albumMap.put(albumId, albumAcc);
-                    }
-                    albumAcc.addSong(song);
+            ArtistAccumulator artistAcc = artistMap.get(artistId);
+            if (artistAcc == null) {
+                artistAcc = new ArtistAccumulator(artistId, song.getArtist());
+                artistMap.put(artistId, artistAcc);
+            }
+            artistAcc.addSong(song, albumId);
 
-                    ArtistAccumulator artistAcc = artistMap.get(artistId);
-                    if (artistAcc == null) {
-                        artistAcc = new ArtistAccumulator(artistId, artist);
-                        artistMap.put(artistId, artistAcc);
-                    }
-                    artistAcc.addSong(song, albumId);
+            for (String genreName : genresOf(genresBySong, song)) {
+                if (TextUtils.isEmpty(genreName)) continue;
+                GenreAccumulator genreAcc = genreMap.get(genreName);
+                if (genreAcc == null) {
+                    genreAcc = new GenreAccumulator(genreName);
+                    genreMap.put(genreName, genreAcc);
                 }
-            } finally {
-                cursor.close();
+                genreAcc.addSong(albumId);
             }
         }
 
@@ -504,9 +572,95 @@ public final class LocalMusicRepository {
             artists.add(acc.toArtist());
         }
 
-        List<Genre> genres = loadGenres(resolver, songById);
+        List<Genre> genres = new ArrayList<>();
+        for (GenreAccumulator acc : genreMap.values()) {
+            genres.add(acc.toGenre());
+        }
 
-        return new LocalLibrary(songs, albums, artists, genres);
+        String signature = Preferences.getLocalMediaRevision() + ":" + allowedPaths;
+        return new LocalLibrary(songs, albums, artists, genres, signature, genresBySong);
+    }
+
+    private static List<String> genresOf(Map<String, List<String>> genresBySong, Child song) {
+        List<String> songGenres = genresBySong.get(song.getId());
+        if (songGenres != null) return songGenres;
+        return song.getGenre() != null ? Collections.singletonList(song.getGenre()) : Collections.emptyList();
+    }
+
+    private static Child toChild(LocalMedia row) {
+        long mediaId = row.getMediaId();
+        long albumId = row.getAlbumId();
+        long durationMs = row.getDurationMs();
+
+        Child song = createLocalChild(LOCAL_SONG_PREFIX + mediaId);
+        song.setTitle(row.getTitle());
+        song.setAlbum(row.getAlbum());
+        song.setArtist(row.getArtist());
+        song.setAlbumId(LOCAL_ALBUM_PREFIX + albumId);
+        song.setArtistId(LOCAL_ARTIST_PREFIX + row.getArtistId());
+        song.setDuration(durationMs > 0 ? (int) (durationMs / 1000) : null);
+        song.setTrack(row.getTrack());
+        song.setYear(row.getYear());
+        song.setSize(row.getSize());
+        song.setContentType(row.getMimeType());
+        song.setSuffix(resolveSuffix(row.getDisplayName(), row.getMimeType()));
+        song.setGenre(row.getGenre());
+        song.setType(Constants.MEDIA_TYPE_LOCAL);
+
+        Uri songUri = ContentUris.withAppendedId(MediaStore.Audio.Media.EXTERNAL_CONTENT_URI, mediaId);
+        song.setPath(songUri.toString());
+
+        if (albumId > 0) {
+            Uri artUri = Uri.parse("content://media/external/audio/albumart/" + albumId);
+            song.setCoverArtId(artUri.toString());
+        }
+        return song;
+    }
+
+    // Same song id as DirectoryRepository gives the file when browsing the folder.
+    private static Child toChild(LocalDocument document) {
+        String artist = document.getArtist();
+        String albumArtist = !TextUtils.isEmpty(document.getAlbumArtist()) ? document.getAlbumArtist() : artist;
+        long durationMs = document.getDurationMs();
+
+        Child song = createLocalChild(LOCAL_SONG_PREFIX + document.getDocumentUri());
+        song.setTitle(document.getTitle());
+        song.setAlbum(document.getAlbum());
+        song.setArtist(artist);
+        song.setAlbumId(LOCAL_ALBUM_PREFIX + DOCUMENT_KEY_PREFIX + StringUtil.tokenize(SearchIndexUtil.normalize(document.getAlbum()) + "|" + SearchIndexUtil.normalize(albumArtist)));
+        song.setArtistId(LOCAL_ARTIST_PREFIX + DOCUMENT_KEY_PREFIX + StringUtil.tokenize(SearchIndexUtil.normalize(artist)));
+        song.setDuration(durationMs > 0 ? (int) (durationMs / 1000) : null);
+        song.setTrack(document.getTrack());
+        song.setDiscNumber(document.getDisc() > 0 ? document.getDisc() : null);
+        song.setYear(document.getYear());
+        song.setSize(document.getSize());
+        song.setContentType(document.getMimeType());
+        song.setSuffix(resolveSuffix(document.getDisplayName(), document.getMimeType()));
+        song.setGenre(document.getGenre());
+        song.setType(Constants.MEDIA_TYPE_LOCAL);
+        song.setPath(document.getDocumentUri());
+        song.setCoverArtId(document.getArtUri());
+        return song;
+    }
+
+    // Volume-relative path of a file, lower-cased, for spotting a document MediaStore also indexed.
+    @Nullable
+    private static String pathKey(LocalMedia row) {
+        String path = null;
+        if (row.getRelativePath() != null && row.getDisplayName() != null) {
+            path = row.getRelativePath() + row.getDisplayName();
+        } else if (row.getDataPath() != null) {
+            path = STORAGE_ROOT.matcher(row.getDataPath()).replaceFirst("");
+        }
+        return path != null ? path.toLowerCase(Locale.ROOT) : null;
+    }
+
+    // External storage document ids look like "primary:Music/Album/track.flac".
+    @Nullable
+    private static String pathKey(LocalDocument document) {
+        String documentId = document.getDocumentId();
+        int split = documentId.indexOf(':');
+        return split >= 0 ? documentId.substring(split + 1).toLowerCase(Locale.ROOT) : null;
     }
 
     private static Child createLocalChild(String id) {
@@ -545,73 +699,6 @@ public final class LocalMusicRepository {
         );
     }
 
-    private static List<Genre> loadGenres(ContentResolver resolver, Map<Long, Child> songById) {
-        List<Genre> genres = new ArrayList<>();
-        Cursor genreCursor = resolver.query(MediaStore.Audio.Genres.EXTERNAL_CONTENT_URI,
-                new String[]{MediaStore.Audio.Genres._ID, MediaStore.Audio.Genres.NAME},
-                null,
-                null,
-                MediaStore.Audio.Genres.NAME + " ASC");
-        if (genreCursor == null) return genres;
-
-        try {
-            int idCol = genreCursor.getColumnIndex(MediaStore.Audio.Genres._ID);
-            int nameCol = genreCursor.getColumnIndex(MediaStore.Audio.Genres.NAME);
-            if (idCol == -1 || nameCol == -1) {
-                return genres;
-            }
-            while (genreCursor.moveToNext()) {
-                long genreId = genreCursor.getLong(idCol);
-                String name = genreCursor.getString(nameCol);
-                if (TextUtils.isEmpty(name)) continue;
-
-                int songCount = 0;
-                Set<Long> albums = new HashSet<>();
-                Uri membersUri = MediaStore.Audio.Genres.Members.getContentUri("external", genreId);
-                Cursor membersCursor = resolver.query(membersUri,
-                        new String[]{MediaStore.Audio.Genres.Members.AUDIO_ID, MediaStore.Audio.Genres.Members.ALBUM_ID},
-                        null,
-                        null,
-                        null);
-                if (membersCursor != null) {
-                    try {
-                        int audioIdCol = membersCursor.getColumnIndex(MediaStore.Audio.Genres.Members.AUDIO_ID);
-                        int albumCol = membersCursor.getColumnIndex(MediaStore.Audio.Genres.Members.ALBUM_ID);
-                        if (audioIdCol == -1 || albumCol == -1) {
-                            continue;
-                        }
-                        while (membersCursor.moveToNext()) {
-                            long audioId = membersCursor.getLong(audioIdCol);
-                            if (songById != null && !songById.containsKey(audioId)) {
-                                continue;
-                            }
-                            songCount++;
-                            albums.add(membersCursor.getLong(albumCol));
-                            if (songById != null) {
-                                Child song = songById.get(audioId);
-                                if (song != null && TextUtils.isEmpty(song.getGenre())) {
-                                    song.setGenre(name);
-                                }
-                            }
-                        }
-                    } finally {
-                        membersCursor.close();
-                    }
-                }
-
-                Genre genre = new Genre();
-                genre.setGenre(name);
-                genre.setSongCount(songCount);
-                genre.setAlbumCount(albums.size());
-                genres.add(genre);
-            }
-        } finally {
-            genreCursor.close();
-        }
-
-        return genres;
-    }
-
     private static List<String> normalizeAllowedPaths(List<LocalSource> sources) {
         if (sources == null || sources.isEmpty()) return Collections.emptyList();
         List<String> allowed = new ArrayList<>();
@@ -664,12 +751,31 @@ public final class LocalMusicRepository {
         public final List<AlbumID3> albums;
         public final List<ArtistID3> artists;
         public final List<Genre> genres;
+        // Changes whenever the scanned files or the source filter change; null when not scanned.
+        @Nullable
+        public final String signature;
+        // Every genre of the songs filed under more than one, by song id; the rest carry theirs on the Child.
+        private final Map<String, List<String>> genresBySong;
 
         public LocalLibrary(List<Child> songs, List<AlbumID3> albums, List<ArtistID3> artists, List<Genre> genres) {
+            this(songs, albums, artists, genres, null);
+        }
+
+        public LocalLibrary(List<Child> songs, List<AlbumID3> albums, List<ArtistID3> artists, List<Genre> genres, @Nullable String signature) {
+            this(songs, albums, artists, genres, signature, Collections.emptyMap());
+        }
+
+        LocalLibrary(List<Child> songs, List<AlbumID3> albums, List<ArtistID3> artists, List<Genre> genres, @Nullable String signature, Map<String, List<String>> genresBySong) {
             this.songs = songs;
             this.albums = albums;
             this.artists = artists;
             this.genres = genres;
+            this.signature = signature;
+            this.genresBySong = genresBySong;
+        }
+
+        public List<String> genresOf(Child song) {
+            return LocalMusicRepository.genresOf(genresBySong, song);
         }
     }
 
@@ -686,16 +792,16 @@ public final class LocalMusicRepository {
     }
 
     private static final class AlbumAccumulator {
-        private final long albumId;
+        private final String albumId;
         private final String name;
         private final String artist;
         private final int year;
-        private final long artistId;
+        private final String artistId;
         private int songCount = 0;
         private long duration = 0;
         private String coverArtId;
 
-        private AlbumAccumulator(long albumId, String name, String artist, int year, long artistId) {
+        private AlbumAccumulator(String albumId, String name, String artist, int year, String artistId) {
             this.albumId = albumId;
             this.name = name;
             this.artist = artist;
@@ -715,30 +821,30 @@ public final class LocalMusicRepository {
 
         AlbumID3 toAlbum() {
             AlbumID3 album = new AlbumID3();
-            album.setId(LOCAL_ALBUM_PREFIX + albumId);
+            album.setId(albumId);
             album.setName(name);
             album.setArtist(artist);
             album.setYear(year);
             album.setSongCount(songCount);
             album.setDuration((int) duration);
             album.setCoverArtId(coverArtId);
-            album.setArtistId(LOCAL_ARTIST_PREFIX + artistId);
+            album.setArtistId(artistId);
             return album;
         }
     }
 
     private static final class ArtistAccumulator {
-        private final long artistId;
+        private final String artistId;
         private final String name;
-        private final Set<Long> albums = new HashSet<>();
+        private final Set<String> albums = new HashSet<>();
         private String coverArtId;
 
-        private ArtistAccumulator(long artistId, String name) {
+        private ArtistAccumulator(String artistId, String name) {
             this.artistId = artistId;
             this.name = name;
         }
 
-        void addSong(Child song, long albumId) {
+        void addSong(Child song, String albumId) {
             albums.add(albumId);
             if (coverArtId == null) {
                 coverArtId = song.getCoverArtId();
@@ -747,11 +853,34 @@ public final class LocalMusicRepository {
 
         ArtistID3 toArtist() {
             ArtistID3 artist = new ArtistID3();
-            artist.setId(LOCAL_ARTIST_PREFIX + artistId);
+            artist.setId(artistId);
             artist.setName(name);
             artist.setAlbumCount(albums.size());
             artist.setCoverArtId(coverArtId);
             return artist;
         }
     }
+
+    private static final class GenreAccumulator {
+        private final String name;
+        private final Set<String> albums = new HashSet<>();
+        private int songCount = 0;
+
+        private GenreAccumulator(String name) {
+            this.name = name;
+        }
+
+        void addSong(String albumId) {
+            songCount++;
+            albums.add(albumId);
+        }
+
+        Genre toGenre() {
+            Genre genre = new Genre();
+            genre.setGenre(name);
+            genre.setSongCount(songCount);
+            genre.setAlbumCount(albums.size());
+            return genre;
+        }
+    }
 }
@@ -6,6 +6,8 @@ import androidx.lifecycle.MutableLiveData;
 import one.chandan.rubato.App;
 import one.chandan.rubato.subsonic.base.ApiResponse;
 import one.chandan.rubato.subsonic.models.LyricsList;
+import one.chandan.rubato.sync.LyricsPrefetcher;
+import one.chandan.rubato.util.AppExecutors;
 import one.chandan.rubato.util.OfflinePolicy;
 
 import retrofit2.Call;
@@ -17,33 +19,37 @@ public class OpenRepository {
 
     public MutableLiveData<LyricsList> getLyricsBySongId(String id) {
         MutableLiveData<LyricsList> lyricsList = new MutableLiveData<>();
-        String cacheKey = "lyrics_song_" + id;
+        String cacheKey = LyricsPrefetcher.cacheKey(id);
 
+        loadCachedLyrics(cacheKey, lyricsList);
         if (OfflinePolicy.isOffline()) {
-            loadCachedLyrics(cacheKey, lyricsList);
             return lyricsList;
         }
 
-        loadCachedLyrics(cacheKey, lyricsList);
-
-        App.getSubsonicClientInstance(false)
-                .getOpenClient()
-                .getLyricsBySongId(id)
-                .enqueue(new Callback<ApiResponse>() {
-                    @Override
-                    public void onResponse(@NonNull Call<ApiResponse> call, @NonNull Response<ApiResponse> response) {
-                        if (response.isSuccessful() && response.body() != null && response.body().getSubsonicResponse().getLyricsList() != null) {
+        AppExecutors.io().execute(() -> {
+            // Recent lookups are trusted either way; the prefetch job asks the server again once they expire.
+            if (LyricsPrefetcher.isCachedFresh(id) || LyricsPrefetcher.isKnownMissing(id)) return;
+            App.getSubsonicClientInstance(false)
+                    .getOpenClient()
+                    .getLyricsBySongId(id)
+                    .enqueue(new Callback<ApiResponse>() {
+                        @Override
+                        public void onResponse(@NonNull Call<ApiResponse> call, @NonNull Response<ApiResponse> response) {
+                            if (!response.isSuccessful() || response.body() == null) return;
                             LyricsList result = response.body().getSubsonicResponse().getLyricsList();
-                            lyricsList.setValue(result);
-                            cacheRepository.save(cacheKey, result);
+                            AppExecutors.io().execute(() -> LyricsPrefetcher.record(id, result));
+                            if (result != null) {
+                                lyricsList.setValue(result);
+                                cacheRepository.save(cacheKey, result);
+                            }
                         }
-                    }
 
-                    @Override
-                    public void onFailure(@NonNull Call<ApiResponse> call, @NonNull Throwable t) {
+                        @Override
+                        public void onFailure(@NonNull Call<ApiResponse> call, @NonNull Throwable t) {
 
-                    }
-                });
+                        }
+                    });
+        });
 
         return lyricsList;
     }
@@ -12,10 +12,13 @@ import one.chandan.rubato.subsonic.base.ApiResponse;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.subsonic.models.PlayQueue;
 import one.chandan.rubato.util.AppExecutors;
+import one.chandan.rubato.util.QueueRankUtil;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
@@ -26,6 +29,10 @@ import retrofit2.Response;
 public class QueueRepository {
     private static final String TAG = "QueueRepository";
 
+    // Queue rows are written in call order on one thread; each edit is a single transaction.
+    private static final Executor WRITER = AppExecutors.queue();
+    private static final int RESPREAD_WINDOW = 8;
+
     private final QueueDao queueDao = AppDatabase.getInstance().queueDao();
 
     public LiveData<List<Queue>> getLiveQueue() {
@@ -90,70 +97,76 @@ public class QueueRepository {
                 });
     }
 
-    public void insert(Child media, boolean reset, int afterIndex) {
-        Future<?> future = AppExecutors.io().submit(() -> {
-            List<Queue> mediaList = new ArrayList<>();
-
-            if (!reset) {
-                List<Queue> queued = queueDao.getAllSimple();
-                if (queued != null) {
-                    mediaList = queued;
-                }
-            }
-
-            Queue queueItem = new Queue(media);
-            mediaList.add(afterIndex, queueItem);
-
-            for (int i = 0; i < mediaList.size(); i++) {
-                mediaList.get(i).setTrackOrder(i);
-            }
-
+    /**
+     * Replaces the whole queue with {@code media}.
+     */
+    public void replace(List<Child> media) {
+        List<Queue> items = toQueue(media);
+        WRITER.execute(() -> AppDatabase.getInstance().runInTransaction(() -> {
             queueDao.deleteAll();
-            queueDao.insertAll(mediaList);
-        });
-        try {
-            future.get();
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-        }
+            assignRanks(items, QueueRankUtil.spread(null, null, items.size(), 1));
+            queueDao.insertAll(items);
+        }));
     }
 
-    public void insertAll(List<Child> toAdd, boolean reset, int afterIndex) {
-        Future<?> future = AppExecutors.io().submit(() -> {
-            List<Queue> media = new ArrayList<>();
+    public void insert(Child media, int position) {
+        insertAll(Collections.singletonList(media), position);
+    }
 
-            if (!reset) {
-                List<Queue> queued = queueDao.getAllSimple();
-                if (queued != null) {
-                    media = queued;
-                }
-            }
+    /**
+     * Inserts {@code media} so the first item ends up at {@code position}; only the new rows and,
+     * occasionally, a few neighbours are written.
+     */
+    public void insertAll(List<Child> media, int position) {
+        List<Queue> items = toQueue(media);
+        if (items.isEmpty()) return;
+        WRITER.execute(() -> AppDatabase.getInstance().runInTransaction(() -> insertRanked(position, items)));
+    }
 
-            for (int i = 0; i < toAdd.size(); i++) {
-                Queue queueItem = new Queue(toAdd.get(i));
-                media.add(afterIndex + i, queueItem);
-            }
+    public void append(List<Child> media) {
+        insertAll(media, Integer.MAX_VALUE);
+    }
 
-            for (int i = 0; i < media.size(); i++) {
-                media.get(i).setTrackOrder(i);
-            }
+    /**
+     * Moves the item at {@code from} so it ends up at {@code to}, like {@code Player.moveMediaItem}.
+     */
+    public void move(int from, int to) {
+        if (from == to) return;
+        WRITER.execute(() -> AppDatabase.getInstance().runInTransaction(() -> {
+            Integer rank = rankAt(from);
+            if (rank == null) return;
+            Queue item = queueDao.getByRank(rank);
+            queueDao.deleteRanks(rank, rank);
+            if (item != null) insertRanked(to, new ArrayList<>(Collections.singletonList(item)));
+        }));
+    }
 
-            queueDao.deleteAll();
-            queueDao.insertAll(media);
-        });
-        try {
-            future.get();
-        } catch (InterruptedException | ExecutionException e) {
-            Thread.currentThread().interrupt();
-        }
+    /**
+     * Removes the items in {@code [from, to)}.
+     */
+    public void removeRange(int from, int to) {
+        if (from < 0 || to <= from) return;
+        WRITER.execute(() -> AppDatabase.getInstance().runInTransaction(() -> deleteRange(from, to)));
+    }
+
+    /**
+     * Replaces the items in {@code [from, from + media.size())} with {@code media}, e.g. after shuffling part of the queue.
+     */
+    public void replaceRange(int from, List<Child> media) {
+        List<Queue> items = toQueue(media);
+        if (from < 0 || items.isEmpty()) return;
+        WRITER.execute(() -> AppDatabase.getInstance().runInTransaction(() -> {
+            deleteRange(from, from + items.size());
+            insertRanked(from, items);
+        }));
     }
 
     public void delete(int position) {
-        AppExecutors.io().execute(() -> queueDao.delete(position));
+        removeRange(position, position + 1);
     }
 
     public void deleteAll() {
-        AppExecutors.io().execute(queueDao::deleteAll);
+        WRITER.execute(queueDao::deleteAll);
     }
 
     public int count() {
@@ -175,10 +188,12 @@ public class QueueRepository {
     }
 
     public int getLastPlayedMediaIndex() {
-        Future<Queue> future = AppExecutors.io().submit(queueDao::getLastPlayed);
+        Future<Integer> future = AppExecutors.io().submit(() -> {
+            Queue lastMediaPlayed = queueDao.getLastPlayed();
+            return lastMediaPlayed != null ? queueDao.countBefore(lastMediaPlayed.getTrackOrder()) : 0;
+        });
         try {
-            Queue lastMediaPlayed = future.get();
-            return lastMediaPlayed != null ? lastMediaPlayed.getTrackOrder() : 0;
+            return future.get();
         } catch (InterruptedException | ExecutionException e) {
             Thread.currentThread().interrupt();
         }
@@ -195,4 +210,68 @@ public class QueueRepository {
         }
         return 0L;
     }
+
+    private void insertRanked(int position, List<Queue> items) {
+        int count = queueDao.count();
+        int index = Math.max(0, Math.min(position, count));
+        assignRanks(items, allocateRanks(index, items.size(), count));
+        queueDao.insertAll(items);
+    }
+
+    // Finds ranks for `slots` new rows at `index`. When the gap there is used up, a widening window
+    // of neighbours is respread along with the new rows.
+    private int[] allocateRanks(int index, int slots, int count) {
+        for (int radius = 0; ; radius = radius == 0 ? RESPREAD_WINDOW : radius * 2) {
+            int from = Math.max(0, index - radius);
+            int to = Math.min(count, index + radius);
+            Integer lower = from > 0 ? rankAt(from - 1) : null;
+            Integer upper = to < count ? rankAt(to) : null;
+            int minStep = radius == 0 ? 1 : QueueRankUtil.MIN_RESPREAD_STEP;
+            int[] spread = QueueRankUtil.spread(lower, upper, (to - from) + slots, minStep);
+            if (spread == null) {
+                if (from == 0 && to == count) throw new IllegalStateException("Queue too large to rank: " + count);
+                continue;
+            }
+            if (to == from) return spread;
+
+            List<Integer> window = queueDao.getRanks(from, to - from);
+            // Park the window below the live range first so the new ranks never collide with old ones.
+            for (int i = 0; i < window.size(); i++) {
+                queueDao.setRank(window.get(i), QueueRankUtil.MIN_RANK - 1 - i);
+            }
+            int before = index - from;
+            for (int i = 0; i < window.size(); i++) {
+                queueDao.setRank(QueueRankUtil.MIN_RANK - 1 - i, spread[i < before ? i : i + slots]);
+            }
+            int[] ranks = new int[slots];
+            System.arraycopy(spread, before, ranks, 0, slots);
+            return ranks;
+        }
+    }
+
+    private void deleteRange(int from, int to) {
+        List<Integer> ranks = queueDao.getRanks(from, to - from);
+        if (ranks == null || ranks.isEmpty()) return;
+        queueDao.deleteRanks(ranks.get(0), ranks.get(ranks.size() - 1));
+    }
+
+    private Integer rankAt(int index) {
+        List<Integer> ranks = queueDao.getRanks(index, 1);
+        return ranks == null || ranks.isEmpty() ? null : ranks.get(0);
+    }
+
+    private static void assignRanks(List<Queue> items, int[] ranks) {
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setTrackOrder(ranks[i]);
+        }
+    }
+
+    private static List<Queue> toQueue(List<Child> media) {
+        List<Queue> items = new ArrayList<>();
+        if (media == null) return items;
+        for (Child child : media) {
+            if (child != null) items.add(new Queue(child));
+        }
+        return items;
+    }
 }
@@ -48,7 +48,6 @@ import retrofit2.Response;
 import one.chandan.rubato.util.SearchIndexUtil;
 
 public class SearchRepository {
-    private static final long MAX_SONGS_CACHE_SEARCH_CHARS = 3_000_000L;
     private final RecentSearchDao recentSearchDao = AppDatabase.getInstance().recentSearchDao();
     private final CacheRepository cacheRepository = new CacheRepository();
     private final LibrarySearchIndexRepository searchIndexRepository = new LibrarySearchIndexRepository();
@@ -386,53 +385,13 @@ public class SearchRepository {
         }
 
         SearchResult3 localBase = base != null ? base : new SearchResult3();
-        Type artistType = new TypeToken<List<ArtistID3>>() {}.getType();
-        Type albumType = new TypeToken<List<AlbumID3>>() {}.getType();
-        Type songType = new TypeToken<List<Child>>() {}.getType();
-        Type playlistType = new TypeToken<List<Playlist>>() {}.getType();
-
-        cacheRepository.loadOrNull("artists_all", artistType, new CacheRepository.CacheResult<List<ArtistID3>>() {
-            @Override
-            public void onLoaded(List<ArtistID3> artists) {
-                cacheRepository.loadOrNull("albums_all", albumType, new CacheRepository.CacheResult<List<AlbumID3>>() {
-                    @Override
-                    public void onLoaded(List<AlbumID3> albums) {
-                        cacheRepository.loadPayloadSize("songs_all", size -> {
-                            long safeSize = size != null ? size : 0L;
-                            if (safeSize > MAX_SONGS_CACHE_SEARCH_CHARS) {
-                                cacheRepository.loadOrNull("playlists", playlistType, new CacheRepository.CacheResult<List<Playlist>>() {
-                                    @Override
-                                    public void onLoaded(List<Playlist> playlists) {
-                                        maybeSeedIndex(artists, albums, Collections.emptyList(), playlists);
-                                        SearchResult3 merged = new SearchResult3();
-                                        merged.setArtists(mergeArtists(localBase.getArtists(), filterArtists(artists, query)));
-                                        merged.setAlbums(mergeAlbums(localBase.getAlbums(), filterAlbums(albums, query)));
-                                        merged.setSongs(mergeSongs(localBase.getSongs(), Collections.emptyList()));
-                                        result.postValue(merged);
-                                    }
-                                });
-                                return;
-                            }
-                            cacheRepository.loadOrNull("songs_all", songType, new CacheRepository.CacheResult<List<Child>>() {
-                                @Override
-                                public void onLoaded(List<Child> songs) {
-                                    cacheRepository.loadOrNull("playlists", playlistType, new CacheRepository.CacheResult<List<Playlist>>() {
-                                        @Override
-                                        public void onLoaded(List<Playlist> playlists) {
-                                            maybeSeedIndex(artists, albums, songs, playlists);
-                                            SearchResult3 merged = new SearchResult3();
-                                            merged.setArtists(mergeArtists(localBase.getArtists(), filterArtists(artists, query)));
-                                            merged.setAlbums(mergeAlbums(localBase.getAlbums(), filterAlbums(albums, query)));
-                                            merged.setSongs(mergeSongs(localBase.getSongs(), filterSongs(songs, query)));
-                                            result.postValue(merged);
-                                        }
-                                    });
-                                }
-                            });
-                        });
-                    }
-                });
-            }
+        LibrarySnapshotStore.get(snapshot -> {
+            maybeSeedIndex(snapshot.getArtists(), snapshot.getAlbums(), snapshot.getSongs(), snapshot.getPlaylists());
+            SearchResult3 merged = new SearchResult3();
+            merged.setArtists(mergeArtists(localBase.getArtists(), filterArtists(snapshot.getArtists(), query)));
+            merged.setAlbums(mergeAlbums(localBase.getAlbums(), filterAlbums(snapshot.getAlbums(), query)));
+            merged.setSongs(mergeSongs(localBase.getSongs(), filterSongs(snapshot.getSongs(), query)));
+            result.postValue(merged);
         });
     }
 
@@ -451,7 +410,15 @@ public class SearchRepository {
             List<Child> mappedSongs = mapSongs(dedupedSongs);
 
             if (mappedArtists.isEmpty() && mappedAlbums.isEmpty() && mappedSongs.isEmpty()) {
-                loadCachedSearch(query, localBase, result);
+                // Only scan the cached blobs while the index is still unseeded; an empty FTS hit
+                // on a populated index is a real miss.
+                searchIndexRepository.count(count -> {
+                    if (count == null || count == 0) {
+                        loadCachedSearch(query, localBase, result);
+                    } else {
+                        result.postValue(localBase);
+                    }
+                });
                 return;
             }
 
@@ -471,73 +438,25 @@ public class SearchRepository {
             return;
         }
 
-        Type artistType = new TypeToken<List<ArtistID3>>() {}.getType();
-        Type albumType = new TypeToken<List<AlbumID3>>() {}.getType();
-        Type songType = new TypeToken<List<Child>>() {}.getType();
-        Type playlistType = new TypeToken<List<Playlist>>() {}.getType();
-
-        cacheRepository.loadOrNull("artists_all", artistType, new CacheRepository.CacheResult<List<ArtistID3>>() {
-            @Override
-            public void onLoaded(List<ArtistID3> artists) {
-                cacheRepository.loadOrNull("albums_all", albumType, new CacheRepository.CacheResult<List<AlbumID3>>() {
-                    @Override
-                    public void onLoaded(List<AlbumID3> albums) {
-                        cacheRepository.loadPayloadSize("songs_all", size -> {
-                            long safeSize = size != null ? size : 0L;
-                            if (safeSize > MAX_SONGS_CACHE_SEARCH_CHARS) {
-                                cacheRepository.loadOrNull("playlists", playlistType, new CacheRepository.CacheResult<List<Playlist>>() {
-                                    @Override
-                                    public void onLoaded(List<Playlist> playlists) {
-                                        maybeSeedIndex(artists, albums, Collections.emptyList(), playlists);
-                                        synchronized (lock) {
-                                            for (ArtistID3 artistID3 : filterArtists(artists, query)) {
-                                                addSuggestion(suggestionMap, artistID3 != null ? artistID3.getName() : null,
-                                                        artistID3 != null ? artistID3.getCoverArtId() : null,
-                                                        SearchSuggestion.Kind.ARTIST);
-                                            }
-                                            for (AlbumID3 albumID3 : filterAlbums(albums, query)) {
-                                                addSuggestion(suggestionMap, albumID3 != null ? albumID3.getName() : null,
-                                                        albumID3 != null ? albumID3.getCoverArtId() : null,
-                                                        SearchSuggestion.Kind.ALBUM);
-                                            }
-                                            suggestions.postValue(new ArrayList<>(suggestionMap.values()));
-                                        }
-                                    }
-                                });
-                                return;
-                            }
-                            cacheRepository.loadOrNull("songs_all", songType, new CacheRepository.CacheResult<List<Child>>() {
-                                @Override
-                                public void onLoaded(List<Child> songs) {
-                                    cacheRepository.loadOrNull("playlists", playlistType, new CacheRepository.CacheResult<List<Playlist>>() {
-                                        @Override
-                                        public void onLoaded(List<Playlist> playlists) {
-                                            maybeSeedIndex(artists, albums, songs, playlists);
-                                            synchronized (lock) {
-                                                for (ArtistID3 artistID3 : filterArtists(artists, query)) {
-                                                    addSuggestion(suggestionMap, artistID3 != null ? artistID3.getName() : null,
-                                                            artistID3 != null ? artistID3.getCoverArtId() : null,
-                                                            SearchSuggestion.Kind.ARTIST);
-                                                }
-                                                for (AlbumID3 albumID3 : filterAlbums(albums, query)) {
-                                                    addSuggestion(suggestionMap, albumID3 != null ? albumID3.getName() : null,
-                                                            albumID3 != null ? albumID3.getCoverArtId() : null,
-                                                            SearchSuggestion.Kind.ALBUM);
-                                                }
-                                                for (Child song : filterSongs(songs, query)) {
-                                                    addSuggestion(suggestionMap, song != null ? song.getTitle() : null,
-                                                            song != null ? song.getCoverArtId() : null,
-                                                            SearchSuggestion.Kind.SONG);
-                                                }
-                                                suggestions.postValue(new ArrayList<>(suggestionMap.values()));
-                                            }
-                                        }
-                                    });
-                                }
-                            });
-                        });
-                    }
-                });
+        LibrarySnapshotStore.get(snapshot -> {
+            maybeSeedIndex(snapshot.getArtists(), snapshot.getAlbums(), snapshot.getSongs(), snapshot.getPlaylists());
+            synchronized (lock) {
+                for (ArtistID3 artistID3 : filterArtists(snapshot.getArtists(), query)) {
+                    addSuggestion(suggestionMap, artistID3 != null ? artistID3.getName() : null,
+                            artistID3 != null ? artistID3.getCoverArtId() : null,
+                            SearchSuggestion.Kind.ARTIST);
+                }
+                for (AlbumID3 albumID3 : filterAlbums(snapshot.getAlbums(), query)) {
+                    addSuggestion(suggestionMap, albumID3 != null ? albumID3.getName() : null,
+                            albumID3 != null ? albumID3.getCoverArtId() : null,
+                            SearchSuggestion.Kind.ALBUM);
+                }
+                for (Child song : filterSongs(snapshot.getSongs(), query)) {
+                    addSuggestion(suggestionMap, song != null ? song.getTitle() : null,
+                            song != null ? song.getCoverArtId() : null,
+                            SearchSuggestion.Kind.SONG);
+                }
+                suggestions.postValue(new ArrayList<>(suggestionMap.values()));
             }
         });
     }
@@ -6,6 +6,7 @@ import androidx.lifecycle.MutableLiveData;
 import one.chandan.rubato.subsonic.base.ApiResponse;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.subsonic.models.SubsonicResponse;
+import one.chandan.rubato.util.AppExecutors;
 import one.chandan.rubato.util.OfflinePolicy;
 import one.chandan.rubato.App;
 import one.chandan.rubato.repository.LocalMusicRepository;
@@ -23,6 +24,7 @@ import retrofit2.Response;
 public class SongRepository {
     private static final String TAG = "SongRepository";
     private final CacheRepository cacheRepository = new CacheRepository();
+    private final CatalogRepository catalogRepository = new CatalogRepository();
 
     public MutableLiveData<List<Child>> getStarredSongs(boolean random, int size) {
         MutableLiveData<List<Child>> starredSongs = new MutableLiveData<>(Collections.emptyList());
@@ -378,6 +380,17 @@ public class SongRepository {
         if (current != null && !current.isEmpty()) {
             return;
         }
+        AppExecutors.io().execute(() -> {
+            if (!catalogRepository.hasSongs(CatalogRepository.SCOPE_SUBSONIC)) {
+                loadCachedSongsByYearRangeFromAll(fromYear, toYear, number, randomSongsSample);
+                return;
+            }
+            List<Child> songs = catalogRepository.getRandomSongsByYearRange(CatalogRepository.SCOPE_SUBSONIC, fromYear, toYear, number);
+            mergeLocalByYearRange(fromYear, toYear, number, songs, randomSongsSample);
+        });
+    }
+
+    private void loadCachedSongsByYearRangeFromAll(Integer fromYear, Integer toYear, int number, MutableLiveData<List<Child>> randomSongsSample) {
         Type type = new TypeToken<List<Child>>() {
         }.getType();
         cacheRepository.load("songs_all", type, new CacheRepository.CacheResult<List<Child>>() {
@@ -415,6 +428,25 @@ public class SongRepository {
     }
 
     private void loadCachedSongsByGenre(String genreId, int page, MutableLiveData<List<Child>> songsByGenre) {
+        AppExecutors.io().execute(() -> {
+            if (!catalogRepository.hasSongs(CatalogRepository.SCOPE_SUBSONIC)) {
+                loadCachedSongsByGenreFromAll(genreId, page, songsByGenre);
+                return;
+            }
+            if (genreId == null) {
+                songsByGenre.postValue(new ArrayList<>());
+                return;
+            }
+            List<Child> songs = catalogRepository.getSongsByGenre(CatalogRepository.SCOPE_SUBSONIC, genreId, 100, page * 100);
+            if (songs.isEmpty()) {
+                songsByGenre.postValue(new ArrayList<>());
+                return;
+            }
+            mergeLocalByGenre(genreId, songs, songsByGenre);
+        });
+    }
+
+    private void loadCachedSongsByGenreFromAll(String genreId, int page, MutableLiveData<List<Child>> songsByGenre) {
         Type type = new TypeToken<List<Child>>() {
         }.getType();
         cacheRepository.load("songs_all", type, new CacheRepository.CacheResult<List<Child>>() {
@@ -447,6 +479,17 @@ public class SongRepository {
     }
 
     private void loadCachedSongsByGenres(ArrayList<String> genresId, MutableLiveData<List<Child>> songsByGenre) {
+        AppExecutors.io().execute(() -> {
+            if (!catalogRepository.hasSongs(CatalogRepository.SCOPE_SUBSONIC)) {
+                loadCachedSongsByGenresFromAll(genresId, songsByGenre);
+                return;
+            }
+            List<Child> songs = catalogRepository.getSongsByGenres(CatalogRepository.SCOPE_SUBSONIC, genresId);
+            mergeLocalByGenres(genresId, songs, songsByGenre);
+        });
+    }
+
+    private void loadCachedSongsByGenresFromAll(ArrayList<String> genresId, MutableLiveData<List<Child>> songsByGenre) {
         Type type = new TypeToken<List<Child>>() {
         }.getType();
         cacheRepository.load("songs_all", type, new CacheRepository.CacheResult<List<Child>>() {
@@ -474,6 +517,20 @@ public class SongRepository {
     }
 
     private void loadCachedSongFromAll(String songId, MutableLiveData<Child> song) {
+        if (songId == null) return;
+        AppExecutors.io().execute(() -> {
+            if (!catalogRepository.hasSongs(CatalogRepository.SCOPE_SUBSONIC)) {
+                loadCachedSongFromBlob(songId, song);
+                return;
+            }
+            Child entry = catalogRepository.getSong(CatalogRepository.SCOPE_SUBSONIC, songId);
+            if (entry != null) {
+                song.postValue(entry);
+            }
+        });
+    }
+
+    private void loadCachedSongFromBlob(String songId, MutableLiveData<Child> song) {
         Type type = new TypeToken<List<Child>>() {
         }.getType();
         cacheRepository.load("songs_all", type, new CacheRepository.CacheResult<List<Child>>() {
@@ -0,0 +1,86 @@
+package one.chandan.rubato.repository;
+
+import one.chandan.rubato.database.AppDatabase;
+import one.chandan.rubato.database.dao.SyncCheckpointDao;
+import one.chandan.rubato.model.SyncCheckpoint;
+import one.chandan.rubato.model.SyncCheckpointItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Persists how far an interrupted metadata sync got, so the next run continues from the same
+ * cursors instead of starting over. Blocking; call from sync threads.
+ */
+public class SyncCheckpointRepository {
+    // A run this old is restarted; the server has likely changed enough that resuming buys little.
+    private static final long MAX_CHECKPOINT_AGE_MS = 7L * 24 * 60 * 60 * 1000;
+    // A run resumed this many times without completing anything new is failing, not interrupted.
+    private static final int MAX_RESUME_ATTEMPTS = 3;
+
+    private final SyncCheckpointDao syncCheckpointDao = AppDatabase.getInstance().syncCheckpointDao();
+
+    /**
+     * Returns the pending run for {@code scope} when it matches {@code signature}, or starts a new
+     * one stamped with {@code startedAt}. Passing {@code restart} discards any pending run. Each
+     * resume counts as an attempt until the run records progress again.
+     */
+    public SyncCheckpoint open(String scope, long startedAt, boolean incremental, String signature, boolean restart) {
+        SyncCheckpoint pending = syncCheckpointDao.get(scope);
+        if (!restart && isResumable(pending, startedAt)
+                && (signature == null || Objects.equals(signature, pending.getSignature()))) {
+            syncCheckpointDao.incrementResumeAttempts(scope);
+            return pending;
+        }
+        SyncCheckpoint checkpoint = new SyncCheckpoint(scope, startedAt, incremental, signature, 0, 0, false, startedAt, 0);
+        syncCheckpointDao.start(checkpoint);
+        return checkpoint;
+    }
+
+    /**
+     * True when {@code scope} has a run worth resuming. A run that is too old or keeps failing is
+     * dropped here, so it stops forcing a sync on every tick.
+     */
+    public boolean hasPending(String scope) {
+        SyncCheckpoint pending = syncCheckpointDao.get(scope);
+        if (pending == null) return false;
+        if (isResumable(pending, System.currentTimeMillis())) return true;
+        syncCheckpointDao.clear(scope);
+        return false;
+    }
+
+    public void setAlbumOffset(String scope, int offset, boolean complete) {
+        syncCheckpointDao.setAlbumOffset(scope, offset, complete, System.currentTimeMillis());
+    }
+
+    public Set<String> getCompleted(String scope, String stage) {
+        List<String> ids = syncCheckpointDao.getItemIds(scope, stage);
+        return ids != null ? new HashSet<>(ids) : new HashSet<>();
+    }
+
+    public void markCompleted(String scope, String stage, Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) return;
+        List<SyncCheckpointItem> items = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            if (id != null) items.add(new SyncCheckpointItem(scope, stage, id));
+        }
+        if (!items.isEmpty()) {
+            syncCheckpointDao.insertItems(items);
+            syncCheckpointDao.resetResumeAttempts(scope);
+        }
+    }
+
+    public void clear(String scope) {
+        syncCheckpointDao.clear(scope);
+    }
+
+    private static boolean isResumable(SyncCheckpoint pending, long now) {
+        return pending != null
+                && now - pending.getUpdatedAt() < MAX_CHECKPOINT_AGE_MS
+                && pending.getResumeAttempts() < MAX_RESUME_ATTEMPTS;
+    }
+}
@@ -0,0 +1,108 @@
+package one.chandan.rubato.repository;
+
+import one.chandan.rubato.database.AppDatabase;
+import one.chandan.rubato.database.dao.SyncJournalDao;
+import one.chandan.rubato.model.SyncJournalEntry;
+import one.chandan.rubato.subsonic.models.AlbumID3;
+import one.chandan.rubato.subsonic.models.ArtistID3;
+import one.chandan.rubato.subsonic.models.Playlist;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers a fingerprint per synced artist/album/playlist so delta runs only re-fetch details for
+ * entities the server reports as changed. Blocking; call from sync threads.
+ */
+public class SyncJournalRepository {
+    public static final String KIND_ARTIST = "artist";
+    public static final String KIND_ALBUM = "album";
+    public static final String KIND_PLAYLIST = "playlist";
+
+    private static final int DELETE_CHUNK_SIZE = 500;
+
+    private final SyncJournalDao syncJournalDao = AppDatabase.getInstance().syncJournalDao();
+
+    public Map<String, String> load(String scope, String kind) {
+        List<SyncJournalEntry> entries = syncJournalDao.getAll(scope, kind);
+        Map<String, String> fingerprints = new HashMap<>(entries != null ? entries.size() : 0);
+        if (entries != null) {
+            for (SyncJournalEntry entry : entries) {
+                fingerprints.put(entry.getEntityId(), entry.getFingerprint());
+            }
+        }
+        return fingerprints;
+    }
+
+    public void record(String scope, String kind, Map<String, String> fingerprints) {
+        if (fingerprints == null || fingerprints.isEmpty()) return;
+        long now = System.currentTimeMillis();
+        List<SyncJournalEntry> entries = new ArrayList<>(fingerprints.size());
+        for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+            entries.add(new SyncJournalEntry(scope, kind, entry.getKey(), entry.getValue(), now));
+        }
+        syncJournalDao.upsertAll(entries);
+    }
+
+    /**
+     * Drops journal rows for artists that are no longer in the catalog and returns their ids.
+     */
+    public List<String> pruneRemovedArtists(String scope) {
+        return prune(scope, KIND_ARTIST, syncJournalDao.getRemovedArtistIds(scope));
+    }
+
+    /**
+     * Drops journal rows for albums that are no longer in the catalog and returns their ids.
+     */
+    public List<String> pruneRemovedAlbums(String scope) {
+        return prune(scope, KIND_ALBUM, syncJournalDao.getRemovedAlbumIds(scope));
+    }
+
+    /**
+     * Drops journal rows for playlists missing from {@code currentIds} and returns their ids.
+     * Playlists are not catalog rows, so the caller passes the ids of the listing just fetched.
+     */
+    public List<String> pruneRemovedPlaylists(String scope, Collection<String> currentIds) {
+        List<String> removed = new ArrayList<>();
+        for (SyncJournalEntry entry : syncJournalDao.getAll(scope, KIND_PLAYLIST)) {
+            if (!currentIds.contains(entry.getEntityId())) removed.add(entry.getEntityId());
+        }
+        return prune(scope, KIND_PLAYLIST, removed);
+    }
+
+    public void clear(String scope) {
+        syncJournalDao.clear(scope);
+    }
+
+    public static String fingerprint(ArtistID3 artist) {
+        if (artist == null) return "";
+        return artist.getAlbumCount() + "|" + artist.getName() + "|" + artist.getCoverArtId();
+    }
+
+    public static String fingerprint(AlbumID3 album) {
+        if (album == null) return "";
+        long created = album.getCreated() != null ? album.getCreated().getTime() : 0L;
+        return created + "|" + album.getSongCount() + "|" + album.getDuration()
+                + "|" + album.getName() + "|" + album.getArtistId()
+                + "|" + album.getCoverArtId() + "|" + album.getYear();
+    }
+
+    public static String fingerprint(Playlist playlist) {
+        if (playlist == null) return "";
+        long changed = playlist.getChanged() != null ? playlist.getChanged().getTime() : 0L;
+        return changed + "|" + playlist.getSongCount() + "|" + playlist.getDuration();
+    }
+
+    private List<String> prune(String scope, String kind, List<String> ids) {
+        if (ids == null || ids.isEmpty()) return Collections.emptyList();
+        for (int start = 0; start < ids.size(); start += DELETE_CHUNK_SIZE) {
+            int end = Math.min(ids.size(), start + DELETE_CHUNK_SIZE);
+            syncJournalDao.delete(scope, kind, ids.subList(start, end));
+        }
+        return ids;
+    }
+}
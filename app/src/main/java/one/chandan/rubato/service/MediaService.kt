@@ -38,6 +38,7 @@ class MediaService : MediaLibraryService(), SessionAvailabilityListener {
     private lateinit var autoLibraryRepository: AutoLibraryRepository
     private lateinit var player: ExoPlayer
     private lateinit var castPlayer: CastPlayer
+    private lateinit var queuePrefetcher: QueuePrefetcher
     private lateinit var mediaLibrarySession: MediaLibrarySession
     private val mainHandler = Handler(Looper.getMainLooper())
     private val tag = "MediaService"
@@ -50,6 +51,7 @@ class MediaService : MediaLibraryService(), SessionAvailabilityListener {
         initializeCastPlayer()
         initializeMediaLibrarySession()
         initializePlayerListener()
+        initializeQueuePrefetcher()
 
         setPlayer(
                 null,
@@ -97,6 +99,7 @@ class MediaService : MediaLibraryService(), SessionAvailabilityListener {
                 .setHandleAudioBecomingNoisy(true)
                 .setWakeMode(C.WAKE_MODE_NETWORK)
                 .setLoadControl(initializeLoadControl())
+                .setPriorityTaskManager(DownloadUtil.getPriorityTaskManager())
                 .build()
     }
 
@@ -212,6 +215,11 @@ class MediaService : MediaLibraryService(), SessionAvailabilityListener {
         AudioSessionStore.updateAudioSessionId(player.audioSessionId)
     }
 
+    private fun initializeQueuePrefetcher() {
+        queuePrefetcher = QueuePrefetcher(this, player)
+        queuePrefetcher.start()
+    }
+
     private fun initializeLoadControl(): DefaultLoadControl {
         return DefaultLoadControl.Builder()
                 .setBufferDurationsMs(
@@ -232,6 +240,7 @@ class MediaService : MediaLibraryService(), SessionAvailabilityListener {
     private fun releasePlayer() {
         if (this::castPlayer.isInitialized) castPlayer.setSessionAvailabilityListener(null)
         if (this::castPlayer.isInitialized) castPlayer.release()
+        if (this::queuePrefetcher.isInitialized) queuePrefetcher.stop()
         player.release()
         mediaLibrarySession.release()
         autoLibraryRepository.clearSessionCache()
@@ -21,6 +21,7 @@ import one.chandan.rubato.repository.SongRepository;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.subsonic.models.InternetRadioStation;
 import one.chandan.rubato.subsonic.models.PodcastEpisode;
+import one.chandan.rubato.sync.CoverArtPrefetchQueue;
 import one.chandan.rubato.util.AppExecutors;
 import one.chandan.rubato.util.MediaItemBuilder;
 import one.chandan.rubato.util.Preferences;
@@ -30,6 +31,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -101,7 +103,7 @@ public class QueueManager {
             mediaBrowser.prepare();
             mediaBrowser.seekTo(startIndex, 0);
             mediaBrowser.play();
-            enqueueDatabase(media, true, 0);
+            queueRepository.replace(media);
             notifyWidgetUpdate();
         });
     }
@@ -114,7 +116,7 @@ public class QueueManager {
             mediaBrowser.setMediaItem(MediaItemBuilder.fromChild(media));
             mediaBrowser.prepare();
             mediaBrowser.play();
-            enqueueDatabase(media, true, 0);
+            queueRepository.replace(Collections.singletonList(media));
             notifyWidgetUpdate();
         });
     }
@@ -143,12 +145,12 @@ public class QueueManager {
         runOnBrowser(mediaBrowserListenableFuture, mediaBrowser -> {
             if (playImmediatelyAfter) {
                 int insertIndex = getPlayNextInsertIndex(mediaBrowser);
-                enqueueDatabase(media, false, insertIndex);
+                queueRepository.insertAll(media, insertIndex);
                 mediaBrowser.addMediaItems(insertIndex, MediaItemBuilder.fromChildren(media));
                 addToPlayNextQueue(media);
             } else {
                 int insertIndex = getComingUpInsertIndex(mediaBrowser);
-                enqueueDatabase(media, false, insertIndex);
+                queueRepository.insertAll(media, insertIndex);
                 mediaBrowser.addMediaItems(insertIndex, MediaItemBuilder.fromChildren(media));
                 addToComingUpQueue(media);
             }
@@ -160,12 +162,12 @@ public class QueueManager {
         runOnBrowser(mediaBrowserListenableFuture, mediaBrowser -> {
             if (playImmediatelyAfter) {
                 int insertIndex = getPlayNextInsertIndex(mediaBrowser);
-                enqueueDatabase(media, false, insertIndex);
+                queueRepository.insert(media, insertIndex);
                 mediaBrowser.addMediaItem(insertIndex, MediaItemBuilder.fromChild(media));
                 addToPlayNextQueue(media);
             } else {
                 int insertIndex = getComingUpInsertIndex(mediaBrowser);
-                enqueueDatabase(media, false, insertIndex);
+                queueRepository.insert(media, insertIndex);
                 mediaBrowser.addMediaItem(insertIndex, MediaItemBuilder.fromChild(media));
                 addToComingUpQueue(media);
             }
@@ -177,7 +179,7 @@ public class QueueManager {
         runOnBrowser(mediaBrowserListenableFuture, mediaBrowser -> {
             mediaBrowser.removeMediaItems(startIndex, endIndex + 1);
             mediaBrowser.addMediaItems(MediaItemBuilder.fromChildren(media).subList(startIndex, endIndex + 1));
-            swapDatabase(media);
+            queueRepository.replaceRange(startIndex, new ArrayList<>(media.subList(startIndex, endIndex + 1)));
             notifyWidgetUpdate();
         });
     }
@@ -185,7 +187,7 @@ public class QueueManager {
     public void swap(ListenableFuture<MediaBrowser> mediaBrowserListenableFuture, List<Child> media, int from, int to) {
         runOnBrowser(mediaBrowserListenableFuture, mediaBrowser -> {
             mediaBrowser.moveMediaItem(from, to);
-            swapDatabase(media);
+            queueRepository.move(from, to);
             notifyWidgetUpdate();
         });
     }
@@ -194,10 +196,8 @@ public class QueueManager {
         runOnBrowser(mediaBrowserListenableFuture, mediaBrowser -> {
             if (mediaBrowser.getMediaItemCount() > 1 && mediaBrowser.getCurrentMediaItemIndex() != toRemove) {
                 mediaBrowser.removeMediaItem(toRemove);
-                removeDatabase(media, toRemove);
+                queueRepository.delete(toRemove);
                 refreshQueues(mediaBrowser);
-            } else {
-                removeDatabase(media, -1);
             }
             notifyWidgetUpdate();
         });
@@ -208,8 +208,8 @@ public class QueueManager {
             int itemCount = mediaBrowser.getMediaItemCount();
             if (toRemove >= 0 && toRemove < itemCount) {
                 mediaBrowser.removeMediaItem(toRemove);
+                queueRepository.delete(toRemove);
             }
-            replaceDatabase(media);
             refreshQueues(mediaBrowser);
             notifyWidgetUpdate();
         });
@@ -221,7 +221,7 @@ public class QueueManager {
             int itemCount = mediaBrowser.getMediaItemCount();
             int safeIndex = Math.max(0, Math.min(index, itemCount));
             mediaBrowser.addMediaItem(safeIndex, MediaItemBuilder.fromChild(media));
-            enqueueDatabase(media, false, safeIndex);
+            queueRepository.insert(media, safeIndex);
             refreshQueues(mediaBrowser);
             notifyWidgetUpdate();
         });
@@ -230,7 +230,7 @@ public class QueueManager {
     public void removeRange(ListenableFuture<MediaBrowser> mediaBrowserListenableFuture, List<Child> media, int fromItem, int toItem) {
         runOnBrowser(mediaBrowserListenableFuture, mediaBrowser -> {
             mediaBrowser.removeMediaItems(fromItem, toItem);
-            removeRangeDatabase(media, fromItem, toItem);
+            queueRepository.removeRange(fromItem, toItem);
             refreshQueues(mediaBrowser);
             notifyWidgetUpdate();
         });
@@ -280,7 +280,17 @@ public class QueueManager {
 
     public void saveChronology(MediaItem mediaItem) {
         if (mediaItem != null) {
-            chronologyRepository.insert(new Chronology(mediaItem));
+            Chronology chronology = new Chronology(mediaItem);
+            chronologyRepository.insert(chronology);
+            String coverArtId = chronology.getCoverArtId();
+            if (coverArtId != null && !coverArtId.isEmpty()) {
+                AppExecutors.io().execute(() -> CoverArtPrefetchQueue.enqueue(
+                        App.getContext(),
+                        Collections.singletonList(coverArtId),
+                        null,
+                        CoverArtPrefetchQueue.PRIORITY_RECENT
+                ));
+            }
         }
     }
 
@@ -399,44 +409,6 @@ public class QueueManager {
         return -1;
     }
 
-    private void enqueueDatabase(List<Child> media, boolean reset, int afterIndex) {
-        List<Child> copy = media == null ? new ArrayList<>() : new ArrayList<>(media);
-        executor.execute(() -> queueRepository.insertAll(copy, reset, afterIndex));
-    }
-
-    private void enqueueDatabase(Child media, boolean reset, int afterIndex) {
-        executor.execute(() -> queueRepository.insert(media, reset, afterIndex));
-    }
-
-    private void swapDatabase(List<Child> media) {
-        List<Child> copy = media == null ? new ArrayList<>() : new ArrayList<>(media);
-        executor.execute(() -> queueRepository.insertAll(copy, true, 0));
-    }
-
-    private void removeDatabase(List<Child> media, int toRemove) {
-        if (toRemove != -1) {
-            List<Child> copy = media == null ? new ArrayList<>() : new ArrayList<>(media);
-            if (toRemove >= 0 && toRemove < copy.size()) {
-                copy.remove(toRemove);
-            }
-            executor.execute(() -> queueRepository.insertAll(copy, true, 0));
-        }
-    }
-
-    private void removeRangeDatabase(List<Child> media, int fromItem, int toItem) {
-        List<Child> copy = media == null ? new ArrayList<>() : new ArrayList<>(media);
-        if (fromItem >= 0 && fromItem < toItem && toItem <= copy.size()) {
-            List<Child> toRemove = new ArrayList<>(copy.subList(fromItem, toItem));
-            copy.removeAll(toRemove);
-        }
-        executor.execute(() -> queueRepository.insertAll(copy, true, 0));
-    }
-
-    private void replaceDatabase(List<Child> media) {
-        List<Child> copy = media == null ? new ArrayList<>() : new ArrayList<>(media);
-        executor.execute(() -> queueRepository.insertAll(copy, true, 0));
-    }
-
     private void initOnBrowser(MediaBrowser mediaBrowser, List<Child> media, int lastIndex, long lastTimestamp) {
         playNextQueue.clear();
         comingUpQueue.clear();
@@ -0,0 +1,91 @@
+package one.chandan.rubato.service
+
+import android.content.Context
+import androidx.media3.common.C
+import androidx.media3.common.MediaItem
+import androidx.media3.common.Player
+import androidx.media3.common.Timeline
+import androidx.media3.common.util.UnstableApi
+import androidx.media3.exoplayer.ExoPlayer
+import one.chandan.rubato.util.DownloadUtil
+import one.chandan.rubato.util.NetworkUtil
+import one.chandan.rubato.util.StreamingCacheFiller
+
+/**
+ * Watches the player's timeline and writes the upcoming queue items into the streaming cache, so a
+ * track change starts from disk instead of waiting on a new connection. On unmetered networks the
+ * next track is cached whole and the one after it up to [HEAD_SECONDS]; on metered networks only the
+ * head of the next track is. Must be used from the main thread.
+ */
+@UnstableApi
+class QueuePrefetcher(context: Context, private val player: ExoPlayer) : Player.Listener {
+    companion object {
+        private const val LOOKAHEAD_UNMETERED = 2
+        private const val LOOKAHEAD_METERED = 1
+        private const val HEAD_SECONDS = 30L
+        // Used when a track carries no bitrate; errs high so the head still covers HEAD_SECONDS.
+        private const val FALLBACK_KBPS = 320
+    }
+
+    private val context = context.applicationContext
+    private val window = Timeline.Window()
+
+    fun start() {
+        player.addListener(this)
+        update()
+    }
+
+    fun stop() {
+        player.removeListener(this)
+        val factory = DownloadUtil.getStreamingFillFactory(context) ?: return
+        StreamingCacheFiller.prefetch(factory, emptyList())
+    }
+
+    override fun onMediaItemTransition(mediaItem: MediaItem?, reason: Int) {
+        update()
+    }
+
+    override fun onTimelineChanged(timeline: Timeline, reason: Int) {
+        if (reason == Player.TIMELINE_CHANGE_REASON_PLAYLIST_CHANGED) update()
+    }
+
+    override fun onShuffleModeEnabledChanged(shuffleModeEnabled: Boolean) {
+        update()
+    }
+
+    override fun onRepeatModeChanged(repeatMode: Int) {
+        update()
+    }
+
+    private fun update() {
+        val factory = DownloadUtil.getStreamingFillFactory(context) ?: return
+        StreamingCacheFiller.prefetch(factory, plan())
+    }
+
+    private fun plan(): List<StreamingCacheFiller.Prefetch> {
+        val timeline = player.currentTimeline
+        if (timeline.isEmpty || player.currentMediaItemIndex == C.INDEX_UNSET) return emptyList()
+
+        val metered = NetworkUtil.isMetered()
+        val lookahead = if (metered) LOOKAHEAD_METERED else LOOKAHEAD_UNMETERED
+        val downloads = DownloadUtil.getDownloadTracker(context)
+        val items = ArrayList<StreamingCacheFiller.Prefetch>(lookahead)
+        val current = player.currentMediaItemIndex
+        var index = current
+        while (items.size < lookahead) {
+            index = timeline.getNextWindowIndex(index, player.repeatMode, player.shuffleModeEnabled)
+            if (index == C.INDEX_UNSET || index == current) break
+            val mediaItem = timeline.getWindow(index, window).mediaItem
+            val uri = mediaItem.localConfiguration?.uri ?: continue
+            if (downloads.isDownloaded(mediaItem)) continue
+            val whole = !metered && items.isEmpty()
+            items.add(StreamingCacheFiller.Prefetch(uri, if (whole) C.LENGTH_UNSET.toLong() else headBytes(mediaItem)))
+        }
+        return items
+    }
+
+    private fun headBytes(mediaItem: MediaItem): Long {
+        val kbps = mediaItem.mediaMetadata.extras?.getInt("bitrate", 0)?.takeIf { it > 0 } ?: FALLBACK_KBPS
+        return kbps * 1000L / 8 * HEAD_SECONDS
+    }
+}
@@ -1,6 +1,7 @@
 package one.chandan.rubato.subsonic
 
 import one.chandan.rubato.App
+import one.chandan.rubato.BuildConfig
 import one.chandan.rubato.subsonic.utils.CacheUtil
 import one.chandan.rubato.subsonic.utils.ServerReachabilityInterceptor
 import com.google.gson.GsonBuilder
@@ -51,7 +52,9 @@ class RetrofitClient(subsonic: Subsonic) {
 
     private fun getHttpLoggingInterceptor(): HttpLoggingInterceptor {
         val loggingInterceptor = HttpLoggingInterceptor()
-        loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY)
+        // Never BODY, even in debug: it buffers the whole response, which defeats the streaming sync
+        // parsers on large libraries.
+        loggingInterceptor.setLevel(if (BuildConfig.DEBUG) HttpLoggingInterceptor.Level.HEADERS else HttpLoggingInterceptor.Level.BASIC)
         return loggingInterceptor
     }
 
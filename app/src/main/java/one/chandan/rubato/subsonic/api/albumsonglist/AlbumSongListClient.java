@@ -6,6 +6,7 @@ import one.chandan.rubato.subsonic.RetrofitClient;
 import one.chandan.rubato.subsonic.Subsonic;
 import one.chandan.rubato.subsonic.base.ApiResponse;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 
 public class AlbumSongListClient {
@@ -29,6 +30,11 @@ public class AlbumSongListClient {
         return albumSongListService.getAlbumList2(subsonic.getParams(), type, size, offset, fromYear, toYear);
     }
 
+    public Call<ResponseBody> streamAlbumList2(String type, int size, int offset, Integer fromYear, Integer toYear) {
+        Log.d(TAG, "streamAlbumList2()");
+        return albumSongListService.streamAlbumList2(subsonic.getParams(), type, size, offset, fromYear, toYear);
+    }
+
     public Call<ApiResponse> getRandomSongs(int size, Integer fromYear, Integer toYear) {
         Log.d(TAG, "getRandomSongs()");
         return albumSongListService.getRandomSongs(subsonic.getParams(), size, fromYear, toYear);
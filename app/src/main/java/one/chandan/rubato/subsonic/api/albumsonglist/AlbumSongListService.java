@@ -4,10 +4,12 @@ import one.chandan.rubato.subsonic.base.ApiResponse;
 
 import java.util.Map;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Query;
 import retrofit2.http.QueryMap;
+import retrofit2.http.Streaming;
 
 public interface AlbumSongListService {
     @GET("getAlbumList")
@@ -16,6 +18,10 @@ public interface AlbumSongListService {
     @GET("getAlbumList2")
     Call<ApiResponse> getAlbumList2(@QueryMap Map<String, String> params, @Query("type") String type, @Query("size") int size, @Query("offset") int offset, @Query("fromYear") Integer fromYear, @Query("toYear") Integer toYear);
 
+    @Streaming
+    @GET("getAlbumList2")
+    Call<ResponseBody> streamAlbumList2(@QueryMap Map<String, String> params, @Query("type") String type, @Query("size") int size, @Query("offset") int offset, @Query("fromYear") Integer fromYear, @Query("toYear") Integer toYear);
+
     @GET("getRandomSongs")
     Call<ApiResponse> getRandomSongs(@QueryMap Map<String, String> params, @Query("size") int size, @Query("fromYear") Integer fromYear, @Query("toYear") Integer toYear);
 
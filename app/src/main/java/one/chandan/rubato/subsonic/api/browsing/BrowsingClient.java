@@ -6,6 +6,7 @@ import one.chandan.rubato.subsonic.RetrofitClient;
 import one.chandan.rubato.subsonic.Subsonic;
 import one.chandan.rubato.subsonic.base.ApiResponse;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 
 public class BrowsingClient {
@@ -44,6 +45,11 @@ public class BrowsingClient {
         return browsingService.getArtists(subsonic.getParams());
     }
 
+    public Call<ResponseBody> streamArtists() {
+        Log.d(TAG, "streamArtists()");
+        return browsingService.streamArtists(subsonic.getParams());
+    }
+
     public Call<ApiResponse> getArtist(String id) {
         Log.d(TAG, "getArtist()");
         return browsingService.getArtist(subsonic.getParams(), id);
@@ -4,10 +4,12 @@ import one.chandan.rubato.subsonic.base.ApiResponse;
 
 import java.util.Map;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Query;
 import retrofit2.http.QueryMap;
+import retrofit2.http.Streaming;
 
 public interface BrowsingService {
     @GET("getMusicFolders")
@@ -25,6 +27,10 @@ public interface BrowsingService {
     @GET("getArtists")
     Call<ApiResponse> getArtists(@QueryMap Map<String, String> params);
 
+    @Streaming
+    @GET("getArtists")
+    Call<ResponseBody> streamArtists(@QueryMap Map<String, String> params);
+
     @GET("getArtist")
     Call<ApiResponse> getArtist(@QueryMap Map<String, String> params, @Query("id") String id);
 
@@ -0,0 +1,151 @@
+package one.chandan.rubato.subsonic.utils;
+
+import one.chandan.rubato.subsonic.models.AlbumID3;
+import one.chandan.rubato.subsonic.models.ArtistID3;
+import one.chandan.rubato.subsonic.models.Error;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+import okhttp3.ResponseBody;
+
+/**
+ * Pull parser for the large list endpoints used by metadata sync. Entities are handed to the
+ * consumer one at a time as they are read off the wire, so the full response tree is never held
+ * in memory. Server-side errors surface as {@link IOException}.
+ */
+public final class SubsonicStreamReader {
+    private static final Gson GSON = new GsonBuilder().setDateFormat("yyyy-MM-dd'T'HH:mm:ss").create();
+
+    private SubsonicStreamReader() {
+    }
+
+    /**
+     * Reads a {@code getArtists} response. Returns the number of artists emitted, or -1 when the
+     * response carried no {@code artists} element.
+     */
+    public static int readArtists(ResponseBody body, Consumer<ArtistID3> consumer) throws IOException {
+        return read(body, "artists", reader -> {
+            int[] count = {0};
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("index".equals(reader.nextName())) {
+                    forEachElement(reader, () -> {
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            if ("artist".equals(reader.nextName())) {
+                                forEachElement(reader, () -> {
+                                    ArtistID3 artist = GSON.fromJson(reader, ArtistID3.class);
+                                    if (artist != null) {
+                                        consumer.accept(artist);
+                                        count[0]++;
+                                    }
+                                });
+                            } else {
+                                reader.skipValue();
+                            }
+                        }
+                        reader.endObject();
+                    });
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return count[0];
+        });
+    }
+
+    /**
+     * Reads a {@code getAlbumList2} page. Returns the number of albums emitted, or -1 when the
+     * response carried no {@code albumList2} element.
+     */
+    public static int readAlbumList2(ResponseBody body, Consumer<AlbumID3> consumer) throws IOException {
+        return read(body, "albumList2", reader -> {
+            int[] count = {0};
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("album".equals(reader.nextName())) {
+                    forEachElement(reader, () -> {
+                        AlbumID3 album = GSON.fromJson(reader, AlbumID3.class);
+                        if (album != null) {
+                            consumer.accept(album);
+                            count[0]++;
+                        }
+                    });
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return count[0];
+        });
+    }
+
+    private static int read(ResponseBody body, String container, ContainerReader containerReader) throws IOException {
+        if (body == null) throw new IOException("Empty response body");
+        try (Reader source = body.charStream(); JsonReader reader = new JsonReader(source)) {
+            reader.setLenient(true);
+            int count = -1;
+            boolean failed = false;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"subsonic-response".equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    if ("status".equals(name) && reader.peek() == JsonToken.STRING) {
+                        failed = "failed".equals(reader.nextString());
+                    } else if ("error".equals(name)) {
+                        Error error = GSON.fromJson(reader, Error.class);
+                        throw new IOException(error != null && error.getMessage() != null ? error.getMessage() : "Subsonic error");
+                    } else if (container.equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                        count = containerReader.read(reader);
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+            if (failed) throw new IOException("Subsonic request failed");
+            return count;
+        }
+    }
+
+    // Some servers collapse single-element arrays into a bare object.
+    private static void forEachElement(JsonReader reader, ElementReader elementReader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    elementReader.read();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endArray();
+        } else if (token == JsonToken.BEGIN_OBJECT) {
+            elementReader.read();
+        } else {
+            reader.skipValue();
+        }
+    }
+
+    private interface ContainerReader {
+        int read(JsonReader reader) throws IOException;
+    }
+
+    private interface ElementReader {
+        void read() throws IOException;
+    }
+}
@@ -0,0 +1,232 @@
+package one.chandan.rubato.sync;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.signature.EmptySignature;
+
+import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.glide.ForegroundImageLoads;
+import one.chandan.rubato.model.CoverArtPrefetchItem;
+import one.chandan.rubato.util.NetworkUtil;
+import one.chandan.rubato.util.OfflinePolicy;
+import one.chandan.rubato.util.Preferences;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads batches of queued cover art on a small pool. Files land in Glide's source cache under
+ * the same signature the UI uses, so a prefetched cover decodes from disk the first time it is shown.
+ * <p>
+ * Transfer is paced by a {@link TransferBudget}: a generous rate on unmetered networks, a trickle on
+ * metered ones and nothing at all in data-saving mode. New downloads are held back while the UI is
+ * loading images.
+ */
+public final class CoverArtPrefetchEngine {
+    private static final int MAX_CONCURRENCY = 8;
+    private static final long UNMETERED_BYTES_PER_SECOND = 4L * 1024 * 1024;
+    private static final long METERED_BYTES_PER_SECOND = 64L * 1024;
+    private static final long BURST_SECONDS = 2L;
+    private static final long DOWNLOAD_TIMEOUT_SECONDS = 60L;
+    private static final long THROUGHPUT_WINDOW_MS = 20_000L;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(1);
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(MAX_CONCURRENCY, runnable -> {
+        Thread thread = new Thread(runnable);
+        thread.setName("rubato-cover-prefetch-" + THREAD_COUNTER.getAndIncrement());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private static final CoverArtPrefetchEngine INSTANCE = new CoverArtPrefetchEngine();
+
+    private final TransferBudget budget = new TransferBudget(BURST_SECONDS);
+    private final ArrayDeque<long[]> completions = new ArrayDeque<>();
+
+    private CoverArtPrefetchEngine() {
+    }
+
+    public static CoverArtPrefetchEngine getInstance() {
+        return INSTANCE;
+    }
+
+    public static final class BatchResult {
+        public final List<String> completed = new ArrayList<>();
+        public final List<CoverArtPrefetchItem> failed = new ArrayList<>();
+        /** Items never started because the run stopped; they should be released back to the queue. */
+        public final List<String> skipped = new ArrayList<>();
+        public boolean stopped;
+    }
+
+    /**
+     * Downloads {@code batch}, blocking until every started download has finished. Stops early when
+     * the thread is interrupted, the network goes away or data saving is switched on.
+     */
+    public BatchResult download(Context context, List<CoverArtPrefetchItem> batch) {
+        Context appContext = context.getApplicationContext();
+        BatchResult result = new BatchResult();
+        CompletionService<Long> completion = new ExecutorCompletionService<>(WORKERS);
+        List<Future<Long>> futures = new ArrayList<>(batch.size());
+        int concurrency = Math.max(1, Math.min(MAX_CONCURRENCY, Preferences.getCoverArtPrefetchConcurrency()));
+        int next = 0;
+        int inFlight = 0;
+
+        while (next < batch.size() || inFlight > 0) {
+            while (!result.stopped && inFlight < concurrency && next < batch.size()) {
+                if (!awaitClearance()) {
+                    result.stopped = true;
+                    break;
+                }
+                CoverArtPrefetchItem item = batch.get(next++);
+                futures.add(completion.submit(() -> {
+                    long bytes = fetch(appContext, item);
+                    budget.consume(bytes);
+                    recordCompletion(bytes);
+                    return bytes;
+                }));
+                inFlight++;
+            }
+            if (inFlight == 0) break;
+            try {
+                completion.take();
+                inFlight--;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result.stopped = true;
+                // Downloads already running finish on their own; collect whatever is done below.
+                break;
+            }
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            CoverArtPrefetchItem item = batch.get(i);
+            if (i >= futures.size()) {
+                result.skipped.add(item.getKey());
+                continue;
+            }
+            Future<Long> future = futures.get(i);
+            if (!future.isDone()) {
+                // Left claimed; the claim times out and the item is picked up again by a later run.
+                continue;
+            }
+            try {
+                future.get();
+                result.completed.add(item.getKey());
+            } catch (ExecutionException | InterruptedException e) {
+                result.failed.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Covers downloaded per second over the last few seconds.
+     */
+    public synchronized double getItemsPerSecond() {
+        trimCompletions(System.currentTimeMillis());
+        return completions.size() * 1000.0 / THROUGHPUT_WINDOW_MS;
+    }
+
+    public synchronized long getBytesPerSecond() {
+        trimCompletions(System.currentTimeMillis());
+        long bytes = 0;
+        for (long[] completion : completions) {
+            bytes += completion[1];
+        }
+        return bytes * 1000 / THROUGHPUT_WINDOW_MS;
+    }
+
+    // Blocks until the UI is idle and the byte budget allows another download.
+    private boolean awaitClearance() {
+        try {
+            while (true) {
+                if (Thread.currentThread().isInterrupted()) return false;
+                if (Preferences.isDataSavingMode() || OfflinePolicy.isOffline()) return false;
+                long busyFor = ForegroundImageLoads.busyForMs();
+                if (busyFor > 0) {
+                    Thread.sleep(busyFor);
+                    continue;
+                }
+                budget.setRate(NetworkUtil.isMetered() ? METERED_BYTES_PER_SECOND : UNMETERED_BYTES_PER_SECOND);
+                if (budget.delayMs() > 0) {
+                    budget.await();
+                    continue;
+                }
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Returns the bytes pulled over the network; covers already in the disk cache cost nothing.
+    private static long fetch(Context context, CoverArtPrefetchItem item) throws Exception {
+        RequestBuilder<File> request;
+        if (CoverArtPrefetchQueue.KIND_URL.equals(item.getKind())) {
+            request = Glide.with(context)
+                    .downloadOnly()
+                    .load(item.getValue())
+                    .signature(EmptySignature.obtain());
+        } else {
+            String url = CustomGlideRequest.createUrl(item.getValue(), Preferences.getImageSize());
+            request = Glide.with(context)
+                    .downloadOnly()
+                    .load(url)
+                    .signature(CustomGlideRequest.createSignature(item.getValue()));
+        }
+        AtomicBoolean remote = new AtomicBoolean();
+        File file = request
+                .onlyRetrieveFromCache(false)
+                .priority(Priority.LOW)
+                .listener(new RequestListener<File>() {
+                    @Override
+                    public boolean onLoadFailed(@Nullable GlideException e, Object model, @NonNull Target<File> target, boolean isFirstResource) {
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onResourceReady(@NonNull File resource, @NonNull Object model, Target<File> target, @NonNull DataSource dataSource, boolean isFirstResource) {
+                        remote.set(dataSource == DataSource.REMOTE);
+                        return false;
+                    }
+                })
+                .submit()
+                .get(DOWNLOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return file != null && remote.get() ? file.length() : 0L;
+    }
+
+    private synchronized void recordCompletion(long bytes) {
+        long now = System.currentTimeMillis();
+        completions.addLast(new long[]{now, bytes});
+        trimCompletions(now);
+    }
+
+    private void trimCompletions(long now) {
+        while (!completions.isEmpty() && now - completions.peekFirst()[0] > THROUGHPUT_WINDOW_MS) {
+            completions.pollFirst();
+        }
+    }
+}
@@ -9,152 +9,125 @@ import androidx.work.OneTimeWorkRequest
 import androidx.work.WorkManager
 import com.google.gson.Gson
 import com.google.gson.reflect.TypeToken
-import java.util.LinkedHashMap
 import java.util.concurrent.TimeUnit
 import one.chandan.rubato.App
+import one.chandan.rubato.database.AppDatabase
 import one.chandan.rubato.glide.CustomGlideRequest
-import one.chandan.rubato.util.CoverArtPrefetcher
+import one.chandan.rubato.model.CoverArtPrefetchItem
 import one.chandan.rubato.util.MetadataSyncManager
 import one.chandan.rubato.util.Preferences
 
+/**
+ * Persistent cover art work queue backed by the `cover_art_prefetch` table. Items are claimed in
+ * priority order in small batches; failures back off exponentially and are dropped after a few attempts.
+ */
 object CoverArtPrefetchQueue {
-    private const val PREF_KEY_QUEUE = "cover_art_prefetch_queue"
-    private const val PREF_KEY_TOTAL = "cover_art_prefetch_total"
+    const val PRIORITY_RECENT = 1
+    const val PRIORITY_BULK = 2
+    const val KIND_ID = "id"
+    const val KIND_URL = "url"
+
+    private const val LEGACY_PREF_KEY_QUEUE = "cover_art_prefetch_queue"
+    private const val LEGACY_PREF_KEY_TOTAL = "cover_art_prefetch_total"
+    private const val PREF_KEY_DONE = "cover_art_prefetch_done"
     private const val WORK_NAME = "cover_art_prefetch_queue"
-    private const val MAX_QUEUE = 3000
-    private const val MAX_ATTEMPTS = 3
-    private const val THROTTLE_MS = 35L
-    private const val LOG_INTERVAL = 25
-    private val gson = Gson()
-    private val queueType = object : TypeToken<List<Item>>() {}.type
-    private val lock = Any()
-
-    data class Item(
+    private const val MAX_ATTEMPTS = 5
+    private const val CLAIM_BATCH = 50
+    private const val KEY_CHUNK = 500
+    private const val BASE_BACKOFF_MS = 30_000L
+    // A claim older than this belongs to a run that died mid-batch.
+    private const val CLAIM_TIMEOUT_MS = 10 * 60 * 1000L
+
+    private val dao get() = AppDatabase.getInstance().coverArtPrefetchDao()
+
+    private data class LegacyItem(
         val kind: String,
         val value: String,
         val resourceType: String? = null,
         val attempts: Int = 0
-    ) {
-        fun key(): String {
-            return if (kind == KIND_URL) {
-                "url:$value"
-            } else {
-                "id:${resourceType ?: ""}:$value"
-            }
-        }
-    }
+    )
 
     @JvmStatic
     fun enqueue(context: Context?, coverArtIds: Set<String>?, coverArtUrls: Set<String>?) {
+        enqueue(context, coverArtIds, coverArtUrls, PRIORITY_BULK)
+    }
+
+    /**
+     * Adds items at [priority]; items already queued keep their state but move up if [priority] is more urgent.
+     */
+    @JvmStatic
+    fun enqueue(context: Context?, coverArtIds: Collection<String>?, coverArtUrls: Collection<String>?, priority: Int) {
         if (context == null) return
         if (Preferences.isDataSavingMode()) {
             return
         }
-        val items = buildItems(coverArtIds, coverArtUrls)
+        val items = buildItems(coverArtIds, coverArtUrls, priority)
         if (items.isEmpty()) return
 
-        synchronized(lock) {
-            val prefs = App.getInstance().preferences
-            val existing = loadQueue(prefs)
-            val beforeSize = existing.size
-            val existingTotal = prefs.getInt(PREF_KEY_TOTAL, 0)
-            val doneBefore = if (existingTotal > 0) {
-                (existingTotal - beforeSize).coerceAtLeast(0)
-            } else {
-                0
-            }
-            val merged = LinkedHashMap<String, Item>(beforeSize + items.size)
-            for (item in existing) {
-                merged[item.key()] = item
+        migrateLegacyQueue()
+        val dao = dao
+        AppDatabase.getInstance().runInTransaction {
+            for (chunk in items.chunked(KEY_CHUNK)) {
+                dao.insertAll(chunk)
+                dao.raisePriority(chunk.map { it.key }, priority)
             }
-            for (item in items) {
-                merged.putIfAbsent(item.key(), item)
-            }
-            val trimmed = merged.values.take(MAX_QUEUE).toMutableList()
-            val added = (trimmed.size - beforeSize).coerceAtLeast(0)
-            var total = existingTotal
-            val maxAllowed = doneBefore + MAX_QUEUE
-            if (total <= 0 || total < beforeSize || total > maxAllowed) {
-                total = doneBefore + trimmed.size
-            } else if (added > 0) {
-                total += added
-            }
-            saveQueue(prefs, trimmed, total)
-            val done = (total - trimmed.size).coerceAtLeast(0)
-            Preferences.setMetadataSyncCoverArtProgress(done, total)
         }
+        publishProgress()
 
         schedule(context)
     }
 
+    /**
+     * Works through every item that is ready now and returns how many are still queued. Stops early
+     * when [CoverArtPrefetchEngine] can no longer download (offline, data saving, cancelled).
+     */
     @JvmStatic
     fun processQueue(context: Context?): Int {
         if (context == null) return 0
-        val prefs = App.getInstance().preferences
-        val queue: List<Item>
-        var total: Int
-
-        synchronized(lock) {
-            queue = loadQueue(prefs)
-            total = prefs.getInt(PREF_KEY_TOTAL, 0)
-            if (total <= 0) total = queue.size
-            if (queue.isEmpty()) {
-                saveQueue(prefs, emptyList(), 0)
-                Preferences.setMetadataSyncCoverArtProgress(0, 0)
-                return 0
-            }
-        }
+        migrateLegacyQueue()
+        val dao = dao
+        val engine = CoverArtPrefetchEngine.getInstance()
 
-        var processed = 0
-        var dropped = 0
-        val remaining = ArrayList<Item>()
-        for (item in queue) {
-            try {
-                if (item.kind == KIND_URL) {
-                    CoverArtPrefetcher.prefetchUrl(context, item.value)
-                } else {
-                    val typeName = item.resourceType ?: CustomGlideRequest.ResourceType.Album.name
-                    val type = CustomGlideRequest.ResourceType.valueOf(typeName)
-                    CoverArtPrefetcher.prefetch(context, item.value, type)
-                }
-                processed++
-            } catch (ex: Exception) {
+        while (true) {
+            val now = System.currentTimeMillis()
+            val batch = dao.claim(now, now - CLAIM_TIMEOUT_MS, CLAIM_BATCH)
+            if (batch.isEmpty()) break
+
+            val result = engine.download(context, batch)
+            for (item in result.failed) {
                 val nextAttempts = item.attempts + 1
                 if (nextAttempts < MAX_ATTEMPTS) {
-                    remaining.add(item.copy(attempts = nextAttempts))
+                    val backoff = BASE_BACKOFF_MS shl (2 * (nextAttempts - 1))
+                    dao.reschedule(item.key, nextAttempts, System.currentTimeMillis() + backoff)
                 } else {
-                    dropped++
+                    dao.delete(listOf(item.key))
                 }
             }
-
-            if (processed % LOG_INTERVAL == 0) {
-                val currentDone = (total - remaining.size - (queue.size - processed)).coerceAtLeast(0)
-                Preferences.setMetadataSyncCoverArtProgress(currentDone, total)
+            if (result.skipped.isNotEmpty()) {
+                dao.release(result.skipped)
             }
 
-            if (THROTTLE_MS > 0) {
-                try {
-                    Thread.sleep(THROTTLE_MS)
-                } catch (ignored: InterruptedException) {
-                    Thread.currentThread().interrupt()
-                }
+            val completed = result.completed
+            if (completed.isNotEmpty()) {
+                dao.delete(completed)
+                addDone(completed.size)
             }
+            publishProgress()
+            if (result.stopped || Thread.currentThread().isInterrupted) break
         }
 
-        synchronized(lock) {
-            val adjustedTotal = (total - dropped).coerceAtLeast(0)
-            saveQueue(prefs, remaining, adjustedTotal)
-            val done = (adjustedTotal - remaining.size).coerceAtLeast(0)
-            Preferences.setMetadataSyncCoverArtProgress(done, adjustedTotal)
-            if (remaining.isEmpty()) {
-                Preferences.appendMetadataSyncLog(
-                    "Cover art cached ($done)",
-                    MetadataSyncManager.STAGE_COVER_ART,
-                    true
-                )
-            }
-            return remaining.size
+        val remaining = dao.count()
+        publishProgress()
+        if (remaining == 0) {
+            val done = App.getInstance().preferences.getInt(PREF_KEY_DONE, 0)
+            Preferences.appendMetadataSyncLog(
+                "Cover art cached ($done)",
+                MetadataSyncManager.STAGE_COVER_ART,
+                true
+            )
+            App.getInstance().preferences.edit().remove(PREF_KEY_DONE).apply()
         }
+        return remaining
     }
 
     @JvmStatic
@@ -174,43 +147,65 @@ object CoverArtPrefetchQueue {
         )
     }
 
-    private fun loadQueue(prefs: android.content.SharedPreferences): MutableList<Item> {
-        val json = prefs.getString(PREF_KEY_QUEUE, null) ?: return mutableListOf()
-        return try {
-            gson.fromJson<List<Item>>(json, queueType)?.toMutableList() ?: mutableListOf()
-        } catch (ex: Exception) {
-            mutableListOf()
-        }
+    private fun publishProgress() {
+        val done = App.getInstance().preferences.getInt(PREF_KEY_DONE, 0)
+        val pending = dao.count()
+        Preferences.setMetadataSyncCoverArtProgress(done, done + pending)
     }
 
-    private fun saveQueue(prefs: android.content.SharedPreferences, items: List<Item>, total: Int) {
-        val editor = prefs.edit()
-        if (items.isEmpty()) {
-            editor.remove(PREF_KEY_QUEUE)
-        } else {
-            editor.putString(PREF_KEY_QUEUE, gson.toJson(items))
+    @Synchronized
+    private fun addDone(count: Int) {
+        val prefs = App.getInstance().preferences
+        prefs.edit().putInt(PREF_KEY_DONE, prefs.getInt(PREF_KEY_DONE, 0) + count).apply()
+    }
+
+    // One-time move of the old SharedPreferences JSON queue into Room.
+    @Synchronized
+    private fun migrateLegacyQueue() {
+        val prefs = App.getInstance().preferences
+        val json = prefs.getString(LEGACY_PREF_KEY_QUEUE, null)
+        if (json != null) {
+            val legacy: List<LegacyItem>? = try {
+                Gson().fromJson(json, object : TypeToken<List<LegacyItem>>() {}.type)
+            } catch (ex: Exception) {
+                null
+            }
+            if (!legacy.isNullOrEmpty()) {
+                val now = System.currentTimeMillis()
+                dao.insertAll(legacy.map {
+                    CoverArtPrefetchItem(keyOf(it.kind, it.value, it.resourceType), it.kind, it.value, it.resourceType, PRIORITY_BULK, it.attempts, 0, 0, now)
+                })
+            }
+        }
+        if (json != null || prefs.contains(LEGACY_PREF_KEY_TOTAL)) {
+            prefs.edit().remove(LEGACY_PREF_KEY_QUEUE).remove(LEGACY_PREF_KEY_TOTAL).apply()
         }
-        editor.putInt(PREF_KEY_TOTAL, total)
-        editor.apply()
     }
 
-    private fun buildItems(coverArtIds: Set<String>?, coverArtUrls: Set<String>?): List<Item> {
-        val items = ArrayList<Item>()
+    private fun buildItems(coverArtIds: Collection<String>?, coverArtUrls: Collection<String>?, priority: Int): List<CoverArtPrefetchItem> {
+        val now = System.currentTimeMillis()
+        val items = ArrayList<CoverArtPrefetchItem>()
         if (coverArtIds != null) {
+            val type = CustomGlideRequest.ResourceType.Album.name
             for (id in coverArtIds) {
                 if (id.isNullOrEmpty()) continue
-                items.add(Item(KIND_ID, id, CustomGlideRequest.ResourceType.Album.name))
+                items.add(CoverArtPrefetchItem(keyOf(KIND_ID, id, type), KIND_ID, id, type, priority, enqueuedAt = now))
             }
         }
         if (coverArtUrls != null) {
             for (url in coverArtUrls) {
                 if (url.isNullOrEmpty()) continue
-                items.add(Item(KIND_URL, url))
+                items.add(CoverArtPrefetchItem(keyOf(KIND_URL, url, null), KIND_URL, url, null, priority, enqueuedAt = now))
             }
         }
         return items
     }
 
-    private const val KIND_ID = "id"
-    private const val KIND_URL = "url"
+    private fun keyOf(kind: String, value: String, resourceType: String?): String {
+        return if (kind == KIND_URL) {
+            "url:$value"
+        } else {
+            "id:${resourceType ?: ""}:$value"
+        }
+    }
 }
@@ -68,7 +68,7 @@ public final class JellyfinSyncProvider {
                         }
                     }
                 }
-                searchIndexRepository.replaceSource(SearchIndexUtil.SOURCE_JELLYFIN, entries);
+                searchIndexRepository.replaceSource(SearchIndexUtil.SOURCE_JELLYFIN, entries, MetadataSyncManager.indexLogger(MetadataSyncManager.STAGE_JELLYFIN));
                 logSync(MetadataSyncManager.STAGE_JELLYFIN, "Jellyfin cached (" + entries.size() + ")", true);
                 didWork = true;
             }
@@ -3,6 +3,7 @@ package one.chandan.rubato.sync;
 import android.content.Context;
 
 import one.chandan.rubato.model.LibrarySearchEntry;
+import one.chandan.rubato.repository.CatalogRepository;
 import one.chandan.rubato.repository.LibrarySearchIndexRepository;
 import one.chandan.rubato.repository.LocalMusicRepository;
 import one.chandan.rubato.util.MetadataSyncManager;
@@ -28,7 +29,8 @@ public final class LocalSyncProvider {
     public static boolean sync(Context context, LibrarySearchIndexRepository searchIndexRepository, SyncMode mode) {
         if (context == null || searchIndexRepository == null) return false;
         if (!LocalMusicRepository.isEnabled(context)) {
-            searchIndexRepository.replaceSource(SearchIndexUtil.SOURCE_LOCAL, Collections.emptyList());
+            searchIndexRepository.replaceSource(SearchIndexUtil.SOURCE_LOCAL, Collections.emptyList(), MetadataSyncManager.indexLogger(MetadataSyncManager.STAGE_LOCAL));
+            new CatalogRepository().clearScope(CatalogRepository.SCOPE_LOCAL);
             logSync("Local library disabled; cleared index", true);
             Preferences.setMetadataSyncLocalLast(System.currentTimeMillis());
             return false;
@@ -36,6 +38,8 @@ public final class LocalSyncProvider {
 
         Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_LOCAL, 0, -1);
         logSync("Syncing local library", false);
+        // Folder walks finish in the background; their changes land in a later sync.
+        LocalMusicRepository.rescanDocuments(context);
 
         CountDownLatch latch = new CountDownLatch(1);
         LocalMusicRepository.LocalLibrary[] holder = new LocalMusicRepository.LocalLibrary[1];
@@ -74,7 +78,12 @@ public final class LocalSyncProvider {
                 library.songs,
                 null
         );
-        searchIndexRepository.replaceSource(SearchIndexUtil.SOURCE_LOCAL, entries);
+        searchIndexRepository.replaceSource(SearchIndexUtil.SOURCE_LOCAL, entries, MetadataSyncManager.indexLogger(MetadataSyncManager.STAGE_LOCAL));
+        CatalogRepository catalogRepository = new CatalogRepository();
+        catalogRepository.replaceArtists(CatalogRepository.SCOPE_LOCAL, library.artists);
+        catalogRepository.replaceAlbums(CatalogRepository.SCOPE_LOCAL, library.albums);
+        catalogRepository.replaceSongs(CatalogRepository.SCOPE_LOCAL, library.songs);
+        catalogRepository.replaceGenres(CatalogRepository.SCOPE_LOCAL, library.genres);
         Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_LOCAL, entries.size(), entries.size());
         logSync("Local library cached (" + entries.size() + ")", true);
         Preferences.setMetadataSyncLocalLast(now);
@@ -91,6 +100,8 @@ public final class LocalSyncProvider {
 
     private static String buildSignature(LocalMusicRepository.LocalLibrary library) {
         if (library == null) return null;
+        // The scanner's revision moves on every added, changed or removed file.
+        if (library.signature != null) return library.signature;
         int songs = library.songs != null ? library.songs.size() : 0;
         int albums = library.albums != null ? library.albums.size() : 0;
         int artists = library.artists != null ? library.artists.size() : 0;
@@ -0,0 +1,20 @@
+package one.chandan.rubato.sync
+
+import android.content.Context
+import androidx.work.Worker
+import androidx.work.WorkerParameters
+import one.chandan.rubato.util.OfflinePolicy
+import one.chandan.rubato.util.Preferences
+
+class LyricsPrefetchWorker(
+    context: Context,
+    params: WorkerParameters
+) : Worker(context, params) {
+    override fun doWork(): Result {
+        if (!Preferences.isOpenSubsonic()) return Result.success()
+        if (OfflinePolicy.isOffline()) return Result.retry()
+        if (Preferences.isDataSavingMode()) return Result.retry()
+        val finished = LyricsPrefetcher.prefetch { isStopped }
+        return if (finished) Result.success() else Result.retry()
+    }
+}
@@ -0,0 +1,230 @@
+package one.chandan.rubato.sync
+
+import android.content.Context
+import androidx.work.BackoffPolicy
+import androidx.work.Constraints
+import androidx.work.ExistingWorkPolicy
+import androidx.work.NetworkType
+import androidx.work.OneTimeWorkRequest
+import androidx.work.WorkManager
+import com.google.gson.Gson
+import java.io.IOException
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorCompletionService
+import java.util.concurrent.TimeUnit
+import one.chandan.rubato.App
+import one.chandan.rubato.database.AppDatabase
+import one.chandan.rubato.model.CachedResponse
+import one.chandan.rubato.model.LyricsState
+import one.chandan.rubato.repository.CatalogRepository
+import one.chandan.rubato.repository.LocalMusicRepository
+import one.chandan.rubato.subsonic.models.LyricsList
+import one.chandan.rubato.util.MetadataSyncManager
+import one.chandan.rubato.util.OfflinePolicy
+import one.chandan.rubato.util.Preferences
+import one.chandan.rubato.util.SearchIndexUtil
+
+/**
+ * Fills the lyrics cache in the background, one batch at a time. Songs are visited in priority order
+ * (play queue, recently played, downloads, then the rest of the catalog) and skipped while their last
+ * lookup in `lyrics_state` is fresh, so songs without lyrics are not asked for again on every run.
+ */
+object LyricsPrefetcher {
+    // Found lyrics rarely change; misses are retried sooner in case the server picks some up.
+    const val FOUND_TTL_MS = 30L * 24 * 60 * 60 * 1000
+    const val MISSING_TTL_MS = 7L * 24 * 60 * 60 * 1000
+
+    private const val WORK_NAME = "lyrics_prefetch"
+    private const val CACHE_KEY_PREFIX = "lyrics_song_"
+    private const val FETCH_BATCH = 50
+    private const val PAGE_SIZE = 500
+    private const val RECENT_LIMIT = 200
+    private const val NETWORK_TIMEOUT_SECONDS = 20L
+
+    private val dao get() = AppDatabase.getInstance().lyricsStateDao()
+    private val gson = Gson()
+
+    private class Lookup(val songId: String, val lyrics: LyricsList?)
+
+    @JvmStatic
+    fun cacheKey(songId: String): String = CACHE_KEY_PREFIX + songId
+
+    @JvmStatic
+    fun schedule(context: Context?) {
+        if (context == null) return
+        val constraints = Constraints.Builder()
+            .setRequiredNetworkType(NetworkType.CONNECTED)
+            .setRequiresBatteryNotLow(true)
+            .build()
+        val request = OneTimeWorkRequest.Builder(LyricsPrefetchWorker::class.java)
+            .setConstraints(constraints)
+            .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 15, TimeUnit.MINUTES)
+            .build()
+        WorkManager.getInstance(context).enqueueUniqueWork(
+            WORK_NAME,
+            ExistingWorkPolicy.KEEP,
+            request
+        )
+    }
+
+    /**
+     * True when the last lookup for [songId] found no lyrics and is recent enough to trust.
+     */
+    @JvmStatic
+    fun isKnownMissing(songId: String?): Boolean {
+        if (songId.isNullOrEmpty()) return false
+        val state = dao.get(songId) ?: return false
+        return !state.hasLyrics && System.currentTimeMillis() - state.checkedAt < MISSING_TTL_MS
+    }
+
+    /**
+     * True when the last lookup for [songId] found lyrics, is within [FOUND_TTL_MS] and the lyrics
+     * are still in the cache, so opening the song needs no request.
+     */
+    @JvmStatic
+    fun isCachedFresh(songId: String?): Boolean {
+        if (songId.isNullOrEmpty()) return false
+        val state = dao.get(songId) ?: return false
+        if (!state.hasLyrics || System.currentTimeMillis() - state.checkedAt >= FOUND_TTL_MS) return false
+        return AppDatabase.getInstance().cachedResponseDao().getPayloadSize(cacheKey(songId)) != null
+    }
+
+    @JvmStatic
+    fun record(songId: String?, lyrics: LyricsList?) {
+        if (songId.isNullOrEmpty()) return
+        dao.upsertAll(listOf(LyricsState(songId, hasLyrics(lyrics), System.currentTimeMillis())))
+    }
+
+    /**
+     * Looks up every song that is due and returns false when it had to stop early (offline, data
+     * saving, [isStopped]) so the caller can retry later.
+     */
+    @JvmStatic
+    fun prefetch(isStopped: () -> Boolean): Boolean {
+        if (!canFetch()) return false
+        val catalog = CatalogRepository()
+        val total = catalog.countSongs(CatalogRepository.SCOPE_SUBSONIC)
+        if (total <= 0) {
+            Preferences.setMetadataSyncLyricsProgress(0, 0)
+            return true
+        }
+
+        val scheduler = SyncRequestScheduler.forServer(Preferences.getServerId())
+        // Only priority ids are remembered; catalog pages never repeat an id.
+        val visited = HashSet<String>()
+        var done = 0
+        var cached = 0
+        var stopped = false
+
+        fun visit(ids: List<String>, remember: Boolean) {
+            val due = ArrayList<String>()
+            for (id in ids) {
+                if (id.isEmpty() || !isSubsonicSong(id)) continue
+                val seen = if (remember) !visited.add(id) else id in visited
+                if (seen) continue
+                due.add(id)
+            }
+            if (due.isEmpty()) return
+            val now = System.currentTimeMillis()
+            val fresh = HashSet(dao.getFreshIds(due, now - FOUND_TTL_MS, now - MISSING_TTL_MS))
+            for (batch in due.filterNot { it in fresh }.chunked(FETCH_BATCH)) {
+                if (isStopped() || !canFetch()) {
+                    stopped = true
+                    return
+                }
+                cached += fetchBatch(scheduler, batch)
+            }
+        }
+
+        Preferences.setMetadataSyncLyricsProgress(0, total)
+        Preferences.appendMetadataSyncLog("Prefetching lyrics", MetadataSyncManager.STAGE_LYRICS, false)
+
+        val db = AppDatabase.getInstance()
+        val priority = ArrayList<String>()
+        db.queueDao().getAllSimple().mapTo(priority) { it.id }
+        db.chronologyDao().getLastPlayedSimple(Preferences.getServerId(), RECENT_LIMIT).mapTo(priority) { it.id }
+        priority.addAll(db.downloadDao().getCompletedIds())
+        for (chunk in priority.chunked(PAGE_SIZE)) {
+            visit(chunk, true)
+            if (stopped) break
+        }
+
+        if (!stopped) {
+            // Song ids are paged out of the catalog so the whole library is never held at once.
+            catalog.forEachSongIdPage(CatalogRepository.SCOPE_SUBSONIC, PAGE_SIZE) { ids ->
+                if (stopped) return@forEachSongIdPage
+                visit(ids, false)
+                done = minOf(total, done + ids.size)
+                Preferences.setMetadataSyncLyricsProgress(done, total)
+            }
+        }
+
+        if (stopped) return false
+        Preferences.setMetadataSyncLyricsProgress(total, total)
+        Preferences.appendMetadataSyncLog("Lyrics cached ($cached)", MetadataSyncManager.STAGE_LYRICS, true)
+        return true
+    }
+
+    // Fetches one batch through the sync scheduler and stores it in a single transaction.
+    private fun fetchBatch(scheduler: SyncRequestScheduler, songIds: List<String>): Int {
+        val completion = ExecutorCompletionService<Lookup?>(scheduler)
+        for (songId in songIds) {
+            completion.submit { fetch(songId) }
+        }
+        val lookups = ArrayList<Lookup>(songIds.size)
+        repeat(songIds.size) {
+            try {
+                completion.take().get()?.let { lookups.add(it) }
+            } catch (ex: ExecutionException) {
+                // Network or server trouble: leave the song unrecorded so the next run asks again.
+            } catch (ex: InterruptedException) {
+                Thread.currentThread().interrupt()
+                return 0
+            }
+        }
+        if (lookups.isEmpty()) return 0
+
+        val now = System.currentTimeMillis()
+        val responses = ArrayList<CachedResponse>()
+        val states = ArrayList<LyricsState>(lookups.size)
+        for (lookup in lookups) {
+            val found = hasLyrics(lookup.lyrics)
+            if (found) {
+                responses.add(CachedResponse(cacheKey(lookup.songId), gson.toJson(lookup.lyrics), now))
+            }
+            states.add(LyricsState(lookup.songId, found, now))
+        }
+        val db = AppDatabase.getInstance()
+        db.runInTransaction {
+            if (responses.isNotEmpty()) db.cachedResponseDao().insertAll(responses)
+            dao.upsertAll(states)
+        }
+        return responses.size
+    }
+
+    private fun fetch(songId: String): Lookup? {
+        val call = App.getSubsonicClientInstance(false).openClient.getLyricsBySongId(songId)
+        call.timeout().timeout(NETWORK_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+        val response = call.execute()
+        if (response.code() == 429 || response.code() >= 500) {
+            throw IOException("HTTP " + response.code())
+        }
+        if (!response.isSuccessful) return null
+        val body = response.body() ?: return null
+        return Lookup(songId, body.subsonicResponse.lyricsList)
+    }
+
+    private fun hasLyrics(lyrics: LyricsList?): Boolean {
+        return lyrics?.structuredLyrics?.any { !it.line.isNullOrEmpty() } == true
+    }
+
+    private fun isSubsonicSong(songId: String): Boolean {
+        return !SearchIndexUtil.isJellyfinTagged(songId) && !LocalMusicRepository.isLocalSongId(songId)
+    }
+
+    private fun canFetch(): Boolean {
+        return !OfflinePolicy.isOffline()
+                && !Preferences.isDataSavingMode()
+                && Preferences.isOpenSubsonic()
+    }
+}
@@ -21,7 +21,8 @@ public class MetadataSyncWorker extends Worker {
         if (OfflinePolicy.isOffline() || Preferences.isDataSavingMode()) {
             return Result.retry();
         }
-        MetadataSyncManager.runSyncNow(getApplicationContext(), false);
+        // An interrupted run resumes right away instead of waiting out the sync interval.
+        MetadataSyncManager.runSyncIfDue(getApplicationContext());
         return Result.success();
     }
 }
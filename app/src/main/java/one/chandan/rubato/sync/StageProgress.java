@@ -0,0 +1,68 @@
+package one.chandan.rubato.sync;
+
+import one.chandan.rubato.util.Preferences;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lets stages that run at the same time share the single progress slot in {@link Preferences}.
+ * Each stage reports through its own {@link Lane}; only the oldest open lane that has reported
+ * writes the slot. The others keep their latest numbers and take over, in the order they were
+ * opened, once it closes, so "x of y" always describes one stage.
+ */
+final class StageProgress {
+    private final List<Lane> lanes = new ArrayList<>();
+
+    synchronized Lane open() {
+        Lane lane = new Lane();
+        lanes.add(lane);
+        return lane;
+    }
+
+    private synchronized void report(Lane lane, String stage, int current, int total) {
+        lane.stage = stage;
+        lane.current = current;
+        lane.total = total;
+        if (owner() == lane) {
+            publish(lane);
+        }
+    }
+
+    private synchronized void close(Lane lane) {
+        boolean owned = owner() == lane;
+        lanes.remove(lane);
+        Lane next = owner();
+        if (owned && next != null) {
+            publish(next);
+        }
+    }
+
+    private Lane owner() {
+        for (Lane lane : lanes) {
+            if (lane.stage != null) return lane;
+        }
+        return null;
+    }
+
+    private static void publish(Lane lane) {
+        Preferences.setMetadataSyncProgress(lane.stage, lane.current, lane.total);
+    }
+
+    final class Lane {
+        private String stage;
+        private int current;
+        private int total;
+
+        private Lane() {
+        }
+
+        void report(String stage, int current, int total) {
+            StageProgress.this.report(this, stage, current, total);
+        }
+
+        void close() {
+            StageProgress.this.close(this);
+        }
+    }
+}
@@ -3,8 +3,12 @@ package one.chandan.rubato.sync;
 import android.content.Context;
 
 import one.chandan.rubato.App;
+import one.chandan.rubato.model.SyncCheckpoint;
 import one.chandan.rubato.repository.CacheRepository;
+import one.chandan.rubato.repository.CatalogRepository;
 import one.chandan.rubato.repository.LibrarySearchIndexRepository;
+import one.chandan.rubato.repository.SyncCheckpointRepository;
+import one.chandan.rubato.repository.SyncJournalRepository;
 import one.chandan.rubato.subsonic.base.ApiResponse;
 import one.chandan.rubato.subsonic.models.AlbumID3;
 import one.chandan.rubato.subsonic.models.AlbumInfo;
@@ -13,21 +17,24 @@ import one.chandan.rubato.subsonic.models.ArtistID3;
 import one.chandan.rubato.subsonic.models.ArtistInfo2;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.subsonic.models.Genre;
-import one.chandan.rubato.subsonic.models.IndexID3;
 import one.chandan.rubato.subsonic.models.Playlist;
 import one.chandan.rubato.subsonic.models.ScanStatus;
+import one.chandan.rubato.subsonic.utils.SubsonicStreamReader;
+import one.chandan.rubato.util.AppExecutors;
 import one.chandan.rubato.util.MetadataSyncManager;
 import one.chandan.rubato.util.OfflinePolicy;
 import one.chandan.rubato.util.Preferences;
 import one.chandan.rubato.util.SearchIndexBuilder;
 import one.chandan.rubato.util.SearchIndexUtil;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
@@ -36,12 +43,15 @@ import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Response;
 
 public final class SubsonicSyncProvider {
     private static final int ALBUM_PAGE_SIZE = 500;
-    private static final int PARALLELISM = 4;
+    private static final int ARTIST_BATCH_SIZE = 500;
+    private static final int INDEX_BATCH_SIZE = 1000;
+    private static final int CHECKPOINT_BATCH_SIZE = 25;
     private static final int LOG_INTERVAL_SMALL = 10;
     private static final int LOG_INTERVAL_MEDIUM = 25;
     private static final int LOG_INTERVAL_LARGE = 50;
@@ -59,7 +69,11 @@ public final class SubsonicSyncProvider {
         }
         long now = System.currentTimeMillis();
         String signature = fetchLibrarySignature();
+        String scope = CatalogRepository.SCOPE_SUBSONIC;
+        SyncCheckpointRepository checkpointRepository = new SyncCheckpointRepository();
+        boolean pending = mode == SyncMode.DELTA && checkpointRepository.hasPending(scope);
         if (mode == SyncMode.DELTA
+                && !pending
                 && signature != null
                 && signature.equals(Preferences.getMetadataSyncSubsonicSignature())
                 && !SyncDeltaPolicy.shouldForceFull(Preferences.getMetadataSyncSubsonicFull())) {
@@ -70,191 +84,429 @@ public final class SubsonicSyncProvider {
         if (mode == SyncMode.DELTA && signature == null) {
             logSync(MetadataSyncManager.STAGE_PREPARING, "Subsonic signature unavailable; forcing full sync", false);
         }
+        boolean incremental = mode == SyncMode.DELTA
+                && signature != null
+                && !SyncDeltaPolicy.shouldForceFull(Preferences.getMetadataSyncSubsonicFull());
+
+        // A run interrupted by process death picks up its cursors, mode and prune stamp from here.
+        SyncCheckpoint checkpoint = checkpointRepository.open(scope, now, incremental, signature, mode == SyncMode.FULL);
+        boolean resumed = checkpoint.getStartedAt() != now;
+        long syncStartedAt = checkpoint.getStartedAt();
+        if (resumed) {
+            incremental = checkpoint.getIncremental();
+            logSync(MetadataSyncManager.STAGE_PREPARING, "Resuming Subsonic sync from checkpoint", false);
+        }
 
-        List<Playlist> playlists = syncPlaylists(cacheRepository);
+        CatalogRepository catalogRepository = new CatalogRepository();
+        SyncJournalRepository journalRepository = new SyncJournalRepository();
+        SyncRequestScheduler scheduler = SyncRequestScheduler.forServer(Preferences.getServerId());
+        // Entities go into the search index as each response is parsed instead of in one list at the end.
+        LibrarySearchIndexRepository.SourceWriter indexWriter = searchIndexRepository.openSource(SearchIndexUtil.SOURCE_SUBSONIC);
+        SyncRun run = new SyncRun(context, cacheRepository, catalogRepository, journalRepository, checkpointRepository,
+                scheduler, indexWriter, checkpoint, scope, syncStartedAt, incremental, resumed, result);
+
+        // Playlists, artists, genres and albums don't depend on each other, so their stages overlap and
+        // share the scheduler's request window; only the cleanup below waits for all of them.
+        ExecutorService stages = AppExecutors.io();
+        StageProgress progress = new StageProgress();
+        StageProgress.Lane playlistLane = progress.open();
+        StageProgress.Lane artistLane = progress.open();
+        StageProgress.Lane genreLane = progress.open();
+        StageProgress.Lane albumLane = progress.open();
+        Future<List<Playlist>> playlistStage = submitStage(stages, playlistLane, () -> syncPlaylistStage(run, playlistLane));
+        Future<List<ArtistID3>> artistStage = submitStage(stages, artistLane, () -> syncArtistStage(run, artistLane));
+        Future<?> genreStage = submitStage(stages, genreLane, () -> {
+            syncGenres(catalogRepository, genreLane);
+            return null;
+        });
+        Future<AlbumListing> albumStage = submitStage(stages, albumLane, () -> syncAlbumStage(run, albumLane));
+
+        List<Playlist> playlists = awaitStage(playlistStage, null);
+        List<ArtistID3> artists = awaitStage(artistStage, null);
+        awaitStage(genreStage, null);
+        AlbumListing albumListing = awaitStage(albumStage, new AlbumListing());
+        List<AlbumID3> albums = albumListing.albums;
         if (playlists != null) {
             result.didWork = true;
             result.playlists = playlists;
-            for (Playlist playlist : playlists) {
-                if (playlist != null) {
-                    syncPlaylistSongs(cacheRepository, playlist.getId());
-                    if (playlist.getCoverArtId() != null) {
-                        result.coverArtIds.add(playlist.getCoverArtId());
-                    }
-                }
-            }
         }
-
-        List<ArtistID3> artists = syncArtists(cacheRepository);
         if (artists != null) {
             result.didWork = true;
             result.artists = artists;
-            List<ArtistID3> artistItems = new ArrayList<>();
-            for (ArtistID3 artist : artists) {
-                if (artist != null) artistItems.add(artist);
-            }
-            int artistTotal = artistItems.size();
-            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_ARTIST_DETAILS, 0, artistTotal);
-            if (artistTotal > 0) {
-                ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM);
-                CompletionService<ArtistDetailsResult> completion = new ExecutorCompletionService<>(executor);
-                for (ArtistID3 artist : artistItems) {
-                    completion.submit(() -> new ArtistDetailsResult(artist, syncArtistDetails(context, cacheRepository, artist)));
-                }
-                int artistIndex = 0;
-                try {
-                    for (int i = 0; i < artistTotal; i++) {
-                        Future<ArtistDetailsResult> future = completion.take();
-                        ArtistDetailsResult resultItem;
-                        try {
-                            resultItem = future.get();
-                        } catch (Exception ex) {
-                            continue;
-                        }
-                        artistIndex++;
-                        ArtistID3 artist = resultItem.artist;
-                        if (artist != null && artist.getCoverArtId() != null) {
-                            result.coverArtIds.add(artist.getCoverArtId());
-                        }
-                        collectInfoUrls(resultItem.info, result.coverArtUrls);
-                        String name = artist != null && artist.getName() != null ? artist.getName() : (artist != null ? artist.getId() : null);
-                        logProgress(MetadataSyncManager.STAGE_ARTIST_DETAILS, artistIndex, artistTotal, "Artist details: " + name, LOG_INTERVAL_MEDIUM);
-                        if (artistIndex % 10 == 0 || artistIndex == artistTotal) {
-                            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_ARTIST_DETAILS, artistIndex, artistTotal);
-                        }
+        }
+        if (!albums.isEmpty() || albumListing.complete) {
+            result.didWork = true;
+            result.albums = albums;
+        }
+
+        if (result.albums != null && !result.albums.isEmpty()) {
+            for (String removedId : journalRepository.pruneRemovedAlbums(scope)) {
+                cacheRepository.delete("album_" + removedId);
+                cacheRepository.delete("album_info_" + removedId);
+            }
+        }
+
+        if (!albums.isEmpty()) {
+            catalogRepository.pruneOrphanSongs(scope);
+            // Tracks live in catalog_song from here on; downstream stages page over it instead of a map.
+            result.songCount = catalogRepository.countSongs(scope);
+            result.coverArtIds.addAll(catalogRepository.getSongCoverArtIds(scope));
+            if (result.songCount > 0) {
+                logSync(MetadataSyncManager.STAGE_SONGS, "Songs cached (" + result.songCount + ")", true);
+            }
+        }
+
+        boolean hasData = hasAnyData(result);
+        if (hasData) {
+            // Rows not seen this run are only dropped when every listing was read to the end.
+            boolean complete = playlists != null && artists != null && albumListing.complete;
+            MetadataSyncManager.indexLogger(MetadataSyncManager.STAGE_SONGS)
+                    .onLoaded(complete ? indexWriter.finish() : indexWriter.getDiff());
+            if (complete) {
+                checkpointRepository.clear(scope);
+            }
+            Preferences.setMetadataSyncSubsonicLast(now);
+            if (!incremental) {
+                Preferences.setMetadataSyncSubsonicFull(now);
+            }
+            String resolvedSignature = signature != null ? signature : fallbackSignature(result);
+            if (resolvedSignature != null) {
+                Preferences.setMetadataSyncSubsonicSignature(resolvedSignature);
+            }
+        } else {
+            logSync(MetadataSyncManager.STAGE_PREPARING, "Subsonic sync returned empty; keeping previous cache", true);
+        }
+
+        return result;
+    }
+
+    private static List<Playlist> syncPlaylistStage(SyncRun run, StageProgress.Lane lane) {
+        List<Playlist> playlists = syncPlaylists(run.cacheRepository, lane);
+        if (playlists == null) return null;
+        Result result = run.result;
+        String scope = run.scope;
+        run.indexWriter.write(SearchIndexBuilder.buildFromSource(SearchIndexUtil.SOURCE_SUBSONIC, null, null, null, playlists));
+        Map<String, String> knownPlaylists = run.incremental
+                ? run.journalRepository.load(scope, SyncJournalRepository.KIND_PLAYLIST)
+                : new ConcurrentHashMap<>();
+        Map<String, String> syncedPlaylists = new ConcurrentHashMap<>();
+        Set<String> donePlaylists = run.resumed
+                ? run.checkpointRepository.getCompleted(scope, MetadataSyncManager.STAGE_PLAYLISTS)
+                : new HashSet<>();
+        Set<String> playlistIds = new HashSet<>();
+        List<Playlist> playlistItems = new ArrayList<>();
+        for (Playlist playlist : playlists) {
+            if (playlist == null) continue;
+            if (playlist.getCoverArtId() != null) {
+                result.coverArtIds.add(playlist.getCoverArtId());
+            }
+            String id = playlist.getId();
+            if (id == null || id.isEmpty()) continue;
+            playlistIds.add(id);
+            if (donePlaylists.contains(id)
+                    || run.incremental && SyncJournalRepository.fingerprint(playlist).equals(knownPlaylists.get(id))) {
+                continue;
+            }
+            playlistItems.add(playlist);
+        }
+        if (run.incremental) {
+            logSync(MetadataSyncManager.STAGE_PLAYLISTS, "Playlist changes: " + playlistItems.size() + "/" + playlistIds.size(), false);
+        }
+        int playlistTotal = playlistItems.size();
+        if (playlistTotal > 0) {
+            lane.report(MetadataSyncManager.STAGE_PLAYLISTS, 0, playlistTotal);
+            CompletionService<Playlist> completion = new ExecutorCompletionService<>(run.scheduler);
+            for (Playlist playlist : playlistItems) {
+                completion.submit(() -> {
+                    if (syncPlaylistSongs(run.catalogRepository, playlist.getId())) {
+                        syncedPlaylists.put(playlist.getId(), SyncJournalRepository.fingerprint(playlist));
+                    }
+                    return playlist;
+                });
+            }
+            int playlistIndex = 0;
+            List<String> completedPlaylists = new ArrayList<>();
+            try {
+                for (int i = 0; i < playlistTotal; i++) {
+                    Future<Playlist> future = completion.take();
+                    Playlist playlist;
+                    try {
+                        playlist = future.get();
+                    } catch (Exception ex) {
+                        continue;
+                    }
+                    playlistIndex++;
+                    if (syncedPlaylists.containsKey(playlist.getId())) {
+                        checkpointCompleted(run.checkpointRepository, scope, MetadataSyncManager.STAGE_PLAYLISTS, completedPlaylists, playlist.getId(), false);
+                    }
+                    String name = playlist.getName() != null ? playlist.getName() : playlist.getId();
+                    logProgress(MetadataSyncManager.STAGE_PLAYLISTS, playlistIndex, playlistTotal, "Playlist songs: " + name, LOG_INTERVAL_SMALL);
+                    if (playlistIndex % 10 == 0 || playlistIndex == playlistTotal) {
+                        lane.report(MetadataSyncManager.STAGE_PLAYLISTS, playlistIndex, playlistTotal);
                     }
-                } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
-                } finally {
-                    executor.shutdown();
                 }
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
             }
+            checkpointCompleted(run.checkpointRepository, scope, MetadataSyncManager.STAGE_PLAYLISTS, completedPlaylists, null, true);
         }
+        run.journalRepository.record(scope, SyncJournalRepository.KIND_PLAYLIST, syncedPlaylists);
+        for (String removedId : run.journalRepository.pruneRemovedPlaylists(scope, playlistIds)) {
+            run.catalogRepository.deletePlaylistEntries(scope, removedId);
+        }
+        return playlists;
+    }
 
-        syncGenres(cacheRepository);
-
-        List<AlbumID3> albums = syncAlbums(cacheRepository);
-        if (albums != null) {
-            result.didWork = true;
-            result.albums = albums;
-            List<AlbumID3> albumItems = new ArrayList<>();
-            for (AlbumID3 album : albums) {
-                if (album != null) albumItems.add(album);
-            }
-            int estimatedSongTotal = 0;
-            for (AlbumID3 album : albumItems) {
-                if (album != null && album.getSongCount() != null) {
-                    estimatedSongTotal += Math.max(album.getSongCount(), 0);
+    private static List<ArtistID3> syncArtistStage(SyncRun run, StageProgress.Lane lane) {
+        List<ArtistID3> artists = syncArtists(run.catalogRepository, run.indexWriter, run.syncStartedAt, lane);
+        if (artists == null) return null;
+        Result result = run.result;
+        String scope = run.scope;
+        Map<String, String> knownArtists = run.incremental
+                ? run.journalRepository.load(scope, SyncJournalRepository.KIND_ARTIST)
+                : new ConcurrentHashMap<>();
+        Map<String, String> syncedArtists = new ConcurrentHashMap<>();
+        Set<String> doneArtists = run.resumed
+                ? run.checkpointRepository.getCompleted(scope, MetadataSyncManager.STAGE_ARTIST_DETAILS)
+                : new HashSet<>();
+        List<ArtistID3> artistItems = new ArrayList<>();
+        for (ArtistID3 artist : artists) {
+            if (artist == null) continue;
+            if (doneArtists.contains(artist.getId())
+                    || run.incremental && SyncJournalRepository.fingerprint(artist).equals(knownArtists.get(artist.getId()))) {
+                if (artist.getCoverArtId() != null) {
+                    result.coverArtIds.add(artist.getCoverArtId());
                 }
+                continue;
             }
-            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_SONGS, 0, estimatedSongTotal > 0 ? estimatedSongTotal : -1);
-            int albumTotal = albumItems.size();
-            int processedTracks = 0;
-            ExecutorService executor = Executors.newFixedThreadPool(PARALLELISM);
-            CompletionService<AlbumTracksResult> completion = new ExecutorCompletionService<>(executor);
-            for (AlbumID3 album : albumItems) {
-                completion.submit(() -> new AlbumTracksResult(album, syncAlbumTracks(cacheRepository, album)));
+            artistItems.add(artist);
+        }
+        if (run.incremental) {
+            logSync(MetadataSyncManager.STAGE_ARTIST_DETAILS, "Artist changes: " + artistItems.size() + "/" + artists.size(), false);
+        }
+        int artistTotal = artistItems.size();
+        lane.report(MetadataSyncManager.STAGE_ARTIST_DETAILS, 0, artistTotal);
+        if (artistTotal > 0) {
+            CompletionService<ArtistDetailsResult> completion = new ExecutorCompletionService<>(run.scheduler);
+            for (ArtistID3 artist : artistItems) {
+                completion.submit(() -> {
+                    ArtistInfo2 info = syncArtistDetails(run.context, run.cacheRepository, artist);
+                    if (info != null && artist.getId() != null) {
+                        syncedArtists.put(artist.getId(), SyncJournalRepository.fingerprint(artist));
+                    }
+                    return new ArtistDetailsResult(artist, info);
+                });
             }
-            int albumIndex = 0;
+            int artistIndex = 0;
+            List<String> completedArtists = new ArrayList<>();
             try {
-                for (int i = 0; i < albumTotal; i++) {
-                    Future<AlbumTracksResult> future = completion.take();
-                    AlbumTracksResult resultItem;
+                for (int i = 0; i < artistTotal; i++) {
+                    Future<ArtistDetailsResult> future = completion.take();
+                    ArtistDetailsResult resultItem;
                     try {
                         resultItem = future.get();
                     } catch (Exception ex) {
                         continue;
                     }
-                    albumIndex++;
-                    AlbumID3 album = resultItem.album;
-                    if (album != null && album.getCoverArtId() != null) {
-                        result.coverArtIds.add(album.getCoverArtId());
+                    artistIndex++;
+                    ArtistID3 artist = resultItem.artist;
+                    if (artist != null && artist.getCoverArtId() != null) {
+                        result.coverArtIds.add(artist.getCoverArtId());
                     }
-                    List<Child> tracks = resultItem.tracks;
-                    if (tracks != null) {
-                        processedTracks += tracks.size();
-                        for (Child track : tracks) {
-                            if (track != null) {
-                                if (track.getId() != null && !result.allSongs.containsKey(track.getId())) {
-                                    result.allSongs.put(track.getId(), track);
-                                }
-                                if (track.getCoverArtId() != null) {
-                                    result.coverArtIds.add(track.getCoverArtId());
-                                }
-                            }
-                        }
+                    if (resultItem.info != null) {
+                        checkpointCompleted(run.checkpointRepository, scope, MetadataSyncManager.STAGE_ARTIST_DETAILS, completedArtists, artist.getId(), false);
                     }
-                    String name = album != null && album.getName() != null ? album.getName() : (album != null ? album.getId() : null);
-                    logProgress(MetadataSyncManager.STAGE_SONGS, albumIndex, albumTotal, "Album tracks: " + name, LOG_INTERVAL_MEDIUM);
-                    if (albumIndex % 10 == 0) {
-                        int total = estimatedSongTotal > 0 ? estimatedSongTotal : -1;
-                        Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_SONGS, processedTracks, total);
+                    collectInfoUrls(resultItem.info, result.coverArtUrls);
+                    String name = artist != null && artist.getName() != null ? artist.getName() : (artist != null ? artist.getId() : null);
+                    logProgress(MetadataSyncManager.STAGE_ARTIST_DETAILS, artistIndex, artistTotal, "Artist details: " + name, LOG_INTERVAL_MEDIUM);
+                    if (artistIndex % 10 == 0 || artistIndex == artistTotal) {
+                        lane.report(MetadataSyncManager.STAGE_ARTIST_DETAILS, artistIndex, artistTotal);
                     }
                 }
             } catch (InterruptedException ignored) {
                 Thread.currentThread().interrupt();
-            } finally {
-                executor.shutdown();
             }
-            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_SONGS, processedTracks, estimatedSongTotal > 0 ? estimatedSongTotal : -1);
+            checkpointCompleted(run.checkpointRepository, scope, MetadataSyncManager.STAGE_ARTIST_DETAILS, completedArtists, null, true);
+        }
+        run.journalRepository.record(scope, SyncJournalRepository.KIND_ARTIST, syncedArtists);
+        for (String removedId : run.journalRepository.pruneRemovedArtists(scope)) {
+            run.cacheRepository.delete("artist_info_" + removedId);
+        }
+        return artists;
+    }
 
-            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_ALBUM_DETAILS, 0, albumTotal);
-            if (albumTotal > 0) {
-                ExecutorService detailExecutor = Executors.newFixedThreadPool(PARALLELISM);
-                CompletionService<AlbumDetailsResult> detailCompletion = new ExecutorCompletionService<>(detailExecutor);
-                for (AlbumID3 album : albumItems) {
-                    detailCompletion.submit(() -> new AlbumDetailsResult(album, syncAlbumDetails(context, cacheRepository, album)));
+    private static AlbumListing syncAlbumStage(SyncRun run, StageProgress.Lane lane) {
+        AlbumListing albumListing = syncAlbums(run.catalogRepository, run.indexWriter, run.checkpointRepository, run.checkpoint, run.syncStartedAt, lane);
+        List<AlbumID3> albums = albumListing.albums;
+        if (albums.isEmpty() && !albumListing.complete) return albumListing;
+        Result result = run.result;
+        String scope = run.scope;
+        SyncCheckpointRepository checkpointRepository = run.checkpointRepository;
+        Map<String, String> knownAlbums = run.incremental
+                ? run.journalRepository.load(scope, SyncJournalRepository.KIND_ALBUM)
+                : new ConcurrentHashMap<>();
+        Map<String, String> syncedAlbums = new ConcurrentHashMap<>();
+        Set<String> doneAlbumTracks = run.resumed
+                ? checkpointRepository.getCompleted(scope, MetadataSyncManager.STAGE_SONGS)
+                : new HashSet<>();
+        Set<String> doneAlbumDetails = run.resumed
+                ? checkpointRepository.getCompleted(scope, MetadataSyncManager.STAGE_ALBUM_DETAILS)
+                : new HashSet<>();
+        List<AlbumID3> albumItems = new ArrayList<>();
+        List<AlbumID3> albumDetailItems = new ArrayList<>();
+        int unchangedAlbums = 0;
+        for (AlbumID3 album : albums) {
+            if (album == null) continue;
+            if (run.incremental && SyncJournalRepository.fingerprint(album).equals(knownAlbums.get(album.getId()))) {
+                unchangedAlbums++;
+                if (album.getCoverArtId() != null) {
+                    result.coverArtIds.add(album.getCoverArtId());
                 }
-                int albumDetailsIndex = 0;
+                continue;
+            }
+            if (!doneAlbumDetails.contains(album.getId())) {
+                albumDetailItems.add(album);
+            }
+            if (doneAlbumTracks.contains(album.getId())) {
+                unchangedAlbums++;
+                if (album.getCoverArtId() != null) {
+                    result.coverArtIds.add(album.getCoverArtId());
+                }
+                continue;
+            }
+            albumItems.add(album);
+        }
+        if (run.incremental) {
+            logSync(MetadataSyncManager.STAGE_SONGS, "Album changes: " + albumItems.size() + "/" + albums.size(), false);
+        }
+        if (!doneAlbumTracks.isEmpty()) {
+            logSync(MetadataSyncManager.STAGE_SONGS, "Album tracks already synced: " + doneAlbumTracks.size(), false);
+        }
+        int estimatedSongTotal = 0;
+        for (AlbumID3 album : albumItems) {
+            if (album != null && album.getSongCount() != null) {
+                estimatedSongTotal += Math.max(album.getSongCount(), 0);
+            }
+        }
+        lane.report(MetadataSyncManager.STAGE_SONGS, 0, estimatedSongTotal > 0 ? estimatedSongTotal : -1);
+        int albumTotal = albumItems.size();
+        int processedTracks = 0;
+        CompletionService<AlbumTracksResult> completion = new ExecutorCompletionService<>(run.scheduler);
+        for (AlbumID3 album : albumItems) {
+            completion.submit(() -> {
+                List<Child> tracks = syncAlbumTracks(run.cacheRepository, run.catalogRepository, album, run.syncStartedAt);
+                if (tracks != null && album.getId() != null) {
+                    syncedAlbums.put(album.getId(), SyncJournalRepository.fingerprint(album));
+                }
+                return new AlbumTracksResult(album, tracks);
+            });
+        }
+        // Album details only need the listing, so they are queued right behind the track requests.
+        int albumDetailsTotal = albumDetailItems.size();
+        CompletionService<AlbumDetailsResult> detailCompletion = new ExecutorCompletionService<>(run.scheduler);
+        for (AlbumID3 album : albumDetailItems) {
+            detailCompletion.submit(() -> new AlbumDetailsResult(album, syncAlbumDetails(run.context, run.cacheRepository, album)));
+        }
+        int albumIndex = 0;
+        List<String> completedAlbums = new ArrayList<>();
+        try {
+            for (int i = 0; i < albumTotal; i++) {
+                Future<AlbumTracksResult> future = completion.take();
+                AlbumTracksResult resultItem;
                 try {
-                    for (int i = 0; i < albumTotal; i++) {
-                        Future<AlbumDetailsResult> future = detailCompletion.take();
-                        AlbumDetailsResult resultItem;
-                        try {
-                            resultItem = future.get();
-                        } catch (Exception ex) {
-                            continue;
-                        }
-                        albumDetailsIndex++;
-                        AlbumID3 album = resultItem.album;
-                        collectInfoUrls(resultItem.info, result.coverArtUrls);
-                        String name = album != null && album.getName() != null ? album.getName() : (album != null ? album.getId() : null);
-                        logProgress(MetadataSyncManager.STAGE_ALBUM_DETAILS, albumDetailsIndex, albumTotal, "Album details: " + name, LOG_INTERVAL_MEDIUM);
-                        if (albumDetailsIndex % 10 == 0 || albumDetailsIndex == albumTotal) {
-                            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_ALBUM_DETAILS, albumDetailsIndex, albumTotal);
-                        }
-                    }
-                } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
-                } finally {
-                    detailExecutor.shutdown();
+                    resultItem = future.get();
+                } catch (Exception ex) {
+                    continue;
+                }
+                albumIndex++;
+                AlbumID3 album = resultItem.album;
+                if (album != null && album.getCoverArtId() != null) {
+                    result.coverArtIds.add(album.getCoverArtId());
+                }
+                List<Child> tracks = resultItem.tracks;
+                if (tracks != null) {
+                    processedTracks += tracks.size();
+                    run.indexWriter.write(SearchIndexBuilder.buildFromSource(SearchIndexUtil.SOURCE_SUBSONIC, null, null, tracks, null));
+                    checkpointCompleted(checkpointRepository, scope, MetadataSyncManager.STAGE_SONGS, completedAlbums, album.getId(), false);
+                }
+                String name = album != null && album.getName() != null ? album.getName() : (album != null ? album.getId() : null);
+                logProgress(MetadataSyncManager.STAGE_SONGS, albumIndex, albumTotal, "Album tracks: " + name, LOG_INTERVAL_MEDIUM);
+                if (albumIndex % 10 == 0) {
+                    int total = estimatedSongTotal > 0 ? estimatedSongTotal : -1;
+                    lane.report(MetadataSyncManager.STAGE_SONGS, processedTracks, total);
                 }
             }
-            logSync(MetadataSyncManager.STAGE_ALBUM_DETAILS, "Album details cached (" + albumTotal + ")", true);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
         }
-
-        if (!result.allSongs.isEmpty()) {
-            cacheRepository.save("songs_all", new ArrayList<>(result.allSongs.values()));
-            logSync(MetadataSyncManager.STAGE_SONGS, "Songs cached (" + result.allSongs.size() + ")", true);
+        checkpointCompleted(checkpointRepository, scope, MetadataSyncManager.STAGE_SONGS, completedAlbums, null, true);
+        lane.report(MetadataSyncManager.STAGE_SONGS, processedTracks, estimatedSongTotal > 0 ? estimatedSongTotal : -1);
+        run.journalRepository.record(scope, SyncJournalRepository.KIND_ALBUM, syncedAlbums);
+        if (unchangedAlbums > 0) {
+            // Unchanged and already-synced albums keep their stored tracks; the search index still needs them.
+            // Rows written earlier in this run are skipped by the writer's hash check.
+            run.catalogRepository.forEachSongPage(scope, INDEX_BATCH_SIZE, page ->
+                    run.indexWriter.write(SearchIndexBuilder.buildFromSource(SearchIndexUtil.SOURCE_SUBSONIC, null, null, page, null)));
         }
 
-        boolean hasData = hasAnyData(result);
-        if (hasData) {
-            searchIndexRepository.replaceSource(
-                    SearchIndexUtil.SOURCE_SUBSONIC,
-                    SearchIndexBuilder.buildFromSubsonic(result.artists, result.albums, new ArrayList<>(result.allSongs.values()), result.playlists)
-            );
-            Preferences.setMetadataSyncSubsonicLast(now);
-            Preferences.setMetadataSyncSubsonicFull(now);
-            String resolvedSignature = signature != null ? signature : fallbackSignature(result);
-            if (resolvedSignature != null) {
-                Preferences.setMetadataSyncSubsonicSignature(resolvedSignature);
+        lane.report(MetadataSyncManager.STAGE_ALBUM_DETAILS, 0, albumDetailsTotal);
+        if (albumDetailsTotal > 0) {
+            int albumDetailsIndex = 0;
+            List<String> completedDetails = new ArrayList<>();
+            try {
+                for (int i = 0; i < albumDetailsTotal; i++) {
+                    Future<AlbumDetailsResult> future = detailCompletion.take();
+                    AlbumDetailsResult resultItem;
+                    try {
+                        resultItem = future.get();
+                    } catch (Exception ex) {
+                        continue;
+                    }
+                    albumDetailsIndex++;
+                    AlbumID3 album = resultItem.album;
+                    collectInfoUrls(resultItem.info, result.coverArtUrls);
+                    if (resultItem.info != null) {
+                        checkpointCompleted(checkpointRepository, scope, MetadataSyncManager.STAGE_ALBUM_DETAILS, completedDetails, album.getId(), false);
+                    }
+                    String name = album != null && album.getName() != null ? album.getName() : (album != null ? album.getId() : null);
+                    logProgress(MetadataSyncManager.STAGE_ALBUM_DETAILS, albumDetailsIndex, albumDetailsTotal, "Album details: " + name, LOG_INTERVAL_MEDIUM);
+                    if (albumDetailsIndex % 10 == 0 || albumDetailsIndex == albumDetailsTotal) {
+                        lane.report(MetadataSyncManager.STAGE_ALBUM_DETAILS, albumDetailsIndex, albumDetailsTotal);
+                    }
+                }
+            } catch (InterruptedException ignored) {
+                Thread.currentThread().interrupt();
             }
-        } else {
-            logSync(MetadataSyncManager.STAGE_PREPARING, "Subsonic sync returned empty; keeping previous cache", true);
+            checkpointCompleted(checkpointRepository, scope, MetadataSyncManager.STAGE_ALBUM_DETAILS, completedDetails, null, true);
         }
+        logSync(MetadataSyncManager.STAGE_ALBUM_DETAILS, "Album details cached (" + albumDetailsTotal + ")", true);
+        return albumListing;
+    }
 
-        return result;
+    // A stage that failed unexpectedly counts as not finished, like a failed listing.
+    // The lane closes when the stage ends, however it ends, so the next stage's progress takes over.
+    private static <T> Future<T> submitStage(ExecutorService stages, StageProgress.Lane lane, Callable<T> stage) {
+        return stages.submit(() -> {
+            try {
+                return stage.call();
+            } finally {
+                lane.close();
+            }
+        });
+    }
+
+    private static <T> T awaitStage(Future<T> stage, T fallback) {
+        try {
+            T value = stage.get();
+            return value != null ? value : fallback;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            stage.cancel(true);
+            return fallback;
+        } catch (Exception ex) {
+            logSync(MetadataSyncManager.STAGE_PREPARING, "Sync stage failed (" + ex.getClass().getSimpleName() + ")", false);
+            return fallback;
+        }
     }
 
     private static boolean hasAnyData(Result result) {
@@ -262,12 +514,12 @@ public final class SubsonicSyncProvider {
         if (result.playlists != null && !result.playlists.isEmpty()) return true;
         if (result.artists != null && !result.artists.isEmpty()) return true;
         if (result.albums != null && !result.albums.isEmpty()) return true;
-        return !result.allSongs.isEmpty();
+        return result.songCount > 0;
     }
 
-    private static List<Playlist> syncPlaylists(CacheRepository cacheRepository) {
+    private static List<Playlist> syncPlaylists(CacheRepository cacheRepository, StageProgress.Lane lane) {
         try {
-            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_PLAYLISTS, 0, -1);
+            lane.report(MetadataSyncManager.STAGE_PLAYLISTS, 0, -1);
             logSync(MetadataSyncManager.STAGE_PLAYLISTS, "Fetching playlists", false);
             Call<ApiResponse> call = App.getSubsonicClientInstance(false).getPlaylistClient().getPlaylists();
             applyTimeout(call, NETWORK_TIMEOUT_SECONDS);
@@ -288,7 +540,7 @@ public final class SubsonicSyncProvider {
             List<Playlist> playlists = response.body().getSubsonicResponse().getPlaylists().getPlaylists();
             cacheRepository.save("playlists", playlists);
             int total = playlists == null ? 0 : playlists.size();
-            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_PLAYLISTS, total, total);
+            lane.report(MetadataSyncManager.STAGE_PLAYLISTS, total, total);
             if (playlists != null && !playlists.isEmpty()) {
                 int index = 0;
                 for (Playlist playlist : playlists) {
@@ -306,54 +558,66 @@ public final class SubsonicSyncProvider {
         }
     }
 
-    private static void syncPlaylistSongs(CacheRepository cacheRepository, String playlistId) {
-        if (playlistId == null || playlistId.isEmpty()) return;
+    // Stores one playlist's entries on their own, so readers of a playlist never load the others.
+    private static boolean syncPlaylistSongs(CatalogRepository catalogRepository, String playlistId) throws IOException {
+        if (playlistId == null || playlistId.isEmpty()) return false;
         try {
             Call<ApiResponse> call = App.getSubsonicClientInstance(false).getPlaylistClient().getPlaylist(playlistId);
             applyTimeout(call, NETWORK_TIMEOUT_SECONDS);
             Response<ApiResponse> response = call.execute();
+            throwIfServerError(response);
             if (!response.isSuccessful() || response.body() == null || response.body().getSubsonicResponse().getPlaylist() == null) {
                 logSync(MetadataSyncManager.STAGE_PLAYLISTS, "Playlist songs fetch failed (" + playlistId + ")", true);
-                return;
+                return false;
             }
             List<Child> songs = response.body().getSubsonicResponse().getPlaylist().getEntries();
-            cacheRepository.save("playlist_songs_" + playlistId, songs);
+            catalogRepository.replacePlaylistEntries(CatalogRepository.SCOPE_SUBSONIC, playlistId, songs);
+            return true;
+        } catch (IOException ex) {
+            logSync(MetadataSyncManager.STAGE_PLAYLISTS, "Playlist songs fetch failed (" + playlistId + ")", true);
+            throw ex;
         } catch (Exception ignored) {
             logSync(MetadataSyncManager.STAGE_PLAYLISTS, "Playlist songs fetch failed (" + playlistId + ")", true);
+            return false;
         }
     }
 
-    private static List<ArtistID3> syncArtists(CacheRepository cacheRepository) {
+    private static List<ArtistID3> syncArtists(CatalogRepository catalogRepository, LibrarySearchIndexRepository.SourceWriter indexWriter, long syncStartedAt, StageProgress.Lane lane) {
         try {
-            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_ARTISTS, 0, -1);
+            lane.report(MetadataSyncManager.STAGE_ARTISTS, 0, -1);
             logSync(MetadataSyncManager.STAGE_ARTISTS, "Fetching artists", false);
-            Call<ApiResponse> call = App.getSubsonicClientInstance(false).getBrowsingClient().getArtists();
+            Call<ResponseBody> call = App.getSubsonicClientInstance(false).getBrowsingClient().streamArtists();
             applyTimeout(call, NETWORK_TIMEOUT_SECONDS);
-            Response<ApiResponse> response = call.execute();
-            if (!response.isSuccessful() || response.body() == null || response.body().getSubsonicResponse() == null) {
+            Response<ResponseBody> response = call.execute();
+            if (!response.isSuccessful() || response.body() == null) {
                 logSync(MetadataSyncManager.STAGE_ARTISTS, "Artists fetch failed", true);
                 return null;
             }
-            if (response.body().getSubsonicResponse().getError() != null) {
-                logSync(MetadataSyncManager.STAGE_ARTISTS, "Artists error: " + response.body().getSubsonicResponse().getError().getMessage(), true);
+
+            List<ArtistID3> artists = new ArrayList<>();
+            List<ArtistID3> batch = new ArrayList<>(ARTIST_BATCH_SIZE);
+            int count;
+            try {
+                count = SubsonicStreamReader.readArtists(response.body(), artist -> {
+                    artists.add(artist);
+                    batch.add(artist);
+                    if (batch.size() >= ARTIST_BATCH_SIZE) {
+                        writeArtists(catalogRepository, indexWriter, batch, syncStartedAt);
+                        lane.report(MetadataSyncManager.STAGE_ARTISTS, artists.size(), -1);
+                    }
+                });
+            } catch (IOException ex) {
+                logSync(MetadataSyncManager.STAGE_ARTISTS, "Artists error: " + ex.getMessage(), true);
                 return null;
             }
-            if (response.body().getSubsonicResponse().getArtists() == null) {
+            if (count < 0) {
                 logSync(MetadataSyncManager.STAGE_ARTISTS, "Artists empty response", true);
                 return null;
             }
+            writeArtists(catalogRepository, indexWriter, batch, syncStartedAt);
+            catalogRepository.pruneArtists(CatalogRepository.SCOPE_SUBSONIC, syncStartedAt);
 
-            List<ArtistID3> artists = new ArrayList<>();
-            if (response.body().getSubsonicResponse().getArtists().getIndices() != null) {
-                for (IndexID3 index : response.body().getSubsonicResponse().getArtists().getIndices()) {
-                    if (index != null && index.getArtists() != null) {
-                        artists.addAll(index.getArtists());
-                    }
-                }
-            }
-
-            cacheRepository.save("artists_all", artists);
-            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_ARTISTS, artists.size(), artists.size());
+            lane.report(MetadataSyncManager.STAGE_ARTISTS, artists.size(), artists.size());
             logSync(MetadataSyncManager.STAGE_ARTISTS, "Artists cached (" + artists.size() + ")", true);
             return artists;
         } catch (Exception ex) {
@@ -362,9 +626,16 @@ public final class SubsonicSyncProvider {
         }
     }
 
-    private static void syncGenres(CacheRepository cacheRepository) {
+    private static void writeArtists(CatalogRepository catalogRepository, LibrarySearchIndexRepository.SourceWriter indexWriter, List<ArtistID3> batch, long syncStartedAt) {
+        if (batch.isEmpty()) return;
+        catalogRepository.upsertArtists(CatalogRepository.SCOPE_SUBSONIC, batch, syncStartedAt);
+        indexWriter.write(SearchIndexBuilder.buildFromSource(SearchIndexUtil.SOURCE_SUBSONIC, batch, null, null, null));
+        batch.clear();
+    }
+
+    private static void syncGenres(CatalogRepository catalogRepository, StageProgress.Lane lane) {
         try {
-            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_GENRES, 0, -1);
+            lane.report(MetadataSyncManager.STAGE_GENRES, 0, -1);
             logSync(MetadataSyncManager.STAGE_GENRES, "Fetching genres", false);
             Call<ApiResponse> call = App.getSubsonicClientInstance(false).getBrowsingClient().getGenres();
             applyTimeout(call, NETWORK_TIMEOUT_SECONDS);
@@ -382,80 +653,122 @@ public final class SubsonicSyncProvider {
                 return;
             }
             List<Genre> genres = response.body().getSubsonicResponse().getGenres().getGenres();
-            cacheRepository.save("genres_all", genres);
+            catalogRepository.replaceGenres(CatalogRepository.SCOPE_SUBSONIC, genres);
             int total = genres == null ? 0 : genres.size();
-            Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_GENRES, total, total);
+            lane.report(MetadataSyncManager.STAGE_GENRES, total, total);
             logSync(MetadataSyncManager.STAGE_GENRES, "Genres cached (" + total + ")", true);
         } catch (Exception ex) {
             logSync(MetadataSyncManager.STAGE_GENRES, "Genres fetch failed (" + ex.getClass().getSimpleName() + ")", true);
         }
     }
 
-    private static List<AlbumID3> syncAlbums(CacheRepository cacheRepository) {
-        List<AlbumID3> allAlbums = new ArrayList<>();
-        int offset = 0;
+    private static AlbumListing syncAlbums(CatalogRepository catalogRepository,
+                                           LibrarySearchIndexRepository.SourceWriter indexWriter,
+                                           SyncCheckpointRepository checkpointRepository,
+                                           SyncCheckpoint checkpoint,
+                                           long syncStartedAt,
+                                           StageProgress.Lane lane) {
+        AlbumListing listing = new AlbumListing();
+        List<AlbumID3> allAlbums = listing.albums;
+        if (checkpoint.getAlbumsComplete()) {
+            allAlbums.addAll(catalogRepository.getAlbums(CatalogRepository.SCOPE_SUBSONIC));
+            writeAlbumIndex(indexWriter, allAlbums);
+            listing.complete = true;
+            lane.report(MetadataSyncManager.STAGE_ALBUMS, allAlbums.size(), allAlbums.size());
+            logSync(MetadataSyncManager.STAGE_ALBUMS, "Albums restored from checkpoint (" + allAlbums.size() + ")", true);
+            return listing;
+        }
+        int resumeOffset = checkpoint.getAlbumOffset();
+        int offset = resumeOffset;
 
-        Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_ALBUMS, 0, -1);
-        logSync(MetadataSyncManager.STAGE_ALBUMS, "Fetching albums", false);
+        lane.report(MetadataSyncManager.STAGE_ALBUMS, 0, -1);
+        logSync(MetadataSyncManager.STAGE_ALBUMS, resumeOffset > 0 ? "Resuming albums at " + resumeOffset : "Fetching albums", false);
         while (true) {
             if (OfflinePolicy.isOffline()) break;
             try {
-                Call<ApiResponse> call = App.getSubsonicClientInstance(false)
+                Call<ResponseBody> call = App.getSubsonicClientInstance(false)
                         .getAlbumSongListClient()
-                        .getAlbumList2("alphabeticalByName", ALBUM_PAGE_SIZE, offset, null, null);
+                        .streamAlbumList2("alphabeticalByName", ALBUM_PAGE_SIZE, offset, null, null);
                 applyTimeout(call, NETWORK_TIMEOUT_SECONDS);
-                Response<ApiResponse> response = call.execute();
-                if (!response.isSuccessful() || response.body() == null || response.body().getSubsonicResponse() == null) {
+                Response<ResponseBody> response = call.execute();
+                if (!response.isSuccessful() || response.body() == null) {
                     logSync(MetadataSyncManager.STAGE_ALBUMS, "Albums fetch failed", true);
                     break;
                 }
-                if (response.body().getSubsonicResponse().getError() != null) {
-                    logSync(MetadataSyncManager.STAGE_ALBUMS, "Albums error: " + response.body().getSubsonicResponse().getError().getMessage(), true);
+
+                List<AlbumID3> page = new ArrayList<>();
+                int count;
+                try {
+                    count = SubsonicStreamReader.readAlbumList2(response.body(), page::add);
+                } catch (IOException ex) {
+                    logSync(MetadataSyncManager.STAGE_ALBUMS, "Albums error: " + ex.getMessage(), true);
                     break;
                 }
-                if (response.body().getSubsonicResponse().getAlbumList2() == null) {
+                if (count < 0) {
                     logSync(MetadataSyncManager.STAGE_ALBUMS, "Albums empty response", true);
                     break;
                 }
-
-                List<AlbumID3> page = response.body().getSubsonicResponse().getAlbumList2().getAlbums();
-                if (page == null || page.isEmpty()) break;
+                if (page.isEmpty()) {
+                    listing.complete = true;
+                    break;
+                }
 
                 allAlbums.addAll(page);
-                cacheRepository.save("albums_all", allAlbums);
-                Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_ALBUMS, allAlbums.size(), -1);
+                catalogRepository.upsertAlbums(CatalogRepository.SCOPE_SUBSONIC, page, syncStartedAt);
+                indexWriter.write(SearchIndexBuilder.buildFromSource(SearchIndexUtil.SOURCE_SUBSONIC, null, page, null, null));
+                lane.report(MetadataSyncManager.STAGE_ALBUMS, allAlbums.size(), -1);
                 logSync(MetadataSyncManager.STAGE_ALBUMS, "Albums cached (" + allAlbums.size() + ")", false);
 
                 offset += page.size();
-                if (page.size() < ALBUM_PAGE_SIZE) break;
+                checkpointRepository.setAlbumOffset(CatalogRepository.SCOPE_SUBSONIC, offset, false);
+                if (page.size() < ALBUM_PAGE_SIZE) {
+                    listing.complete = true;
+                    break;
+                }
             } catch (Exception ex) {
                 logSync(MetadataSyncManager.STAGE_ALBUMS, "Albums fetch failed (" + ex.getClass().getSimpleName() + ")", true);
                 break;
             }
         }
 
-        Preferences.setMetadataSyncProgress(MetadataSyncManager.STAGE_ALBUMS, allAlbums.size(), allAlbums.size());
+        if (listing.complete && (!allAlbums.isEmpty() || resumeOffset > 0)) {
+            catalogRepository.pruneAlbums(CatalogRepository.SCOPE_SUBSONIC, syncStartedAt);
+            if (resumeOffset > 0) {
+                // Pages read before the interruption are only in the catalog now.
+                allAlbums.clear();
+                allAlbums.addAll(catalogRepository.getAlbums(CatalogRepository.SCOPE_SUBSONIC));
+                writeAlbumIndex(indexWriter, allAlbums);
+            }
+            checkpointRepository.setAlbumOffset(CatalogRepository.SCOPE_SUBSONIC, offset, true);
+        }
+
+        lane.report(MetadataSyncManager.STAGE_ALBUMS, allAlbums.size(), allAlbums.size());
         logSync(MetadataSyncManager.STAGE_ALBUMS, "Albums cached (" + allAlbums.size() + ")", true);
 
-        return allAlbums;
+        return listing;
     }
 
-    private static List<Child> syncAlbumTracks(CacheRepository cacheRepository, AlbumID3 album) {
+    private static List<Child> syncAlbumTracks(CacheRepository cacheRepository, CatalogRepository catalogRepository, AlbumID3 album, long syncStartedAt) throws IOException {
         if (album == null || album.getId() == null || album.getId().isEmpty()) return null;
         String albumId = album.getId();
         try {
             Call<ApiResponse> call = App.getSubsonicClientInstance(false).getBrowsingClient().getAlbum(albumId);
             applyTimeout(call, ALBUM_TRACK_TIMEOUT_SECONDS);
             Response<ApiResponse> response = call.execute();
+            throwIfServerError(response);
             if (!response.isSuccessful() || response.body() == null || response.body().getSubsonicResponse().getAlbum() == null) {
                 return null;
             }
 
             AlbumWithSongsID3 albumDetails = response.body().getSubsonicResponse().getAlbum();
             List<Child> tracks = albumDetails.getSongs();
-            cacheRepository.save("album_tracks_" + albumId, tracks);
+            catalogRepository.replaceAlbumSongs(CatalogRepository.SCOPE_SUBSONIC, albumId, tracks, syncStartedAt);
             cacheRepository.save("album_" + albumId, albumDetails);
             return tracks;
+        } catch (IOException ex) {
+            String name = album.getName() != null ? album.getName() : albumId;
+            logSync(MetadataSyncManager.STAGE_SONGS, "Album tracks failed: " + name + " (" + ex.getClass().getSimpleName() + ")", false);
+            throw ex;
         } catch (Exception ex) {
             String name = album.getName() != null ? album.getName() : albumId;
             logSync(MetadataSyncManager.STAGE_SONGS, "Album tracks failed: " + name + " (" + ex.getClass().getSimpleName() + ")", false);
@@ -463,12 +776,13 @@ public final class SubsonicSyncProvider {
         }
     }
 
-    private static ArtistInfo2 syncArtistDetails(Context context, CacheRepository cacheRepository, ArtistID3 artist) {
+    private static ArtistInfo2 syncArtistDetails(Context context, CacheRepository cacheRepository, ArtistID3 artist) throws IOException {
         if (artist == null || artist.getId() == null || artist.getId().isEmpty()) return null;
         try {
             Call<ApiResponse> call = App.getSubsonicClientInstance(false).getBrowsingClient().getArtistInfo2(artist.getId());
             applyTimeout(call, NETWORK_TIMEOUT_SECONDS);
             Response<ApiResponse> response = call.execute();
+            throwIfServerError(response);
             if (!response.isSuccessful() || response.body() == null || response.body().getSubsonicResponse().getArtistInfo2() == null) {
                 return null;
             }
@@ -476,17 +790,20 @@ public final class SubsonicSyncProvider {
             ArtistInfo2 info = response.body().getSubsonicResponse().getArtistInfo2();
             cacheRepository.save("artist_info_" + artist.getId(), info);
             return info;
+        } catch (IOException ex) {
+            throw ex;
         } catch (Exception ignored) {
             return null;
         }
     }
 
-    private static AlbumInfo syncAlbumDetails(Context context, CacheRepository cacheRepository, AlbumID3 album) {
+    private static AlbumInfo syncAlbumDetails(Context context, CacheRepository cacheRepository, AlbumID3 album) throws IOException {
         if (album == null || album.getId() == null || album.getId().isEmpty()) return null;
         try {
             Call<ApiResponse> call = App.getSubsonicClientInstance(false).getBrowsingClient().getAlbumInfo2(album.getId());
             applyTimeout(call, NETWORK_TIMEOUT_SECONDS);
             Response<ApiResponse> response = call.execute();
+            throwIfServerError(response);
             if (!response.isSuccessful() || response.body() == null || response.body().getSubsonicResponse().getAlbumInfo() == null) {
                 return null;
             }
@@ -494,11 +811,72 @@ public final class SubsonicSyncProvider {
             AlbumInfo info = response.body().getSubsonicResponse().getAlbumInfo();
             cacheRepository.save("album_info_" + album.getId(), info);
             return info;
+        } catch (IOException ex) {
+            throw ex;
         } catch (Exception ignored) {
             return null;
         }
     }
 
+    private static void writeAlbumIndex(LibrarySearchIndexRepository.SourceWriter indexWriter, List<AlbumID3> albums) {
+        for (int start = 0; start < albums.size(); start += INDEX_BATCH_SIZE) {
+            int end = Math.min(albums.size(), start + INDEX_BATCH_SIZE);
+            indexWriter.write(SearchIndexBuilder.buildFromSource(SearchIndexUtil.SOURCE_SUBSONIC, null, albums.subList(start, end), null, null));
+        }
+    }
+
+    // Buffers completed ids and persists them every few items so a restart skips finished work.
+    private static void checkpointCompleted(SyncCheckpointRepository checkpointRepository, String scope, String stage,
+                                            List<String> buffer, String id, boolean flush) {
+        if (id != null) buffer.add(id);
+        if (flush || buffer.size() >= CHECKPOINT_BATCH_SIZE) {
+            checkpointRepository.markCompleted(scope, stage, buffer);
+            buffer.clear();
+        }
+    }
+
+    // Everything the stages of one run share; the repositories and writer are safe to use concurrently.
+    private static final class SyncRun {
+        final Context context;
+        final CacheRepository cacheRepository;
+        final CatalogRepository catalogRepository;
+        final SyncJournalRepository journalRepository;
+        final SyncCheckpointRepository checkpointRepository;
+        final SyncRequestScheduler scheduler;
+        final LibrarySearchIndexRepository.SourceWriter indexWriter;
+        final SyncCheckpoint checkpoint;
+        final String scope;
+        final long syncStartedAt;
+        final boolean incremental;
+        final boolean resumed;
+        final Result result;
+
+        SyncRun(Context context, CacheRepository cacheRepository, CatalogRepository catalogRepository,
+                SyncJournalRepository journalRepository, SyncCheckpointRepository checkpointRepository,
+                SyncRequestScheduler scheduler, LibrarySearchIndexRepository.SourceWriter indexWriter,
+                SyncCheckpoint checkpoint, String scope, long syncStartedAt, boolean incremental, boolean resumed,
+                Result result) {
+            this.context = context;
+            this.cacheRepository = cacheRepository;
+            this.catalogRepository = catalogRepository;
+            this.journalRepository = journalRepository;
+            this.checkpointRepository = checkpointRepository;
+            this.scheduler = scheduler;
+            this.indexWriter = indexWriter;
+            this.checkpoint = checkpoint;
+            this.scope = scope;
+            this.syncStartedAt = syncStartedAt;
+            this.incremental = incremental;
+            this.resumed = resumed;
+            this.result = result;
+        }
+    }
+
+    private static final class AlbumListing {
+        final List<AlbumID3> albums = new ArrayList<>();
+        boolean complete;
+    }
+
     private static final class ArtistDetailsResult {
         final ArtistID3 artist;
         final ArtistInfo2 info;
@@ -555,9 +933,10 @@ public final class SubsonicSyncProvider {
     }
 
     public static final class Result {
-        public final Map<String, Child> allSongs = new LinkedHashMap<>();
-        public final Set<String> coverArtIds = new HashSet<>();
-        public final Set<String> coverArtUrls = new HashSet<>();
+        public int songCount;
+        // Filled by concurrent stages.
+        public final Set<String> coverArtIds = ConcurrentHashMap.newKeySet();
+        public final Set<String> coverArtUrls = ConcurrentHashMap.newKeySet();
         public List<Playlist> playlists = new ArrayList<>();
         public List<ArtistID3> artists = new ArrayList<>();
         public List<AlbumID3> albums = new ArrayList<>();
@@ -588,6 +967,13 @@ public final class SubsonicSyncProvider {
         }
     }
 
+    // Overload and server faults are reported as failures so SyncRequestScheduler backs off.
+    private static void throwIfServerError(Response<?> response) throws IOException {
+        if (response.code() == 429 || response.code() >= 500) {
+            throw new IOException("HTTP " + response.code());
+        }
+    }
+
     private static void applyTimeout(Call<?> call, int seconds) {
         if (call == null) return;
         try {
@@ -598,7 +984,7 @@ public final class SubsonicSyncProvider {
 
     private static String fallbackSignature(Result result) {
         if (result == null) return null;
-        int songs = result.allSongs.size();
+        int songs = result.songCount;
         int albums = result.albums != null ? result.albums.size() : 0;
         int artists = result.artists != null ? result.artists.size() : 0;
         int playlists = result.playlists != null ? result.playlists.size() : 0;
@@ -0,0 +1,212 @@
+package one.chandan.rubato.sync;
+
+import androidx.annotation.NonNull;
+
+import one.chandan.rubato.util.ServerStatus;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared, per-server gate for metadata sync requests. Concurrency follows AIMD: each fast
+ * success widens the window by roughly one request per round trip, while errors or slow
+ * responses halve it. Dispatch pauses while {@link ServerStatus} reports the server as
+ * unreachable, letting a single probe through every few seconds so the status can recover.
+ * <p>
+ * Usable anywhere an {@link Executor} is accepted, e.g. {@code new ExecutorCompletionService<>(scheduler)};
+ * a task counts as failed when it throws or its {@link Future} completes exceptionally.
+ */
+public final class SyncRequestScheduler implements Executor {
+    private static final int MIN_IN_FLIGHT = 1;
+    private static final int INITIAL_IN_FLIGHT = 4;
+    private static final int MAX_IN_FLIGHT = 24;
+    private static final long FAST_RESPONSE_MS = 1_500L;
+    private static final long SLOW_RESPONSE_MS = 6_000L;
+    private static final long DECREASE_COOLDOWN_MS = 1_000L;
+    private static final long PAUSE_PROBE_MS = 5_000L;
+    private static final long THROUGHPUT_WINDOW_MS = 10_000L;
+    private static final long STATE_NOTIFY_INTERVAL_MS = 1_000L;
+
+    private static final Map<String, SyncRequestScheduler> SCHEDULERS = new ConcurrentHashMap<>();
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger(1);
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable);
+        thread.setName("rubato-sync-" + THREAD_COUNTER.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable);
+        thread.setName("rubato-sync-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @NonNull
+    private static volatile SyncRequestScheduler current = forServer(null);
+
+    private final ArrayDeque<Runnable> pending = new ArrayDeque<>();
+    private final ArrayDeque<Long> completions = new ArrayDeque<>();
+    private double limit = INITIAL_IN_FLIGHT;
+    private int inFlight;
+    private long lastDecreaseAt;
+    private long pausedSince;
+    private boolean probeScheduled;
+    private long lastNotifyAt;
+
+    private SyncRequestScheduler() {
+        ServerStatus.addListener(reachable -> {
+            if (reachable) drain();
+        });
+    }
+
+    /**
+     * Returns the scheduler for {@code serverId} and makes it the one reported in {@link SyncStateStore}.
+     */
+    public static SyncRequestScheduler forServer(String serverId) {
+        String key = serverId != null ? serverId : "";
+        SyncRequestScheduler scheduler = SCHEDULERS.computeIfAbsent(key, ignored -> new SyncRequestScheduler());
+        current = scheduler;
+        return scheduler;
+    }
+
+    @NonNull
+    public static SyncRequestScheduler current() {
+        return current;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable task) {
+        synchronized (this) {
+            pending.addLast(task);
+        }
+        drain();
+    }
+
+    public synchronized int getQueueDepth() {
+        return pending.size();
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getConcurrencyLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Completed requests per second over the last few seconds.
+     */
+    public synchronized double getThroughput() {
+        trimCompletions(System.currentTimeMillis());
+        return completions.size() * 1000.0 / THROUGHPUT_WINDOW_MS;
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable task;
+            synchronized (this) {
+                if (pending.isEmpty() || inFlight >= (int) limit) break;
+                if (!ServerStatus.isReachable()) {
+                    long now = System.currentTimeMillis();
+                    if (pausedSince == 0L) pausedSince = now;
+                    // Let a lone probe through so the reachability interceptor can flip the status back.
+                    if (inFlight > 0 || now - pausedSince < PAUSE_PROBE_MS) {
+                        scheduleProbe();
+                        break;
+                    }
+                    pausedSince = now;
+                } else {
+                    pausedSince = 0L;
+                }
+                task = pending.pollFirst();
+                inFlight++;
+            }
+            WORKERS.execute(() -> run(task));
+        }
+        maybeNotifyState();
+    }
+
+    private void run(Runnable task) {
+        long startedAt = System.currentTimeMillis();
+        boolean failed = false;
+        try {
+            task.run();
+            if (task instanceof Future) {
+                failed = completedExceptionally((Future<?>) task);
+            }
+        } catch (RuntimeException e) {
+            failed = true;
+        } finally {
+            onComplete(System.currentTimeMillis() - startedAt, failed || !ServerStatus.isReachable());
+            drain();
+        }
+    }
+
+    private synchronized void onComplete(long elapsedMs, boolean failed) {
+        inFlight--;
+        long now = System.currentTimeMillis();
+        completions.addLast(now);
+        trimCompletions(now);
+        if (failed || elapsedMs > SLOW_RESPONSE_MS) {
+            if (now - lastDecreaseAt >= DECREASE_COOLDOWN_MS) {
+                limit = Math.max(MIN_IN_FLIGHT, limit / 2);
+                lastDecreaseAt = now;
+            }
+        } else if (elapsedMs < FAST_RESPONSE_MS) {
+            limit = Math.min(MAX_IN_FLIGHT, limit + 1.0 / limit);
+        }
+    }
+
+    private void scheduleProbe() {
+        if (probeScheduled) return;
+        probeScheduled = true;
+        TIMER.schedule(() -> {
+            synchronized (this) {
+                probeScheduled = false;
+            }
+            drain();
+        }, PAUSE_PROBE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void trimCompletions(long now) {
+        while (!completions.isEmpty() && now - completions.peekFirst() > THROUGHPUT_WINDOW_MS) {
+            completions.pollFirst();
+        }
+    }
+
+    private void maybeNotifyState() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (now - lastNotifyAt < STATE_NOTIFY_INTERVAL_MS) return;
+            lastNotifyAt = now;
+        }
+        SyncStateStore.notifyChanged();
+    }
+
+    private static boolean completedExceptionally(Future<?> future) {
+        if (!future.isDone()) return false;
+        try {
+            future.get();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (CancellationException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
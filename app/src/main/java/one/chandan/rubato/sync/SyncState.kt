@@ -17,5 +17,11 @@ data class SyncState(
     val storageUpdatedAt: Long,
     val logs: List<MetadataSyncLogEntry>,
     val offline: Boolean,
-    val dataSaving: Boolean
+    val dataSaving: Boolean,
+    val requestQueueDepth: Int = 0,
+    val requestsInFlight: Int = 0,
+    val requestConcurrency: Int = 0,
+    val requestThroughput: Double = 0.0,
+    val coverArtThroughput: Double = 0.0,
+    val coverArtBytesPerSecond: Long = 0L
 )
@@ -44,6 +44,8 @@ object SyncStateStore {
     }
 
     private fun buildState(): SyncState {
+        val scheduler = SyncRequestScheduler.current()
+        val coverArtEngine = CoverArtPrefetchEngine.getInstance()
         return SyncState(
             active = Preferences.isMetadataSyncActive(),
             stage = Preferences.getMetadataSyncStage(),
@@ -59,7 +61,13 @@ object SyncStateStore {
             storageUpdatedAt = Preferences.getMetadataSyncStorageUpdated(),
             logs = Preferences.getMetadataSyncLogs(),
             offline = OfflinePolicy.isOffline(),
-            dataSaving = Preferences.isDataSavingMode()
+            dataSaving = Preferences.isDataSavingMode(),
+            requestQueueDepth = scheduler.queueDepth,
+            requestsInFlight = scheduler.inFlight,
+            requestConcurrency = scheduler.concurrencyLimit,
+            requestThroughput = scheduler.throughput,
+            coverArtThroughput = coverArtEngine.itemsPerSecond,
+            coverArtBytesPerSecond = coverArtEngine.bytesPerSecond
         )
     }
 }
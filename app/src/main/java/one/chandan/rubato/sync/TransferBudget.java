@@ -0,0 +1,82 @@
+package one.chandan.rubato.sync;
+
+/**
+ * Token bucket measured in bytes. Transfers are charged after the fact, since the size of a
+ * download is only known once it finishes; a large download puts the bucket into debt and
+ * {@link #await()} holds back the next one until the debt is paid off at the current rate.
+ */
+public final class TransferBudget {
+    public static final long UNLIMITED = 0L;
+
+    interface Clock {
+        long nowMs();
+    }
+
+    private final Clock clock;
+    private final long burstSeconds;
+    private long bytesPerSecond = UNLIMITED;
+    private double available;
+    private long refilledAt;
+
+    public TransferBudget(long burstSeconds) {
+        this(burstSeconds, System::currentTimeMillis);
+    }
+
+    TransferBudget(long burstSeconds, Clock clock) {
+        this.burstSeconds = Math.max(1L, burstSeconds);
+        this.clock = clock;
+        this.refilledAt = clock.nowMs();
+    }
+
+    /**
+     * Changes the refill rate; {@link #UNLIMITED} (or any value {@code <= 0}) disables pacing.
+     */
+    public synchronized void setRate(long bytesPerSecond) {
+        refill();
+        long rate = Math.max(UNLIMITED, bytesPerSecond);
+        if (rate == this.bytesPerSecond) return;
+        this.bytesPerSecond = rate;
+        available = Math.min(available, capacity());
+    }
+
+    public synchronized long getRate() {
+        return bytesPerSecond;
+    }
+
+    public synchronized void consume(long bytes) {
+        if (bytes <= 0) return;
+        refill();
+        if (bytesPerSecond > 0) available -= bytes;
+    }
+
+    /**
+     * Milliseconds until the bucket is out of debt, or 0 when a transfer may start now.
+     */
+    public synchronized long delayMs() {
+        refill();
+        if (bytesPerSecond <= 0 || available >= 0) return 0L;
+        return (long) Math.ceil(-available * 1000.0 / bytesPerSecond);
+    }
+
+    public void await() throws InterruptedException {
+        long delay;
+        while ((delay = delayMs()) > 0) {
+            Thread.sleep(Math.min(delay, 500L));
+        }
+    }
+
+    private void refill() {
+        long now = clock.nowMs();
+        long elapsed = Math.max(0L, now - refilledAt);
+        refilledAt = now;
+        if (bytesPerSecond <= 0) {
+            available = 0;
+            return;
+        }
+        available = Math.min(capacity(), available + elapsed * bytesPerSecond / 1000.0);
+    }
+
+    private double capacity() {
+        return (double) bytesPerSecond * burstSeconds;
+    }
+}
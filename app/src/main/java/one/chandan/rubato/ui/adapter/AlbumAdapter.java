@@ -11,23 +11,24 @@ import androidx.recyclerview.widget.RecyclerView;
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemLibraryAlbumBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.AlbumID3;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<AlbumID3> albums;
+    private final AsyncItemDiffer<AlbumID3> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public AlbumAdapter(ClickCallback click) {
         this.click = click;
-        this.albums = Collections.emptyList();
         setHasStableIds(true);
     }
 
@@ -40,7 +41,7 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.ViewHolder>
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        AlbumID3 album = albums.get(position);
+        AlbumID3 album = differ.get(position);
 
         holder.item.albumNameLabel.setText(album.getName());
         holder.item.artistNameLabel.setText(album.getArtist());
@@ -58,79 +59,48 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.ViewHolder>
 
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= albums.size()) {
+        if (position < 0 || position >= differ.size()) {
             return RecyclerView.NO_ID;
         }
-        AlbumID3 album = albums.get(position);
+        AlbumID3 album = differ.get(position);
         if (album == null) {
             return RecyclerView.NO_ID;
         }
         if (album.getId() != null) {
-            return album.getId().hashCode();
+            return stableIds.get(album.getId());
         }
         String key = (album.getName() == null ? "" : album.getName())
                 + "|" + (album.getArtist() == null ? "" : album.getArtist());
-        return key.hashCode();
+        return stableIds.get(key);
     }
 
     @Override
     public int getItemCount() {
-        return albums.size();
+        return differ.size();
     }
 
     public AlbumID3 getItem(int position) {
-        return albums.get(position);
+        return differ.get(position);
     }
 
     public void setItems(List<AlbumID3> albums) {
-        List<AlbumID3> next = albums == null ? Collections.emptyList() : albums;
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new AlbumDiffCallback(this.albums, next));
-        this.albums = next;
-        diffResult.dispatchUpdatesTo(this);
+        differ.submit(albums);
     }
 
-    private static class AlbumDiffCallback extends DiffUtil.Callback {
-        private final List<AlbumID3> oldList;
-        private final List<AlbumID3> newList;
-
-        AlbumDiffCallback(List<AlbumID3> oldList, List<AlbumID3> newList) {
-            this.oldList = oldList == null ? Collections.emptyList() : oldList;
-            this.newList = newList == null ? Collections.emptyList() : newList;
-        }
-
-        @Override
-        public int getOldListSize() {
-            return oldList.size();
-        }
-
+    private static final DiffUtil.ItemCallback<AlbumID3> DIFF_CALLBACK = new DiffUtil.ItemCallback<AlbumID3>() {
         @Override
-        public int getNewListSize() {
-            return newList.size();
-        }
-
-        @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            AlbumID3 oldItem = oldList.get(oldItemPosition);
-            AlbumID3 newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areItemsTheSame(@NonNull AlbumID3 oldItem, @NonNull AlbumID3 newItem) {
             return Objects.equals(oldItem.getId(), newItem.getId())
                     && Objects.equals(oldItem.getName(), newItem.getName());
         }
 
         @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            AlbumID3 oldItem = oldList.get(oldItemPosition);
-            AlbumID3 newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areContentsTheSame(@NonNull AlbumID3 oldItem, @NonNull AlbumID3 newItem) {
             return Objects.equals(oldItem.getName(), newItem.getName())
                     && Objects.equals(oldItem.getArtist(), newItem.getArtist())
                     && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId());
         }
-    }
+    };
 
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemLibraryAlbumBinding item;
@@ -149,14 +119,14 @@ public class AlbumAdapter extends RecyclerView.Adapter<AlbumAdapter.ViewHolder>
 
         private void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ALBUM_OBJECT, albums.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ALBUM_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onAlbumClick(bundle);
         }
 
         private boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ALBUM_OBJECT, albums.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ALBUM_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onAlbumLongClick(bundle);
 
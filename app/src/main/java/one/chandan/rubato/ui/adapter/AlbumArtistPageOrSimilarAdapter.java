@@ -5,26 +5,30 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemLibraryArtistPageOrSimilarAlbumBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.AlbumID3;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public class AlbumArtistPageOrSimilarAdapter extends RecyclerView.Adapter<AlbumArtistPageOrSimilarAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<AlbumID3> albums;
+    private final AsyncItemDiffer<AlbumID3> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public AlbumArtistPageOrSimilarAdapter(ClickCallback click) {
         this.click = click;
-        this.albums = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -36,7 +40,7 @@ public class AlbumArtistPageOrSimilarAdapter extends RecyclerView.Adapter<AlbumA
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        AlbumID3 album = albums.get(position);
+        AlbumID3 album = differ.get(position);
 
         holder.item.albumNameLabel.setText(album.getName());
         holder.item.artistNameLabel.setText(album.getArtist());
@@ -49,18 +53,37 @@ public class AlbumArtistPageOrSimilarAdapter extends RecyclerView.Adapter<AlbumA
 
     @Override
     public int getItemCount() {
-        return albums.size();
+        return differ.size();
     }
 
     public AlbumID3 getItem(int position) {
-        return albums.get(position);
+        return differ.get(position);
     }
 
     public void setItems(List<AlbumID3> albums) {
-        this.albums = albums;
-        notifyDataSetChanged();
+        differ.submit(albums);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<AlbumID3> DIFF_CALLBACK = new DiffUtil.ItemCallback<AlbumID3>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull AlbumID3 oldItem, @NonNull AlbumID3 newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull AlbumID3 oldItem, @NonNull AlbumID3 newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getArtist(), newItem.getArtist())
+                    && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId());
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemLibraryArtistPageOrSimilarAlbumBinding item;
 
@@ -78,14 +101,14 @@ public class AlbumArtistPageOrSimilarAdapter extends RecyclerView.Adapter<AlbumA
 
         private void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ALBUM_OBJECT, albums.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ALBUM_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onAlbumClick(bundle);
         }
 
         private boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ALBUM_OBJECT, albums.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ALBUM_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onAlbumLongClick(bundle);
 
@@ -3,8 +3,6 @@ package one.chandan.rubato.ui.adapter;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
-import android.widget.Filter;
-import android.widget.Filterable;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.DiffUtil;
@@ -13,6 +11,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemHorizontalAlbumBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
+import one.chandan.rubato.helper.recyclerview.ItemFilter;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.AlbumID3;
 import one.chandan.rubato.subsonic.models.Child;
@@ -20,63 +21,21 @@ import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
-public class AlbumHorizontalAdapter extends RecyclerView.Adapter<AlbumHorizontalAdapter.ViewHolder> implements Filterable {
+public class AlbumHorizontalAdapter extends RecyclerView.Adapter<AlbumHorizontalAdapter.ViewHolder> {
     private final ClickCallback click;
     private final boolean isOffline;
 
-    private List<AlbumID3> albumsFull;
-    private List<AlbumID3> albums;
-    private String currentFilter;
-
-    private final Filter filtering = new Filter() {
-        @Override
-        protected FilterResults performFiltering(CharSequence constraint) {
-            List<AlbumID3> filteredList = new ArrayList<>();
-
-            if (constraint == null || constraint.length() == 0) {
-                currentFilter = "";
-                filteredList.addAll(albumsFull);
-            } else {
-                String filterPattern = constraint.toString().toLowerCase().trim();
-                currentFilter = filterPattern;
-
-                for (AlbumID3 item : albumsFull) {
-                    String name = item.getName();
-                    if (name != null && name.toLowerCase().contains(filterPattern)) {
-                        filteredList.add(item);
-                    }
-                }
-            }
-
-            FilterResults results = new FilterResults();
-            results.values = filteredList;
-
-            return results;
-        }
-
-        @Override
-        protected void publishResults(CharSequence constraint, FilterResults results) {
-            String expected = currentFilter == null ? "" : currentFilter;
-            String incoming = constraint == null ? "" : constraint.toString();
-            if (!incoming.equals(expected)) {
-                return;
-            }
-            List<AlbumID3> next = results.values == null ? Collections.emptyList() : (List<AlbumID3>) results.values;
-            applyItems(next);
-        }
-    };
+    private final AsyncItemDiffer<AlbumID3> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
+    private final ItemFilter<AlbumID3> filter = new ItemFilter<>(differ, AlbumID3::getName);
 
     public AlbumHorizontalAdapter(ClickCallback click, boolean isOffline) {
         this.click = click;
         this.isOffline = isOffline;
-        this.albums = Collections.emptyList();
-        this.albumsFull = Collections.emptyList();
-        this.currentFilter = "";
         setHasStableIds(true);
     }
 
@@ -89,7 +48,7 @@ public class AlbumHorizontalAdapter extends RecyclerView.Adapter<AlbumHorizontal
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        AlbumID3 album = albums.get(position);
+        AlbumID3 album = differ.get(position);
 
         holder.item.albumTitleTextView.setText(album.getName());
         holder.item.albumArtistTextView.setText(album.getArtist());
@@ -107,93 +66,52 @@ public class AlbumHorizontalAdapter extends RecyclerView.Adapter<AlbumHorizontal
 
     @Override
     public int getItemCount() {
-        return albums.size();
+        return differ.size();
     }
 
     public void setItems(List<AlbumID3> albums) {
-        this.albumsFull = albums != null ? new ArrayList<>(albums) : Collections.emptyList();
-        if (currentFilter == null || currentFilter.isEmpty()) {
-            applyItems(this.albumsFull);
-        } else {
-            filtering.filter(currentFilter);
-        }
+        filter.setItems(albums);
     }
 
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= albums.size()) {
+        if (position < 0 || position >= differ.size()) {
             return RecyclerView.NO_ID;
         }
-        AlbumID3 album = albums.get(position);
+        AlbumID3 album = differ.get(position);
         if (album == null) {
             return RecyclerView.NO_ID;
         }
         if (album.getId() != null) {
-            return album.getId().hashCode();
+            return stableIds.get(album.getId());
         }
         String key = (album.getName() == null ? "" : album.getName())
                 + "|" + (album.getArtist() == null ? "" : album.getArtist());
-        return key.hashCode();
+        return stableIds.get(key);
     }
 
-    @Override
-    public Filter getFilter() {
-        return filtering;
+    public void filter(CharSequence query) {
+        filter.filter(query);
     }
 
     public AlbumID3 getItem(int id) {
-        return albums.get(id);
-    }
-
-    private void applyItems(List<AlbumID3> next) {
-        List<AlbumID3> safeNext = next == null ? Collections.emptyList() : new ArrayList<>(next);
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new AlbumDiffCallback(albums, safeNext));
-        albums = safeNext;
-        diffResult.dispatchUpdatesTo(this);
+        return differ.get(id);
     }
 
-    private static class AlbumDiffCallback extends DiffUtil.Callback {
-        private final List<AlbumID3> oldList;
-        private final List<AlbumID3> newList;
-
-        AlbumDiffCallback(List<AlbumID3> oldList, List<AlbumID3> newList) {
-            this.oldList = oldList == null ? Collections.emptyList() : oldList;
-            this.newList = newList == null ? Collections.emptyList() : newList;
-        }
-
-        @Override
-        public int getOldListSize() {
-            return oldList.size();
-        }
-
+    private static final DiffUtil.ItemCallback<AlbumID3> DIFF_CALLBACK = new DiffUtil.ItemCallback<AlbumID3>() {
         @Override
-        public int getNewListSize() {
-            return newList.size();
-        }
-
-        @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            AlbumID3 oldItem = oldList.get(oldItemPosition);
-            AlbumID3 newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areItemsTheSame(@NonNull AlbumID3 oldItem, @NonNull AlbumID3 newItem) {
             return Objects.equals(oldItem.getId(), newItem.getId())
                     && Objects.equals(oldItem.getName(), newItem.getName());
         }
 
         @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            AlbumID3 oldItem = oldList.get(oldItemPosition);
-            AlbumID3 newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areContentsTheSame(@NonNull AlbumID3 oldItem, @NonNull AlbumID3 newItem) {
             return Objects.equals(oldItem.getName(), newItem.getName())
                     && Objects.equals(oldItem.getArtist(), newItem.getArtist())
                     && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId());
         }
-    }
+    };
 
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHorizontalAlbumBinding item;
@@ -213,14 +131,14 @@ public class AlbumHorizontalAdapter extends RecyclerView.Adapter<AlbumHorizontal
 
         private void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ALBUM_OBJECT, albums.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ALBUM_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onAlbumClick(bundle);
         }
 
         private boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ALBUM_OBJECT, albums.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ALBUM_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onAlbumLongClick(bundle);
 
@@ -229,6 +147,7 @@ public class AlbumHorizontalAdapter extends RecyclerView.Adapter<AlbumHorizontal
     }
 
     public void sort(String order) {
+        List<AlbumID3> albums = new ArrayList<>(differ.getItems());
         switch (order) {
             case Constants.ALBUM_ORDER_BY_NAME:
                 albums.sort(Comparator.comparing(AlbumID3::getName));
@@ -242,6 +161,6 @@ public class AlbumHorizontalAdapter extends RecyclerView.Adapter<AlbumHorizontal
                 break;
         }
 
-        notifyDataSetChanged();
+        differ.submit(albums);
     }
 }
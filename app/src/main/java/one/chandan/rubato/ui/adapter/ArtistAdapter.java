@@ -12,12 +12,13 @@ import androidx.recyclerview.widget.RecyclerView;
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemLibraryArtistBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.ArtistID3;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -27,13 +28,13 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ViewHolder
     private final boolean mix;
     private final boolean bestOf;
 
-    private List<ArtistID3> artists;
+    private final AsyncItemDiffer<ArtistID3> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public ArtistAdapter(ClickCallback click, Boolean mix, Boolean bestOf) {
         this.click = click;
         this.mix = mix;
         this.bestOf = bestOf;
-        this.artists = Collections.emptyList();
         setHasStableIds(true);
     }
 
@@ -46,7 +47,7 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ViewHolder
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        ArtistID3 artist = artists.get(position);
+        ArtistID3 artist = differ.get(position);
 
         holder.item.artistNameLabel.setText(artist.getName());
 
@@ -63,77 +64,46 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ViewHolder
 
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= artists.size()) {
+        if (position < 0 || position >= differ.size()) {
             return RecyclerView.NO_ID;
         }
-        ArtistID3 artist = artists.get(position);
+        ArtistID3 artist = differ.get(position);
         if (artist == null) {
             return RecyclerView.NO_ID;
         }
         if (artist.getId() != null) {
-            return artist.getId().hashCode();
+            return stableIds.get(artist.getId());
         }
-        return (artist.getName() == null ? "" : artist.getName()).hashCode();
+        return stableIds.get(artist.getName() == null ? "" : artist.getName());
     }
 
     @Override
     public int getItemCount() {
-        return artists.size();
+        return differ.size();
     }
 
     public ArtistID3 getItem(int position) {
-        return artists.get(position);
+        return differ.get(position);
     }
 
     public void setItems(List<ArtistID3> artists) {
-        List<ArtistID3> next = artists == null ? Collections.emptyList() : artists;
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new ArtistDiffCallback(this.artists, next));
-        this.artists = next;
-        diffResult.dispatchUpdatesTo(this);
+        differ.submit(artists);
     }
 
-    private static class ArtistDiffCallback extends DiffUtil.Callback {
-        private final List<ArtistID3> oldList;
-        private final List<ArtistID3> newList;
-
-        ArtistDiffCallback(List<ArtistID3> oldList, List<ArtistID3> newList) {
-            this.oldList = oldList == null ? Collections.emptyList() : oldList;
-            this.newList = newList == null ? Collections.emptyList() : newList;
-        }
-
-        @Override
-        public int getOldListSize() {
-            return oldList.size();
-        }
-
+    private static final DiffUtil.ItemCallback<ArtistID3> DIFF_CALLBACK = new DiffUtil.ItemCallback<ArtistID3>() {
         @Override
-        public int getNewListSize() {
-            return newList.size();
-        }
-
-        @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            ArtistID3 oldItem = oldList.get(oldItemPosition);
-            ArtistID3 newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areItemsTheSame(@NonNull ArtistID3 oldItem, @NonNull ArtistID3 newItem) {
             return Objects.equals(oldItem.getId(), newItem.getId())
                     && Objects.equals(oldItem.getName(), newItem.getName());
         }
 
         @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            ArtistID3 oldItem = oldList.get(oldItemPosition);
-            ArtistID3 newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areContentsTheSame(@NonNull ArtistID3 oldItem, @NonNull ArtistID3 newItem) {
             return Objects.equals(oldItem.getName(), newItem.getName())
                     && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId())
                     && oldItem.getAlbumCount() == newItem.getAlbumCount();
         }
-    }
+    };
 
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemLibraryArtistBinding item;
@@ -151,7 +121,7 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ViewHolder
 
         public void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ARTIST_OBJECT, artists.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ARTIST_OBJECT, differ.get(getBindingAdapterPosition()));
             bundle.putBoolean(Constants.MEDIA_MIX, mix);
             bundle.putBoolean(Constants.MEDIA_BEST_OF, bestOf);
 
@@ -160,7 +130,7 @@ public class ArtistAdapter extends RecyclerView.Adapter<ArtistAdapter.ViewHolder
 
         public boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ARTIST_OBJECT, artists.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ARTIST_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onArtistLongClick(bundle);
 
@@ -4,8 +4,6 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.Filter;
-import android.widget.Filterable;
 
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.DiffUtil;
@@ -14,6 +12,9 @@ import androidx.recyclerview.widget.RecyclerView;
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemHorizontalArtistBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
+import one.chandan.rubato.helper.recyclerview.ItemFilter;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.AlbumID3;
 import one.chandan.rubato.subsonic.models.ArtistID3;
@@ -21,61 +22,19 @@ import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 
-public class ArtistHorizontalAdapter extends RecyclerView.Adapter<ArtistHorizontalAdapter.ViewHolder> implements Filterable {
+public class ArtistHorizontalAdapter extends RecyclerView.Adapter<ArtistHorizontalAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<ArtistID3> artistsFull;
-    private List<ArtistID3> artists;
-    private String currentFilter;
-
-    private final Filter filtering = new Filter() {
-        @Override
-        protected FilterResults performFiltering(CharSequence constraint) {
-            List<ArtistID3> filteredList = new ArrayList<>();
-
-            if (constraint == null || constraint.length() == 0) {
-                currentFilter = "";
-                filteredList.addAll(artistsFull);
-            } else {
-                String filterPattern = constraint.toString().toLowerCase().trim();
-                currentFilter = filterPattern;
-
-                for (ArtistID3 item : artistsFull) {
-                    String name = item.getName();
-                    if (name != null && name.toLowerCase().contains(filterPattern)) {
-                        filteredList.add(item);
-                    }
-                }
-            }
-
-            FilterResults results = new FilterResults();
-            results.values = filteredList;
-
-            return results;
-        }
-
-        @Override
-        protected void publishResults(CharSequence constraint, FilterResults results) {
-            String expected = currentFilter == null ? "" : currentFilter;
-            String incoming = constraint == null ? "" : constraint.toString();
-            if (!incoming.equals(expected)) {
-                return;
-            }
-            List<ArtistID3> next = results.values == null ? Collections.emptyList() : (List<ArtistID3>) results.values;
-            applyItems(next);
-        }
-    };
+    private final AsyncItemDiffer<ArtistID3> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
+    private final ItemFilter<ArtistID3> filter = new ItemFilter<>(differ, ArtistID3::getName);
 
     public ArtistHorizontalAdapter(ClickCallback click) {
         this.click = click;
-        this.artists = Collections.emptyList();
-        this.artistsFull = Collections.emptyList();
-        this.currentFilter = "";
         setHasStableIds(true);
     }
 
@@ -88,7 +47,7 @@ public class ArtistHorizontalAdapter extends RecyclerView.Adapter<ArtistHorizont
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        ArtistID3 artist = artists.get(position);
+        ArtistID3 artist = differ.get(position);
 
         holder.item.artistNameTextView.setText(artist.getName());
 
@@ -111,91 +70,50 @@ public class ArtistHorizontalAdapter extends RecyclerView.Adapter<ArtistHorizont
 
     @Override
     public int getItemCount() {
-        return artists.size();
+        return differ.size();
     }
 
     public void setItems(List<ArtistID3> artists) {
-        this.artistsFull = artists != null ? new ArrayList<>(artists) : Collections.emptyList();
-        if (currentFilter == null || currentFilter.isEmpty()) {
-            applyItems(this.artistsFull);
-        } else {
-            filtering.filter(currentFilter);
-        }
+        filter.setItems(artists);
     }
 
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= artists.size()) {
+        if (position < 0 || position >= differ.size()) {
             return RecyclerView.NO_ID;
         }
-        ArtistID3 artist = artists.get(position);
+        ArtistID3 artist = differ.get(position);
         if (artist == null) {
             return RecyclerView.NO_ID;
         }
         if (artist.getId() != null) {
-            return artist.getId().hashCode();
+            return stableIds.get(artist.getId());
         }
-        return (artist.getName() == null ? "" : artist.getName()).hashCode();
+        return stableIds.get(artist.getName() == null ? "" : artist.getName());
     }
 
-    @Override
-    public Filter getFilter() {
-        return filtering;
+    public void filter(CharSequence query) {
+        filter.filter(query);
     }
 
     public ArtistID3 getItem(int id) {
-        return artists.get(id);
-    }
-
-    private void applyItems(List<ArtistID3> next) {
-        List<ArtistID3> safeNext = next == null ? Collections.emptyList() : new ArrayList<>(next);
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new ArtistDiffCallback(artists, safeNext));
-        artists = safeNext;
-        diffResult.dispatchUpdatesTo(this);
+        return differ.get(id);
     }
 
-    private static class ArtistDiffCallback extends DiffUtil.Callback {
-        private final List<ArtistID3> oldList;
-        private final List<ArtistID3> newList;
-
-        ArtistDiffCallback(List<ArtistID3> oldList, List<ArtistID3> newList) {
-            this.oldList = oldList == null ? Collections.emptyList() : oldList;
-            this.newList = newList == null ? Collections.emptyList() : newList;
-        }
-
-        @Override
-        public int getOldListSize() {
-            return oldList.size();
-        }
-
+    private static final DiffUtil.ItemCallback<ArtistID3> DIFF_CALLBACK = new DiffUtil.ItemCallback<ArtistID3>() {
         @Override
-        public int getNewListSize() {
-            return newList.size();
-        }
-
-        @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            ArtistID3 oldItem = oldList.get(oldItemPosition);
-            ArtistID3 newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areItemsTheSame(@NonNull ArtistID3 oldItem, @NonNull ArtistID3 newItem) {
             return Objects.equals(oldItem.getId(), newItem.getId())
                     && Objects.equals(oldItem.getName(), newItem.getName());
         }
 
         @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            ArtistID3 oldItem = oldList.get(oldItemPosition);
-            ArtistID3 newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areContentsTheSame(@NonNull ArtistID3 oldItem, @NonNull ArtistID3 newItem) {
             return Objects.equals(oldItem.getName(), newItem.getName())
                     && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId())
                     && oldItem.getAlbumCount() == newItem.getAlbumCount();
         }
-    }
+    };
 
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHorizontalArtistBinding item;
@@ -215,14 +133,14 @@ public class ArtistHorizontalAdapter extends RecyclerView.Adapter<ArtistHorizont
 
         private void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ARTIST_OBJECT, artists.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ARTIST_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onArtistClick(bundle);
         }
 
         public boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ARTIST_OBJECT, artists.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ARTIST_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onArtistLongClick(bundle);
 
@@ -231,6 +149,7 @@ public class ArtistHorizontalAdapter extends RecyclerView.Adapter<ArtistHorizont
     }
 
     public void sort(String order) {
+        List<ArtistID3> artists = new ArrayList<>(differ.getItems());
         switch (order) {
             case Constants.ARTIST_ORDER_BY_NAME:
                 artists.sort(Comparator.comparing(ArtistID3::getName));
@@ -244,6 +163,6 @@ public class ArtistHorizontalAdapter extends RecyclerView.Adapter<ArtistHorizont
                 break;
         }
 
-        notifyDataSetChanged();
+        differ.submit(artists);
     }
 }
@@ -5,26 +5,30 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemLibrarySimilarArtistBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.SimilarArtistID3;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public class ArtistSimilarAdapter extends RecyclerView.Adapter<ArtistSimilarAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<SimilarArtistID3> artists;
+    private final AsyncItemDiffer<SimilarArtistID3> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public ArtistSimilarAdapter(ClickCallback click) {
         this.click = click;
-        this.artists = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -36,7 +40,7 @@ public class ArtistSimilarAdapter extends RecyclerView.Adapter<ArtistSimilarAdap
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        SimilarArtistID3 artist = artists.get(position);
+        SimilarArtistID3 artist = differ.get(position);
 
         holder.item.artistNameLabel.setText(artist.getName());
 
@@ -48,28 +52,36 @@ public class ArtistSimilarAdapter extends RecyclerView.Adapter<ArtistSimilarAdap
 
     @Override
     public int getItemCount() {
-        return artists.size();
+        return differ.size();
     }
 
     public SimilarArtistID3 getItem(int position) {
-        return artists.get(position);
+        return differ.get(position);
     }
 
     public void setItems(List<SimilarArtistID3> artists) {
-        this.artists = artists;
-        notifyDataSetChanged();
-    }
-
-    @Override
-    public int getItemViewType(int position) {
-        return position;
+        differ.submit(artists);
     }
 
     @Override
     public long getItemId(int position) {
-        return position;
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
     }
 
+    private static final DiffUtil.ItemCallback<SimilarArtistID3> DIFF_CALLBACK = new DiffUtil.ItemCallback<SimilarArtistID3>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull SimilarArtistID3 oldItem, @NonNull SimilarArtistID3 newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull SimilarArtistID3 oldItem, @NonNull SimilarArtistID3 newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId());
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemLibrarySimilarArtistBinding item;
 
@@ -86,14 +98,14 @@ public class ArtistSimilarAdapter extends RecyclerView.Adapter<ArtistSimilarAdap
 
         public void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ARTIST_OBJECT, artists.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ARTIST_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onArtistClick(bundle);
         }
 
         public boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.ARTIST_OBJECT, artists.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.ARTIST_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onArtistLongClick(bundle);
 
@@ -15,24 +15,25 @@ import androidx.recyclerview.widget.RecyclerView;
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemHomeDiscoverSongBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 import com.google.android.material.card.MaterialCardView;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 public class DiscoverSongAdapter extends RecyclerView.Adapter<DiscoverSongAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<Child> songs;
+    private final AsyncItemDiffer<Child> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public DiscoverSongAdapter(ClickCallback click) {
         this.click = click;
-        this.songs = Collections.emptyList();
         setHasStableIds(true);
     }
 
@@ -45,7 +46,7 @@ public class DiscoverSongAdapter extends RecyclerView.Adapter<DiscoverSongAdapte
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Child song = songs.get(position);
+        Child song = differ.get(position);
 
         holder.item.titleDiscoverSongLabel.setText(song.getTitle());
         holder.item.albumDiscoverSongLabel.setText(song.getAlbum());
@@ -61,14 +62,14 @@ public class DiscoverSongAdapter extends RecyclerView.Adapter<DiscoverSongAdapte
 
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= songs.size()) {
+        if (position < 0 || position >= differ.size()) {
             return RecyclerView.NO_ID;
         }
-        Child song = songs.get(position);
+        Child song = differ.get(position);
         if (song == null || song.getId() == null) {
             return RecyclerView.NO_ID;
         }
-        return song.getId().hashCode();
+        return stableIds.get(song.getId());
     }
 
     @Override
@@ -79,14 +80,11 @@ public class DiscoverSongAdapter extends RecyclerView.Adapter<DiscoverSongAdapte
 
     @Override
     public int getItemCount() {
-        return songs.size();
+        return differ.size();
     }
 
     public void setItems(List<Child> songs) {
-        List<Child> next = songs == null ? Collections.emptyList() : songs;
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new SongDiffCallback(this.songs, next));
-        this.songs = next;
-        diffResult.dispatchUpdatesTo(this);
+        differ.submit(songs);
     }
 
     public class ViewHolder extends RecyclerView.ViewHolder {
@@ -102,7 +100,7 @@ public class DiscoverSongAdapter extends RecyclerView.Adapter<DiscoverSongAdapte
 
         public void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.TRACK_OBJECT, songs.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.TRACK_OBJECT, differ.get(getBindingAdapterPosition()));
             bundle.putBoolean(Constants.MEDIA_MIX, true);
 
             click.onMediaClick(bundle);
@@ -147,45 +145,17 @@ public class DiscoverSongAdapter extends RecyclerView.Adapter<DiscoverSongAdapte
         card.setRadius(Math.max(1f, minSize * ratio));
     }
 
-    private static class SongDiffCallback extends DiffUtil.Callback {
-        private final List<Child> oldList;
-        private final List<Child> newList;
-
-        SongDiffCallback(List<Child> oldList, List<Child> newList) {
-            this.oldList = oldList == null ? Collections.emptyList() : oldList;
-            this.newList = newList == null ? Collections.emptyList() : newList;
-        }
-
-        @Override
-        public int getOldListSize() {
-            return oldList.size();
-        }
-
+    private static final DiffUtil.ItemCallback<Child> DIFF_CALLBACK = new DiffUtil.ItemCallback<Child>() {
         @Override
-        public int getNewListSize() {
-            return newList.size();
-        }
-
-        @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            Child oldItem = oldList.get(oldItemPosition);
-            Child newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areItemsTheSame(@NonNull Child oldItem, @NonNull Child newItem) {
             return Objects.equals(oldItem.getId(), newItem.getId());
         }
 
         @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            Child oldItem = oldList.get(oldItemPosition);
-            Child newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areContentsTheSame(@NonNull Child oldItem, @NonNull Child newItem) {
             return Objects.equals(oldItem.getTitle(), newItem.getTitle())
                     && Objects.equals(oldItem.getAlbum(), newItem.getAlbum())
                     && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId());
         }
-    }
+    };
 }
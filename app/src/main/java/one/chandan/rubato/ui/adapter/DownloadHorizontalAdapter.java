@@ -15,6 +15,7 @@ import androidx.recyclerview.widget.RecyclerView;
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemHorizontalDownloadBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.util.Constants;
@@ -23,13 +24,16 @@ import one.chandan.rubato.util.Util;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
 @UnstableApi
 public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHorizontalAdapter.ViewHolder> {
     private final ClickCallback click;
+    private final StableIds stableIds = new StableIds();
 
     private String view;
     private String filterKey;
@@ -38,12 +42,15 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
     private List<Child> songs;
     private List<Child> shuffling;
     private List<Child> grouped;
+    // Group key -> number of songs in it, for the current view.
+    private Map<String, Integer> groupCounts;
 
     public DownloadHorizontalAdapter(ClickCallback click) {
         this.click = click;
         this.view = Constants.DOWNLOAD_TYPE_TRACK;
         this.songs = Collections.emptyList();
         this.grouped = Collections.emptyList();
+        this.groupCounts = Collections.emptyMap();
         setHasStableIds(true);
     }
 
@@ -93,16 +100,20 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
         List<Child> nextSongs = songs != null ? songs : Collections.emptyList();
         this.songs = nextSongs;
         List<Child> nextGrouped = groupSong(nextSongs);
+        Map<String, Integer> nextCounts = countGroups(this.view, nextSongs);
         this.shuffling = shufflingSong(new ArrayList<>(nextSongs));
 
-        if (viewChanged || !Constants.DOWNLOAD_TYPE_TRACK.equals(this.view)) {
+        if (viewChanged) {
+            // Every row now stands for a different kind of group; there is nothing to diff against.
             this.grouped = nextGrouped;
+            this.groupCounts = nextCounts;
             notifyDataSetChanged();
             return;
         }
 
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new DownloadDiffCallback(this.grouped, nextGrouped));
+        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new DownloadDiffCallback(this.view, this.grouped, nextGrouped, this.groupCounts, nextCounts));
         this.grouped = nextGrouped;
+        this.groupCounts = nextCounts;
         diffResult.dispatchUpdatesTo(this);
     }
 
@@ -152,30 +163,41 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
     @Override
     public long getItemId(int position) {
         if (position < 0 || position >= grouped.size()) return RecyclerView.NO_ID;
-        Child item = grouped.get(position);
-        String key;
+        String key = groupKey(view, grouped.get(position));
+        return stableIds.get(key);
+    }
+
+    private static String groupKey(String view, Child item) {
+        if (item == null) return null;
         switch (view) {
             case Constants.DOWNLOAD_TYPE_TRACK:
-                key = item.getId();
-                break;
+                return item.getId();
             case Constants.DOWNLOAD_TYPE_ALBUM:
-                key = item.getAlbumId();
-                break;
+                return item.getAlbumId();
             case Constants.DOWNLOAD_TYPE_ARTIST:
-                key = item.getArtistId();
-                break;
+                return item.getArtistId();
             case Constants.DOWNLOAD_TYPE_GENRE:
-                key = item.getGenre();
-                break;
+                return item.getGenre();
             case Constants.DOWNLOAD_TYPE_YEAR:
-                key = item.getYear() != null ? item.getYear().toString() : null;
-                break;
+                return item.getYear() != null ? item.getYear().toString() : null;
             default:
-                key = null;
-                break;
+                return null;
+        }
+    }
+
+    private static Map<String, Integer> countGroups(String view, List<Child> songs) {
+        if (Constants.DOWNLOAD_TYPE_TRACK.equals(view)) return Collections.emptyMap();
+        Map<String, Integer> counts = new HashMap<>();
+        for (Child song : songs) {
+            String key = groupKey(view, song);
+            if (key != null) counts.merge(key, 1, Integer::sum);
         }
+        return counts;
+    }
 
-        return key != null ? key.hashCode() : RecyclerView.NO_ID;
+    private String countGroup(String key) {
+        Integer count = key != null ? groupCounts.get(key) : null;
+        return String.valueOf(count != null ? count : 0);
     }
 
     private List<Child> groupSong(List<Child> songs) {
@@ -196,12 +218,18 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
     }
 
     private static final class DownloadDiffCallback extends DiffUtil.Callback {
+        private final String view;
         private final List<Child> oldList;
         private final List<Child> newList;
+        private final Map<String, Integer> oldCounts;
+        private final Map<String, Integer> newCounts;
 
-        private DownloadDiffCallback(List<Child> oldList, List<Child> newList) {
+        private DownloadDiffCallback(String view, List<Child> oldList, List<Child> newList, Map<String, Integer> oldCounts, Map<String, Integer> newCounts) {
+            this.view = view;
             this.oldList = oldList != null ? oldList : Collections.emptyList();
             this.newList = newList != null ? newList : Collections.emptyList();
+            this.oldCounts = oldCounts;
+            this.newCounts = newCounts;
         }
 
         @Override
@@ -219,7 +247,7 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
             Child oldItem = oldList.get(oldItemPosition);
             Child newItem = newList.get(newItemPosition);
             if (oldItem == null || newItem == null) return false;
-            return Objects.equals(oldItem.getId(), newItem.getId());
+            return Objects.equals(groupKey(view, oldItem), groupKey(view, newItem));
         }
 
         @Override
@@ -227,7 +255,9 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
             Child oldItem = oldList.get(oldItemPosition);
             Child newItem = newList.get(newItemPosition);
             if (oldItem == null || newItem == null) return false;
-            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+            String key = groupKey(view, newItem);
+            return Objects.equals(oldCounts.get(key), newCounts.get(key))
+                    && Objects.equals(oldItem.getTitle(), newItem.getTitle())
                     && Objects.equals(oldItem.getArtist(), newItem.getArtist())
                     && Objects.equals(oldItem.getAlbum(), newItem.getAlbum())
                     && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId())
@@ -307,25 +337,6 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
         }
     }
 
-    private String countSong(String filterKey, String filterValue, List<Child> songs) {
-        if (filterValue != null) {
-            switch (filterKey) {
-                case Constants.DOWNLOAD_TYPE_TRACK:
-                    return String.valueOf(songs.stream().filter(child -> child.getId().equals(filterValue)).count());
-                case Constants.DOWNLOAD_TYPE_ALBUM:
-                    return String.valueOf(songs.stream().filter(child -> Objects.equals(child.getAlbumId(), filterValue)).count());
-                case Constants.DOWNLOAD_TYPE_GENRE:
-                    return String.valueOf(songs.stream().filter(child -> Objects.equals(child.getGenre(), filterValue)).count());
-                case Constants.DOWNLOAD_TYPE_YEAR:
-                    return String.valueOf(songs.stream().filter(child -> Objects.equals(child.getYear(), Integer.valueOf(filterValue))).count());
-                case Constants.DOWNLOAD_TYPE_ARTIST:
-                    return String.valueOf(songs.stream().filter(child -> Objects.equals(child.getArtistId(), filterValue)).count());
-            }
-        }
-
-        return "0";
-    }
-
     private void initTrackLayout(ViewHolder holder, int position) {
         Child song = grouped.get(position);
         Drawable placeholder = CustomGlideRequest.getPlaceholderDrawable(holder.itemView.getContext(), CustomGlideRequest.ResourceType.Song);
@@ -369,7 +380,7 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
         holder.item.itemCoverImageView.setImageDrawable(placeholder);
 
         holder.item.downloadedItemTitleTextView.setText(song.getAlbum());
-        holder.item.downloadedItemSubtitleTextView.setText(holder.itemView.getContext().getString(R.string.download_item_single_subtitle_formatter, countSong(Constants.DOWNLOAD_TYPE_ALBUM, song.getAlbumId(), songs)));
+        holder.item.downloadedItemSubtitleTextView.setText(holder.itemView.getContext().getString(R.string.download_item_single_subtitle_formatter, countGroup(song.getAlbumId())));
         holder.item.downloadedItemPreTextView.setText(song.getArtist());
 
         String coverArtId = resolveCoverArtId(song);
@@ -398,7 +409,7 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
         holder.item.itemCoverImageView.setImageDrawable(placeholder);
 
         holder.item.downloadedItemTitleTextView.setText(song.getArtist());
-        holder.item.downloadedItemSubtitleTextView.setText(holder.itemView.getContext().getString(R.string.download_item_single_subtitle_formatter, countSong(Constants.DOWNLOAD_TYPE_ARTIST, song.getArtistId(), songs)));
+        holder.item.downloadedItemSubtitleTextView.setText(holder.itemView.getContext().getString(R.string.download_item_single_subtitle_formatter, countGroup(song.getArtistId())));
 
         String coverArtId = resolveCoverArtId(song);
         CustomGlideRequest.Builder
@@ -418,7 +429,7 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
         Child song = grouped.get(position);
 
         holder.item.downloadedItemTitleTextView.setText(song.getGenre());
-        holder.item.downloadedItemSubtitleTextView.setText(holder.itemView.getContext().getString(R.string.download_item_single_subtitle_formatter, countSong(Constants.DOWNLOAD_TYPE_GENRE, song.getGenre(), songs)));
+        holder.item.downloadedItemSubtitleTextView.setText(holder.itemView.getContext().getString(R.string.download_item_single_subtitle_formatter, countGroup(song.getGenre())));
 
         holder.item.itemCoverImageView.setVisibility(View.GONE);
         holder.item.downloadedItemMoreButton.setVisibility(View.VISIBLE);
@@ -429,7 +440,7 @@ public class DownloadHorizontalAdapter extends RecyclerView.Adapter<DownloadHori
         Child song = grouped.get(position);
 
         holder.item.downloadedItemTitleTextView.setText(String.valueOf(song.getYear()));
-        holder.item.downloadedItemSubtitleTextView.setText(holder.itemView.getContext().getString(R.string.download_item_single_subtitle_formatter, countSong(Constants.DOWNLOAD_TYPE_YEAR, song.getYear().toString(), songs)));
+        holder.item.downloadedItemSubtitleTextView.setText(holder.itemView.getContext().getString(R.string.download_item_single_subtitle_formatter, countGroup(song.getYear().toString())));
 
         holder.item.itemCoverImageView.setVisibility(View.GONE);
         holder.item.downloadedItemMoreButton.setVisibility(View.VISIBLE);
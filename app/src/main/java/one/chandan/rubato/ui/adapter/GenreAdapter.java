@@ -5,25 +5,29 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemLibraryGenreBinding;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.Genre;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public class GenreAdapter extends RecyclerView.Adapter<GenreAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<Genre> genres;
+    private final AsyncItemDiffer<Genre> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public GenreAdapter(ClickCallback click) {
         this.click = click;
-        this.genres = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -35,25 +39,42 @@ public class GenreAdapter extends RecyclerView.Adapter<GenreAdapter.ViewHolder>
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Genre genre = genres.get(position);
+        Genre genre = differ.get(position);
 
         holder.item.genreLabel.setText(genre.getGenre());
     }
 
     @Override
     public int getItemCount() {
-        return genres.size();
+        return differ.size();
     }
 
     public Genre getItem(int position) {
-        return genres.get(position);
+        return differ.get(position);
     }
 
     public void setItems(List<Genre> genres) {
-        this.genres = genres;
-        notifyDataSetChanged();
+        differ.submit(genres);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getGenre();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<Genre> DIFF_CALLBACK = new DiffUtil.ItemCallback<Genre>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Genre oldItem, @NonNull Genre newItem) {
+            return Objects.equals(oldItem.getGenre(), newItem.getGenre());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Genre oldItem, @NonNull Genre newItem) {
+            return Objects.equals(oldItem.getGenre(), newItem.getGenre());
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemLibraryGenreBinding item;
 
@@ -68,7 +89,7 @@ public class GenreAdapter extends RecyclerView.Adapter<GenreAdapter.ViewHolder>
         private void onClick() {
             Bundle bundle = new Bundle();
             bundle.putString(Constants.MEDIA_BY_GENRE, Constants.MEDIA_BY_GENRE);
-            bundle.putParcelable(Constants.GENRE_OBJECT, genres.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.GENRE_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onGenreClick(bundle);
         }
@@ -5,26 +5,30 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemHomeGridTrackBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.model.Chronology;
 import one.chandan.rubato.util.Constants;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public class GridTrackAdapter extends RecyclerView.Adapter<GridTrackAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<Chronology> items;
+    private final AsyncItemDiffer<Chronology> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public GridTrackAdapter(ClickCallback click) {
         this.click = click;
-        this.items = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -36,7 +40,7 @@ public class GridTrackAdapter extends RecyclerView.Adapter<GridTrackAdapter.View
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Chronology item = items.get(position);
+        Chronology item = differ.get(position);
 
         CustomGlideRequest.Builder
                 .from(holder.itemView.getContext(), item.getCoverArtId(), CustomGlideRequest.ResourceType.Song)
@@ -46,18 +50,35 @@ public class GridTrackAdapter extends RecyclerView.Adapter<GridTrackAdapter.View
 
     @Override
     public int getItemCount() {
-        return items.size();
+        return differ.size();
     }
 
     public Chronology getItem(int position) {
-        return items.get(position);
+        return differ.get(position);
     }
 
     public void setItems(List<Chronology> items) {
-        this.items = items;
-        notifyDataSetChanged();
+        differ.submit(items);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<Chronology> DIFF_CALLBACK = new DiffUtil.ItemCallback<Chronology>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Chronology oldItem, @NonNull Chronology newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Chronology oldItem, @NonNull Chronology newItem) {
+            return Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId());
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHomeGridTrackBinding item;
 
@@ -71,7 +92,7 @@ public class GridTrackAdapter extends RecyclerView.Adapter<GridTrackAdapter.View
 
         public void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelableArrayList(Constants.TRACKS_OBJECT, new ArrayList<>(items));
+            bundle.putParcelableArrayList(Constants.TRACKS_OBJECT, new ArrayList<>(differ.getItems()));
             bundle.putBoolean(Constants.MEDIA_CHRONOLOGY, true);
             bundle.putInt(Constants.ITEM_POSITION, getBindingAdapterPosition());
 
@@ -5,24 +5,28 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemHorizontalHomeSectorBinding;
 import one.chandan.rubato.databinding.ItemHorizontalPlaylistDialogTrackBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.model.HomeSector;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public class HomeSectorHorizontalAdapter extends RecyclerView.Adapter<HomeSectorHorizontalAdapter.ViewHolder> {
-    private List<HomeSector> sectors;
+    private final AsyncItemDiffer<HomeSector> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public HomeSectorHorizontalAdapter() {
-        this.sectors = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -34,7 +38,7 @@ public class HomeSectorHorizontalAdapter extends RecyclerView.Adapter<HomeSector
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        HomeSector sector = sectors.get(position);
+        HomeSector sector = differ.get(position);
 
         holder.item.homeSectorTitleCheckBox.setText(sector.getSectorTitle());
         holder.item.homeSectorTitleCheckBox.setChecked(sector.isVisible());
@@ -42,22 +46,39 @@ public class HomeSectorHorizontalAdapter extends RecyclerView.Adapter<HomeSector
 
     @Override
     public int getItemCount() {
-        return sectors.size();
+        return differ.size();
     }
 
     public List<HomeSector> getItems() {
-        return this.sectors;
+        return differ.getItems();
     }
 
     public void setItems(List<HomeSector> sectors) {
-        this.sectors = sectors;
-        notifyDataSetChanged();
+        differ.submit(sectors);
     }
 
     public HomeSector getItem(int id) {
-        return sectors.get(id);
+        return differ.get(id);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<HomeSector> DIFF_CALLBACK = new DiffUtil.ItemCallback<HomeSector>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull HomeSector oldItem, @NonNull HomeSector newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull HomeSector oldItem, @NonNull HomeSector newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHorizontalHomeSectorBinding item;
 
@@ -70,7 +91,7 @@ public class HomeSectorHorizontalAdapter extends RecyclerView.Adapter<HomeSector
         }
 
         private void onCheck(boolean isChecked) {
-            sectors.get(getBindingAdapterPosition()).setVisible(isChecked);
+            differ.get(getBindingAdapterPosition()).setVisible(isChecked);
         }
     }
 }
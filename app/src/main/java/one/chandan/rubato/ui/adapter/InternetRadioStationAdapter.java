@@ -6,26 +6,30 @@ import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.media3.common.util.UnstableApi;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemHomeInternetRadioStationBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.InternetRadioStation;
 import one.chandan.rubato.util.Constants;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 @UnstableApi
 public class InternetRadioStationAdapter extends RecyclerView.Adapter<InternetRadioStationAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<InternetRadioStation> internetRadioStations;
+    private final AsyncItemDiffer<InternetRadioStation> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public InternetRadioStationAdapter(ClickCallback click) {
         this.click = click;
-        this.internetRadioStations = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -37,7 +41,7 @@ public class InternetRadioStationAdapter extends RecyclerView.Adapter<InternetRa
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        InternetRadioStation internetRadioStation = internetRadioStations.get(position);
+        InternetRadioStation internetRadioStation = differ.get(position);
 
         holder.item.internetRadioStationTitleTextView.setText(internetRadioStation.getName());
         holder.item.internetRadioStationSubtitleTextView.setText(internetRadioStation.getStreamUrl());
@@ -50,18 +54,36 @@ public class InternetRadioStationAdapter extends RecyclerView.Adapter<InternetRa
 
     @Override
     public int getItemCount() {
-        return internetRadioStations.size();
+        return differ.size();
     }
 
     public void setItems(List<InternetRadioStation> internetRadioStations) {
-        this.internetRadioStations = internetRadioStations;
-        notifyDataSetChanged();
+        differ.submit(internetRadioStations);
     }
 
     public InternetRadioStation getItem(int position) {
-        return internetRadioStations.get(position);
+        return differ.get(position);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<InternetRadioStation> DIFF_CALLBACK = new DiffUtil.ItemCallback<InternetRadioStation>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull InternetRadioStation oldItem, @NonNull InternetRadioStation newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull InternetRadioStation oldItem, @NonNull InternetRadioStation newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getStreamUrl(), newItem.getStreamUrl());
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHomeInternetRadioStationBinding item;
 
@@ -81,14 +103,14 @@ public class InternetRadioStationAdapter extends RecyclerView.Adapter<InternetRa
 
         public void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.INTERNET_RADIO_STATION_OBJECT, internetRadioStations.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.INTERNET_RADIO_STATION_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onInternetRadioStationClick(bundle);
         }
 
         private boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.INTERNET_RADIO_STATION_OBJECT, internetRadioStations.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.INTERNET_RADIO_STATION_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onInternetRadioStationLongClick(bundle);
 
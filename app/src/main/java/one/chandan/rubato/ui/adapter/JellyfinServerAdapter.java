@@ -5,22 +5,26 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemLoginServerBinding;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.JellyfinClickCallback;
 import one.chandan.rubato.model.JellyfinServer;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class JellyfinServerAdapter extends RecyclerView.Adapter<JellyfinServerAdapter.ViewHolder> {
     private final JellyfinClickCallback clickCallback;
-    private List<JellyfinServer> servers;
+    private final AsyncItemDiffer<JellyfinServer> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public JellyfinServerAdapter(JellyfinClickCallback clickCallback) {
         this.clickCallback = clickCallback;
-        this.servers = new ArrayList<>();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -32,7 +36,7 @@ public class JellyfinServerAdapter extends RecyclerView.Adapter<JellyfinServerAd
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        JellyfinServer server = servers.get(position);
+        JellyfinServer server = differ.get(position);
         holder.item.serverNameTextView.setText(server.getName());
         String summary = server.getLibraryName();
         if (server.getAddress() != null && !server.getAddress().isEmpty()) {
@@ -43,14 +47,31 @@ public class JellyfinServerAdapter extends RecyclerView.Adapter<JellyfinServerAd
 
     @Override
     public int getItemCount() {
-        return servers.size();
+        return differ.size();
     }
 
     public void setItems(List<JellyfinServer> servers) {
-        this.servers = servers == null ? new ArrayList<>() : servers;
-        notifyDataSetChanged();
+        differ.submit(servers);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<JellyfinServer> DIFF_CALLBACK = new DiffUtil.ItemCallback<JellyfinServer>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull JellyfinServer oldItem, @NonNull JellyfinServer newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull JellyfinServer oldItem, @NonNull JellyfinServer newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemLoginServerBinding item;
 
@@ -65,13 +86,13 @@ public class JellyfinServerAdapter extends RecyclerView.Adapter<JellyfinServerAd
 
         private void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable("jellyfin_server", servers.get(getBindingAdapterPosition()));
+            bundle.putParcelable("jellyfin_server", differ.get(getBindingAdapterPosition()));
             clickCallback.onJellyfinClick(bundle);
         }
 
         private boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable("jellyfin_server", servers.get(getBindingAdapterPosition()));
+            bundle.putParcelable("jellyfin_server", differ.get(getBindingAdapterPosition()));
             clickCallback.onJellyfinLongClick(bundle);
             return true;
         }
@@ -4,13 +4,16 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemLocalSourceBinding;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.model.LocalSource;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class LocalSourceAdapter extends RecyclerView.Adapter<LocalSourceAdapter.ViewHolder> {
     public interface Listener {
@@ -18,11 +21,12 @@ public class LocalSourceAdapter extends RecyclerView.Adapter<LocalSourceAdapter.
     }
 
     private final Listener listener;
-    private List<LocalSource> sources;
+    private final AsyncItemDiffer<LocalSource> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public LocalSourceAdapter(Listener listener) {
         this.listener = listener;
-        this.sources = new ArrayList<>();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -34,7 +38,7 @@ public class LocalSourceAdapter extends RecyclerView.Adapter<LocalSourceAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        LocalSource source = sources.get(position);
+        LocalSource source = differ.get(position);
         if (source == null) {
             holder.item.localSourceName.setText("");
             holder.item.localSourcePath.setText("");
@@ -49,18 +53,35 @@ public class LocalSourceAdapter extends RecyclerView.Adapter<LocalSourceAdapter.
 
     @Override
     public int getItemCount() {
-        return sources.size();
+        return differ.size();
     }
 
     public void setItems(List<LocalSource> sources) {
-        this.sources = sources != null ? sources : new ArrayList<>();
-        notifyDataSetChanged();
+        differ.submit(sources);
     }
 
     public LocalSource getItem(int id) {
-        return sources.get(id);
+        return differ.get(id);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<LocalSource> DIFF_CALLBACK = new DiffUtil.ItemCallback<LocalSource>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull LocalSource oldItem, @NonNull LocalSource newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull LocalSource oldItem, @NonNull LocalSource newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
     static class ViewHolder extends RecyclerView.ViewHolder {
         ItemLocalSourceBinding item;
 
@@ -7,26 +7,39 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.R;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
 import one.chandan.rubato.util.MetadataSyncLogEntry;
 import one.chandan.rubato.util.MetadataSyncManager;
 
 import java.text.DateFormat;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 public class MetadataSyncLogAdapter extends RecyclerView.Adapter<MetadataSyncLogAdapter.ViewHolder> {
-    private final List<MetadataSyncLogEntry> items = new ArrayList<>();
+    // Entries are immutable and new ones are prepended, so a refresh is usually a single insert.
+    private static final DiffUtil.ItemCallback<MetadataSyncLogEntry> DIFF_CALLBACK = new DiffUtil.ItemCallback<MetadataSyncLogEntry>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull MetadataSyncLogEntry oldItem, @NonNull MetadataSyncLogEntry newItem) {
+            return oldItem.getTimestamp() == newItem.getTimestamp()
+                    && Objects.equals(oldItem.getStage(), newItem.getStage())
+                    && Objects.equals(oldItem.getMessage(), newItem.getMessage());
+        }
 
-    public void setItems(List<MetadataSyncLogEntry> entries) {
-        items.clear();
-        if (entries != null) {
-            items.addAll(entries);
+        @Override
+        public boolean areContentsTheSame(@NonNull MetadataSyncLogEntry oldItem, @NonNull MetadataSyncLogEntry newItem) {
+            return oldItem.isCompleted() == newItem.isCompleted();
         }
-        notifyDataSetChanged();
+    };
+
+    private final AsyncItemDiffer<MetadataSyncLogEntry> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+
+    public void setItems(List<MetadataSyncLogEntry> entries) {
+        differ.submit(entries);
     }
 
     @NonNull
@@ -38,7 +51,7 @@ public class MetadataSyncLogAdapter extends RecyclerView.Adapter<MetadataSyncLog
 
     @Override
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
-        MetadataSyncLogEntry entry = items.get(position);
+        MetadataSyncLogEntry entry = differ.get(position);
         Context context = holder.itemView.getContext();
         holder.message.setText(entry.getMessage());
         String stageLabel = resolveStageLabel(context, entry.getStage());
@@ -53,7 +66,7 @@ public class MetadataSyncLogAdapter extends RecyclerView.Adapter<MetadataSyncLog
 
     @Override
     public int getItemCount() {
-        return items.size();
+        return differ.size();
     }
 
     private String resolveStageLabel(Context context, String stage) {
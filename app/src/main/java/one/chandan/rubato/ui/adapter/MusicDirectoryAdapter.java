@@ -7,10 +7,13 @@ import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.media3.common.util.UnstableApi;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemLibraryMusicDirectoryBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.repository.LocalMusicRepository;
@@ -19,18 +22,19 @@ import one.chandan.rubato.util.DownloadUtil;
 import one.chandan.rubato.util.OfflinePolicy;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 @UnstableApi
 public class MusicDirectoryAdapter extends RecyclerView.Adapter<MusicDirectoryAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<Child> children;
+    private final AsyncItemDiffer<Child> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public MusicDirectoryAdapter(ClickCallback click) {
         this.click = click;
-        this.children = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -42,7 +46,7 @@ public class MusicDirectoryAdapter extends RecyclerView.Adapter<MusicDirectoryAd
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Child child = children.get(position);
+        Child child = differ.get(position);
         boolean isDownloaded = child.isDir() || DownloadUtil.getDownloadTracker(holder.itemView.getContext()).isDownloaded(child.getId());
         boolean isLocal = LocalMusicRepository.isLocalSong(child);
         boolean offlineUnavailable = !child.isDir() && OfflinePolicy.isOffline() && !isDownloaded && !isLocal;
@@ -68,14 +72,33 @@ public class MusicDirectoryAdapter extends RecyclerView.Adapter<MusicDirectoryAd
 
     @Override
     public int getItemCount() {
-        return children.size();
+        return differ.size();
     }
 
     public void setItems(List<Child> children) {
-        this.children = children != null ? children : Collections.emptyList();
-        notifyDataSetChanged();
+        differ.submit(children);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<Child> DIFF_CALLBACK = new DiffUtil.ItemCallback<Child>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Child oldItem, @NonNull Child newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Child oldItem, @NonNull Child newItem) {
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId())
+                    && oldItem.isDir() == newItem.isDir();
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemLibraryMusicDirectoryBinding item;
         boolean offlineUnavailable = false;
@@ -96,26 +119,26 @@ public class MusicDirectoryAdapter extends RecyclerView.Adapter<MusicDirectoryAd
         public void onClick() {
             Bundle bundle = new Bundle();
 
-            if (children.get(getBindingAdapterPosition()).isDir()) {
-                bundle.putString(Constants.MUSIC_DIRECTORY_ID, children.get(getBindingAdapterPosition()).getId());
+            if (differ.get(getBindingAdapterPosition()).isDir()) {
+                bundle.putString(Constants.MUSIC_DIRECTORY_ID, differ.get(getBindingAdapterPosition()).getId());
                 click.onMusicDirectoryClick(bundle);
             } else {
                 if (offlineUnavailable) {
-                    bundle.putParcelable(Constants.TRACK_OBJECT, children.get(getBindingAdapterPosition()));
+                    bundle.putParcelable(Constants.TRACK_OBJECT, differ.get(getBindingAdapterPosition()));
                     click.onMediaLongClick(bundle);
                     return;
                 }
 
-                bundle.putParcelableArrayList(Constants.TRACKS_OBJECT, new ArrayList<>(children));
+                bundle.putParcelableArrayList(Constants.TRACKS_OBJECT, new ArrayList<>(differ.getItems()));
                 bundle.putInt(Constants.ITEM_POSITION, getBindingAdapterPosition());
                 click.onMediaClick(bundle);
             }
         }
 
         private boolean onLongClick() {
-            if (!children.get(getBindingAdapterPosition()).isDir()) {
+            if (!differ.get(getBindingAdapterPosition()).isDir()) {
                 Bundle bundle = new Bundle();
-                bundle.putParcelable(Constants.TRACK_OBJECT, children.get(getBindingAdapterPosition()));
+                bundle.putParcelable(Constants.TRACK_OBJECT, differ.get(getBindingAdapterPosition()));
 
                 click.onMediaLongClick(bundle);
 
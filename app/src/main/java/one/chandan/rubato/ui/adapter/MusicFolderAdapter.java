@@ -6,28 +6,29 @@ import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.media3.common.util.UnstableApi;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemLibraryMusicFolderBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.model.LibrarySourceItem;
 import one.chandan.rubato.subsonic.models.MusicFolder;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.R;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 @UnstableApi
 public class MusicFolderAdapter extends RecyclerView.Adapter<MusicFolderAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<LibrarySourceItem> sources;
+    private final AsyncItemDiffer<LibrarySourceItem> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
 
     public MusicFolderAdapter(ClickCallback click) {
         this.click = click;
-        this.sources = Collections.emptyList();
     }
 
     @NonNull
@@ -39,7 +40,7 @@ public class MusicFolderAdapter extends RecyclerView.Adapter<MusicFolderAdapter.
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        LibrarySourceItem source = sources.get(position);
+        LibrarySourceItem source = differ.get(position);
 
         holder.item.musicFolderTitleTextView.setText(source.getTitle());
         String sourceTypeLabel = source.getKind() == LibrarySourceItem.Kind.SUBSONIC
@@ -67,18 +68,31 @@ public class MusicFolderAdapter extends RecyclerView.Adapter<MusicFolderAdapter.
 
     @Override
     public int getItemCount() {
-        return sources.size();
+        return differ.size();
     }
 
     public void setItems(List<LibrarySourceItem> sources) {
-        this.sources = sources != null ? sources : Collections.emptyList();
-        notifyDataSetChanged();
+        differ.submit(sources);
     }
 
     public LibrarySourceItem getItem(int position) {
-        return sources.get(position);
+        return differ.get(position);
     }
 
+    private static final DiffUtil.ItemCallback<LibrarySourceItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<LibrarySourceItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull LibrarySourceItem oldItem, @NonNull LibrarySourceItem newItem) {
+            return oldItem.getKind() == newItem.getKind()
+                    && Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getSourceName(), newItem.getSourceName());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull LibrarySourceItem oldItem, @NonNull LibrarySourceItem newItem) {
+            return true;
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemLibraryMusicFolderBinding item;
 
@@ -95,7 +109,7 @@ public class MusicFolderAdapter extends RecyclerView.Adapter<MusicFolderAdapter.
         }
 
         public void onClick() {
-            LibrarySourceItem source = sources.get(getBindingAdapterPosition());
+            LibrarySourceItem source = differ.get(getBindingAdapterPosition());
             Bundle bundle = new Bundle();
             if (source.getKind() == LibrarySourceItem.Kind.SUBSONIC && source.getMusicFolder() != null) {
                 bundle.putParcelable(Constants.MUSIC_FOLDER_OBJECT, source.getMusicFolder());
@@ -6,16 +6,18 @@ import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.media3.common.util.UnstableApi;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemLibraryMusicIndexBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.helper.recyclerview.FastScrollbar;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.Artist;
 import one.chandan.rubato.util.Constants;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -23,11 +25,12 @@ import java.util.Objects;
 public class MusicIndexAdapter extends RecyclerView.Adapter<MusicIndexAdapter.ViewHolder> implements FastScrollbar.BubbleTextGetter {
     private final ClickCallback click;
 
-    private List<Artist> artists;
+    private final AsyncItemDiffer<Artist> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public MusicIndexAdapter(ClickCallback click) {
         this.click = click;
-        this.artists = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -39,7 +42,7 @@ public class MusicIndexAdapter extends RecyclerView.Adapter<MusicIndexAdapter.Vi
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Artist artist = artists.get(position);
+        Artist artist = differ.get(position);
 
         holder.item.musicIndexTitleTextView.setText(artist.getName());
 
@@ -51,19 +54,36 @@ public class MusicIndexAdapter extends RecyclerView.Adapter<MusicIndexAdapter.Vi
 
     @Override
     public int getItemCount() {
-        return artists.size();
+        return differ.size();
     }
 
     public void setItems(List<Artist> artists) {
-        this.artists = artists;
-        notifyDataSetChanged();
+        differ.submit(artists);
     }
 
     @Override
     public String getTextToShowInBubble(int pos) {
-        return artists != null && !artists.isEmpty() ? Character.toString(Objects.requireNonNull(artists.get(pos).getName().toUpperCase()).charAt(0)) : null;
+        return differ.size() > 0 ? Character.toString(Objects.requireNonNull(differ.get(pos).getName().toUpperCase()).charAt(0)) : null;
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<Artist> DIFF_CALLBACK = new DiffUtil.ItemCallback<Artist>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Artist oldItem, @NonNull Artist newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Artist oldItem, @NonNull Artist newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName());
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemLibraryMusicIndexBinding item;
 
@@ -80,7 +100,7 @@ public class MusicIndexAdapter extends RecyclerView.Adapter<MusicIndexAdapter.Vi
 
         public void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putString(Constants.MUSIC_DIRECTORY_ID, artists.get(getBindingAdapterPosition()).getId());
+            bundle.putString(Constants.MUSIC_DIRECTORY_ID, differ.get(getBindingAdapterPosition()).getId());
             click.onMusicIndexClick(bundle);
         }
     }
@@ -14,6 +14,8 @@ import androidx.recyclerview.widget.RecyclerView;
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemPlayerQueueSongBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.util.Constants;
@@ -22,20 +24,22 @@ import one.chandan.rubato.util.Preferences;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 public class PlayerSongQueueAdapter extends RecyclerView.Adapter<PlayerSongQueueAdapter.ViewHolder> {
+    private static final Object PAYLOAD_PLAYED = new Object();
+    private static final Object PAYLOAD_RATING = new Object();
+
     private final ClickCallback click;
+    private final AsyncItemDiffer<Child> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     private ListenableFuture<MediaBrowser> mediaBrowserListenableFuture;
-    private List<Child> songs;
     private int currentIndex = -1;
 
     public PlayerSongQueueAdapter(ClickCallback click) {
         this.click = click;
-        this.songs = Collections.emptyList();
         setHasStableIds(true);
     }
 
@@ -46,9 +50,19 @@ public class PlayerSongQueueAdapter extends RecyclerView.Adapter<PlayerSongQueue
         return new ViewHolder(view);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty() || !payloads.stream().allMatch(payload -> payload == PAYLOAD_PLAYED || payload == PAYLOAD_RATING)) {
+            super.onBindViewHolder(holder, position, payloads);
+            return;
+        }
+        if (payloads.contains(PAYLOAD_PLAYED)) bindPlayed(holder, position);
+        if (payloads.contains(PAYLOAD_RATING)) bindRating(holder, differ.get(position));
+    }
+
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Child song = songs.get(position);
+        Child song = differ.get(position);
 
         holder.item.queueSongTitleTextView.setText(song.getTitle());
         holder.item.queueSongSubtitleTextView.setText(
@@ -65,12 +79,19 @@ public class PlayerSongQueueAdapter extends RecyclerView.Adapter<PlayerSongQueue
                 .build()
                 .into(holder.item.queueSongCoverImageView);
 
+        bindPlayed(holder, position);
+        bindRating(holder, song);
+    }
+
+    private void bindPlayed(ViewHolder holder, int position) {
         boolean dimmed = currentIndex >= 0 && position < currentIndex;
         float alpha = dimmed ? 0.2f : 1.0f;
         holder.item.queueSongTitleTextView.setAlpha(alpha);
         holder.item.queueSongSubtitleTextView.setAlpha(alpha);
         holder.item.ratingIndicatorImageView.setAlpha(alpha);
+    }
 
+    private void bindRating(ViewHolder holder, Child song) {
         if (Preferences.showItemRating()) {
             if (song.getStarred() == null && song.getUserRating() == null) {
                 holder.item.ratingIndicatorImageView.setVisibility(View.GONE);
@@ -92,37 +113,35 @@ public class PlayerSongQueueAdapter extends RecyclerView.Adapter<PlayerSongQueue
     }
 
     public List<Child> getItems() {
-        return this.songs;
+        return differ.getItems();
     }
 
     public void setItems(List<Child> songs) {
-        List<Child> next = songs != null ? songs : Collections.emptyList();
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new QueueDiffCallback(this.songs, next));
-        this.songs = next;
-        if (currentIndex >= next.size()) {
-            currentIndex = -1;
-        }
-        diffResult.dispatchUpdatesTo(this);
+        differ.submit(songs, () -> {
+            if (currentIndex >= differ.size()) {
+                currentIndex = -1;
+            }
+            // Moved rows keep their old dimming; refresh it without a full rebind.
+            notifyItemRangeChanged(0, differ.size(), PAYLOAD_PLAYED);
+        });
     }
 
     @Override
     public int getItemCount() {
-        if (songs == null) {
-            return 0;
-        }
-        return songs.size();
+        return differ.size();
     }
 
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= songs.size()) {
+        if (position < 0 || position >= differ.size()) {
             return RecyclerView.NO_ID;
         }
-        Child song = songs.get(position);
+        Child song = differ.get(position);
         if (song != null && song.getId() != null) {
-            return song.getId().hashCode();
+            return stableIds.get(song.getId());
         }
-        return position;
+        // Boxed, so it can never take the id of a song whose id reads as the same number.
+        return stableIds.get(position);
     }
 
     public void setMediaBrowserListenableFuture(ListenableFuture<MediaBrowser> mediaBrowserListenableFuture) {
@@ -130,25 +149,19 @@ public class PlayerSongQueueAdapter extends RecyclerView.Adapter<PlayerSongQueue
     }
 
     public Child getItem(int id) {
-        return songs.get(id);
+        return differ.get(id);
     }
 
     public void setCurrentIndex(int index) {
         if (index == currentIndex) return;
         int oldIndex = currentIndex;
         currentIndex = index;
-        if (songs == null || songs.isEmpty()) {
-            notifyDataSetChanged();
-            return;
-        }
-        if (oldIndex < 0 || currentIndex < 0) {
-            notifyDataSetChanged();
-            return;
-        }
-        int start = Math.min(oldIndex, currentIndex);
-        int end = Math.max(oldIndex, currentIndex) - 1;
-        if (start <= end) {
-            notifyItemRangeChanged(start, end - start + 1);
+        int size = differ.size();
+        if (size == 0) return;
+        int start = Math.max(0, Math.min(oldIndex, currentIndex));
+        int end = Math.min(size, Math.max(oldIndex, currentIndex));
+        if (start < end) {
+            notifyItemRangeChanged(start, end - start, PAYLOAD_PLAYED);
         }
     }
 
@@ -168,52 +181,37 @@ public class PlayerSongQueueAdapter extends RecyclerView.Adapter<PlayerSongQueue
 
         public void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelableArrayList(Constants.TRACKS_OBJECT, new ArrayList<>(songs));
+            bundle.putParcelableArrayList(Constants.TRACKS_OBJECT, new ArrayList<>(differ.getItems()));
             bundle.putInt(Constants.ITEM_POSITION, getBindingAdapterPosition());
 
             click.onMediaClick(bundle);
         }
     }
 
-    private static final class QueueDiffCallback extends DiffUtil.Callback {
-        private final List<Child> oldList;
-        private final List<Child> newList;
-
-        private QueueDiffCallback(List<Child> oldList, List<Child> newList) {
-            this.oldList = oldList != null ? oldList : Collections.emptyList();
-            this.newList = newList != null ? newList : Collections.emptyList();
-        }
-
+    private static final DiffUtil.ItemCallback<Child> DIFF_CALLBACK = new DiffUtil.ItemCallback<Child>() {
         @Override
-        public int getOldListSize() {
-            return oldList.size();
+        public boolean areItemsTheSame(@NonNull Child oldItem, @NonNull Child newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
         }
 
         @Override
-        public int getNewListSize() {
-            return newList.size();
+        public boolean areContentsTheSame(@NonNull Child oldItem, @NonNull Child newItem) {
+            return sameDetails(oldItem, newItem)
+                    && Objects.equals(oldItem.getUserRating(), newItem.getUserRating())
+                    && Objects.equals(oldItem.getStarred(), newItem.getStarred());
         }
 
         @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            Child oldItem = oldList.get(oldItemPosition);
-            Child newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) return false;
-            return Objects.equals(oldItem.getId(), newItem.getId());
+        public Object getChangePayload(@NonNull Child oldItem, @NonNull Child newItem) {
+            return sameDetails(oldItem, newItem) ? PAYLOAD_RATING : null;
         }
 
-        @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            Child oldItem = oldList.get(oldItemPosition);
-            Child newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) return false;
+        private boolean sameDetails(Child oldItem, Child newItem) {
             return Objects.equals(oldItem.getTitle(), newItem.getTitle())
                     && Objects.equals(oldItem.getArtist(), newItem.getArtist())
                     && Objects.equals(oldItem.getAlbum(), newItem.getAlbum())
                     && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId())
-                    && Objects.equals(oldItem.getDuration(), newItem.getDuration())
-                    && Objects.equals(oldItem.getUserRating(), newItem.getUserRating())
-                    && Objects.equals(oldItem.getStarred(), newItem.getStarred());
+                    && Objects.equals(oldItem.getDuration(), newItem.getDuration());
         }
-    }
+    };
 }
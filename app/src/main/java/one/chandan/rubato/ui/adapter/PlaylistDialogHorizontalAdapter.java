@@ -5,26 +5,30 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemHorizontalPlaylistDialogBinding;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.Playlist;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public class PlaylistDialogHorizontalAdapter extends RecyclerView.Adapter<PlaylistDialogHorizontalAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<Playlist> playlists;
+    private final AsyncItemDiffer<Playlist> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public PlaylistDialogHorizontalAdapter(ClickCallback click) {
         this.click = click;
-        this.playlists = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -36,7 +40,7 @@ public class PlaylistDialogHorizontalAdapter extends RecyclerView.Adapter<Playli
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Playlist playlist = playlists.get(position);
+        Playlist playlist = differ.get(position);
 
         holder.item.playlistDialogTitleTextView.setText(playlist.getName());
         holder.item.playlistDialogCountTextView.setText(holder.itemView.getContext().getString(R.string.playlist_counted_tracks, playlist.getSongCount(), MusicUtil.getReadableDurationString(playlist.getDuration(), false)));
@@ -44,18 +48,37 @@ public class PlaylistDialogHorizontalAdapter extends RecyclerView.Adapter<Playli
 
     @Override
     public int getItemCount() {
-        return playlists.size();
+        return differ.size();
     }
 
     public void setItems(List<Playlist> playlists) {
-        this.playlists = playlists;
-        notifyDataSetChanged();
+        differ.submit(playlists);
     }
 
     public Playlist getItem(int id) {
-        return playlists.get(id);
+        return differ.get(id);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<Playlist> DIFF_CALLBACK = new DiffUtil.ItemCallback<Playlist>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Playlist oldItem, @NonNull Playlist newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Playlist oldItem, @NonNull Playlist newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && oldItem.getSongCount() == newItem.getSongCount()
+                    && oldItem.getDuration() == newItem.getDuration();
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHorizontalPlaylistDialogBinding item;
 
@@ -71,7 +94,7 @@ public class PlaylistDialogHorizontalAdapter extends RecyclerView.Adapter<Playli
 
         public void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.PLAYLIST_OBJECT, playlists.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.PLAYLIST_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onPlaylistClick(bundle);
         }
@@ -4,21 +4,22 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemHorizontalPlaylistDialogTrackBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.util.MusicUtil;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public class PlaylistDialogSongHorizontalAdapter extends RecyclerView.Adapter<PlaylistDialogSongHorizontalAdapter.ViewHolder> {
-    private List<Child> songs;
+    private final AsyncItemDiffer<Child> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
 
     public PlaylistDialogSongHorizontalAdapter() {
-        this.songs = Collections.emptyList();
     }
 
     @NonNull
@@ -30,7 +31,7 @@ public class PlaylistDialogSongHorizontalAdapter extends RecyclerView.Adapter<Pl
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Child song = songs.get(position);
+        Child song = differ.get(position);
 
         holder.item.playlistDialogSongTitleTextView.setText(song.getTitle());
         holder.item.playlistDialogAlbumArtistTextView.setText(song.getArtist());
@@ -44,22 +45,36 @@ public class PlaylistDialogSongHorizontalAdapter extends RecyclerView.Adapter<Pl
 
     @Override
     public int getItemCount() {
-        return songs.size();
+        return differ.size();
     }
 
     public List<Child> getItems() {
-        return this.songs;
+        return differ.getItems();
     }
 
     public void setItems(List<Child> songs) {
-        this.songs = songs;
-        notifyDataSetChanged();
+        differ.submit(songs);
     }
 
     public Child getItem(int id) {
-        return songs.get(id);
+        return differ.get(id);
     }
 
+    private static final DiffUtil.ItemCallback<Child> DIFF_CALLBACK = new DiffUtil.ItemCallback<Child>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Child oldItem, @NonNull Child newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Child oldItem, @NonNull Child newItem) {
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getArtist(), newItem.getArtist())
+                    && Objects.equals(oldItem.getDuration(), newItem.getDuration())
+                    && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId());
+        }
+    };
+
     public static class ViewHolder extends RecyclerView.ViewHolder {
         ItemHorizontalPlaylistDialogTrackBinding item;
 
@@ -3,8 +3,6 @@ package one.chandan.rubato.ui.adapter;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
-import android.widget.Filter;
-import android.widget.Filterable;
 import android.graphics.drawable.Drawable;
 
 import androidx.annotation.NonNull;
@@ -21,6 +19,9 @@ import com.bumptech.glide.request.target.Target;
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemHorizontalPlaylistBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
+import one.chandan.rubato.helper.recyclerview.ItemFilter;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.repository.CacheRepository;
 import one.chandan.rubato.subsonic.models.Child;
@@ -38,45 +39,14 @@ import java.util.List;
 import java.util.Objects;
 import java.lang.reflect.Type;
 
-public class PlaylistHorizontalAdapter extends RecyclerView.Adapter<PlaylistHorizontalAdapter.ViewHolder> implements Filterable {
+public class PlaylistHorizontalAdapter extends RecyclerView.Adapter<PlaylistHorizontalAdapter.ViewHolder> {
     private final ClickCallback click;
     private final boolean enableItemLongPress;
     private final CacheRepository cacheRepository = new CacheRepository();
 
-    private List<Playlist> playlists;
-    private List<Playlist> playlistsFull;
-
-    private final Filter filtering = new Filter() {
-        @Override
-        protected FilterResults performFiltering(CharSequence constraint) {
-            List<Playlist> filteredList = new ArrayList<>();
-
-            if (constraint == null || constraint.length() == 0) {
-                filteredList.addAll(playlistsFull);
-            } else {
-                String filterPattern = constraint.toString().toLowerCase().trim();
-
-                for (Playlist item : playlistsFull) {
-                    if (item.getName().toLowerCase().contains(filterPattern)) {
-                        filteredList.add(item);
-                    }
-                }
-            }
-
-            FilterResults results = new FilterResults();
-            results.values = filteredList;
-
-            return results;
-        }
-
-        @Override
-        protected void publishResults(CharSequence constraint, FilterResults results) {
-            List<Playlist> next = results.values == null ? Collections.emptyList() : (List<Playlist>) results.values;
-            DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new PlaylistDiffCallback(playlists, next));
-            playlists = new ArrayList<>(next);
-            diffResult.dispatchUpdatesTo(PlaylistHorizontalAdapter.this);
-        }
-    };
+    private final AsyncItemDiffer<Playlist> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
+    private final ItemFilter<Playlist> filter = new ItemFilter<>(differ, Playlist::getName);
 
     public PlaylistHorizontalAdapter(ClickCallback click) {
         this(click, true);
@@ -85,7 +55,6 @@ public class PlaylistHorizontalAdapter extends RecyclerView.Adapter<PlaylistHori
     public PlaylistHorizontalAdapter(ClickCallback click, boolean enableItemLongPress) {
         this.click = click;
         this.enableItemLongPress = enableItemLongPress;
-        this.playlists = Collections.emptyList();
         setHasStableIds(true);
     }
 
@@ -98,7 +67,7 @@ public class PlaylistHorizontalAdapter extends RecyclerView.Adapter<PlaylistHori
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Playlist playlist = playlists.get(position);
+        Playlist playlist = differ.get(position);
 
         holder.item.playlistTitleTextView.setText(playlist.getName());
         holder.item.playlistSubtitleTextView.setText(holder.itemView.getContext().getString(R.string.playlist_counted_tracks, playlist.getSongCount(), MusicUtil.getReadableDurationString(playlist.getDuration(), false)));
@@ -147,57 +116,68 @@ public class PlaylistHorizontalAdapter extends RecyclerView.Adapter<PlaylistHori
 
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= playlists.size()) {
+        if (position < 0 || position >= differ.size()) {
             return RecyclerView.NO_ID;
         }
-        Playlist playlist = playlists.get(position);
+        Playlist playlist = differ.get(position);
         if (playlist == null) {
             return RecyclerView.NO_ID;
         }
         if (playlist.getId() != null) {
-            return playlist.getId().hashCode();
+            return stableIds.get(playlist.getId());
         }
-        return (playlist.getName() == null ? "" : playlist.getName()).hashCode();
+        return stableIds.get(playlist.getName() == null ? "" : playlist.getName());
     }
 
     @Override
     public int getItemCount() {
-        return playlists.size();
+        return differ.size();
     }
 
     public Playlist getItem(int id) {
-        return playlists.get(id);
+        return differ.get(id);
     }
 
     public List<Playlist> getItems() {
-        return playlists;
+        return differ.getItems();
     }
 
     public void swapItems(int fromPosition, int toPosition) {
-        if (playlists == null || playlists.isEmpty()) return;
+        List<Playlist> playlists = differ.getItems();
+        if (playlists.isEmpty()) return;
         if (fromPosition < 0 || toPosition < 0 || fromPosition >= playlists.size() || toPosition >= playlists.size()) return;
 
         Collections.swap(playlists, fromPosition, toPosition);
-        if (playlistsFull != null && playlistsFull.size() == playlists.size()) {
-            Collections.swap(playlistsFull, fromPosition, toPosition);
+        if (!filter.isActive()) {
+            filter.swap(fromPosition, toPosition);
         }
 
         notifyItemMoved(fromPosition, toPosition);
     }
 
     public void setItems(List<Playlist> playlists) {
-        List<Playlist> next = playlists == null ? new ArrayList<>() : new ArrayList<>(playlists);
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new PlaylistDiffCallback(this.playlists, next));
-        this.playlists = next;
-        this.playlistsFull = new ArrayList<>(this.playlists);
-        diffResult.dispatchUpdatesTo(this);
+        filter.setItems(playlists);
     }
 
-    @Override
-    public Filter getFilter() {
-        return filtering;
+    public void filter(CharSequence query) {
+        filter.filter(query);
     }
 
+    private static final DiffUtil.ItemCallback<Playlist> DIFF_CALLBACK = new DiffUtil.ItemCallback<Playlist>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Playlist oldItem, @NonNull Playlist newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Playlist oldItem, @NonNull Playlist newItem) {
+            return Objects.equals(oldItem.getName(), newItem.getName())
+                    && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId())
+                    && oldItem.getSongCount() == newItem.getSongCount()
+                    && oldItem.getDuration() == newItem.getDuration();
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHorizontalPlaylistBinding item;
 
@@ -217,14 +197,14 @@ public class PlaylistHorizontalAdapter extends RecyclerView.Adapter<PlaylistHori
 
         public void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.PLAYLIST_OBJECT, playlists.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.PLAYLIST_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onPlaylistClick(bundle);
         }
 
         public boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.PLAYLIST_OBJECT, playlists.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.PLAYLIST_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onPlaylistLongClick(bundle);
 
@@ -233,6 +213,7 @@ public class PlaylistHorizontalAdapter extends RecyclerView.Adapter<PlaylistHori
     }
 
     public void sort(String order) {
+        List<Playlist> playlists = new ArrayList<>(differ.getItems());
         switch (order) {
             case Constants.PLAYLIST_ORDER_BY_NAME:
                 playlists.sort(Comparator.comparing(Playlist::getName));
@@ -242,7 +223,7 @@ public class PlaylistHorizontalAdapter extends RecyclerView.Adapter<PlaylistHori
                 break;
         }
 
-        notifyDataSetChanged();
+        differ.submit(playlists);
     }
 
     private void requestCompositeCover(ViewHolder holder, Playlist playlist) {
@@ -274,47 +255,4 @@ public class PlaylistHorizontalAdapter extends RecyclerView.Adapter<PlaylistHori
             }
         });
     }
-
-    private static class PlaylistDiffCallback extends DiffUtil.Callback {
-        private final List<Playlist> oldList;
-        private final List<Playlist> newList;
-
-        PlaylistDiffCallback(List<Playlist> oldList, List<Playlist> newList) {
-            this.oldList = oldList == null ? Collections.emptyList() : oldList;
-            this.newList = newList == null ? Collections.emptyList() : newList;
-        }
-
-        @Override
-        public int getOldListSize() {
-            return oldList.size();
-        }
-
-        @Override
-        public int getNewListSize() {
-            return newList.size();
-        }
-
-        @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            Playlist oldItem = oldList.get(oldItemPosition);
-            Playlist newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
-            return Objects.equals(oldItem.getId(), newItem.getId());
-        }
-
-        @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            Playlist oldItem = oldList.get(oldItemPosition);
-            Playlist newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
-            return Objects.equals(oldItem.getName(), newItem.getName())
-                    && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId())
-                    && oldItem.getSongCount() == newItem.getSongCount()
-                    && oldItem.getDuration() == newItem.getDuration();
-        }
-    }
 }
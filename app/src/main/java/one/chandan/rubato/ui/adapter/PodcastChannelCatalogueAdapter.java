@@ -3,62 +3,33 @@ package one.chandan.rubato.ui.adapter;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
-import android.widget.Filter;
-import android.widget.Filterable;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemHomeCataloguePodcastChannelBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
+import one.chandan.rubato.helper.recyclerview.ItemFilter;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.PodcastChannel;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
-public class PodcastChannelCatalogueAdapter extends RecyclerView.Adapter<PodcastChannelCatalogueAdapter.ViewHolder> implements Filterable {
+public class PodcastChannelCatalogueAdapter extends RecyclerView.Adapter<PodcastChannelCatalogueAdapter.ViewHolder> {
     private final ClickCallback click;
-    private final Filter filtering = new Filter() {
-        @Override
-        protected FilterResults performFiltering(CharSequence constraint) {
-            List<PodcastChannel> filteredList = new ArrayList<>();
-
-            if (constraint == null || constraint.length() == 0) {
-                filteredList.addAll(podcastChannelsFull);
-            } else {
-                String filterPattern = constraint.toString().toLowerCase().trim();
-
-                for (PodcastChannel item : podcastChannelsFull) {
-                    if (item.getTitle().toLowerCase().contains(filterPattern)) {
-                        filteredList.add(item);
-                    }
-                }
-            }
-
-            FilterResults results = new FilterResults();
-            results.values = filteredList;
-
-            return results;
-        }
-
-        @Override
-        protected void publishResults(CharSequence constraint, FilterResults results) {
-            podcastChannels.clear();
-            if (results.count > 0) podcastChannels.addAll((List) results.values);
-            notifyDataSetChanged();
-        }
-    };
-
-    private List<PodcastChannel> podcastChannels;
-    private List<PodcastChannel> podcastChannelsFull;
+    private final AsyncItemDiffer<PodcastChannel> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
+    private final ItemFilter<PodcastChannel> filter = new ItemFilter<>(differ, PodcastChannel::getTitle);
 
     public PodcastChannelCatalogueAdapter(ClickCallback click) {
         this.click = click;
-        this.podcastChannels = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -70,7 +41,7 @@ public class PodcastChannelCatalogueAdapter extends RecyclerView.Adapter<Podcast
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        PodcastChannel podcastChannel = podcastChannels.get(position);
+        PodcastChannel podcastChannel = differ.get(position);
 
         holder.item.podcastChannelTitleLabel.setText(podcastChannel.getTitle());
 
@@ -82,34 +53,40 @@ public class PodcastChannelCatalogueAdapter extends RecyclerView.Adapter<Podcast
 
     @Override
     public int getItemCount() {
-        return podcastChannels.size();
+        return differ.size();
     }
 
     public PodcastChannel getItem(int position) {
-        return podcastChannels.get(position);
+        return differ.get(position);
     }
 
     public void setItems(List<PodcastChannel> podcastChannels) {
-        this.podcastChannels = podcastChannels;
-        this.podcastChannelsFull = new ArrayList<>(podcastChannels);
-        notifyDataSetChanged();
-    }
-
-    @Override
-    public int getItemViewType(int position) {
-        return position;
+        filter.setItems(podcastChannels);
     }
 
     @Override
     public long getItemId(int position) {
-        return position;
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
     }
 
-    @Override
-    public Filter getFilter() {
-        return filtering;
+    public void filter(CharSequence query) {
+        filter.filter(query);
     }
 
+    private static final DiffUtil.ItemCallback<PodcastChannel> DIFF_CALLBACK = new DiffUtil.ItemCallback<PodcastChannel>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull PodcastChannel oldItem, @NonNull PodcastChannel newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull PodcastChannel oldItem, @NonNull PodcastChannel newItem) {
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId());
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHomeCataloguePodcastChannelBinding item;
 
@@ -126,14 +103,14 @@ public class PodcastChannelCatalogueAdapter extends RecyclerView.Adapter<Podcast
 
         private void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.PODCAST_CHANNEL_OBJECT, podcastChannels.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.PODCAST_CHANNEL_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onPodcastChannelClick(bundle);
         }
 
         private boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.PODCAST_CHANNEL_OBJECT, podcastChannels.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.PODCAST_CHANNEL_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onPodcastChannelLongClick(bundle);
 
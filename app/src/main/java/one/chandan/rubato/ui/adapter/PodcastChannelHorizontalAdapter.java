@@ -5,26 +5,30 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemHorizontalPodcastChannelBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.PodcastChannel;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 public class PodcastChannelHorizontalAdapter extends RecyclerView.Adapter<PodcastChannelHorizontalAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<PodcastChannel> podcastChannels;
+    private final AsyncItemDiffer<PodcastChannel> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public PodcastChannelHorizontalAdapter(ClickCallback click) {
         this.click = click;
-        this.podcastChannels = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -36,7 +40,7 @@ public class PodcastChannelHorizontalAdapter extends RecyclerView.Adapter<Podcas
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        PodcastChannel podcastChannel = podcastChannels.get(position);
+        PodcastChannel podcastChannel = differ.get(position);
 
         holder.item.podcastChannelTitleTextView.setText(podcastChannel.getTitle());
         holder.item.podcastChannelDescriptionTextView.setText(MusicUtil.getReadableString(podcastChannel.getDescription()));
@@ -49,18 +53,37 @@ public class PodcastChannelHorizontalAdapter extends RecyclerView.Adapter<Podcas
 
     @Override
     public int getItemCount() {
-        return podcastChannels.size();
+        return differ.size();
     }
 
     public void setItems(List<PodcastChannel> podcastChannels) {
-        this.podcastChannels = podcastChannels;
-        notifyDataSetChanged();
+        differ.submit(podcastChannels);
     }
 
     public PodcastChannel getItem(int id) {
-        return podcastChannels.get(id);
+        return differ.get(id);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<PodcastChannel> DIFF_CALLBACK = new DiffUtil.ItemCallback<PodcastChannel>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull PodcastChannel oldItem, @NonNull PodcastChannel newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull PodcastChannel oldItem, @NonNull PodcastChannel newItem) {
+            return Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getDescription(), newItem.getDescription())
+                    && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId());
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHorizontalPodcastChannelBinding item;
 
@@ -80,14 +103,14 @@ public class PodcastChannelHorizontalAdapter extends RecyclerView.Adapter<Podcas
 
         private void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.PODCAST_CHANNEL_OBJECT, podcastChannels.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.PODCAST_CHANNEL_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onPodcastChannelClick(bundle);
         }
 
         private boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.PODCAST_CHANNEL_OBJECT, podcastChannels.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.PODCAST_CHANNEL_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onPodcastChannelLongClick(bundle);
 
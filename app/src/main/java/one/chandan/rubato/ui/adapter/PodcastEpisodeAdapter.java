@@ -6,11 +6,14 @@ import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemHomePodcastEpisodeBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.PodcastEpisode;
 import one.chandan.rubato.util.Constants;
@@ -25,12 +28,13 @@ import java.util.stream.Collectors;
 public class PodcastEpisodeAdapter extends RecyclerView.Adapter<PodcastEpisodeAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<PodcastEpisode> podcastEpisodes;
-    private List<PodcastEpisode> podcastEpisodesFull;
+    private final AsyncItemDiffer<PodcastEpisode> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
+    private List<PodcastEpisode> podcastEpisodesFull = Collections.emptyList();
 
     public PodcastEpisodeAdapter(ClickCallback click) {
         this.click = click;
-        this.podcastEpisodes = Collections.emptyList();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -42,7 +46,7 @@ public class PodcastEpisodeAdapter extends RecyclerView.Adapter<PodcastEpisodeAd
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        PodcastEpisode podcastEpisode = podcastEpisodes.get(position);
+        PodcastEpisode podcastEpisode = differ.get(position);
         SimpleDateFormat simpleDateFormat = new SimpleDateFormat("MMM d");
 
         holder.item.podcastTitleLabel.setText(podcastEpisode.getTitle());
@@ -62,25 +66,38 @@ public class PodcastEpisodeAdapter extends RecyclerView.Adapter<PodcastEpisodeAd
 
     @Override
     public int getItemCount() {
-        return podcastEpisodes.size();
+        return differ.size();
     }
 
     public void setItems(List<PodcastEpisode> podcastEpisodes) {
         this.podcastEpisodesFull = podcastEpisodes;
-        this.podcastEpisodes = podcastEpisodesFull.stream().filter(podcastEpisode -> Objects.equals(podcastEpisode.getStatus(), "completed")).collect(Collectors.toList());
-        notifyDataSetChanged();
-    }
-
-    @Override
-    public int getItemViewType(int position) {
-        return position;
+        differ.submit(podcastEpisodesFull.stream().filter(podcastEpisode -> Objects.equals(podcastEpisode.getStatus(), "completed")).collect(Collectors.toList()));
     }
 
     @Override
     public long getItemId(int position) {
-        return position;
+        String id = differ.get(position).getId();
+        return stableIds.get(id);
     }
 
+    private static final DiffUtil.ItemCallback<PodcastEpisode> DIFF_CALLBACK = new DiffUtil.ItemCallback<PodcastEpisode>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull PodcastEpisode oldItem, @NonNull PodcastEpisode newItem) {
+            return Objects.equals(oldItem.getId(), newItem.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull PodcastEpisode oldItem, @NonNull PodcastEpisode newItem) {
+            return Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                    && Objects.equals(oldItem.getTitle(), newItem.getTitle())
+                    && Objects.equals(oldItem.getArtist(), newItem.getArtist())
+                    && Objects.equals(oldItem.getPublishDate(), newItem.getPublishDate())
+                    && Objects.equals(oldItem.getDuration(), newItem.getDuration())
+                    && Objects.equals(oldItem.getDescription(), newItem.getDescription())
+                    && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId());
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHomePodcastEpisodeBinding item;
 
@@ -98,22 +115,22 @@ public class PodcastEpisodeAdapter extends RecyclerView.Adapter<PodcastEpisodeAd
         }
 
         public void onClick() {
-            PodcastEpisode podcastEpisode = podcastEpisodes.get(getBindingAdapterPosition());
+            PodcastEpisode podcastEpisode = differ.get(getBindingAdapterPosition());
 
             if (podcastEpisode.getStatus().equals("completed")) {
                 Bundle bundle = new Bundle();
-                bundle.putParcelable(Constants.PODCAST_OBJECT, podcastEpisodes.get(getBindingAdapterPosition()));
+                bundle.putParcelable(Constants.PODCAST_OBJECT, differ.get(getBindingAdapterPosition()));
 
                 click.onPodcastEpisodeClick(bundle);
             }
         }
 
         private boolean openMore() {
-            PodcastEpisode podcastEpisode = podcastEpisodes.get(getBindingAdapterPosition());
+            PodcastEpisode podcastEpisode = differ.get(getBindingAdapterPosition());
 
             if (podcastEpisode.getStatus().equals("completed")) {
                 Bundle bundle = new Bundle();
-                bundle.putParcelable(Constants.PODCAST_OBJECT, podcastEpisodes.get(getBindingAdapterPosition()));
+                bundle.putParcelable(Constants.PODCAST_OBJECT, differ.get(getBindingAdapterPosition()));
 
                 click.onPodcastEpisodeLongClick(bundle);
 
@@ -124,11 +141,11 @@ public class PodcastEpisodeAdapter extends RecyclerView.Adapter<PodcastEpisodeAd
         }
 
         public void requestDownload() {
-            PodcastEpisode podcastEpisode = podcastEpisodes.get(getBindingAdapterPosition());
+            PodcastEpisode podcastEpisode = differ.get(getBindingAdapterPosition());
 
             if (!podcastEpisode.getStatus().equals("completed")) {
                 Bundle bundle = new Bundle();
-                bundle.putParcelable(Constants.PODCAST_OBJECT, podcastEpisodes.get(getBindingAdapterPosition()));
+                bundle.putParcelable(Constants.PODCAST_OBJECT, differ.get(getBindingAdapterPosition()));
 
                 click.onPodcastEpisodeAltClick(bundle);
             }
@@ -138,13 +155,11 @@ public class PodcastEpisodeAdapter extends RecyclerView.Adapter<PodcastEpisodeAd
     public void sort(String order) {
         switch (order) {
             case Constants.PODCAST_FILTER_BY_DOWNLOAD:
-                podcastEpisodes = podcastEpisodesFull.stream().filter(podcastEpisode -> Objects.equals(podcastEpisode.getStatus(), "completed")).collect(Collectors.toList());
+                differ.submit(podcastEpisodesFull.stream().filter(podcastEpisode -> Objects.equals(podcastEpisode.getStatus(), "completed")).collect(Collectors.toList()));
                 break;
             case Constants.PODCAST_FILTER_BY_ALL:
-                podcastEpisodes = podcastEpisodesFull;
+                differ.submit(podcastEpisodesFull);
                 break;
         }
-
-        notifyDataSetChanged();
     }
 }
\ No newline at end of file
@@ -5,23 +5,27 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.databinding.ItemLoginServerBinding;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.model.Server;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class ServerAdapter extends RecyclerView.Adapter<ServerAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<Server> servers;
+    private final AsyncItemDiffer<Server> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public ServerAdapter(ClickCallback click) {
         this.click = click;
-        this.servers = new ArrayList<>();
+        setHasStableIds(true);
     }
 
     @NonNull
@@ -33,7 +37,7 @@ public class ServerAdapter extends RecyclerView.Adapter<ServerAdapter.ViewHolder
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Server server = servers.get(position);
+        Server server = differ.get(position);
 
         holder.item.serverNameTextView.setText(server.getServerName());
         holder.item.serverAddressTextView.setText(server.getAddress());
@@ -41,18 +45,35 @@ public class ServerAdapter extends RecyclerView.Adapter<ServerAdapter.ViewHolder
 
     @Override
     public int getItemCount() {
-        return servers.size();
+        return differ.size();
     }
 
     public void setItems(List<Server> servers) {
-        this.servers = servers;
-        notifyDataSetChanged();
+        differ.submit(servers);
     }
 
     public Server getItem(int id) {
-        return servers.get(id);
+        return differ.get(id);
     }
 
+    @Override
+    public long getItemId(int position) {
+        String id = differ.get(position).getServerId();
+        return stableIds.get(id);
+    }
+
+    private static final DiffUtil.ItemCallback<Server> DIFF_CALLBACK = new DiffUtil.ItemCallback<Server>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Server oldItem, @NonNull Server newItem) {
+            return Objects.equals(oldItem.getServerId(), newItem.getServerId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Server oldItem, @NonNull Server newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemLoginServerBinding item;
 
@@ -69,14 +90,14 @@ public class ServerAdapter extends RecyclerView.Adapter<ServerAdapter.ViewHolder
 
         public void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable("server_object", servers.get(getBindingAdapterPosition()));
+            bundle.putParcelable("server_object", differ.get(getBindingAdapterPosition()));
 
             click.onServerClick(bundle);
         }
 
         public boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable("server_object", servers.get(getBindingAdapterPosition()));
+            bundle.putParcelable("server_object", differ.get(getBindingAdapterPosition()));
 
             click.onServerLongClick(bundle);
 
@@ -11,24 +11,25 @@ import androidx.recyclerview.widget.RecyclerView;
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemHorizontalShareBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.Share;
 import one.chandan.rubato.util.Constants;
 import one.chandan.rubato.util.MusicUtil;
 import one.chandan.rubato.util.UIUtil;
 
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
 public class ShareHorizontalAdapter extends RecyclerView.Adapter<ShareHorizontalAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<Share> shares;
+    private final AsyncItemDiffer<Share> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
 
     public ShareHorizontalAdapter(ClickCallback click) {
         this.click = click;
-        this.shares = Collections.emptyList();
         setHasStableIds(true);
     }
 
@@ -41,7 +42,7 @@ public class ShareHorizontalAdapter extends RecyclerView.Adapter<ShareHorizontal
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Share share = shares.get(position);
+        Share share = differ.get(position);
 
         holder.item.shareTitleTextView.setText(share.getDescription());
         holder.item.shareSubtitleTextView.setText(holder.itemView.getContext().getString(R.string.share_subtitle_item, UIUtil.getReadableDate(share.getExpires())));
@@ -59,71 +60,40 @@ public class ShareHorizontalAdapter extends RecyclerView.Adapter<ShareHorizontal
 
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= shares.size()) {
+        if (position < 0 || position >= differ.size()) {
             return RecyclerView.NO_ID;
         }
-        Share share = shares.get(position);
+        Share share = differ.get(position);
         if (share == null) {
             return RecyclerView.NO_ID;
         }
         if (share.getId() != null) {
-            return share.getId().hashCode();
+            return stableIds.get(share.getId());
         }
-        return (share.getUrl() == null ? "" : share.getUrl()).hashCode();
+        return stableIds.get(share.getUrl() == null ? "" : share.getUrl());
     }
 
     @Override
     public int getItemCount() {
-        return shares.size();
+        return differ.size();
     }
 
     public void setItems(List<Share> shares) {
-        List<Share> next = shares == null ? Collections.emptyList() : shares;
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new ShareDiffCallback(this.shares, next));
-        this.shares = next;
-        diffResult.dispatchUpdatesTo(this);
+        differ.submit(shares);
     }
 
     public Share getItem(int id) {
-        return shares.get(id);
+        return differ.get(id);
     }
 
-    private static class ShareDiffCallback extends DiffUtil.Callback {
-        private final List<Share> oldList;
-        private final List<Share> newList;
-
-        ShareDiffCallback(List<Share> oldList, List<Share> newList) {
-            this.oldList = oldList == null ? Collections.emptyList() : oldList;
-            this.newList = newList == null ? Collections.emptyList() : newList;
-        }
-
-        @Override
-        public int getOldListSize() {
-            return oldList.size();
-        }
-
+    private static final DiffUtil.ItemCallback<Share> DIFF_CALLBACK = new DiffUtil.ItemCallback<Share>() {
         @Override
-        public int getNewListSize() {
-            return newList.size();
-        }
-
-        @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            Share oldItem = oldList.get(oldItemPosition);
-            Share newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areItemsTheSame(@NonNull Share oldItem, @NonNull Share newItem) {
             return Objects.equals(oldItem.getId(), newItem.getId());
         }
 
         @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            Share oldItem = oldList.get(oldItemPosition);
-            Share newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        public boolean areContentsTheSame(@NonNull Share oldItem, @NonNull Share newItem) {
             String oldCover = oldItem.getEntries() != null && !oldItem.getEntries().isEmpty()
                     ? oldItem.getEntries().get(0).getCoverArtId()
                     : null;
@@ -134,7 +104,7 @@ public class ShareHorizontalAdapter extends RecyclerView.Adapter<ShareHorizontal
                     && Objects.equals(oldItem.getExpires(), newItem.getExpires())
                     && Objects.equals(oldCover, newCover);
         }
-    }
+    };
 
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHorizontalShareBinding item;
@@ -155,14 +125,14 @@ public class ShareHorizontalAdapter extends RecyclerView.Adapter<ShareHorizontal
 
         private void onClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.SHARE_OBJECT, shares.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.SHARE_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onShareClick(bundle);
         }
 
         private boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.SHARE_OBJECT, shares.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.SHARE_OBJECT, differ.get(getBindingAdapterPosition()));
 
             click.onShareLongClick(bundle);
 
@@ -1,11 +1,10 @@
 package one.chandan.rubato.ui.adapter;
 
+import android.content.Context;
 import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.Filter;
-import android.widget.Filterable;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.content.res.AppCompatResources;
@@ -13,9 +12,13 @@ import androidx.media3.common.util.UnstableApi;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
+import one.chandan.rubato.App;
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemHorizontalTrackBinding;
 import one.chandan.rubato.glide.CustomGlideRequest;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
+import one.chandan.rubato.helper.recyclerview.StableIds;
+import one.chandan.rubato.helper.recyclerview.ItemFilter;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.subsonic.models.AlbumID3;
 import one.chandan.rubato.subsonic.models.Child;
@@ -35,54 +38,43 @@ import java.util.Objects;
 import java.util.Optional;
 
 @UnstableApi
-public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAdapter.ViewHolder> implements Filterable {
+public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAdapter.ViewHolder> {
+    private static final Object PAYLOAD_RATING = new Object();
+    private static final Object PAYLOAD_DOWNLOAD = new Object();
+
     private final ClickCallback click;
     private final boolean showCoverArt;
     private final boolean showAlbum;
     private final AlbumID3 album;
     private final boolean enableItemLongPress;
 
-    private List<Child> songsFull;
-    private List<Child> songs;
-    private String currentFilter;
-
-    private final Filter filtering = new Filter() {
-        @Override
-        protected FilterResults performFiltering(CharSequence constraint) {
-            List<Child> filteredList = new ArrayList<>();
-
-            if (constraint == null || constraint.length() == 0) {
-                currentFilter = "";
-                filteredList.addAll(songsFull);
-            } else {
-                String filterPattern = constraint.toString().toLowerCase().trim();
-                currentFilter = filterPattern;
-
-                for (Child item : songsFull) {
-                    String title = item.getTitle();
-                    if (title != null && title.toLowerCase().contains(filterPattern)) {
-                        filteredList.add(item);
-                    }
-                }
-            }
-
-            FilterResults results = new FilterResults();
-            results.values = filteredList;
+    private final AsyncItemDiffer<Row> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
+    private final StableIds stableIds = new StableIds();
+    private final ItemFilter<Row> filter = new ItemFilter<>(differ, row -> row.song.getTitle());
+
+    /**
+     * A song with the download and offline state it was last shown with, so a list re-submitted
+     * after a download finishes or connectivity changes diffs as changed.
+     */
+    private static final class Row {
+        final Child song;
+        volatile boolean downloaded;
+        volatile boolean offlineUnavailable;
+
+        Row(Child song) {
+            this.song = song;
+            refreshState(App.getContext());
+        }
 
-            return results;
+        void refreshState(Context context) {
+            downloaded = LocalMusicRepository.isLocalSong(song) || DownloadUtil.getDownloadTracker(context).isDownloaded(song.getId());
+            offlineUnavailable = OfflinePolicy.isOffline() && !downloaded;
         }
 
-        @Override
-        protected void publishResults(CharSequence constraint, FilterResults results) {
-            String expected = currentFilter == null ? "" : currentFilter;
-            String incoming = constraint == null ? "" : constraint.toString();
-            if (!incoming.equals(expected)) {
-                return;
-            }
-            List<Child> next = results.values == null ? Collections.emptyList() : (List<Child>) results.values;
-            applyItems(next);
+        boolean sameState(Row other) {
+            return downloaded == other.downloaded && offlineUnavailable == other.offlineUnavailable;
         }
-    };
+    }
 
     public SongHorizontalAdapter(ClickCallback click, boolean showCoverArt, boolean showAlbum, AlbumID3 album) {
         this(click, showCoverArt, showAlbum, album, true);
@@ -92,9 +84,6 @@ public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAd
         this.click = click;
         this.showCoverArt = showCoverArt;
         this.showAlbum = showAlbum;
-        this.songs = Collections.emptyList();
-        this.songsFull = Collections.emptyList();
-        this.currentFilter = "";
         this.album = album;
         this.enableItemLongPress = enableItemLongPress;
         setHasStableIds(true);
@@ -107,12 +96,24 @@ public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAd
         return new ViewHolder(view);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (!payloads.isEmpty() && payloads.stream().allMatch(payload -> payload == PAYLOAD_RATING || payload == PAYLOAD_DOWNLOAD)) {
+            Row row = differ.get(position);
+            if (payloads.contains(PAYLOAD_RATING)) bindRating(holder, row.song);
+            if (payloads.contains(PAYLOAD_DOWNLOAD)) bindDownloadState(holder, row);
+            return;
+        }
+        super.onBindViewHolder(holder, position, payloads);
+    }
+
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        Child song = songs.get(position);
-        boolean isLocal = LocalMusicRepository.isLocalSong(song);
-        boolean isDownloaded = isLocal || DownloadUtil.getDownloadTracker(holder.itemView.getContext()).isDownloaded(song.getId());
-        boolean offlineUnavailable = OfflinePolicy.isOffline() && !isDownloaded;
+        List<Row> rows = differ.getItems();
+        Row row = rows.get(position);
+        Child song = row.song;
+        // A full bind shows the current state, and the row keeps it for the next diff.
+        row.refreshState(holder.itemView.getContext());
 
         holder.item.searchResultSongTitleTextView.setText(song.getTitle());
 
@@ -129,12 +130,6 @@ public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAd
 
         holder.item.trackNumberTextView.setText(MusicUtil.getReadableTrackNumber(holder.itemView.getContext(), song.getTrack()));
 
-        if (isDownloaded) {
-            holder.item.searchResultDownloadIndicatorImageView.setVisibility(View.VISIBLE);
-        } else {
-            holder.item.searchResultDownloadIndicatorImageView.setVisibility(View.GONE);
-        }
-
         if (showCoverArt) CustomGlideRequest.Builder
                 .from(holder.itemView.getContext(), song.getCoverArtId(), CustomGlideRequest.ResourceType.Song)
                 .build()
@@ -142,26 +137,25 @@ public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAd
 
         holder.item.trackNumberTextView.setVisibility(showCoverArt ? View.INVISIBLE : View.VISIBLE);
         holder.item.songCoverImageView.setVisibility(showCoverArt ? View.VISIBLE : View.INVISIBLE);
-        holder.itemView.setAlpha(offlineUnavailable ? 0.5f : 1f);
-        holder.offlineUnavailable = offlineUnavailable;
+        bindDownloadState(holder, row);
 
         if (!showCoverArt &&
                 (position == 0 ||
-                        (position > 0 && songs.get(position - 1) != null &&
-                                songs.get(position - 1).getDiscNumber() != null &&
-                                songs.get(position).getDiscNumber() != null &&
-                                songs.get(position - 1).getDiscNumber() < songs.get(position).getDiscNumber()
+                        (position > 0 &&
+                                rows.get(position - 1).song.getDiscNumber() != null &&
+                                song.getDiscNumber() != null &&
+                                rows.get(position - 1).song.getDiscNumber() < song.getDiscNumber()
                         )
                 )
         ) {
             holder.item.differentDiskDividerSector.setVisibility(View.VISIBLE);
 
-            if (songs.get(position).getDiscNumber() != null && !Objects.requireNonNull(songs.get(position).getDiscNumber()).toString().isBlank()) {
-                holder.item.discTitleTextView.setText(holder.itemView.getContext().getString(R.string.disc_titleless, songs.get(position).getDiscNumber().toString()));
+            if (song.getDiscNumber() != null && !Objects.requireNonNull(song.getDiscNumber()).toString().isBlank()) {
+                holder.item.discTitleTextView.setText(holder.itemView.getContext().getString(R.string.disc_titleless, song.getDiscNumber().toString()));
             }
 
             if (album.getDiscTitles() != null) {
-                Optional<DiscTitle> discTitle = album.getDiscTitles().stream().filter(title -> Objects.equals(title.getDisc(), songs.get(position).getDiscNumber())).findFirst();
+                Optional<DiscTitle> discTitle = album.getDiscTitles().stream().filter(title -> Objects.equals(title.getDisc(), song.getDiscNumber())).findFirst();
 
                 if (discTitle.isPresent() && discTitle.get().getDisc() != null && discTitle.get().getTitle() != null && !discTitle.get().getTitle().isEmpty()) {
                     holder.item.discTitleTextView.setText(holder.itemView.getContext().getString(R.string.disc_titlefull, discTitle.get().getDisc().toString() , discTitle.get().getTitle()));
@@ -169,6 +163,16 @@ public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAd
             }
         }
 
+        bindRating(holder, song);
+    }
+
+    private void bindDownloadState(ViewHolder holder, Row row) {
+        holder.item.searchResultDownloadIndicatorImageView.setVisibility(row.downloaded ? View.VISIBLE : View.GONE);
+        holder.itemView.setAlpha(row.offlineUnavailable ? 0.5f : 1f);
+        holder.offlineUnavailable = row.offlineUnavailable;
+    }
+
+    private void bindRating(ViewHolder holder, Child song) {
         if (Preferences.showItemRating()) {
             if (song.getStarred() == null && song.getUserRating() == null) {
                 holder.item.ratingIndicatorImageView.setVisibility(View.GONE);
@@ -196,31 +200,35 @@ public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAd
 
     @Override
     public int getItemCount() {
-        return songs.size();
+        return differ.size();
     }
 
     public void setItems(List<Child> songs) {
-        this.songsFull = songs != null ? new ArrayList<>(songs) : Collections.emptyList();
-        if (currentFilter == null || currentFilter.isEmpty()) {
-            applyItems(this.songsFull);
-        } else {
-            filtering.filter(currentFilter);
+        filter.setItems(toRows(songs));
+    }
+
+    private static List<Row> toRows(List<Child> songs) {
+        if (songs == null) return null;
+        List<Row> rows = new ArrayList<>(songs.size());
+        for (Child song : songs) {
+            if (song != null) rows.add(new Row(song));
         }
+        return rows;
     }
 
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= songs.size()) {
+        if (position < 0 || position >= differ.size()) {
             return RecyclerView.NO_ID;
         }
-        return stableIdFor(songs.get(position));
+        return stableIdFor(differ.get(position).song);
     }
 
     private long stableIdFor(Child song) {
         if (song == null) {
             return RecyclerView.NO_ID;
         }
-        return uniqueKeyFor(song).hashCode();
+        return stableIds.get(uniqueKeyFor(song));
     }
 
     private static String uniqueKeyFor(Child song) {
@@ -236,80 +244,69 @@ public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAd
                 + "|" + (song.getTitle() == null ? "" : song.getTitle());
     }
 
-    private static class SongDiffCallback extends DiffUtil.Callback {
-        private final List<Child> oldList;
-        private final List<Child> newList;
-
-        SongDiffCallback(List<Child> oldList, List<Child> newList) {
-            this.oldList = oldList == null ? Collections.emptyList() : oldList;
-            this.newList = newList == null ? Collections.emptyList() : newList;
+    private static final DiffUtil.ItemCallback<Row> DIFF_CALLBACK = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return Objects.equals(uniqueKeyFor(oldItem.song), uniqueKeyFor(newItem.song));
         }
 
         @Override
-        public int getOldListSize() {
-            return oldList.size();
+        public boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return sameDetails(oldItem.song, newItem.song)
+                    && sameRating(oldItem.song, newItem.song)
+                    && oldItem.sameState(newItem);
         }
 
         @Override
-        public int getNewListSize() {
-            return newList.size();
+        public Object getChangePayload(@NonNull Row oldItem, @NonNull Row newItem) {
+            if (!sameDetails(oldItem.song, newItem.song)) return null;
+            boolean rating = !sameRating(oldItem.song, newItem.song);
+            boolean download = !oldItem.sameState(newItem);
+            // Both changed: a full bind is as cheap as two partial ones.
+            if (rating && download) return null;
+            return rating ? PAYLOAD_RATING : PAYLOAD_DOWNLOAD;
         }
 
-        @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            Child oldItem = oldList.get(oldItemPosition);
-            Child newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
-            return Objects.equals(uniqueKeyFor(oldItem), uniqueKeyFor(newItem));
+        private boolean sameRating(Child oldItem, Child newItem) {
+            return Objects.equals(oldItem.getUserRating(), newItem.getUserRating())
+                    && Objects.equals(oldItem.getStarred(), newItem.getStarred());
         }
 
-        @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            Child oldItem = oldList.get(oldItemPosition);
-            Child newItem = newList.get(newItemPosition);
-            if (oldItem == null || newItem == null) {
-                return false;
-            }
+        private boolean sameDetails(Child oldItem, Child newItem) {
             return Objects.equals(oldItem.getTitle(), newItem.getTitle())
                     && Objects.equals(oldItem.getArtist(), newItem.getArtist())
                     && Objects.equals(oldItem.getAlbum(), newItem.getAlbum())
                     && Objects.equals(oldItem.getCoverArtId(), newItem.getCoverArtId())
                     && Objects.equals(oldItem.getDuration(), newItem.getDuration())
-                    && Objects.equals(oldItem.getTrack(), newItem.getTrack())
-                    && Objects.equals(oldItem.getUserRating(), newItem.getUserRating())
-                    && Objects.equals(oldItem.getStarred(), newItem.getStarred());
+                    && Objects.equals(oldItem.getTrack(), newItem.getTrack());
         }
-    }
+    };
 
-    @Override
-    public Filter getFilter() {
-        return filtering;
+    public void filter(CharSequence query) {
+        filter.filter(query);
     }
 
     public Child getItem(int id) {
-        return songs.get(id);
+        return differ.get(id).song;
     }
 
     public List<Child> getItems() {
+        List<Row> rows = differ.getItems();
+        List<Child> songs = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            songs.add(row.song);
+        }
         return songs;
     }
 
-    private void applyItems(List<Child> next) {
-        List<Child> safeNext = next == null ? Collections.emptyList() : new ArrayList<>(next);
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new SongDiffCallback(songs, safeNext));
-        songs = safeNext;
-        diffResult.dispatchUpdatesTo(this);
-    }
-
     public void swapItems(int fromPosition, int toPosition) {
-        if (songs == null || songs.isEmpty()) return;
+        List<Row> songs = differ.getItems();
+        if (songs.isEmpty()) return;
         if (fromPosition < 0 || toPosition < 0 || fromPosition >= songs.size() || toPosition >= songs.size()) return;
 
         Collections.swap(songs, fromPosition, toPosition);
-        if (songsFull != null && songsFull.size() == songs.size()) {
-            Collections.swap(songsFull, fromPosition, toPosition);
+        if (!filter.isActive()) {
+            filter.swap(fromPosition, toPosition);
         }
         notifyItemMoved(fromPosition, toPosition);
     }
@@ -340,6 +337,7 @@ public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAd
                 return;
             }
 
+            List<Child> songs = getItems();
             Bundle bundle = new Bundle();
             bundle.putParcelableArrayList(Constants.TRACKS_OBJECT, new ArrayList<>(MusicUtil.limitPlayableMedia(songs, getBindingAdapterPosition())));
             bundle.putInt(Constants.ITEM_POSITION, MusicUtil.getPlayableMediaPosition(songs, getBindingAdapterPosition()));
@@ -349,7 +347,7 @@ public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAd
 
         private boolean onLongClick() {
             Bundle bundle = new Bundle();
-            bundle.putParcelable(Constants.TRACK_OBJECT, songs.get(getBindingAdapterPosition()));
+            bundle.putParcelable(Constants.TRACK_OBJECT, getItem(getBindingAdapterPosition()));
 
             click.onMediaLongClick(bundle);
 
@@ -358,18 +356,19 @@ public class SongHorizontalAdapter extends RecyclerView.Adapter<SongHorizontalAd
     }
 
     public void sort(String order) {
+        List<Row> songs = new ArrayList<>(differ.getItems());
         switch (order) {
             case Constants.MEDIA_BY_TITLE:
-                songs.sort(Comparator.comparing(Child::getTitle));
+                songs.sort(Comparator.comparing((Row row) -> row.song.getTitle()));
                 break;
             case Constants.MEDIA_MOST_RECENTLY_STARRED:
-                songs.sort(Comparator.comparing(Child::getStarred, Comparator.nullsLast(Comparator.reverseOrder())));
+                songs.sort(Comparator.comparing((Row row) -> row.song.getStarred(), Comparator.nullsLast(Comparator.reverseOrder())));
                 break;
             case Constants.MEDIA_LEAST_RECENTLY_STARRED:
-                songs.sort(Comparator.comparing(Child::getStarred, Comparator.nullsLast(Comparator.naturalOrder())));
+                songs.sort(Comparator.comparing((Row row) -> row.song.getStarred(), Comparator.nullsLast(Comparator.naturalOrder())));
                 break;
         }
 
-        notifyDataSetChanged();
+        differ.submit(songs);
     }
 }
@@ -26,6 +26,8 @@ public class ThemeOptionAdapter extends RecyclerView.Adapter<ThemeOptionAdapter.
         void onThemeSelected(ThemeOption option);
     }
 
+    private static final Object PAYLOAD_SELECTION = new Object();
+
     private final List<ThemeOption> items;
     private final ThemeClickListener listener;
     private String selectedId;
@@ -59,16 +61,32 @@ public class ThemeOptionAdapter extends RecyclerView.Adapter<ThemeOptionAdapter.
         holder.secondary.setBackgroundTintList(android.content.res.ColorStateList.valueOf(secondary));
         holder.tertiary.setBackgroundTintList(android.content.res.ColorStateList.valueOf(tertiary));
 
+        bindSelection(holder, option, primary);
+
+        holder.card.setOnClickListener(v -> {
+            if (listener != null) listener.onThemeSelected(option);
+        });
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ThemeOptionViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            super.onBindViewHolder(holder, position, payloads);
+            return;
+        }
+        ThemeOption option = items.get(position);
+        Context context = holder.itemView.getContext();
+        bindSelection(holder, option, resolveColor(context, option, option.primaryColorRes, android.R.color.system_accent1_500));
+    }
+
+    private void bindSelection(ThemeOptionViewHolder holder, ThemeOption option, @ColorInt int primary) {
+        Context context = holder.itemView.getContext();
         boolean isSelected = option.id.equals(selectedId);
         holder.check.setVisibility(isSelected ? View.VISIBLE : View.GONE);
         holder.card.setStrokeWidth(isSelected ? dpToPx(context, 2) : dpToPx(context, 1));
         holder.card.setStrokeColor(isSelected
                 ? MaterialColors.getColor(context, com.google.android.material.R.attr.colorPrimary, primary)
                 : MaterialColors.getColor(context, com.google.android.material.R.attr.colorOutline, primary));
-
-        holder.card.setOnClickListener(v -> {
-            if (listener != null) listener.onThemeSelected(option);
-        });
     }
 
     @Override
@@ -77,8 +95,20 @@ public class ThemeOptionAdapter extends RecyclerView.Adapter<ThemeOptionAdapter.
     }
 
     public void setSelectedId(String selectedId) {
+        int previous = indexOf(this.selectedId);
         this.selectedId = selectedId;
-        notifyDataSetChanged();
+        int current = indexOf(selectedId);
+        if (previous == current) return;
+        if (previous >= 0) notifyItemChanged(previous, PAYLOAD_SELECTION);
+        if (current >= 0) notifyItemChanged(current, PAYLOAD_SELECTION);
+    }
+
+    private int indexOf(String id) {
+        if (items == null || id == null) return -1;
+        for (int i = 0; i < items.size(); i++) {
+            if (id.equals(items.get(i).id)) return i;
+        }
+        return -1;
     }
 
     private int dpToPx(Context context, int dp) {
@@ -16,20 +16,19 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import one.chandan.rubato.R;
 import one.chandan.rubato.databinding.ItemHomeYearBinding;
+import one.chandan.rubato.helper.recyclerview.AsyncItemDiffer;
 import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.util.Constants;
 
-import java.util.Collections;
 import java.util.List;
 
 public class YearAdapter extends RecyclerView.Adapter<YearAdapter.ViewHolder> {
     private final ClickCallback click;
 
-    private List<Integer> years;
+    private final AsyncItemDiffer<Integer> differ = new AsyncItemDiffer<>(this, DIFF_CALLBACK);
 
     public YearAdapter(ClickCallback click) {
         this.click = click;
-        this.years = Collections.emptyList();
         setHasStableIds(true);
     }
 
@@ -42,7 +41,7 @@ public class YearAdapter extends RecyclerView.Adapter<YearAdapter.ViewHolder> {
 
     @Override
     public void onBindViewHolder(ViewHolder holder, int position) {
-        int year = years.get(position);
+        int year = differ.get(position);
 
         holder.item.yearLabel.setText(formatDecadeLabel(year));
         applyDecadeStyle(holder, year);
@@ -55,57 +54,36 @@ public class YearAdapter extends RecyclerView.Adapter<YearAdapter.ViewHolder> {
 
     @Override
     public long getItemId(int position) {
-        if (position < 0 || position >= years.size()) {
+        if (position < 0 || position >= differ.size()) {
             return RecyclerView.NO_ID;
         }
-        return years.get(position);
+        return differ.get(position);
     }
 
     @Override
     public int getItemCount() {
-        return years.size();
+        return differ.size();
     }
 
     public Integer getItem(int position) {
-        return years.get(position);
+        return differ.get(position);
     }
 
     public void setItems(List<Integer> years) {
-        List<Integer> next = years == null ? Collections.emptyList() : years;
-        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new YearDiffCallback(this.years, next));
-        this.years = next;
-        diffResult.dispatchUpdatesTo(this);
+        differ.submit(years);
     }
 
-    private static class YearDiffCallback extends DiffUtil.Callback {
-        private final List<Integer> oldList;
-        private final List<Integer> newList;
-
-        YearDiffCallback(List<Integer> oldList, List<Integer> newList) {
-            this.oldList = oldList == null ? Collections.emptyList() : oldList;
-            this.newList = newList == null ? Collections.emptyList() : newList;
-        }
-
-        @Override
-        public int getOldListSize() {
-            return oldList.size();
-        }
-
+    private static final DiffUtil.ItemCallback<Integer> DIFF_CALLBACK = new DiffUtil.ItemCallback<Integer>() {
         @Override
-        public int getNewListSize() {
-            return newList.size();
+        public boolean areItemsTheSame(@NonNull Integer oldItem, @NonNull Integer newItem) {
+            return oldItem.equals(newItem);
         }
 
         @Override
-        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
-            return oldList.get(oldItemPosition).equals(newList.get(newItemPosition));
+        public boolean areContentsTheSame(@NonNull Integer oldItem, @NonNull Integer newItem) {
+            return oldItem.equals(newItem);
         }
-
-        @Override
-        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
-            return oldList.get(oldItemPosition).equals(newList.get(newItemPosition));
-        }
-    }
+    };
 
     public class ViewHolder extends RecyclerView.ViewHolder {
         ItemHomeYearBinding item;
@@ -121,7 +99,7 @@ public class YearAdapter extends RecyclerView.Adapter<YearAdapter.ViewHolder> {
         public void onClick() {
             Bundle bundle = new Bundle();
             bundle.putString(Constants.MEDIA_BY_YEAR, Constants.MEDIA_BY_YEAR);
-            bundle.putInt("year_object", years.get(getBindingAdapterPosition()));
+            bundle.putInt("year_object", differ.get(getBindingAdapterPosition()));
 
             click.onYearClick(bundle);
         }
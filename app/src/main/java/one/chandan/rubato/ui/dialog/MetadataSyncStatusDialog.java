@@ -3,6 +3,7 @@ package one.chandan.rubato.ui.dialog;
 import android.app.Dialog;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.text.format.DateUtils;
 import android.text.format.Formatter;
 import android.view.View;
 import android.widget.TextView;
@@ -22,6 +23,7 @@ import one.chandan.rubato.subsonic.models.ArtistID3;
 import one.chandan.rubato.subsonic.models.Child;
 import one.chandan.rubato.subsonic.models.Genre;
 import one.chandan.rubato.subsonic.models.Playlist;
+import one.chandan.rubato.sync.CoverArtPrefetchEngine;
 import one.chandan.rubato.util.AppExecutors;
 import one.chandan.rubato.util.MetadataSyncManager;
 import one.chandan.rubato.util.MetadataStorageReporter;
@@ -196,7 +198,7 @@ public class MetadataSyncStatusDialog extends DialogFragment {
 
     private void renderSyncExtras() {
         if (bind == null) return;
-        bind.metadataSyncCoverArtValue.setText(formatCount(
+        bind.metadataSyncCoverArtValue.setText(formatCoverArtProgress(
                 Preferences.getMetadataSyncCoverArtCurrent(),
                 Preferences.getMetadataSyncCoverArtTotal()
         ));
@@ -231,6 +233,19 @@ public class MetadataSyncStatusDialog extends DialogFragment {
         bind.metadataSyncLogRecycler.setVisibility(empty ? View.GONE : View.VISIBLE);
     }
 
+    private String formatCoverArtProgress(int current, int total) {
+        String count = formatCount(current, total);
+        CoverArtPrefetchEngine engine = CoverArtPrefetchEngine.getInstance();
+        double itemsPerSecond = engine.getItemsPerSecond();
+        int remaining = total - current;
+        if (itemsPerSecond <= 0 || remaining <= 0) return count;
+        long etaSeconds = Math.round(remaining / itemsPerSecond);
+        return getString(R.string.metadata_sync_count_with_rate,
+                count,
+                Formatter.formatShortFileSize(requireContext(), engine.getBytesPerSecond()),
+                DateUtils.formatElapsedTime(etaSeconds));
+    }
+
     private String formatCount(int current, int total) {
         if (total > 0) {
             return getString(R.string.metadata_sync_count_with_total, current, total);
@@ -115,7 +115,11 @@ public class AlbumCatalogueFragment extends Fragment implements ClickCallback {
         albumAdapter = new AlbumCatalogueAdapter(this, true);
         albumAdapter.setStateRestorationPolicy(RecyclerView.Adapter.StateRestorationPolicy.PREVENT_WHEN_EMPTY);
         bind.albumCatalogueRecyclerView.setAdapter(albumAdapter);
-        albumCatalogueViewModel.getAlbumList().observe(getViewLifecycleOwner(), albums -> albumAdapter.setItems(albums));
+        albumCatalogueViewModel.getAlbumPages().observe(getViewLifecycleOwner(), albums -> albumAdapter.submitData(getViewLifecycleOwner().getLifecycle(), albums));
+        albumCatalogueViewModel.getSectionIndex().observe(getViewLifecycleOwner(), sections -> albumAdapter.setSectionIndex(sections));
+
+        bind.fastScrollbar.setRecyclerView(bind.albumCatalogueRecyclerView);
+        bind.fastScrollbar.setViewsToUse(R.layout.layout_fast_scrollbar, R.id.fastscroller_bubble, R.id.fastscroller_handle);
 
         bind.albumCatalogueRecyclerView.setOnTouchListener((v, event) -> {
             hideKeyboard(v);
@@ -154,7 +158,7 @@ public class AlbumCatalogueFragment extends Fragment implements ClickCallback {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                albumAdapter.getFilter().filter(newText);
+                albumCatalogueViewModel.setFilter(newText);
                 return false;
             }
         });
@@ -173,25 +177,25 @@ public class AlbumCatalogueFragment extends Fragment implements ClickCallback {
 
         popup.setOnMenuItemClickListener(menuItem -> {
             if (menuItem.getItemId() == R.id.menu_album_sort_name) {
-                albumAdapter.sort(Constants.ALBUM_ORDER_BY_NAME);
+                albumCatalogueViewModel.setOrder(Constants.ALBUM_ORDER_BY_NAME);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_album_sort_artist) {
-                albumAdapter.sort(Constants.ALBUM_ORDER_BY_ARTIST);
+                albumCatalogueViewModel.setOrder(Constants.ALBUM_ORDER_BY_ARTIST);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_album_sort_year) {
-                albumAdapter.sort(Constants.ALBUM_ORDER_BY_YEAR);
+                albumCatalogueViewModel.setOrder(Constants.ALBUM_ORDER_BY_YEAR);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_album_sort_random) {
-                albumAdapter.sort(Constants.ALBUM_ORDER_BY_RANDOM);
+                albumCatalogueViewModel.setOrder(Constants.ALBUM_ORDER_BY_RANDOM);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_album_sort_recently_added) {
-                albumAdapter.sort(Constants.ALBUM_ORDER_BY_RECENTLY_ADDED);
+                albumCatalogueViewModel.setOrder(Constants.ALBUM_ORDER_BY_RECENTLY_ADDED);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_album_sort_recently_played) {
-                albumAdapter.sort(Constants.ALBUM_ORDER_BY_RECENTLY_PLAYED);
+                albumCatalogueViewModel.setOrder(Constants.ALBUM_ORDER_BY_RECENTLY_PLAYED);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_album_sort_most_played) {
-                albumAdapter.sort(Constants.ALBUM_ORDER_BY_MOST_PLAYED);
+                albumCatalogueViewModel.setOrder(Constants.ALBUM_ORDER_BY_MOST_PLAYED);
                 return true;
             }
 
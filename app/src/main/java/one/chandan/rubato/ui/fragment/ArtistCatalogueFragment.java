@@ -107,8 +107,11 @@ public class ArtistCatalogueFragment extends Fragment implements ClickCallback {
         artistAdapter = new ArtistCatalogueAdapter(this);
         artistAdapter.setStateRestorationPolicy(RecyclerView.Adapter.StateRestorationPolicy.PREVENT_WHEN_EMPTY);
         bind.artistCatalogueRecyclerView.setAdapter(artistAdapter);
-        artistCatalogueViewModel.getArtistList().observe(getViewLifecycleOwner(), artistList -> artistAdapter.setItems(artistList));
-        artistCatalogueViewModel.getArtistStats().observe(getViewLifecycleOwner(), stats -> artistAdapter.setArtistStats(stats));
+        artistCatalogueViewModel.getArtistPages().observe(getViewLifecycleOwner(), artists -> artistAdapter.submitData(getViewLifecycleOwner().getLifecycle(), artists));
+        artistCatalogueViewModel.getSectionIndex().observe(getViewLifecycleOwner(), sections -> artistAdapter.setSectionIndex(sections));
+
+        bind.fastScrollbar.setRecyclerView(bind.artistCatalogueRecyclerView);
+        bind.fastScrollbar.setViewsToUse(R.layout.layout_fast_scrollbar, R.id.fastscroller_bubble, R.id.fastscroller_handle);
 
         bind.artistCatalogueRecyclerView.setOnTouchListener((v, event) -> {
             hideKeyboard(v);
@@ -135,7 +138,7 @@ public class ArtistCatalogueFragment extends Fragment implements ClickCallback {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                artistAdapter.getFilter().filter(newText);
+                artistCatalogueViewModel.setFilter(newText);
                 return false;
             }
         });
@@ -154,16 +157,16 @@ public class ArtistCatalogueFragment extends Fragment implements ClickCallback {
 
         popup.setOnMenuItemClickListener(menuItem -> {
             if (menuItem.getItemId() == R.id.menu_artist_sort_name) {
-                artistAdapter.sort(Constants.ARTIST_ORDER_BY_NAME);
+                artistCatalogueViewModel.setOrder(Constants.ARTIST_ORDER_BY_NAME);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_artist_sort_random) {
-                artistAdapter.sort(Constants.ARTIST_ORDER_BY_RANDOM);
+                artistCatalogueViewModel.setOrder(Constants.ARTIST_ORDER_BY_RANDOM);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_artist_sort_most_played) {
-                artistAdapter.sort(Constants.ARTIST_ORDER_BY_MOST_PLAYED);
+                artistCatalogueViewModel.setOrder(Constants.ARTIST_ORDER_BY_MOST_PLAYED);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_artist_sort_recently_played) {
-                artistAdapter.sort(Constants.ARTIST_ORDER_BY_RECENTLY_PLAYED);
+                artistCatalogueViewModel.setOrder(Constants.ARTIST_ORDER_BY_RECENTLY_PLAYED);
                 return true;
             }
 
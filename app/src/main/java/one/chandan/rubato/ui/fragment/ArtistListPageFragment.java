@@ -141,7 +141,7 @@ public class ArtistListPageFragment extends Fragment implements ClickCallback {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                artistHorizontalAdapter.getFilter().filter(newText);
+                artistHorizontalAdapter.filter(newText);
                 return false;
             }
         });
@@ -3,9 +3,6 @@ package one.chandan.rubato.ui.fragment;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
-import android.os.SystemClock;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -35,7 +32,6 @@ import one.chandan.rubato.interfaces.ClickCallback;
 import one.chandan.rubato.ui.activity.MainActivity;
 import one.chandan.rubato.ui.adapter.GenreCatalogueAdapter;
 import one.chandan.rubato.util.Constants;
-import one.chandan.rubato.sync.SyncOrchestrator;
 import one.chandan.rubato.viewmodel.GenreCatalogueViewModel;
 
 @OptIn(markerClass = UnstableApi.class)
@@ -45,10 +41,6 @@ public class GenreCatalogueFragment extends Fragment implements ClickCallback {
     private GenreCatalogueViewModel genreCatalogueViewModel;
 
     private GenreCatalogueAdapter genreCatalogueAdapter;
-    private final Handler syncHandler = new Handler(Looper.getMainLooper());
-    private Runnable syncRefreshRunnable;
-    private long lastSyncRefreshMs = 0L;
-    private long lastSyncCompletedAt = 0L;
 
     @Override
     public void onCreate(@Nullable Bundle savedInstanceState) {
@@ -67,7 +59,6 @@ public class GenreCatalogueFragment extends Fragment implements ClickCallback {
         init();
         initAppBar();
         initGenreCatalogueView();
-        bindSyncState();
 
         return view;
     }
@@ -75,10 +66,6 @@ public class GenreCatalogueFragment extends Fragment implements ClickCallback {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (syncRefreshRunnable != null) {
-            syncHandler.removeCallbacks(syncRefreshRunnable);
-            syncRefreshRunnable = null;
-        }
         bind = null;
     }
 
@@ -118,7 +105,8 @@ public class GenreCatalogueFragment extends Fragment implements ClickCallback {
         genreCatalogueAdapter.setStateRestorationPolicy(RecyclerView.Adapter.StateRestorationPolicy.PREVENT_WHEN_EMPTY);
         bind.genreCatalogueRecyclerView.setAdapter(genreCatalogueAdapter);
 
-        genreCatalogueViewModel.getGenreList().observe(getViewLifecycleOwner(), genres -> genreCatalogueAdapter.setItems(genres) );
+        genreCatalogueViewModel.getGenrePages().observe(getViewLifecycleOwner(), genres -> genreCatalogueAdapter.submitData(getViewLifecycleOwner().getLifecycle(), genres));
+        genreCatalogueViewModel.loadGenres();
 
         bind.genreCatalogueRecyclerView.setOnTouchListener((v, event) -> {
             hideKeyboard(v);
@@ -128,35 +116,6 @@ public class GenreCatalogueFragment extends Fragment implements ClickCallback {
         bind.genreListSortImageView.setOnClickListener(view -> showPopupMenu(view, R.menu.sort_genre_popup_menu));
     }
 
-    private void bindSyncState() {
-        SyncOrchestrator.getSyncState().observe(getViewLifecycleOwner(), state -> {
-            if (state == null) return;
-            if (state.getActive()) {
-                return;
-            }
-            long completedAt = state.getLastCompletedAt();
-            if (completedAt > 0 && completedAt != lastSyncCompletedAt) {
-                lastSyncCompletedAt = completedAt;
-                scheduleSyncRefresh();
-            }
-        });
-    }
-
-    private void scheduleSyncRefresh() {
-        if (syncRefreshRunnable != null) {
-            syncHandler.removeCallbacks(syncRefreshRunnable);
-        }
-        long now = SystemClock.elapsedRealtime();
-        long minIntervalMs = 1500L;
-        long delay = Math.max(0L, minIntervalMs - (now - lastSyncRefreshMs));
-        syncRefreshRunnable = () -> {
-            if (bind == null || genreCatalogueViewModel == null) return;
-            lastSyncRefreshMs = SystemClock.elapsedRealtime();
-            genreCatalogueViewModel.refreshGenreList();
-        };
-        syncHandler.postDelayed(syncRefreshRunnable, delay);
-    }
-
     @Override
     public void onCreateOptionsMenu(@NonNull Menu menu, @NonNull MenuInflater inflater) {
         inflater.inflate(R.menu.toolbar_menu, menu);
@@ -174,7 +133,7 @@ public class GenreCatalogueFragment extends Fragment implements ClickCallback {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                genreCatalogueAdapter.getFilter().filter(newText);
+                genreCatalogueViewModel.setFilter(newText);
                 return false;
             }
         });
@@ -193,13 +152,13 @@ public class GenreCatalogueFragment extends Fragment implements ClickCallback {
 
         popup.setOnMenuItemClickListener(menuItem -> {
             if (menuItem.getItemId() == R.id.menu_genre_sort_name) {
-                genreCatalogueAdapter.sort(Constants.GENRE_ORDER_BY_NAME);
+                genreCatalogueViewModel.setOrder(Constants.GENRE_ORDER_BY_NAME);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_genre_sort_random) {
-                genreCatalogueAdapter.sort(Constants.GENRE_ORDER_BY_RANDOM);
+                genreCatalogueViewModel.setOrder(Constants.GENRE_ORDER_BY_RANDOM);
                 return true;
             } else if (menuItem.getItemId() == R.id.menu_genre_sort_most_songs) {
-                genreCatalogueAdapter.sort(Constants.GENRE_ORDER_BY_MOST_SONGS);
+                genreCatalogueViewModel.setOrder(Constants.GENRE_ORDER_BY_MOST_SONGS);
                 return true;
             }
 
@@ -101,7 +101,7 @@ public class PlaylistPageFragment extends Fragment implements ClickCallback {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                songHorizontalAdapter.getFilter().filter(newText);
+                songHorizontalAdapter.filter(newText);
                 return false;
             }
         });
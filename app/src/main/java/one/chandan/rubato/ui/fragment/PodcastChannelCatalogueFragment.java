@@ -129,7 +129,7 @@ public class PodcastChannelCatalogueFragment extends Fragment implements ClickCa
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                podcastChannelCatalogueAdapter.getFilter().filter(newText);
+                podcastChannelCatalogueAdapter.filter(newText);
                 return false;
             }
         });
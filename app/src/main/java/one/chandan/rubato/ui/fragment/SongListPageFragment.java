@@ -341,7 +341,7 @@ public class SongListPageFragment extends Fragment implements ClickCallback {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                songHorizontalAdapter.getFilter().filter(newText);
+                songHorizontalAdapter.filter(newText);
                 return false;
             }
         });
@@ -0,0 +1,266 @@
+package one.chandan.rubato.util;
+
+import one.chandan.rubato.subsonic.models.AlbumID3;
+import one.chandan.rubato.subsonic.models.ItemGenre;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Sort orders and year/genre indexes over a fixed album list, built once so that album list
+ * queries become slices instead of full sorts. Orders match a stable sort of the source list with
+ * {@link #comparator(String)}; a year or genre filter keeps that order.
+ * <p>
+ * Immutable after construction and safe to share between threads.
+ */
+public final class AlbumCatalogIndex {
+    public static final String TYPE_RANDOM = "random";
+    public static final String TYPE_ALPHABETICAL_BY_NAME = "alphabeticalByName";
+    public static final String TYPE_ALPHABETICAL_BY_ARTIST = "alphabeticalByArtist";
+    public static final String TYPE_BY_YEAR = "byYear";
+    public static final String TYPE_NEWEST = "newest";
+    public static final String TYPE_RECENT = "recent";
+    public static final String TYPE_FREQUENT = "frequent";
+
+    private static final String[] INDEXED_TYPES = {
+            TYPE_ALPHABETICAL_BY_NAME,
+            TYPE_ALPHABETICAL_BY_ARTIST,
+            TYPE_BY_YEAR,
+            TYPE_NEWEST,
+            TYPE_RECENT,
+            TYPE_FREQUENT
+    };
+
+    private final List<AlbumID3> albums;
+    // type -> album positions in that order, and the inverse (position -> rank).
+    private final Map<String, int[]> orders = new HashMap<>();
+    private final Map<String, int[]> ranks = new HashMap<>();
+    // Positions sorted by ascending year, with the matching years for binary search.
+    private final int[] yearOrder;
+    private final int[] sortedYears;
+    // Lower-cased genre -> positions in source order.
+    private final Map<String, int[]> genres;
+
+    public AlbumCatalogIndex(List<AlbumID3> albums) {
+        this.albums = albums;
+        int size = albums.size();
+        for (String type : INDEXED_TYPES) {
+            int[] order = sortPositions(size, comparator(type));
+            int[] rank = new int[size];
+            for (int i = 0; i < size; i++) {
+                rank[order[i]] = i;
+            }
+            orders.put(type, order);
+            ranks.put(type, rank);
+        }
+        yearOrder = sortPositions(size, Comparator.comparingInt(AlbumID3::getYear));
+        sortedYears = new int[size];
+        for (int i = 0; i < size; i++) {
+            sortedYears[i] = albums.get(yearOrder[i]).getYear();
+        }
+        genres = indexGenres(albums);
+    }
+
+    /**
+     * Returns up to {@code size} albums (all when {@code size <= 0}) in {@code type} order,
+     * restricted to {@code fromYear..toYear} when both are given. Unknown types keep source order.
+     */
+    public List<AlbumID3> slice(String type, int size, Integer fromYear, Integer toYear, Random random) {
+        if (fromYear == null || toYear == null) {
+            return slice(type, size, null, random);
+        }
+        int from = lowerBound(fromYear);
+        int to = lowerBound(toYear == Integer.MAX_VALUE ? toYear : toYear + 1);
+        if (from >= to) return new ArrayList<>();
+        return slice(type, size, Arrays.copyOfRange(yearOrder, from, to), random);
+    }
+
+    /**
+     * Like {@link #slice(String, int, Integer, Integer, Random)}, restricted to albums tagged with
+     * {@code genre} (case-insensitive).
+     */
+    public List<AlbumID3> sliceByGenre(String genre, String type, int size, Random random) {
+        int[] positions = genre != null ? genres.get(genre.toLowerCase(Locale.ROOT)) : null;
+        if (positions == null) return new ArrayList<>();
+        return slice(type, size, positions.clone(), random);
+    }
+
+    public int size() {
+        return albums.size();
+    }
+
+    /**
+     * Ordering for an album list type, or null when the type has no fixed order.
+     */
+    public static Comparator<AlbumID3> comparator(String type) {
+        if (TYPE_ALPHABETICAL_BY_NAME.equals(type)) {
+            return Comparator.comparing(album -> album.getName() == null ? "" : album.getName(), String.CASE_INSENSITIVE_ORDER);
+        }
+        if (TYPE_ALPHABETICAL_BY_ARTIST.equals(type)) {
+            Comparator<AlbumID3> byArtist = Comparator.comparing(album -> album.getArtist() == null ? "" : album.getArtist(), String.CASE_INSENSITIVE_ORDER);
+            return byArtist.thenComparing(comparator(TYPE_ALPHABETICAL_BY_NAME));
+        }
+        if (TYPE_BY_YEAR.equals(type)) {
+            return Comparator.comparingInt(AlbumID3::getYear).reversed();
+        }
+        if (TYPE_NEWEST.equals(type)) {
+            return (a, b) -> {
+                if (a.getCreated() != null || b.getCreated() != null) {
+                    if (a.getCreated() == null) return 1;
+                    if (b.getCreated() == null) return -1;
+                    return b.getCreated().compareTo(a.getCreated());
+                }
+                return Integer.compare(b.getYear(), a.getYear());
+            };
+        }
+        if (TYPE_RECENT.equals(type)) {
+            return (a, b) -> {
+                if (a.getPlayed() != null || b.getPlayed() != null) {
+                    if (a.getPlayed() == null) return 1;
+                    if (b.getPlayed() == null) return -1;
+                    return b.getPlayed().compareTo(a.getPlayed());
+                }
+                if (a.getCreated() != null || b.getCreated() != null) {
+                    if (a.getCreated() == null) return 1;
+                    if (b.getCreated() == null) return -1;
+                    return b.getCreated().compareTo(a.getCreated());
+                }
+                return Integer.compare(b.getYear(), a.getYear());
+            };
+        }
+        if (TYPE_FREQUENT.equals(type)) {
+            return (a, b) -> {
+                long aCount = a.getPlayCount() != null ? a.getPlayCount() : 0;
+                long bCount = b.getPlayCount() != null ? b.getPlayCount() : 0;
+                return Long.compare(bCount, aCount);
+            };
+        }
+        return null;
+    }
+
+    // candidates: positions to draw from in source order, or null for the whole list. May be reordered.
+    private List<AlbumID3> slice(String type, int size, int[] candidates, Random random) {
+        int count = candidates != null ? candidates.length : albums.size();
+        int limit = size > 0 ? Math.min(size, count) : count;
+        List<AlbumID3> result = new ArrayList<>(limit);
+
+        if (TYPE_RANDOM.equals(type)) {
+            int[] pool = candidates != null ? candidates : identity(count);
+            // Partial Fisher-Yates: only the first `limit` slots are drawn.
+            for (int i = 0; i < limit; i++) {
+                int j = i + random.nextInt(count - i);
+                int swap = pool[i];
+                pool[i] = pool[j];
+                pool[j] = swap;
+                result.add(albums.get(pool[i]));
+            }
+            return result;
+        }
+
+        int[] order = orders.get(type);
+        if (candidates == null) {
+            for (int i = 0; i < limit; i++) {
+                result.add(albums.get(order != null ? order[i] : i));
+            }
+            return result;
+        }
+
+        if (order != null) {
+            int[] rank = ranks.get(type);
+            // Sort the candidates by their precomputed rank: k log k on ints, not a catalog sort.
+            for (int i = 0; i < candidates.length; i++) {
+                candidates[i] = rank[candidates[i]];
+            }
+            Arrays.sort(candidates);
+            for (int i = 0; i < limit; i++) {
+                result.add(albums.get(order[candidates[i]]));
+            }
+        } else {
+            Arrays.sort(candidates);
+            for (int i = 0; i < limit; i++) {
+                result.add(albums.get(candidates[i]));
+            }
+        }
+        return result;
+    }
+
+    // Position of the first album whose year is >= year.
+    private int lowerBound(int year) {
+        int low = 0;
+        int high = sortedYears.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sortedYears[mid] < year) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Stable: ties keep source order, matching List.sort on the source list.
+    private int[] sortPositions(int size, Comparator<AlbumID3> comparator) {
+        Integer[] boxed = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed, (a, b) -> comparator.compare(albums.get(a), albums.get(b)));
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = boxed[i];
+        }
+        return positions;
+    }
+
+    private static int[] identity(int size) {
+        int[] positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+
+    private static Map<String, int[]> indexGenres(List<AlbumID3> albums) {
+        Map<String, List<Integer>> grouped = new HashMap<>();
+        for (int i = 0; i < albums.size(); i++) {
+            AlbumID3 album = albums.get(i);
+            Set<String> names = new LinkedHashSet<>();
+            addGenre(names, album.getGenre());
+            if (album.getGenres() != null) {
+                for (ItemGenre genre : album.getGenres()) {
+                    if (genre != null) addGenre(names, genre.getName());
+                }
+            }
+            for (String name : names) {
+                grouped.computeIfAbsent(name, key -> new ArrayList<>()).add(i);
+            }
+        }
+        if (grouped.isEmpty()) return Collections.emptyMap();
+        Map<String, int[]> index = new HashMap<>(grouped.size() * 4 / 3 + 1);
+        for (Map.Entry<String, List<Integer>> entry : grouped.entrySet()) {
+            List<Integer> positions = entry.getValue();
+            int[] array = new int[positions.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = positions.get(i);
+            }
+            index.put(entry.getKey(), array);
+        }
+        return index;
+    }
+
+    private static void addGenre(Set<String> names, String genre) {
+        if (genre == null) return;
+        String trimmed = genre.trim();
+        if (!trimmed.isEmpty()) names.add(trimmed.toLowerCase(Locale.ROOT));
+    }
+}
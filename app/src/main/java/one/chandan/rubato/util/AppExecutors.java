@@ -49,6 +49,10 @@ public final class AppExecutors {
         return Executors.newSingleThreadExecutor(new NamedThreadFactory(prefix));
     }
 
+    public static ExecutorService newFixedThreadPool(String prefix, int threads) {
+        return Executors.newFixedThreadPool(threads, new NamedThreadFactory(prefix));
+    }
+
     private static class NamedThreadFactory implements ThreadFactory {
         private final String prefix;
         private final AtomicInteger counter = new AtomicInteger(1);
@@ -5,25 +5,15 @@ import android.content.Context;
 import one.chandan.rubato.glide.CustomGlideRequest;
 import com.bumptech.glide.Glide;
 
-import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 public final class CoverArtPrefetcher {
-    private static final int MAX_PREFETCH = 3000;
-    private static final Set<String> PREFETCHED = Collections.synchronizedSet(new HashSet<>());
-
     private CoverArtPrefetcher() {
     }
 
     public static void prefetch(Context context, String coverArtId, CustomGlideRequest.ResourceType type) {
         if (context == null || coverArtId == null || coverArtId.isEmpty()) return;
         if (Preferences.isDataSavingMode()) return;
-        if (PREFETCHED.size() >= MAX_PREFETCH) return;
-
-        String key = type.name() + ":" + coverArtId;
-        if (!PREFETCHED.add(key)) return;
 
         CustomGlideRequest.Builder
                 .from(context.getApplicationContext(), coverArtId, type)
@@ -41,10 +31,6 @@ public final class CoverArtPrefetcher {
     public static void prefetchUrl(Context context, String url) {
         if (context == null || url == null || url.isEmpty()) return;
         if (Preferences.isDataSavingMode()) return;
-        if (PREFETCHED.size() >= MAX_PREFETCH) return;
-
-        String key = "URL:" + url;
-        if (!PREFETCHED.add(key)) return;
 
         Glide.with(context.getApplicationContext())
                 .load(url)
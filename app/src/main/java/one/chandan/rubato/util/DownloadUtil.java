@@ -3,7 +3,10 @@ package one.chandan.rubato.util;
 import android.app.Notification;
 import android.content.Context;
 
+import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
+import androidx.media3.common.C;
+import androidx.media3.common.util.PriorityTaskManager;
 import androidx.media3.common.util.UnstableApi;
 import androidx.media3.database.DatabaseProvider;
 import androidx.media3.database.StandaloneDatabaseProvider;
@@ -42,6 +45,8 @@ public final class DownloadUtil {
 
     private static DataSource.Factory dataSourceFactory;
     private static DataSource.Factory httpDataSourceFactory;
+    private static CacheDataSource.Factory streamingFillFactory;
+    private static PriorityTaskManager priorityTaskManager;
     private static DatabaseProvider databaseProvider;
     private static File streamingCacheDirectory;
     private static File downloadDirectory;
@@ -89,7 +94,7 @@ public final class DownloadUtil {
                         .setUpstreamDataSourceFactory(upstreamFactory);
 
                 ResolvingDataSource.Factory resolvingFactory = new ResolvingDataSource.Factory(
-                        new StreamingCacheDataSource.Factory(streamCacheFactory),
+                        new StreamingCacheDataSource.Factory(streamCacheFactory, getStreamingFillFactory(context)),
                         dataSpec -> {
                             DataSpec.Builder builder = dataSpec.buildUpon();
                             builder.setFlags(dataSpec.flags & ~DataSpec.FLAG_DONT_CACHE_IF_LENGTH_UNKNOWN);
@@ -106,6 +111,37 @@ public final class DownloadUtil {
         return dataSourceFactory;
     }
 
+    /**
+     * Shared with the player so background cache writes only use the network while it is not loading.
+     */
+    public static synchronized PriorityTaskManager getPriorityTaskManager() {
+        if (priorityTaskManager == null) {
+            priorityTaskManager = new PriorityTaskManager();
+        }
+
+        return priorityTaskManager;
+    }
+
+    /**
+     * Writes into the streaming cache on behalf of background fills, or null when the cache is off.
+     */
+    @Nullable
+    public static synchronized CacheDataSource.Factory getStreamingFillFactory(Context context) {
+        if (Preferences.getStreamingCacheSize() <= 0) return null;
+
+        if (streamingFillFactory == null) {
+            context = context.getApplicationContext();
+
+            streamingFillFactory = new CacheDataSource.Factory()
+                    .setCache(getStreamingCache(context))
+                    .setUpstreamDataSourceFactory(new DefaultDataSource.Factory(context, getHttpDataSourceFactory()))
+                    .setUpstreamPriorityTaskManager(getPriorityTaskManager())
+                    .setUpstreamPriority(C.PRIORITY_DOWNLOAD);
+        }
+
+        return streamingFillFactory;
+    }
+
     public static synchronized DownloadNotificationHelper getDownloadNotificationHelper(Context context) {
         if (downloadNotificationHelper == null) {
             downloadNotificationHelper = new DownloadNotificationHelper(context, DOWNLOAD_NOTIFICATION_CHANNEL_ID);
@@ -1,15 +1,19 @@
 package one.chandan.rubato.util;
 
+import androidx.annotation.Nullable;
 import androidx.annotation.OptIn;
 import androidx.media3.common.util.UnstableApi;
 
+import one.chandan.rubato.model.CatalogSection;
 import one.chandan.rubato.subsonic.models.Artist;
 import one.chandan.rubato.subsonic.models.Index;
 import one.chandan.rubato.subsonic.models.Indexes;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 @OptIn(markerClass = UnstableApi.class)
 public class IndexUtil {
@@ -26,4 +30,64 @@ public class IndexUtil {
 
         return toReturn;
     }
+
+    /**
+     * Builds a {@link SectionIndex} from per-section row counts, in list order. Adjacent sections
+     * with the same label (e.g. digits and symbols, which all become "#") are merged.
+     */
+    public static SectionIndex buildSectionIndex(@Nullable List<CatalogSection> sections) {
+        if (sections == null || sections.isEmpty()) return SectionIndex.EMPTY;
+        String[] labels = new String[sections.size()];
+        int[] starts = new int[sections.size()];
+        int count = 0;
+        int position = 0;
+        for (CatalogSection section : sections) {
+            if (section == null || section.count <= 0) continue;
+            String label = getSectionLabel(section.section);
+            if (count == 0 || !labels[count - 1].equals(label)) {
+                labels[count] = label;
+                starts[count] = position;
+                count++;
+            }
+            position += section.count;
+        }
+        if (count == 0) return SectionIndex.EMPTY;
+        return new SectionIndex(Arrays.copyOf(labels, count), Arrays.copyOf(starts, count), position);
+    }
+
+    public static String getSectionLabel(@Nullable String key) {
+        if (key == null || key.isEmpty()) return "#";
+        int codePoint = key.codePointAt(0);
+        if (!Character.isLetter(codePoint)) return "#";
+        return new String(Character.toChars(codePoint)).toUpperCase(Locale.getDefault());
+    }
+
+    /**
+     * Position to section label lookup for a sorted list that is only partly loaded, such as a
+     * paged catalogue with placeholders.
+     */
+    public static final class SectionIndex {
+        public static final SectionIndex EMPTY = new SectionIndex(new String[0], new int[0], 0);
+
+        private final String[] labels;
+        private final int[] starts;
+        private final int size;
+
+        private SectionIndex(String[] labels, int[] starts, int size) {
+            this.labels = labels;
+            this.starts = starts;
+            this.size = size;
+        }
+
+        @Nullable
+        public String getSection(int position) {
+            if (position < 0 || position >= size) return null;
+            int found = Arrays.binarySearch(starts, position);
+            return labels[found >= 0 ? found : -found - 2];
+        }
+
+        public int size() {
+            return size;
+        }
+    }
 }
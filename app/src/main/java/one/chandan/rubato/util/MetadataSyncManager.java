@@ -5,10 +5,14 @@ import android.content.Context;
 import one.chandan.rubato.App;
 import one.chandan.rubato.database.AppDatabase;
 import one.chandan.rubato.repository.CacheRepository;
+import one.chandan.rubato.repository.CatalogRepository;
 import one.chandan.rubato.repository.JellyfinLibraryRepository;
 import one.chandan.rubato.repository.JellyfinServerRepository;
 import one.chandan.rubato.repository.LibrarySearchIndexRepository;
+import one.chandan.rubato.repository.LibrarySnapshotStore;
+import one.chandan.rubato.repository.SyncCheckpointRepository;
 import one.chandan.rubato.sync.CoverArtPrefetchQueue;
+import one.chandan.rubato.sync.LyricsPrefetcher;
 import one.chandan.rubato.sync.SyncMode;
 import one.chandan.rubato.util.SearchIndexBuilder;
 import one.chandan.rubato.util.SearchIndexUtil;
@@ -30,9 +34,7 @@ import one.chandan.rubato.subsonic.models.SubsonicResponse;
 
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -74,7 +76,7 @@ public final class MetadataSyncManager {
         AppExecutors.io().execute(() -> {
             boolean restarted = recoverIfStalled(context.getApplicationContext());
             if (!restarted) {
-                runSyncNow(context.getApplicationContext(), false);
+                runSyncIfDue(context.getApplicationContext());
             }
         });
     }
@@ -84,8 +86,20 @@ public final class MetadataSyncManager {
     }
 
     public static boolean runSyncNow(Context context, boolean force, boolean ignoreInterval) {
+        return runSyncNow(context, force, ignoreInterval, false);
+    }
+
+    /**
+     * Runs a delta sync once the minimum interval has passed, or right away when an interrupted run
+     * left a checkpoint. Either way it is skipped offline, in data saving mode and under tests.
+     */
+    public static boolean runSyncIfDue(Context context) {
+        return runSyncNow(context, false, false, hasPendingCheckpoint());
+    }
+
+    private static boolean runSyncNow(Context context, boolean force, boolean ignoreInterval, boolean skipInterval) {
         if (context == null) return false;
-        if (!shouldRun(force, ignoreInterval)) return false;
+        if (!shouldRun(force, ignoreInterval, skipInterval)) return false;
         if (!SYNCING.compareAndSet(false, true)) return false;
         boolean success = false;
         try {
@@ -118,13 +132,22 @@ public final class MetadataSyncManager {
         Preferences.setMetadataSyncProgress(null, 0, -1);
         Preferences.setMetadataSyncProgressUpdated(0);
         Preferences.setMetadataSyncStarted(0);
-        return runSyncNow(context.getApplicationContext(), true);
+        // Not forced: a forced run is a full restart and would discard the checkpoint.
+        return runSyncNow(context.getApplicationContext(), false, true);
     }
 
-    private static boolean shouldRun(boolean force, boolean ignoreInterval) {
+    /**
+     * True when a previous sync was interrupted and left a checkpoint to resume from.
+     */
+    public static boolean hasPendingCheckpoint() {
+        return new SyncCheckpointRepository().hasPending(CatalogRepository.SCOPE_SUBSONIC);
+    }
+
+    private static boolean shouldRun(boolean force, boolean ignoreInterval, boolean skipInterval) {
         return shouldRunNow(
                 force,
                 ignoreInterval,
+                skipInterval,
                 TestRunUtil.isInstrumentationTest(),
                 OfflinePolicy.isOffline(),
                 Preferences.isDataSavingMode(),
@@ -133,8 +156,10 @@ public final class MetadataSyncManager {
         );
     }
 
+    // ignoreInterval bypasses every gate (explicit recovery); skipInterval only the minimum interval.
     static boolean shouldRunNow(boolean force,
                                 boolean ignoreInterval,
+                                boolean skipInterval,
                                 boolean isInstrumentation,
                                 boolean isOffline,
                                 boolean isDataSaving,
@@ -144,14 +169,13 @@ public final class MetadataSyncManager {
         if (isInstrumentation) return false;
         if (isOffline) return false;
         if (isDataSaving) return false;
-        return lastSync <= 0 || now - lastSync >= MIN_SYNC_INTERVAL_MS;
+        return skipInterval || lastSync <= 0 || now - lastSync >= MIN_SYNC_INTERVAL_MS;
     }
 
     private static boolean runSync(Context context, boolean force) {
         if (context == null) return false;
         CacheRepository cacheRepository = new CacheRepository();
         LibrarySearchIndexRepository searchIndexRepository = new LibrarySearchIndexRepository();
-        Map<String, Child> allSongs = new LinkedHashMap<>();
         Set<String> coverArtIds = new HashSet<>();
         Set<String> coverArtUrls = new HashSet<>();
         boolean didWork = false;
@@ -172,7 +196,6 @@ public final class MetadataSyncManager {
                     one.chandan.rubato.sync.SubsonicSyncProvider.sync(context, cacheRepository, searchIndexRepository, syncMode);
             if (subsonicResult != null) {
                 didWork = didWork || subsonicResult.didWork;
-                allSongs.putAll(subsonicResult.allSongs);
                 coverArtIds.addAll(subsonicResult.coverArtIds);
                 coverArtUrls.addAll(subsonicResult.coverArtUrls);
             }
@@ -193,38 +216,25 @@ public final class MetadataSyncManager {
         }
 
         didWork = one.chandan.rubato.sync.LocalSyncProvider.sync(context, searchIndexRepository) || didWork;
+        // The catalog is final at this point; cover art and lyrics below don't touch it.
+        if (didWork) {
+            LibrarySnapshotStore.rebuild();
+        }
 
-        if (allSongs.isEmpty() || coverArtIds.isEmpty()) {
-            hydrateFromCache(cacheRepository, allSongs, coverArtIds);
+        if (coverArtIds.isEmpty()) {
+            hydrateFromCache(cacheRepository, coverArtIds);
         }
 
         prefetchCoverArt(context, coverArtIds, coverArtUrls);
-        syncLyrics(cacheRepository, allSongs);
+        scheduleLyrics(context);
         MetadataStorageReporter.refresh();
         logSync(STAGE_PREPARING, "Sync complete", true);
         return didWork;
     }
 
-    private static void hydrateFromCache(CacheRepository cacheRepository,
-                                         Map<String, Child> allSongs,
-                                         Set<String> coverArtIds) {
+    private static void hydrateFromCache(CacheRepository cacheRepository, Set<String> coverArtIds) {
         if (cacheRepository == null) return;
-        List<Child> cachedSongs = cacheRepository.loadBlocking(
-                "songs_all",
-                new com.google.gson.reflect.TypeToken<List<Child>>() {
-                }.getType()
-        );
-        if (cachedSongs != null) {
-            for (Child song : cachedSongs) {
-                if (song == null || song.getId() == null || song.getId().isEmpty()) continue;
-                if (!allSongs.containsKey(song.getId())) {
-                    allSongs.put(song.getId(), song);
-                }
-                if (song.getCoverArtId() != null) {
-                    coverArtIds.add(song.getCoverArtId());
-                }
-            }
-        }
+        coverArtIds.addAll(new CatalogRepository().getSongCoverArtIds(CatalogRepository.SCOPE_SUBSONIC));
 
         List<AlbumID3> cachedAlbums = cacheRepository.loadBlocking(
                 "albums_all",
@@ -268,62 +278,22 @@ public final class MetadataSyncManager {
             }
         }
 
-        if (allSongs.isEmpty() || coverArtIds.isEmpty()) {
-            List<one.chandan.rubato.model.SearchSongLite> liteSongs =
-                    AppDatabase.getInstance().librarySearchEntryDao()
-                            .getAllLiteByType(SearchIndexUtil.TYPE_SONG);
-            if (liteSongs != null) {
-                for (one.chandan.rubato.model.SearchSongLite entry : liteSongs) {
+        if (coverArtIds.isEmpty()) {
+            for (String mediaType : new String[]{SearchIndexUtil.TYPE_SONG, SearchIndexUtil.TYPE_ALBUM, SearchIndexUtil.TYPE_ARTIST}) {
+                List<one.chandan.rubato.model.SearchSongLite> entries =
+                        AppDatabase.getInstance().librarySearchEntryDao().getAllLiteByType(mediaType);
+                if (entries == null) continue;
+                for (one.chandan.rubato.model.SearchSongLite entry : entries) {
                     if (entry == null) continue;
-                    String id = entry.getItemId();
-                    if (id == null || id.isEmpty()) continue;
-                    if (SearchIndexUtil.SOURCE_SUBSONIC.equals(entry.getSource())) {
-                        if (!allSongs.containsKey(id)) {
-                            Child child = new Child(id);
-                            child.setTitle(entry.getTitle());
-                            child.setArtist(entry.getArtist());
-                            child.setAlbum(entry.getAlbum());
-                            child.setAlbumId(entry.getAlbumId());
-                            child.setArtistId(entry.getArtistId());
-                            child.setCoverArtId(entry.getCoverArt());
-                            allSongs.put(id, child);
-                        }
-                    }
-                    if (entry.getCoverArt() != null && !entry.getCoverArt().isEmpty()) {
-                        coverArtIds.add(entry.getCoverArt());
-                    }
-                }
-            }
-
-            if (coverArtIds.isEmpty()) {
-                List<one.chandan.rubato.model.SearchSongLite> liteAlbums =
-                        AppDatabase.getInstance().librarySearchEntryDao()
-                                .getAllLiteByType(SearchIndexUtil.TYPE_ALBUM);
-                if (liteAlbums != null) {
-                    for (one.chandan.rubato.model.SearchSongLite entry : liteAlbums) {
-                        if (entry == null) continue;
-                        String coverArt = entry.getCoverArt();
-                        if (coverArt != null && !coverArt.isEmpty()) {
-                            coverArtIds.add(coverArt);
-                        }
-                    }
-                }
-                List<one.chandan.rubato.model.SearchSongLite> liteArtists =
-                        AppDatabase.getInstance().librarySearchEntryDao()
-                                .getAllLiteByType(SearchIndexUtil.TYPE_ARTIST);
-                if (liteArtists != null) {
-                    for (one.chandan.rubato.model.SearchSongLite entry : liteArtists) {
-                        if (entry == null) continue;
-                        String coverArt = entry.getCoverArt();
-                        if (coverArt != null && !coverArt.isEmpty()) {
-                            coverArtIds.add(coverArt);
-                        }
+                    String coverArt = entry.getCoverArt();
+                    if (coverArt != null && !coverArt.isEmpty()) {
+                        coverArtIds.add(coverArt);
                     }
                 }
             }
         }
-        if (!allSongs.isEmpty() || !coverArtIds.isEmpty()) {
-            logSync(STAGE_PREPARING, "Using cached metadata for lyrics/cover art", false);
+        if (!coverArtIds.isEmpty()) {
+            logSync(STAGE_PREPARING, "Using cached metadata for cover art", false);
         }
     }
 
@@ -425,7 +395,7 @@ public final class MetadataSyncManager {
                         }
                     }
                 }
-                searchIndexRepository.replaceSource(SearchIndexUtil.SOURCE_JELLYFIN, entries);
+                searchIndexRepository.replaceSource(SearchIndexUtil.SOURCE_JELLYFIN, entries, indexLogger(STAGE_JELLYFIN));
                 logSync(STAGE_JELLYFIN, "Jellyfin cached (" + entries.size() + ")", true);
             }
         } catch (Exception ignored) {
@@ -650,59 +620,29 @@ public final class MetadataSyncManager {
         logSync(STAGE_COVER_ART, "Cover art queued (" + total + ")", true);
     }
 
-    private static void syncLyrics(CacheRepository cacheRepository, Map<String, Child> allSongs) {
-        if (cacheRepository == null || allSongs == null || allSongs.isEmpty()) {
+    private static void scheduleLyrics(Context context) {
+        if (context == null) return;
+        if (new CatalogRepository().countSongs(CatalogRepository.SCOPE_SUBSONIC) <= 0) {
             Preferences.setMetadataSyncLyricsProgress(0, 0);
             return;
         }
-        if (OfflinePolicy.isOffline()) {
+        if (OfflinePolicy.isOffline() || !Preferences.isOpenSubsonic() || Preferences.isDataSavingMode()) {
             return;
         }
-        if (!Preferences.isOpenSubsonic()) {
-            return;
-        }
-        if (Preferences.isDataSavingMode()) {
-            return;
-        }
-
-        int total = allSongs.size();
-        Preferences.setMetadataSyncProgress(STAGE_LYRICS, 0, total);
-        Preferences.setMetadataSyncLyricsProgress(0, total);
-        logSync(STAGE_LYRICS, "Syncing lyrics", false);
-        int done = 0;
-
-        for (Child song : allSongs.values()) {
-            if (song == null || song.getId() == null || song.getId().isEmpty()) continue;
-            if (OfflinePolicy.isOffline()) break;
-            try {
-                Call<ApiResponse> call = App.getSubsonicClientInstance(false)
-                        .getOpenClient()
-                        .getLyricsBySongId(song.getId());
-                Response<ApiResponse> response = call.execute();
-                if (response.isSuccessful()
-                        && response.body() != null
-                        && response.body().getSubsonicResponse().getLyricsList() != null) {
-                    cacheRepository.save("lyrics_song_" + song.getId(), response.body().getSubsonicResponse().getLyricsList());
-                }
-            } catch (Exception ignored) {
-            }
-            done++;
-            if (done % 25 == 0 || done == total) {
-                Preferences.setMetadataSyncProgress(STAGE_LYRICS, done, total);
-                Preferences.setMetadataSyncLyricsProgress(done, total);
-                logProgress(STAGE_LYRICS, done, total, "Lyrics cached", LOG_INTERVAL_LARGE);
-            }
-        }
-
-        Preferences.setMetadataSyncProgress(STAGE_LYRICS, done, total);
-        Preferences.setMetadataSyncLyricsProgress(done, total);
-        logSync(STAGE_LYRICS, "Lyrics cached (" + done + ")", true);
+        // Lyrics are fetched by a background job so the sync never waits on them.
+        LyricsPrefetcher.schedule(context.getApplicationContext());
+        logSync(STAGE_LYRICS, "Lyrics prefetch scheduled", true);
     }
 
     private static void logSync(String stage, String message, boolean completed) {
         Preferences.appendMetadataSyncLog(message, stage, completed);
     }
 
+    public static LibrarySearchIndexRepository.ResultCallback<LibrarySearchIndexRepository.IndexDiff> indexLogger(String stage) {
+        return diff -> logSync(stage, "Search index updated (" + diff.touched() + " rows: +"
+                + diff.inserted + " ~" + diff.updated + " -" + diff.deleted + ")", true);
+    }
+
     private static void logProgress(String stage, int index, int total, String message, int interval) {
         if (index <= 0 || total <= 0) return;
         if (index == 1 || index % interval == 0 || index == total) {
@@ -32,4 +32,9 @@ public class NetworkUtil {
     public static boolean isOffline() {
         return !hasInternet();
     }
+
+    public static boolean isMetered() {
+        ConnectivityManager connectivityManager = (ConnectivityManager) App.getContext().getSystemService(Context.CONNECTIVITY_SERVICE);
+        return connectivityManager == null || connectivityManager.isActiveNetworkMetered();
+    }
 }
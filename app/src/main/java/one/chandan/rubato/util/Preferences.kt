@@ -55,6 +55,7 @@ object Preferences {
     private const val SYNC_STARRED_TRACKS_FOR_OFFLINE_USE = "sync_starred_tracks_for_offline_use"
     private const val QUEUE_SYNCING = "queue_syncing"
     private const val QUEUE_SYNCING_COUNTDOWN = "queue_syncing_countdown"
+    private const val COVER_ART_PREFETCH_CONCURRENCY = "cover_art_prefetch_concurrency"
     private const val ROUNDED_CORNER = "rounded_corner"
     private const val ROUNDED_CORNER_SIZE = "rounded_corner_size"
     private const val PODCAST_SECTION_VISIBILITY = "podcast_section_visibility"
@@ -92,6 +93,7 @@ object Preferences {
     private const val METADATA_SYNC_LOCAL_LAST = "metadata_sync_local_last"
     private const val METADATA_SYNC_LOCAL_FULL = "metadata_sync_local_full"
     private const val METADATA_SYNC_LOCAL_SIGNATURE = "metadata_sync_local_signature"
+    private const val LOCAL_MEDIA_REVISION = "local_media_revision"
     const val METADATA_SYNC_STORAGE_BYTES = "metadata_sync_storage_bytes"
     const val METADATA_SYNC_STORAGE_UPDATED = "metadata_sync_storage_updated"
     const val METADATA_SYNC_STARTED = "metadata_sync_started"
@@ -505,6 +507,16 @@ object Preferences {
         SyncStateStore.notifyChanged()
     }
 
+    @JvmStatic
+    fun getLocalMediaRevision(): Long {
+        return App.getInstance().preferences.getLong(LOCAL_MEDIA_REVISION, 0)
+    }
+
+    @JvmStatic
+    fun setLocalMediaRevision(revision: Long) {
+        App.getInstance().preferences.edit().putLong(LOCAL_MEDIA_REVISION, revision).apply()
+    }
+
     @JvmStatic
     fun getMetadataSyncStorageBytes(): Long {
         return App.getInstance().preferences.getLong(METADATA_SYNC_STORAGE_BYTES, 0)
@@ -1070,6 +1082,11 @@ object Preferences {
         return App.getInstance().preferences.getString(QUEUE_SYNCING_COUNTDOWN, "5")!!.toInt()
     }
 
+    @JvmStatic
+    fun getCoverArtPrefetchConcurrency(): Int {
+        return App.getInstance().preferences.getString(COVER_ART_PREFETCH_CONCURRENCY, "4")!!.toInt()
+    }
+
     @JvmStatic
     fun isCornerRoundingEnabled(): Boolean {
         return App.getInstance().preferences.getBoolean(ROUNDED_CORNER, true)
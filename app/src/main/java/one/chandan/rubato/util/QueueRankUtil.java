@@ -0,0 +1,51 @@
+package one.chandan.rubato.util;
+
+/**
+ * Sparse ordering for the persisted play queue. Rows keep {@code track_order} values spaced
+ * {@link #GAP} apart, so inserting or moving an item only needs free ranks between its two
+ * neighbours. When a gap is used up, a small window around the insertion point is respread
+ * instead of the whole table.
+ */
+public final class QueueRankUtil {
+    public static final int GAP = 1024;
+    // Live rows stay inside [MIN_RANK, MAX_RANK]; ranks below MIN_RANK are scratch space while respreading.
+    public static final int MIN_RANK = -(1 << 29);
+    public static final int MAX_RANK = 1 << 30;
+    // A respread window must leave at least this much room between rows, otherwise it is widened.
+    public static final int MIN_RESPREAD_STEP = 16;
+
+    private QueueRankUtil() {
+    }
+
+    /**
+     * Returns {@code slots} increasing ranks strictly between {@code lower} and {@code upper}, or
+     * null when consecutive ranks would be closer than {@code minStep}. A null bound leaves that end
+     * open (start or end of the queue), in which case ranks are laid out {@link #GAP} apart.
+     */
+    public static int[] spread(Integer lower, Integer upper, int slots, int minStep) {
+        int[] ranks = new int[slots];
+        if (slots == 0) return ranks;
+        long first;
+        long step;
+        if (lower == null && upper == null && (long) slots * GAP <= MAX_RANK) {
+            first = 0;
+            step = GAP;
+        } else if (lower != null && upper == null && lower + (long) slots * GAP <= MAX_RANK) {
+            first = lower + (long) GAP;
+            step = GAP;
+        } else if (lower == null && upper != null && upper - (long) slots * GAP >= MIN_RANK) {
+            first = upper - (long) slots * GAP;
+            step = GAP;
+        } else {
+            long low = lower != null ? lower : MIN_RANK - 1L;
+            long high = upper != null ? upper : MAX_RANK + 1L;
+            step = (high - low) / (slots + 1L);
+            if (step < Math.max(1, minStep)) return null;
+            first = low + step;
+        }
+        for (int i = 0; i < slots; i++) {
+            ranks[i] = (int) (first + step * i);
+        }
+        return ranks;
+    }
+}
@@ -1,5 +1,7 @@
 package one.chandan.rubato.util;
 
+import one.chandan.rubato.model.LibrarySearchEntry;
+
 import java.text.Normalizer;
 import java.util.ArrayList;
 import java.util.List;
@@ -46,6 +48,39 @@ public final class SearchIndexUtil {
         return cleanedSource + ":" + cleanedType + ":" + Integer.toHexString(seed.hashCode());
     }
 
+    /**
+     * 64-bit FNV-1a over the indexed fields of an entry (everything except {@code updated_at}),
+     * used to skip rewriting rows whose content did not change between syncs.
+     */
+    public static long contentHash(LibrarySearchEntry entry) {
+        if (entry == null) return 0L;
+        long hash = 0xcbf29ce484222325L;
+        hash = mixHash(hash, entry.getItemId());
+        hash = mixHash(hash, entry.getMediaType());
+        hash = mixHash(hash, entry.getTitle());
+        hash = mixHash(hash, entry.getArtist());
+        hash = mixHash(hash, entry.getAlbum());
+        hash = mixHash(hash, entry.getAlbumId());
+        hash = mixHash(hash, entry.getArtistId());
+        hash = mixHash(hash, entry.getCoverArt());
+        hash = mixHash(hash, entry.getSearchText());
+        // 0 marks rows written before hashes existed.
+        return hash != 0L ? hash : 1L;
+    }
+
+    private static long mixHash(long hash, String value) {
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        // Field separator so ("ab", "c") and ("a", "bc") differ.
+        hash ^= 0x1f;
+        hash *= 0x100000001b3L;
+        return hash;
+    }
+
     public static String tagSourceId(String source, String itemId) {
         if (itemId == null || itemId.trim().isEmpty()) return itemId;
         String cleanedSource = source != null ? source.trim() : "";
@@ -0,0 +1,66 @@
+package one.chandan.rubato.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Helpers for querying {@code library_search_entry_fts}: builds prefix MATCH expressions and
+ * scores rows with Okapi BM25 from FTS4 {@code matchinfo(..., 'pcnalx')} blobs.
+ */
+public final class SearchRankUtil {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double MIN_IDF = 1e-6;
+
+    private SearchRankUtil() {
+    }
+
+    /**
+     * Turns a normalized query into an FTS4 expression where every token must match as a prefix,
+     * e.g. {@code "pink flo"} becomes {@code "pink* flo*"}. Returns an empty string when nothing
+     * searchable remains.
+     */
+    public static String buildMatchQuery(String normalizedQuery) {
+        if (normalizedQuery == null || normalizedQuery.isEmpty()) return "";
+        StringBuilder builder = new StringBuilder();
+        for (String token : normalizedQuery.split("[^\\p{L}\\p{N}]+")) {
+            if (token.isEmpty()) continue;
+            if (builder.length() > 0) builder.append(' ');
+            builder.append(token).append('*');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * BM25 score for one row. {@code weights} holds one weight per FTS column; missing entries
+     * default to 1. Higher is better; malformed blobs score 0.
+     */
+    public static double bm25(byte[] matchInfo, double[] weights) {
+        if (matchInfo == null || matchInfo.length < 12) return 0;
+        IntBuffer info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+        int phrases = info.get(0);
+        int columns = info.get(1);
+        int rows = info.get(2);
+        int avgOffset = 3;
+        int lengthOffset = avgOffset + columns;
+        int hitsOffset = lengthOffset + columns;
+        if (info.limit() < hitsOffset + 3 * columns * phrases) return 0;
+
+        double score = 0;
+        for (int phrase = 0; phrase < phrases; phrase++) {
+            for (int column = 0; column < columns; column++) {
+                int base = hitsOffset + 3 * (column + phrase * columns);
+                int hits = info.get(base);
+                if (hits == 0) continue;
+                int docsWithHits = info.get(base + 2);
+                double idf = Math.max(MIN_IDF, Math.log((rows - docsWithHits + 0.5) / (docsWithHits + 0.5)));
+                double avgLength = Math.max(1, info.get(avgOffset + column));
+                double length = info.get(lengthOffset + column);
+                double weight = weights != null && column < weights.length ? weights[column] : 1.0;
+                score += weight * idf * (hits * (K1 + 1)) / (hits + K1 * (1 - B + B * length / avgLength));
+            }
+        }
+        return score;
+    }
+}
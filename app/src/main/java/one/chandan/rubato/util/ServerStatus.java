@@ -3,11 +3,13 @@ package one.chandan.rubato.util;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class ServerStatus {
     private static final AtomicBoolean reachable = new AtomicBoolean(true);
     private static final MutableLiveData<Boolean> reachableLive = new MutableLiveData<>(true);
+    private static final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
 
     private ServerStatus() {
     }
@@ -20,6 +22,10 @@ public final class ServerStatus {
         return reachableLive;
     }
 
+    public static void addListener(Listener listener) {
+        if (listener != null) listeners.addIfAbsent(listener);
+    }
+
     public static void markReachable() {
         update(true);
     }
@@ -31,8 +37,15 @@ public final class ServerStatus {
     private static void update(boolean next) {
         if (reachable.getAndSet(next) != next) {
             reachableLive.postValue(next);
+            for (Listener listener : listeners) {
+                listener.onReachabilityChanged(next);
+            }
         } else {
             reachableLive.postValue(next);
         }
     }
+
+    public interface Listener {
+        void onReachabilityChanged(boolean reachable);
+    }
 }
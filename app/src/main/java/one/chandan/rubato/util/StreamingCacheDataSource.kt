@@ -10,20 +10,35 @@ import androidx.media3.datasource.TransferListener
 import androidx.media3.datasource.cache.CacheDataSource
 import androidx.media3.datasource.cache.ContentMetadata
 
+/**
+ * Streams through the streaming cache and keeps whatever was read, even when playback stops early.
+ * Partial spans are left to the LRU evictor; the next open serves them from disk and only asks the
+ * server for the missing ranges. Once a stream has been read past [COMPLETE_FRACTION] (or
+ * [COMPLETE_MIN_BYTES] when its length is unknown), the rest is filled in the background.
+ */
 @UnstableApi
 class StreamingCacheDataSource private constructor(
     private val cacheDataSource: CacheDataSource,
+    private val fillFactory: CacheDataSource.Factory?,
 ): DataSource {
     private val TAG = "StreamingCacheDataSource"
 
     private var currentDataSpec: DataSpec? = null
 
-    class Factory(private val cacheDatasourceFactory: CacheDataSource.Factory): DataSource.Factory {
+    class Factory(
+        private val cacheDatasourceFactory: CacheDataSource.Factory,
+        private val fillFactory: CacheDataSource.Factory?,
+    ): DataSource.Factory {
         override fun createDataSource(): DataSource {
-            return StreamingCacheDataSource(cacheDatasourceFactory.createDataSource())
+            return StreamingCacheDataSource(cacheDatasourceFactory.createDataSource(), fillFactory)
         }
     }
 
+    companion object {
+        const val COMPLETE_FRACTION = 0.5
+        const val COMPLETE_MIN_BYTES = 4L * 1024 * 1024
+    }
+
     override fun read(buffer: ByteArray, offset: Int, length: Int): Int {
         return cacheDataSource.read(buffer, offset, length)
     }
@@ -45,18 +60,32 @@ class StreamingCacheDataSource private constructor(
     override fun close() {
         cacheDataSource.close()
 
-        val dataSpec = currentDataSpec
+        val dataSpec = currentDataSpec ?: return
+        currentDataSpec = null
+
+        val cache = cacheDataSource.cache
+        val cacheKey = cacheDataSource.cacheKeyFactory.buildCacheKey(dataSpec)
+        val contentLength = ContentMetadata.getContentLength(cache.getContentMetadata(cacheKey))
 
-        if (dataSpec != null) {
-            val cacheKey = cacheDataSource.cacheKeyFactory.buildCacheKey(dataSpec)
-            val contentLength = ContentMetadata.getContentLength(cacheDataSource.cache.getContentMetadata(cacheKey));
+        if (contentLength == C.LENGTH_UNSET.toLong()) {
+            // Without a length only the run from byte 0 tells how far the stream got.
+            val cached = cache.getCachedLength(cacheKey, 0, C.LENGTH_UNSET.toLong())
+            Log.d(TAG, "Keeping $cached bytes of $cacheKey")
+            if (cached >= COMPLETE_MIN_BYTES) fill(dataSpec, cacheKey)
+            return
+        }
 
-            if (contentLength == C.LENGTH_UNSET.toLong()) {
-                Log.d(TAG, "Removing partial cache for $cacheKey")
-                cacheDataSource.cache.removeResource(cacheKey)
-            } else {
-                Log.d(TAG, "Key $cacheKey has been fully cached")
-            }
+        val cached = cache.getCachedBytes(cacheKey, 0, contentLength)
+        if (cached >= contentLength) {
+            Log.d(TAG, "Key $cacheKey has been fully cached")
+        } else {
+            Log.d(TAG, "Keeping $cached of $contentLength bytes of $cacheKey")
+            if (cached >= contentLength * COMPLETE_FRACTION) fill(dataSpec, cacheKey)
         }
     }
-}
\ No newline at end of file
+
+    private fun fill(dataSpec: DataSpec, cacheKey: String) {
+        val factory = fillFactory ?: return
+        StreamingCacheFiller.complete(factory, dataSpec.uri, cacheKey)
+    }
+}
@@ -0,0 +1,131 @@
+package one.chandan.rubato.util
+
+import android.net.Uri
+import android.util.Log
+import androidx.media3.common.C
+import androidx.media3.common.util.PriorityTaskManager
+import androidx.media3.common.util.UnstableApi
+import androidx.media3.datasource.DataSpec
+import androidx.media3.datasource.cache.CacheDataSource
+import androidx.media3.datasource.cache.CacheWriter
+import java.io.IOException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Writes streams into the streaming cache in the background: whole files for tracks that were
+ * mostly played, and the heads of upcoming queue items. [CacheWriter] only fetches the ranges that
+ * are not cached yet, so a write resumes wherever playback stopped. Writes run at
+ * [C.PRIORITY_DOWNLOAD] and yield to the player whenever it is loading.
+ */
+@UnstableApi
+object StreamingCacheFiller {
+    private const val TAG = "StreamingCacheFiller"
+
+    private val EXECUTOR = AppExecutors.newSingleThreadExecutor("rubato-cache-fill")
+    // Look-ahead has its own thread so a long fill never holds up the next track.
+    private val PREFETCH_EXECUTOR = AppExecutors.newSingleThreadExecutor("rubato-cache-prefetch")
+    private val pending: MutableSet<String> = ConcurrentHashMap.newKeySet()
+
+    // Bumped by every prefetch call; older look-ahead plans stop before their next item.
+    private val generation = AtomicInteger()
+    @Volatile private var prefetchKey: String? = null
+    @Volatile private var prefetchWriter: CacheWriter? = null
+
+    /**
+     * One look-ahead item: the first [length] bytes of [uri], or all of it for [C.LENGTH_UNSET].
+     */
+    class Prefetch(val uri: Uri, val length: Long) {
+        val key: String = uri.toString()
+    }
+
+    /**
+     * Queues the rest of [uri] for caching under [key]. Ignored for local content, while a fill for
+     * the same key is pending, and when the network should not be spent on it.
+     */
+    @JvmStatic
+    fun complete(factory: CacheDataSource.Factory, uri: Uri, key: String) {
+        if (!isRemote(uri) || !canFill()) return
+        if (!pending.add(key)) return
+        EXECUTOR.execute {
+            try {
+                if (canFill()) {
+                    write(factory, DataSpec.Builder().setUri(uri).setKey(key).build(), null)
+                }
+            } finally {
+                pending.remove(key)
+            }
+        }
+    }
+
+    /**
+     * Replaces the look-ahead plan with [items], in order. A write already running for an item that
+     * is no longer planned is cancelled; bytes it stored stay cached.
+     */
+    @JvmStatic
+    fun prefetch(factory: CacheDataSource.Factory, items: List<Prefetch>) {
+        val run = generation.incrementAndGet()
+        val planned = items.filter { isRemote(it.uri) }
+        val active = prefetchKey
+        if (active != null && planned.none { it.key == active }) {
+            prefetchWriter?.cancel()
+        }
+        if (planned.isEmpty() || !canPrefetch()) return
+        PREFETCH_EXECUTOR.execute {
+            for (item in planned) {
+                if (run != generation.get() || !canPrefetch()) return@execute
+                val dataSpec = DataSpec.Builder()
+                    .setUri(item.uri)
+                    .setKey(item.key)
+                    .setLength(item.length)
+                    .build()
+                prefetchKey = item.key
+                try {
+                    write(factory, dataSpec) { prefetchWriter = it }
+                } finally {
+                    prefetchWriter = null
+                    prefetchKey = null
+                }
+            }
+        }
+    }
+
+    private fun write(factory: CacheDataSource.Factory, dataSpec: DataSpec, onStart: ((CacheWriter) -> Unit)?) {
+        val priorityTaskManager = factory.upstreamPriorityTaskManager
+        priorityTaskManager?.add(C.PRIORITY_DOWNLOAD)
+        try {
+            val writer = CacheWriter(factory.createDataSourceForDownloading(), dataSpec, null, null)
+            onStart?.invoke(writer)
+            while (true) {
+                try {
+                    priorityTaskManager?.proceed(C.PRIORITY_DOWNLOAD)
+                    writer.cache()
+                    Log.d(TAG, "Cached ${dataSpec.key}")
+                    return
+                } catch (ex: PriorityTaskManager.PriorityTooLowException) {
+                    // Playback started loading; wait for it and continue from the bytes written so far.
+                }
+            }
+        } catch (ex: IOException) {
+            Log.w(TAG, "Fill stopped for ${dataSpec.key}: ${ex.message}")
+        } catch (ex: InterruptedException) {
+            Thread.currentThread().interrupt()
+        } finally {
+            priorityTaskManager?.remove(C.PRIORITY_DOWNLOAD)
+        }
+    }
+
+    private fun isRemote(uri: Uri): Boolean {
+        val scheme = uri.scheme
+        return scheme.equals("http", true) || scheme.equals("https", true)
+    }
+
+    // Finishing played tracks is optional, so it waits for an unmetered network.
+    private fun canFill(): Boolean {
+        return canPrefetch() && !NetworkUtil.isMetered()
+    }
+
+    private fun canPrefetch(): Boolean {
+        return !OfflinePolicy.isOffline() && !Preferences.isDataSavingMode()
+    }
+}
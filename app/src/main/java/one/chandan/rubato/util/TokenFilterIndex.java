@@ -0,0 +1,130 @@
+package one.chandan.rubato.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * Normalized filter keys for a list, built once per list so each keystroke only compares strings.
+ * <p>
+ * A query matches an item when every whitespace-separated token of the normalized query occurs in
+ * the item's normalized key. Results are remembered per query: when the new query extends one
+ * already answered (typing) or shortens back to one (backspace), only that query's matches are
+ * rescanned. Not thread-safe; confine each instance to one thread.
+ */
+public final class TokenFilterIndex<T> {
+    // How many items are scanned between cancellation checks.
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    private final List<T> items;
+    private final String[] keys;
+    // Answered queries, each a prefix of the next; matches hold item positions in ascending order.
+    private final List<String> historyQueries = new ArrayList<>();
+    private final List<int[]> historyMatches = new ArrayList<>();
+
+    public TokenFilterIndex(List<T> items, Function<T, String> keyOf) {
+        this.items = items != null ? new ArrayList<>(items) : new ArrayList<>();
+        this.keys = new String[this.items.size()];
+        for (int i = 0; i < keys.length; i++) {
+            T item = this.items.get(i);
+            keys[i] = item != null ? SearchIndexUtil.normalize(keyOf.apply(item)) : "";
+        }
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public List<T> getItems() {
+        return Collections.unmodifiableList(items);
+    }
+
+    /**
+     * Returns the items matching {@code query} in list order, or {@code null} if {@code cancelled}
+     * reported true before the scan finished. A blank query matches everything.
+     */
+    public List<T> filter(String query, BooleanSupplier cancelled) {
+        String normalized = SearchIndexUtil.normalize(query);
+        if (normalized.isEmpty()) {
+            return new ArrayList<>(items);
+        }
+
+        int[] candidates = null;
+        for (int i = historyQueries.size() - 1; i >= 0; i--) {
+            String previous = historyQueries.get(i);
+            if (normalized.startsWith(previous)) {
+                candidates = historyMatches.get(i);
+                if (previous.equals(normalized)) {
+                    return collect(candidates, candidates.length);
+                }
+                break;
+            }
+        }
+
+        String[] tokens = normalized.split(" ");
+        int total = candidates != null ? candidates.length : keys.length;
+        int[] matches = new int[total];
+        int count = 0;
+        for (int i = 0; i < total; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && cancelled != null && cancelled.getAsBoolean()) {
+                return null;
+            }
+            int position = candidates != null ? candidates[i] : i;
+            if (matchesAll(keys[position], tokens)) {
+                matches[count++] = position;
+            }
+        }
+
+        remember(normalized, trim(matches, count));
+        return collect(matches, count);
+    }
+
+    /**
+     * Mirrors an in-place swap of two items in the source list.
+     */
+    public void swap(int first, int second) {
+        if (first < 0 || second < 0 || first >= keys.length || second >= keys.length) return;
+        Collections.swap(items, first, second);
+        String key = keys[first];
+        keys[first] = keys[second];
+        keys[second] = key;
+        historyQueries.clear();
+        historyMatches.clear();
+    }
+
+    private void remember(String query, int[] matches) {
+        // Keep only the queries the new one extends, so the history stays a chain of prefixes.
+        for (int i = historyQueries.size() - 1; i >= 0; i--) {
+            if (!query.startsWith(historyQueries.get(i))) {
+                historyQueries.remove(i);
+                historyMatches.remove(i);
+            }
+        }
+        historyQueries.add(query);
+        historyMatches.add(matches);
+    }
+
+    private List<T> collect(int[] positions, int count) {
+        List<T> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(items.get(positions[i]));
+        }
+        return result;
+    }
+
+    private static boolean matchesAll(String key, String[] tokens) {
+        for (String token : tokens) {
+            if (!key.contains(token)) return false;
+        }
+        return true;
+    }
+
+    private static int[] trim(int[] values, int count) {
+        if (values.length == count) return values;
+        int[] trimmed = new int[count];
+        System.arraycopy(values, 0, trimmed, 0, count);
+        return trimmed;
+    }
+}
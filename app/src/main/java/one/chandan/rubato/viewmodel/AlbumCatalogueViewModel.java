@@ -6,37 +6,84 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
 
+import one.chandan.rubato.model.CatalogAlbum;
+import one.chandan.rubato.repository.CatalogRepository;
 import one.chandan.rubato.repository.LibraryRepository;
 import one.chandan.rubato.subsonic.models.AlbumID3;
-import one.chandan.rubato.util.CollectionUtil;
+import one.chandan.rubato.util.AppExecutors;
+import one.chandan.rubato.util.Constants;
+import one.chandan.rubato.util.IndexUtil;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
 
 public class AlbumCatalogueViewModel extends AndroidViewModel {
-    private final MutableLiveData<List<AlbumID3>> albumList = new MutableLiveData<>(new ArrayList<>());
     private final MutableLiveData<Boolean> loading = new MutableLiveData<>(true);
+    private final MutableLiveData<CatalogRepository.BrowseQuery> query = new MutableLiveData<>(new CatalogRepository.BrowseQuery(Constants.ALBUM_ORDER_BY_NAME, null, 0L));
+    private final CatalogRepository catalogRepository = new CatalogRepository();
     private final LibraryRepository libraryRepository = new LibraryRepository();
+    private final LiveData<PagingData<AlbumID3>> albumPages;
+    private final LiveData<IndexUtil.SectionIndex> sectionIndex;
 
     public AlbumCatalogueViewModel(@NonNull Application application) {
         super(application);
+
+        albumPages = Transformations.switchMap(query, browseQuery -> {
+            Pager<Integer, CatalogAlbum> pager = new Pager<>(CatalogRepository.browsePagingConfig(), () -> catalogRepository.pageAlbums(browseQuery));
+            LiveData<PagingData<AlbumID3>> albums = Transformations.map(PagingLiveData.getLiveData(pager),
+                    data -> PagingDataTransforms.map(data, AppExecutors.io(), catalogRepository::toBrowseAlbum));
+            return PagingLiveData.cachedIn(albums, ViewModelKt.getViewModelScope(this));
+        });
+        sectionIndex = Transformations.switchMap(query, browseQuery -> {
+            if (!Constants.ALBUM_ORDER_BY_NAME.equals(browseQuery.order)) {
+                return new MutableLiveData<>(IndexUtil.SectionIndex.EMPTY);
+            }
+            return Transformations.map(catalogRepository.observeAlbumSections(browseQuery), IndexUtil::buildSectionIndex);
+        });
+    }
+
+    public LiveData<PagingData<AlbumID3>> getAlbumPages() {
+        return albumPages;
     }
 
-    public LiveData<List<AlbumID3>> getAlbumList() {
-        return albumList;
+    public LiveData<IndexUtil.SectionIndex> getSectionIndex() {
+        return sectionIndex;
     }
 
     public LiveData<Boolean> getLoadingStatus() {
         return loading;
     }
 
+    public void setOrder(String order) {
+        CatalogRepository.BrowseQuery current = Objects.requireNonNull(query.getValue());
+        query.setValue(current.withOrder(order, System.nanoTime()));
+    }
+
+    public void setFilter(String filter) {
+        CatalogRepository.BrowseQuery current = Objects.requireNonNull(query.getValue());
+        CatalogRepository.BrowseQuery next = current.withFilter(filter);
+        if (!Objects.equals(current.filter, next.filter)) query.setValue(next);
+    }
+
+    /**
+     * Pages come straight from the catalog; this only backfills browse keys and, on a first run
+     * with an empty catalog, lets the library loaders fetch and store the albums.
+     */
     public void loadAlbums() {
-        albumList.setValue(new ArrayList<>());
-        loading.postValue(true);
-        libraryRepository.loadAlbumsLegacy(items -> {
-            albumList.postValue(CollectionUtil.arrayListOrEmpty(items));
-            loading.postValue(false);
+        loading.setValue(true);
+        AppExecutors.io().execute(() -> {
+            catalogRepository.ensureBrowseIndex();
+            if (catalogRepository.hasBrowseAlbums()) {
+                loading.postValue(false);
+                return;
+            }
+            libraryRepository.loadAlbumsLegacy(items -> loading.postValue(false));
         });
     }
 
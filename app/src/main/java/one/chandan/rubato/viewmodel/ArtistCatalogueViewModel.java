@@ -6,40 +6,75 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
 
-import one.chandan.rubato.model.ArtistPlayStat;
-import one.chandan.rubato.repository.ChronologyRepository;
+import one.chandan.rubato.model.CatalogArtist;
+import one.chandan.rubato.repository.CatalogRepository;
 import one.chandan.rubato.repository.LibraryRepository;
 import one.chandan.rubato.subsonic.models.ArtistID3;
 import one.chandan.rubato.util.AppExecutors;
+import one.chandan.rubato.util.Constants;
+import one.chandan.rubato.util.IndexUtil;
 import one.chandan.rubato.util.Preferences;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Objects;
 
 public class ArtistCatalogueViewModel extends AndroidViewModel {
-    private final MutableLiveData<List<ArtistID3>> artistList = new MutableLiveData<>(new ArrayList<>());
-    private final MutableLiveData<List<ArtistPlayStat>> artistStats = new MutableLiveData<>(new ArrayList<>());
+    private final MutableLiveData<CatalogRepository.BrowseQuery> query = new MutableLiveData<>(new CatalogRepository.BrowseQuery(Constants.ARTIST_ORDER_BY_NAME, null, 0L));
+    private final CatalogRepository catalogRepository = new CatalogRepository();
     private final LibraryRepository libraryRepository = new LibraryRepository();
-    private final ChronologyRepository chronologyRepository = new ChronologyRepository();
+    private final LiveData<PagingData<ArtistID3>> artistPages;
+    private final LiveData<IndexUtil.SectionIndex> sectionIndex;
 
     public ArtistCatalogueViewModel(@NonNull Application application) {
         super(application);
+
+        artistPages = Transformations.switchMap(query, browseQuery -> {
+            String serverId = Preferences.getServerId();
+            Pager<Integer, CatalogArtist> pager = new Pager<>(CatalogRepository.browsePagingConfig(), () -> catalogRepository.pageArtists(browseQuery, serverId));
+            LiveData<PagingData<ArtistID3>> artists = Transformations.map(PagingLiveData.getLiveData(pager),
+                    data -> PagingDataTransforms.map(data, AppExecutors.io(), catalogRepository::toBrowseArtist));
+            return PagingLiveData.cachedIn(artists, ViewModelKt.getViewModelScope(this));
+        });
+        sectionIndex = Transformations.switchMap(query, browseQuery -> {
+            if (!Constants.ARTIST_ORDER_BY_NAME.equals(browseQuery.order)) {
+                return new MutableLiveData<>(IndexUtil.SectionIndex.EMPTY);
+            }
+            return Transformations.map(catalogRepository.observeArtistSections(browseQuery), IndexUtil::buildSectionIndex);
+        });
+    }
+
+    public LiveData<PagingData<ArtistID3>> getArtistPages() {
+        return artistPages;
+    }
+
+    public LiveData<IndexUtil.SectionIndex> getSectionIndex() {
+        return sectionIndex;
     }
 
-    public LiveData<List<ArtistID3>> getArtistList() {
-        return artistList;
+    public void setOrder(String order) {
+        CatalogRepository.BrowseQuery current = Objects.requireNonNull(query.getValue());
+        query.setValue(current.withOrder(order, System.nanoTime()));
     }
 
-    public LiveData<List<ArtistPlayStat>> getArtistStats() {
-        return artistStats;
+    public void setFilter(String filter) {
+        CatalogRepository.BrowseQuery current = Objects.requireNonNull(query.getValue());
+        CatalogRepository.BrowseQuery next = current.withFilter(filter);
+        if (!Objects.equals(current.filter, next.filter)) query.setValue(next);
     }
 
     public void loadArtists() {
-        libraryRepository.loadArtistsLegacy(items -> artistList.postValue(items != null ? new ArrayList<>(items) : new ArrayList<>()));
         AppExecutors.io().execute(() -> {
-            List<ArtistPlayStat> stats = chronologyRepository.getArtistStats(Preferences.getServerId());
-            artistStats.postValue(stats != null ? stats : new ArrayList<>());
+            catalogRepository.ensureBrowseIndex();
+            if (!catalogRepository.hasBrowseArtists()) {
+                libraryRepository.loadArtistsLegacy(items -> {
+                });
+            }
         });
     }
 }
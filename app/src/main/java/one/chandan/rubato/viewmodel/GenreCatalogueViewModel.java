@@ -6,32 +6,61 @@ import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.lifecycle.ViewModelKt;
+import androidx.paging.Pager;
+import androidx.paging.PagingData;
+import androidx.paging.PagingDataTransforms;
+import androidx.paging.PagingLiveData;
 
+import one.chandan.rubato.model.CatalogGenre;
+import one.chandan.rubato.repository.CatalogRepository;
 import one.chandan.rubato.repository.LibraryRepository;
 import one.chandan.rubato.subsonic.models.Genre;
+import one.chandan.rubato.util.AppExecutors;
+import one.chandan.rubato.util.Constants;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Objects;
 
 public class GenreCatalogueViewModel extends AndroidViewModel {
     private final LibraryRepository libraryRepository;
-    private final MutableLiveData<List<Genre>> genres = new MutableLiveData<>(Collections.emptyList());
+    private final CatalogRepository catalogRepository = new CatalogRepository();
+    private final MutableLiveData<CatalogRepository.BrowseQuery> query = new MutableLiveData<>(new CatalogRepository.BrowseQuery(Constants.GENRE_ORDER_BY_NAME, null, 0L));
+    private final LiveData<PagingData<Genre>> genrePages;
 
     public GenreCatalogueViewModel(@NonNull Application application) {
         super(application);
 
         libraryRepository = new LibraryRepository();
+        genrePages = Transformations.switchMap(query, browseQuery -> {
+            Pager<Integer, CatalogGenre> pager = new Pager<>(CatalogRepository.browsePagingConfig(), () -> catalogRepository.pageGenres(browseQuery));
+            LiveData<PagingData<Genre>> genres = Transformations.map(PagingLiveData.getLiveData(pager),
+                    data -> PagingDataTransforms.map(data, AppExecutors.io(), catalogRepository::toBrowseGenre));
+            return PagingLiveData.cachedIn(genres, ViewModelKt.getViewModelScope(this));
+        });
     }
 
-    public LiveData<List<Genre>> getGenreList() {
-        if (genres.getValue() == null || genres.getValue().isEmpty()) {
-            libraryRepository.loadGenresLegacy(items -> genres.postValue(items != null ? new ArrayList<>(items) : new ArrayList<>()));
-        }
-        return genres;
+    public LiveData<PagingData<Genre>> getGenrePages() {
+        return genrePages;
     }
 
-    public void refreshGenreList() {
-        libraryRepository.loadGenresLegacy(items -> genres.postValue(items != null ? new ArrayList<>(items) : new ArrayList<>()));
+    public void loadGenres() {
+        AppExecutors.io().execute(() -> {
+            if (!catalogRepository.hasBrowseGenres()) {
+                libraryRepository.loadGenresLegacy(items -> {
+                });
+            }
+        });
+    }
+
+    public void setOrder(String order) {
+        CatalogRepository.BrowseQuery current = Objects.requireNonNull(query.getValue());
+        query.setValue(current.withOrder(order, System.nanoTime()));
+    }
+
+    public void setFilter(String filter) {
+        CatalogRepository.BrowseQuery current = Objects.requireNonNull(query.getValue());
+        CatalogRepository.BrowseQuery next = current.withFilter(filter);
+        if (!Objects.equals(current.filter, next.filter)) query.setValue(next);
     }
 }
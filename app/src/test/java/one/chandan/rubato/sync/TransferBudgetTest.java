@@ -0,0 +1,41 @@
+package one.chandan.rubato.sync;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TransferBudgetTest {
+    private long now = 1_000L;
+
+    @Test
+    public void unlimited_neverDelays() {
+        TransferBudget budget = new TransferBudget(2, () -> now);
+        budget.consume(50_000_000L);
+        assertEquals(0L, budget.delayMs());
+    }
+
+    @Test
+    public void debt_isPaidOffAtRate() {
+        TransferBudget budget = new TransferBudget(2, () -> now);
+        budget.setRate(1_000L);
+        budget.consume(3_000L);
+        assertEquals(3_000L, budget.delayMs());
+
+        now += 1_000L;
+        assertEquals(2_000L, budget.delayMs());
+
+        now += 2_000L;
+        assertEquals(0L, budget.delayMs());
+    }
+
+    @Test
+    public void idleTime_accruesUpToBurst() {
+        TransferBudget budget = new TransferBudget(2, () -> now);
+        budget.setRate(1_000L);
+        now += 60_000L;
+        budget.consume(2_000L);
+        assertEquals(0L, budget.delayMs());
+        budget.consume(1_000L);
+        assertEquals(1_000L, budget.delayMs());
+    }
+}
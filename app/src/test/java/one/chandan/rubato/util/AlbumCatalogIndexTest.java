@@ -0,0 +1,102 @@
+package one.chandan.rubato.util;
+
+import one.chandan.rubato.subsonic.models.AlbumID3;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AlbumCatalogIndexTest {
+
+    @Test
+    public void slice_matchesStableSortOfSource() {
+        List<AlbumID3> albums = randomAlbums(200, new Random(7));
+        AlbumCatalogIndex index = new AlbumCatalogIndex(albums);
+
+        for (String type : new String[]{"alphabeticalByName", "alphabeticalByArtist", "byYear", "newest", "recent", "frequent"}) {
+            List<AlbumID3> expected = new ArrayList<>(albums);
+            expected.sort(AlbumCatalogIndex.comparator(type));
+            assertEquals(type, expected.subList(0, 25), index.slice(type, 25, null, null, new Random()));
+            assertEquals(type, expected, index.slice(type, 0, null, null, new Random()));
+        }
+    }
+
+    @Test
+    public void slice_yearRangeKeepsTypeOrder() {
+        List<AlbumID3> albums = randomAlbums(300, new Random(11));
+        AlbumCatalogIndex index = new AlbumCatalogIndex(albums);
+
+        List<AlbumID3> expected = new ArrayList<>(albums);
+        expected.removeIf(album -> album.getYear() < 1990 || album.getYear() > 1999);
+        expected.sort(AlbumCatalogIndex.comparator("newest"));
+
+        assertEquals(expected, index.slice("newest", 0, 1990, 1999, new Random()));
+        assertEquals(expected.subList(0, 5), index.slice("newest", 5, 1990, 1999, new Random()));
+        assertTrue(index.slice("newest", 10, 2100, 2200, new Random()).isEmpty());
+    }
+
+    @Test
+    public void slice_unknownTypeKeepsSourceOrder() {
+        List<AlbumID3> albums = randomAlbums(50, new Random(3));
+        AlbumCatalogIndex index = new AlbumCatalogIndex(albums);
+
+        assertEquals(albums.subList(0, 10), index.slice("highest", 10, null, null, new Random()));
+    }
+
+    @Test
+    public void slice_randomDrawsDistinctAlbumsFromRange() {
+        List<AlbumID3> albums = randomAlbums(100, new Random(5));
+        AlbumCatalogIndex index = new AlbumCatalogIndex(albums);
+
+        List<AlbumID3> sample = index.slice("random", 20, 1980, 2000, new Random(1));
+        Set<AlbumID3> distinct = new HashSet<>(sample);
+        assertEquals(sample.size(), distinct.size());
+        for (AlbumID3 album : sample) {
+            assertTrue(album.getYear() >= 1980 && album.getYear() <= 2000);
+        }
+    }
+
+    @Test
+    public void sliceByGenre_isCaseInsensitive() {
+        AlbumID3 rock = album("a1", "Rock Album", "Artist", 2001);
+        rock.setGenre("Rock");
+        AlbumID3 jazz = album("a2", "Jazz Album", "Artist", 1999);
+        jazz.setGenre("Jazz");
+        AlbumID3 alsoRock = album("a3", "Another", "Artist", 2010);
+        alsoRock.setGenre("rock ");
+        AlbumCatalogIndex index = new AlbumCatalogIndex(Arrays.asList(rock, jazz, alsoRock));
+
+        assertEquals(Arrays.asList(alsoRock, rock), index.sliceByGenre("ROCK", "alphabeticalByName", 0, new Random()));
+        assertTrue(index.sliceByGenre("Pop", "alphabeticalByName", 0, new Random()).isEmpty());
+    }
+
+    private static List<AlbumID3> randomAlbums(int count, Random random) {
+        List<AlbumID3> albums = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AlbumID3 album = album("id" + i, "Album " + random.nextInt(40), "Artist " + random.nextInt(10), 1970 + random.nextInt(50));
+            if (random.nextBoolean()) album.setCreated(new Date(random.nextInt(1000) * 1000L));
+            album.setPlayed(random.nextInt(3) == 0 ? null : new Date(random.nextInt(1000) * 1000L));
+            album.setPlayCount((long) random.nextInt(5));
+            albums.add(album);
+        }
+        return albums;
+    }
+
+    private static AlbumID3 album(String id, String name, String artist, int year) {
+        AlbumID3 album = new AlbumID3();
+        album.setId(id);
+        album.setName(name);
+        album.setArtist(artist);
+        album.setYear(year);
+        return album;
+    }
+}
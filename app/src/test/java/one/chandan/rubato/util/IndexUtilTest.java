@@ -0,0 +1,54 @@
+package one.chandan.rubato.util;
+
+import one.chandan.rubato.model.CatalogSection;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class IndexUtilTest {
+
+    @Test
+    public void buildSectionIndex_mapsPositionsToSections() {
+        IndexUtil.SectionIndex index = IndexUtil.buildSectionIndex(Arrays.asList(
+                new CatalogSection("a", 3),
+                new CatalogSection("b", 1),
+                new CatalogSection("d", 2)));
+
+        assertEquals(6, index.size());
+        assertEquals("A", index.getSection(0));
+        assertEquals("A", index.getSection(2));
+        assertEquals("B", index.getSection(3));
+        assertEquals("D", index.getSection(4));
+        assertEquals("D", index.getSection(5));
+        assertNull(index.getSection(6));
+        assertNull(index.getSection(-1));
+    }
+
+    @Test
+    public void buildSectionIndex_mergesNonLetterSections() {
+        IndexUtil.SectionIndex index = IndexUtil.buildSectionIndex(Arrays.asList(
+                new CatalogSection("1", 2),
+                new CatalogSection("(", 1),
+                new CatalogSection(null, 1),
+                new CatalogSection("z", 0),
+                new CatalogSection("m", 1)));
+
+        assertEquals(5, index.size());
+        assertEquals("#", index.getSection(0));
+        assertEquals("#", index.getSection(3));
+        assertEquals("M", index.getSection(4));
+    }
+
+    @Test
+    public void buildSectionIndex_emptyInput() {
+        assertSame(IndexUtil.SectionIndex.EMPTY, IndexUtil.buildSectionIndex(null));
+        assertSame(IndexUtil.SectionIndex.EMPTY, IndexUtil.buildSectionIndex(Collections.emptyList()));
+        assertNull(IndexUtil.SectionIndex.EMPTY.getSection(0));
+    }
+}
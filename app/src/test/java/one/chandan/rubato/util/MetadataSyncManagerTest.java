@@ -11,6 +11,8 @@ public class MetadataSyncManagerTest {
     public void shouldRunNow_forceOverridesAll() {
         boolean result = MetadataSyncManager.shouldRunNow(
                 true,
+                false,
+                false,
                 true,
                 true,
                 true,
@@ -23,6 +25,8 @@ public class MetadataSyncManagerTest {
     @Test
     public void shouldRunNow_blocksInstrumentation() {
         boolean result = MetadataSyncManager.shouldRunNow(
+                false,
+                false,
                 false,
                 true,
                 false,
@@ -36,14 +40,14 @@ public class MetadataSyncManagerTest {
     @Test
     public void shouldRunNow_blocksOfflineAndDataSaving() {
         long now = System.currentTimeMillis();
-        assertFalse(MetadataSyncManager.shouldRunNow(false, false, true, false, 0L, now));
-        assertFalse(MetadataSyncManager.shouldRunNow(false, false, false, true, 0L, now));
+        assertFalse(MetadataSyncManager.shouldRunNow(false, false, false, false, true, false, 0L, now));
+        assertFalse(MetadataSyncManager.shouldRunNow(false, false, false, false, false, true, 0L, now));
     }
 
     @Test
     public void shouldRunNow_allowsFirstSync() {
         long now = System.currentTimeMillis();
-        assertTrue(MetadataSyncManager.shouldRunNow(false, false, false, false, 0L, now));
+        assertTrue(MetadataSyncManager.shouldRunNow(false, false, false, false, false, false, 0L, now));
     }
 
     @Test
@@ -52,7 +56,18 @@ public class MetadataSyncManagerTest {
         long lastSyncTooRecent = now - MetadataSyncManager.MIN_SYNC_INTERVAL_MS + 1;
         long lastSyncOldEnough = now - MetadataSyncManager.MIN_SYNC_INTERVAL_MS - 1;
 
-        assertFalse(MetadataSyncManager.shouldRunNow(false, false, false, false, lastSyncTooRecent, now));
-        assertTrue(MetadataSyncManager.shouldRunNow(false, false, false, false, lastSyncOldEnough, now));
+        assertFalse(MetadataSyncManager.shouldRunNow(false, false, false, false, false, false, lastSyncTooRecent, now));
+        assertTrue(MetadataSyncManager.shouldRunNow(false, false, false, false, false, false, lastSyncOldEnough, now));
+    }
+
+    @Test
+    public void shouldRunNow_pendingCheckpointSkipsOnlyInterval() {
+        long now = System.currentTimeMillis();
+        long lastSyncTooRecent = now - MetadataSyncManager.MIN_SYNC_INTERVAL_MS + 1;
+
+        assertTrue(MetadataSyncManager.shouldRunNow(false, false, true, false, false, false, lastSyncTooRecent, now));
+        assertFalse(MetadataSyncManager.shouldRunNow(false, false, true, true, false, false, lastSyncTooRecent, now));
+        assertFalse(MetadataSyncManager.shouldRunNow(false, false, true, false, true, false, lastSyncTooRecent, now));
+        assertFalse(MetadataSyncManager.shouldRunNow(false, false, true, false, false, true, lastSyncTooRecent, now));
     }
 }
@@ -0,0 +1,48 @@
+package one.chandan.rubato.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class QueueRankUtilTest {
+
+    @Test
+    public void spread_emptyQueue_startsAtZero() {
+        int[] ranks = QueueRankUtil.spread(null, null, 3, 1);
+        assertArrayEquals(new int[]{0, QueueRankUtil.GAP, 2 * QueueRankUtil.GAP}, ranks);
+    }
+
+    @Test
+    public void spread_append_continuesAfterLast() {
+        int[] ranks = QueueRankUtil.spread(5000, null, 2, 1);
+        assertArrayEquals(new int[]{5000 + QueueRankUtil.GAP, 5000 + 2 * QueueRankUtil.GAP}, ranks);
+    }
+
+    @Test
+    public void spread_prepend_endsBeforeFirst() {
+        int[] ranks = QueueRankUtil.spread(null, 0, 2, 1);
+        assertArrayEquals(new int[]{-2 * QueueRankUtil.GAP, -QueueRankUtil.GAP}, ranks);
+    }
+
+    @Test
+    public void spread_between_staysInsideBounds() {
+        int[] ranks = QueueRankUtil.spread(0, 1024, 3, 1);
+        assertArrayEquals(new int[]{256, 512, 768}, ranks);
+    }
+
+    @Test
+    public void spread_tooTight_returnsNull() {
+        assertNull(QueueRankUtil.spread(0, 2, 2, 1));
+        assertNull(QueueRankUtil.spread(0, 64, 4, QueueRankUtil.MIN_RESPREAD_STEP));
+    }
+
+    @Test
+    public void spread_nearMax_fallsBackToEvenSpacing() {
+        int[] ranks = QueueRankUtil.spread(QueueRankUtil.MAX_RANK - 10, null, 2, 1);
+        assertTrue(ranks[0] > QueueRankUtil.MAX_RANK - 10);
+        assertTrue(ranks[1] > ranks[0]);
+        assertTrue(ranks[1] <= QueueRankUtil.MAX_RANK);
+    }
+}
@@ -0,0 +1,54 @@
+package one.chandan.rubato.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SearchRankUtilTest {
+
+    @Test
+    public void buildMatchQuery_prefixesEveryToken() {
+        assertEquals("pink* floyd*", SearchRankUtil.buildMatchQuery("pink floyd"));
+        assertEquals("ac* dc*", SearchRankUtil.buildMatchQuery("ac/dc"));
+        assertEquals("", SearchRankUtil.buildMatchQuery("\"*"));
+    }
+
+    @Test
+    public void bm25_prefersShorterRowWithSameHits() {
+        // One phrase, one column, 100 rows, avg length 4, 10 rows contain the phrase.
+        byte[] shortRow = matchInfo(1, 1, 100, 4, 2, 1, 12, 10);
+        byte[] longRow = matchInfo(1, 1, 100, 4, 12, 1, 12, 10);
+
+        double shortScore = SearchRankUtil.bm25(shortRow, null);
+        double longScore = SearchRankUtil.bm25(longRow, null);
+
+        assertTrue(shortScore > 0);
+        assertTrue(shortScore > longScore);
+    }
+
+    @Test
+    public void bm25_appliesColumnWeights() {
+        byte[] row = matchInfo(1, 1, 100, 4, 4, 1, 12, 10);
+        double base = SearchRankUtil.bm25(row, new double[]{1.0});
+        double weighted = SearchRankUtil.bm25(row, new double[]{2.0});
+        assertEquals(base * 2, weighted, 1e-9);
+    }
+
+    @Test
+    public void bm25_handlesMalformedBlobs() {
+        assertEquals(0, SearchRankUtil.bm25(null, null), 0);
+        assertEquals(0, SearchRankUtil.bm25(new byte[4], null), 0);
+    }
+
+    private static byte[] matchInfo(int... values) {
+        ByteBuffer buffer = ByteBuffer.allocate(values.length * 4).order(ByteOrder.nativeOrder());
+        for (int value : values) {
+            buffer.putInt(value);
+        }
+        return buffer.array();
+    }
+}
@@ -0,0 +1,65 @@
+package one.chandan.rubato.util;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TokenFilterIndexTest {
+    private static final List<String> TITLES = Arrays.asList(
+            "Clair de Lune",
+            "Café del Mar",
+            "Blue Monday",
+            "Lune Rouge",
+            null
+    );
+
+    private static TokenFilterIndex<String> index() {
+        return new TokenFilterIndex<>(TITLES, Function.identity());
+    }
+
+    @Test
+    public void filter_blankQuery_returnsEverything() {
+        assertEquals(TITLES, index().filter("  ", null));
+    }
+
+    @Test
+    public void filter_ignoresCaseAndDiacritics() {
+        assertEquals(Collections.singletonList("Café del Mar"), index().filter("CAFE", null));
+    }
+
+    @Test
+    public void filter_requiresEveryToken() {
+        assertEquals(Collections.singletonList("Clair de Lune"), index().filter("lune clair", null));
+    }
+
+    @Test
+    public void filter_refiningAndBackspacing_matchesFreshScan() {
+        TokenFilterIndex<String> index = index();
+        index.filter("l", null);
+        index.filter("lu", null);
+        assertEquals(Arrays.asList("Clair de Lune", "Lune Rouge"), index.filter("lun", null));
+        assertEquals(Collections.singletonList("Lune Rouge"), index.filter("lune ro", null));
+        assertEquals(index().filter("lu", null), index.filter("lu", null));
+        assertEquals(index().filter("bl", null), index.filter("bl", null));
+    }
+
+    @Test
+    public void filter_cancelled_returnsNull() {
+        assertNull(index().filter("lune", () -> true));
+    }
+
+    @Test
+    public void swap_keepsKeysWithTheirItems() {
+        TokenFilterIndex<String> index = index();
+        index.filter("blue", null);
+        index.swap(0, 2);
+        assertEquals(Collections.singletonList("Blue Monday"), index.filter("blue", null));
+        assertEquals("Blue Monday", index.getItems().get(0));
+    }
+}